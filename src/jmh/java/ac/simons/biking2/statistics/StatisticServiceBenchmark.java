@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.db.Tables.ASSORTED_TRIPS;
+import static ac.simons.biking2.db.Tables.BIKES;
+import static ac.simons.biking2.db.Tables.LENT_MILAGES;
+import static ac.simons.biking2.db.Tables.MILAGES;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks the queries of the {@link StatisticService} without any caching against an in-memory H2 database seeded
+ * with synthetic data, once through the database and once through the in-memory engine. Run it through the
+ * {@code benchmarks} profile, the allocation rate is reported by the gc profiler which is enabled by default.
+ * Independent queries run concurrently on a pool of {@code queryPoolSize} threads, {@literal 0} runs them one after
+ * another.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticServiceBenchmark {
+
+    @Param("10")
+    private int numberOfBikes;
+
+    @Param("30")
+    private int numberOfYears;
+
+    @Param("5000")
+    private int numberOfTrips;
+
+    @Param("5")
+    private int numberOfLentMilagesPerBike;
+
+    @Param({"database", "in-memory"})
+    private String engine;
+
+    @Param({"0", "4"})
+    private int queryPoolSize;
+
+    private ParallelQueries queries;
+
+    private StatisticService statisticService;
+
+    @Setup
+    public void setup() {
+
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:statistics-benchmark;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        // Default callbacks would add the test data
+        Flyway.configure().dataSource(dataSource).skipDefaultCallbacks(true).load().migrate();
+
+        var database = DSL.using(dataSource, SQLDialect.H2);
+        seed(database, new Random(4711));
+        new MilageRollupService(database).rebuild();
+
+        var store = "in-memory".equals(engine) ? Optional.of(new ColumnarMilageStore(database)) : Optional.<ColumnarMilageStore>empty();
+        this.queries = queryPoolSize == 0 ? ParallelQueries.sequential() : new ParallelQueries(queryPoolSize, new SimpleMeterRegistry());
+        this.statisticService = new StatisticService(database, store, queries);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.queries.destroy();
+    }
+
+    private void seed(final DSLContext database, final Random random) {
+
+        var now = LocalDateTime.now();
+        var firstMonth = LocalDate.now().withDayOfMonth(1).minusYears(numberOfYears);
+        var numberOfMonths = numberOfYears * 12 + 1;
+
+        var queries = new ArrayList<Query>();
+        for (int i = 0; i < numberOfBikes; ++i) {
+            var bikeId = database
+                    .insertInto(BIKES, BIKES.NAME, BIKES.BOUGHT_ON, BIKES.COLOR, BIKES.CREATED_AT)
+                    .values("bike" + i, firstMonth, String.format("%06X", random.nextInt(0xFFFFFF)), now)
+                    .returningResult(BIKES.ID)
+                    .fetchOne(BIKES.ID);
+
+            var amount = BigDecimal.ZERO;
+            for (int month = 0; month < numberOfMonths; ++month) {
+                amount = amount.add(BigDecimal.valueOf(random.nextInt(50_000), 2));
+                queries.add(database
+                        .insertInto(MILAGES, MILAGES.BIKE_ID, MILAGES.RECORDED_ON, MILAGES.AMOUNT, MILAGES.CREATED_AT)
+                        .values(bikeId, firstMonth.plusMonths(month), amount, now));
+            }
+            database.update(BIKES).set(BIKES.LAST_MILAGE, amount).where(BIKES.ID.eq(bikeId)).execute();
+
+            for (int j = 0; j < numberOfLentMilagesPerBike; ++j) {
+                var lentOn = firstMonth.plusDays(random.nextInt(numberOfYears * 365));
+                queries.add(database
+                        .insertInto(LENT_MILAGES, LENT_MILAGES.BIKE_ID, LENT_MILAGES.LENT_ON, LENT_MILAGES.RETURNED_ON, LENT_MILAGES.AMOUNT, LENT_MILAGES.CREATED_AT)
+                        .values(bikeId, lentOn, lentOn.plusDays(random.nextInt(14)), BigDecimal.valueOf(random.nextInt(20_000), 2), now)
+                        .onDuplicateKeyIgnore());
+            }
+        }
+
+        for (int i = 0; i < numberOfTrips; ++i) {
+            queries.add(database
+                    .insertInto(ASSORTED_TRIPS, ASSORTED_TRIPS.COVERED_ON, ASSORTED_TRIPS.DISTANCE)
+                    .values(firstMonth.plusDays(random.nextInt(numberOfYears * 365)), BigDecimal.valueOf(random.nextInt(10_000), 2)));
+        }
+
+        database.batch(queries).execute();
+    }
+
+    @Benchmark
+    public Map<Integer, MonthlyAverage> computeMonthlyAverage() {
+        return statisticService.computeMonthlyAverage();
+    }
+
+    @Benchmark
+    public Map<Integer, HistoricYear> computeHistory() {
+        return statisticService.computeHistory(Optional.empty(), Optional.empty());
+    }
+
+    @Benchmark
+    public CurrentYear computeCurrentYear() {
+        return statisticService.computeCurrentYear();
+    }
+
+    @Benchmark
+    public Summary computeSummary() {
+        return statisticService.computeSummary();
+    }
+
+    @Benchmark
+    public Dashboard computeDashboard() {
+        return statisticService.computeDashboard(Optional.empty(), Optional.empty());
+    }
+}
@@ -19,11 +19,14 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 
@@ -37,15 +40,18 @@ class BikeService {
 
     private final BikeRepository bikeRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Transactional
-    @CacheEvict(value = "statistics", allEntries = true)
     public BikeEntity createBike(final BikeCmd newBike) {
 
         final BikeEntity bike = new BikeEntity(newBike.name(), newBike.boughtOnAsLocalDate());
         bike.setColor(newBike.color());
-        bike.addMilage(newBike.boughtOnAsLocalDate().withDayOfMonth(1), 0);
+        final MilageEntity initialMilage = bike.addMilage(newBike.boughtOnAsLocalDate().withDayOfMonth(1), 0);
 
-        return this.bikeRepository.save(bike);
+        final BikeEntity rv = this.bikeRepository.save(bike);
+        this.eventPublisher.publishEvent(new MilageRecordedEvent(rv.getId(), initialMilage.getRecordedOn(), initialMilage.getAmount()));
+        return rv;
     }
 
     @Transactional(readOnly = true)
@@ -62,7 +68,6 @@ class BikeService {
     }
 
     @Transactional
-    @CacheEvict(value = "statistics", allEntries = true)
     public MilageEntity createMilage(final Integer id, final NewMilageCmd cmd) {
 
         final BikeEntity bike = bikeRepository.findById(id).orElseThrow(BikeNotFoundException::new);
@@ -73,13 +78,13 @@ class BikeService {
         } else {
             rv = bike.addMilage(cmd.recordedOn(), cmd.amount());
             this.bikeRepository.save(bike);
+            this.eventPublisher.publishEvent(new MilageRecordedEvent(bike.getId(), rv.getRecordedOn(), rv.getAmount()));
         }
 
         return rv;
     }
 
     @Transactional
-    @CacheEvict(value = "statistics", allEntries = true)
     public BikeEntity updateBike(final Integer id, final BikeCmd updatedBike) {
 
         final BikeEntity bike = bikeRepository.findById(id).orElseThrow(BikeNotFoundException::new);
@@ -90,6 +95,7 @@ class BikeService {
             bike.setColor(updatedBike.color());
             bike.decommission(updatedBike.decommissionedOnAsLocalDate());
             bike.setMiscellaneous(updatedBike.miscellaneous());
+            this.eventPublisher.publishEvent(new BikeUpdatedEvent(bike.getId(), bike.getColor(), bike.isMiscellaneous()));
         }
         return bike;
     }
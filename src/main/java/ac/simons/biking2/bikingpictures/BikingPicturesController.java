@@ -15,7 +15,7 @@
  */
 package ac.simons.biking2.bikingpictures;
 
-import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.config.Datastore;
 import ac.simons.biking2.support.FileBasedResource;
 import java.io.File;
 import java.io.IOException;
@@ -41,7 +41,7 @@ import org.springframework.web.server.ResponseStatusException;
 class BikingPicturesController {
 
     private final BikingPictureRepository bikingPictureRepository;
-    private final File datastoreBaseDirectory;
+    private final Datastore datastore;
 
     @GetMapping("/api/bikingPictures")
     @ResponseBody
@@ -59,7 +59,9 @@ class BikingPicturesController {
         final BikingPictureEntity bikingPicture = this.bikingPictureRepository
                 .findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        final FileBasedResource resource = new FileBasedResource(new File(datastoreBaseDirectory, String.format("%s/%d.jpg", DatastoreConfig.BIKING_PICTURES_DIRECTORY, bikingPicture.getExternalId())), String.format("%s.jpg", id), 365);
+        final File imageFile = this.datastore.findFile(Datastore.Area.BIKING_PICTURES, String.format("%d.jpg", bikingPicture.getExternalId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        final FileBasedResource resource = new FileBasedResource(imageFile, String.format("%s.jpg", id), 365);
         resource.send(request, response);
     }
 }
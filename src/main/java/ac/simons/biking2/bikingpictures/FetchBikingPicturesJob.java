@@ -15,15 +15,13 @@
  */
 package ac.simons.biking2.bikingpictures;
 
-import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
 import ac.simons.biking2.support.JAXBContextFactory;
 import ac.simons.biking2.bikingpictures.rss.RSS;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLConnection;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -50,19 +48,19 @@ class FetchBikingPicturesJob {
 
     private final DailyFratzeProvider dailyFratzeProvider;
     private final BikingPictureRepository bikingPictureRepository;
-    private final File bikingPicturesStorage;
+    private final Datastore datastore;
     private final JAXBContext rssContext;
 
     FetchBikingPicturesJob(
             final DailyFratzeProvider dailyFratzeProvider,
             final BikingPictureRepository bikingPictureRepository,
-            final File datastoreBaseDirectory
+            final Datastore datastore
     ) {
         this.dailyFratzeProvider = dailyFratzeProvider;
         this.bikingPictureRepository = bikingPictureRepository;
 
-        this.bikingPicturesStorage = new File(datastoreBaseDirectory, DatastoreConfig.BIKING_PICTURES_DIRECTORY);
-        if (!(this.bikingPicturesStorage.isDirectory() || this.bikingPicturesStorage.mkdirs())) {
+        this.datastore = datastore;
+        if (!this.datastore.createDirectories(Datastore.Area.BIKING_PICTURES)) {
             throw new BikingPicturesStorageException("Could not create bikingPicturesStorage!");
         }
 
@@ -116,7 +114,7 @@ class FetchBikingPicturesJob {
                     final URLConnection connection = this.dailyFratzeProvider.getImageConnection(incoming.getExternalId());
                     if (connection != null) {
                         try (InputStream inputStream = connection.getInputStream()) {
-                            Files.copy(inputStream, new File(bikingPicturesStorage, String.format("%d.jpg", incoming.getExternalId())).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                            AtomicFiles.write(this.datastore.getFile(Datastore.Area.BIKING_PICTURES, String.format("%d.jpg", incoming.getExternalId())), inputStream);
                             rv.add(this.bikingPictureRepository.save(incoming));
                         } catch (IOException ex) {
                             log.error("Could not download image data, skipping!", ex);
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.config;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Resolves the files of the datastore. Files are spread over {@value #SHARDS} subdirectories of each area, named after
+ * a hash of the part of the file name before the first dot, so that all files of a track end up in the same
+ * directory and no directory grows with the size of the archive: Track {@code 4711} is stored as
+ * {@code data/tracks/77/4711.gpx}.
+ * <p>
+ * Files stored in the area directory itself by earlier versions are still found and take precedence, until they have
+ * been moved by the {@link DatastoreMigration}. As such, files must be written to the file returned by
+ * {@link #getFile(Area, String)}, which is only a new, sharded file if there is no old one. Existing files should be
+ * read through {@link #findFile(Area, String)}, which doesn't miss files that are being moved.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public final class Datastore {
+
+    static final int SHARDS = 256;
+
+    /**
+     * The areas of the datastore.
+     */
+    public enum Area {
+
+        BIKING_PICTURES(DatastoreConfig.BIKING_PICTURES_DIRECTORY),
+        GALLERY_PICTURES(DatastoreConfig.GALLERY_PICTURES_DIRECTORY),
+        TRACKS(DatastoreConfig.TRACK_DIRECTORY);
+
+        private final String directory;
+
+        Area(final String directory) {
+            this.directory = directory;
+        }
+    }
+
+    private final File baseDirectory;
+
+    public Datastore(final File baseDirectory) {
+        this.baseDirectory = baseDirectory;
+    }
+
+    public File getBaseDirectory() {
+        return this.baseDirectory;
+    }
+
+    /**
+     * @param area The area
+     * @return The directory of the area, containing only the shards and files stored before there were shards
+     */
+    public File getDirectory(final Area area) {
+        return new File(this.baseDirectory, area.directory);
+    }
+
+    /**
+     * @param area The area
+     * @return The directory of the area followed by all of its shards
+     */
+    public List<File> getDirectories(final Area area) {
+        final File directory = getDirectory(area);
+        final List<File> rv = new ArrayList<>(SHARDS + 1);
+        rv.add(directory);
+        for (int i = 0; i < SHARDS; ++i) {
+            rv.add(new File(directory, String.format("%02x", i)));
+        }
+        return rv;
+    }
+
+    /**
+     * Creates the directory of the given area and all of its shards.
+     *
+     * @param area The area
+     * @return {@literal true} if all directories exist
+     */
+    public boolean createDirectories(final Area area) {
+        boolean rv = true;
+        for (var directory : getDirectories(area)) {
+            rv &= directory.isDirectory() || directory.mkdirs();
+        }
+        return rv;
+    }
+
+    /**
+     * Resolves a file for reading and writing.
+     *
+     * @param area The area of the file
+     * @param name The name of the file
+     * @return The file stored before there were shards if it exists, otherwise the sharded file
+     */
+    public File getFile(final Area area, final String name) {
+        final File unsharded = getUnshardedFile(area, name);
+        return unsharded.exists() ? unsharded : getShardedFile(area, name);
+    }
+
+    /**
+     * Resolves an existing file for reading. The {@link DatastoreMigration} may move a file stored before there were
+     * shards right after it has been resolved, so the lookup is retried once after a miss.
+     *
+     * @param area The area of the file
+     * @param name The name of the file
+     * @return The file or an empty optional if there is no such file
+     */
+    public Optional<File> findFile(final Area area, final String name) {
+        File rv = getFile(area, name);
+        if (!rv.isFile()) {
+            rv = getFile(area, name);
+        }
+        return rv.isFile() ? Optional.of(rv) : Optional.empty();
+    }
+
+    File getUnshardedFile(final Area area, final String name) {
+        return new File(getDirectory(area), name);
+    }
+
+    File getShardedFile(final Area area, final String name) {
+        return new File(getDirectory(area), shardOf(name) + File.separator + name);
+    }
+
+    static String shardOf(final String name) {
+        final int separator = name.indexOf('.');
+        final CRC32 crc = new CRC32();
+        crc.update((separator < 0 ? name : name.substring(0, separator)).getBytes(StandardCharsets.UTF_8));
+        return String.format("%02x", crc.getValue() % SHARDS);
+    }
+}
@@ -29,6 +29,8 @@ public class DatastoreConfig {
     public static final String BIKING_PICTURES_DIRECTORY = "data/bikingPictures";
     public static final String GALLERY_PICTURES_DIRECTORY = "data/galleryPictures";
     public static final String TRACK_DIRECTORY = "data/tracks";
+    public static final String TILE_CACHE_DIRECTORY = "cache/tiles";
+    public static final String THUMBNAIL_CACHE_DIRECTORY = "cache/thumbnails";
 
     /**
      * Configures a file based datastore for storing large objects (tracks and
@@ -44,9 +46,21 @@ public class DatastoreConfig {
             throw new DatastoreConfigException(String.format("Could not initialize '%s' as base directory for datastore!", rv.getAbsolutePath()));
         }
 
-        new File(rv, BIKING_PICTURES_DIRECTORY).mkdirs();
-        new File(rv, GALLERY_PICTURES_DIRECTORY).mkdirs();
-        new File(rv, TRACK_DIRECTORY).mkdirs();
+        final Datastore datastore = new Datastore(rv);
+        for (var area : Datastore.Area.values()) {
+            datastore.createDirectories(area);
+        }
+        new File(rv, TILE_CACHE_DIRECTORY).mkdirs();
+        new File(rv, THUMBNAIL_CACHE_DIRECTORY).mkdirs();
         return rv;
     }
+
+    /**
+     * @param datastoreBaseDirectory The base directory of the datastore
+     * @return Access to the sharded files of the datastore
+     */
+    @Bean
+    public Datastore datastore(final File datastoreBaseDirectory) {
+        return new Datastore(datastoreBaseDirectory);
+    }
 }
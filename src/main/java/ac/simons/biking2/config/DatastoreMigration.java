@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.config;
+
+import ac.simons.biking2.support.AtomicFiles;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Moves all files stored before there were shards into their shards. The migration starts when the application is
+ * ready and runs in the background: The areas are listed concurrently, the files of each area are moved in batches of
+ * {@value #BATCH_SIZE} files. Each file is renamed atomically, until then it is read from its old place.
+ * <p>
+ * Files that cannot be moved stay where they are and are tried again on the next start.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class DatastoreMigration {
+
+    static final int BATCH_SIZE = 500;
+
+    private final Datastore datastore;
+
+    private final Executor executor;
+
+    DatastoreMigration(final Datastore datastore, final Executor datastoreMigrationExecutor) {
+        this.datastore = datastore;
+        this.executor = datastoreMigrationExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        migrate();
+    }
+
+    /**
+     * Starts moving all files stored before there were shards.
+     *
+     * @return The number of files that have been moved, completes when all areas have been migrated
+     */
+    CompletableFuture<Integer> migrate() {
+        final List<CompletableFuture<Integer>> areas = new ArrayList<>();
+        for (var area : Datastore.Area.values()) {
+            areas.add(CompletableFuture.supplyAsync(() -> list(area), this.executor)
+                    .thenCompose(batches -> {
+                        final List<CompletableFuture<Integer>> moves = batches.stream()
+                                .map(batch -> CompletableFuture.supplyAsync(() -> move(area, batch), this.executor))
+                                .toList();
+                        return CompletableFuture.allOf(moves.toArray(CompletableFuture[]::new))
+                                .thenApply(ignored -> moves.stream().mapToInt(CompletableFuture::join).sum());
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Could not migrate {}", area, e);
+                        return 0;
+                    }));
+        }
+        return CompletableFuture.allOf(areas.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    final int moved = areas.stream().mapToInt(CompletableFuture::join).sum();
+                    if (moved > 0) {
+                        log.info("Moved {} files of the datastore into shards", moved);
+                    }
+                    return moved;
+                });
+    }
+
+    private List<List<String>> list(final Datastore.Area area) {
+        this.datastore.createDirectories(area);
+        final List<List<String>> rv = new ArrayList<>();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(this.datastore.getDirectory(area).toPath(), Files::isRegularFile)) {
+            for (var path : directoryStream) {
+                if (AtomicFiles.isTemporary(path.toFile())) {
+                    continue;
+                }
+                batch.add(path.getFileName().toString());
+                if (batch.size() == BATCH_SIZE) {
+                    rv.add(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            rv.add(batch);
+        }
+        return rv;
+    }
+
+    private int move(final Datastore.Area area, final List<String> names) {
+        int rv = 0;
+        for (var name : names) {
+            try {
+                // A file written since it has been listed replaces the sharded one, as it has been read instead
+                Files.move(this.datastore.getUnshardedFile(area, name).toPath(), this.datastore.getShardedFile(area, name).toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                ++rv;
+            } catch (NoSuchFileException e) {
+                // Deleted since it has been listed
+            } catch (IOException e) {
+                log.warn("Could not move {} of {} into its shard", name, area, e);
+            }
+        }
+        return rv;
+    }
+}
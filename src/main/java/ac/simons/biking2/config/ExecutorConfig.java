@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The thread pools of all background work. They are injected by their bean name and shut down together with the
+ * application context. All work except the ingestion of uploaded tracks is picked up again on the next start or on
+ * the next request, so those pools don't wait for running tasks on shutdown.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-18
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExecutorConfig {
+
+    /**
+     * @param poolSize The maximum number of statistic queries running concurrently
+     * @return The executor running independent statistic queries, the calling thread runs queries when all workers are busy
+     */
+    @Bean
+    public ThreadPoolTaskExecutor statisticsQueryExecutor(@Value("${biking2.statistics.query-pool-size:4}") final int poolSize) {
+        final ThreadPoolTaskExecutor rv = newExecutor("statistics-query-", poolSize);
+        rv.setQueueCapacity(0);
+        rv.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return rv;
+    }
+
+    /**
+     * @param poolSize The number of workers converting uploaded tracks
+     * @param queueCapacity The maximum number of uploads waiting for a worker
+     * @return The executor ingesting uploaded tracks
+     */
+    @Bean
+    public ThreadPoolTaskExecutor trackIngestionExecutor(
+            @Value("${biking2.tracks.ingestion.pool-size:2}") final int poolSize,
+            @Value("${biking2.tracks.ingestion.queue-capacity:100}") final int queueCapacity
+    ) {
+        final ThreadPoolTaskExecutor rv = newExecutor("track-ingestion-", poolSize);
+        rv.setQueueCapacity(queueCapacity);
+        // Uploads are only resumed on the next start when they have been queued, give the running ones a chance
+        rv.setWaitForTasksToCompleteOnShutdown(true);
+        rv.setAwaitTerminationSeconds(30);
+        return rv;
+    }
+
+    /**
+     * @param poolSize The number of workers converting entries of an archive
+     * @return The executor converting imported tracks, the importing thread converts entries itself when all workers
+     * are busy
+     */
+    @Bean
+    public ThreadPoolTaskExecutor trackImportExecutor(@Value("${biking2.tracks.import.pool-size:4}") final int poolSize) {
+        final ThreadPoolTaskExecutor rv = newExecutor("track-import-", poolSize);
+        rv.setQueueCapacity(0);
+        rv.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return rv;
+    }
+
+    /**
+     * @param poolSize The number of workers computing the metrics of older tracks
+     * @return The executor computing missing metrics of tracks
+     */
+    @Bean
+    public ThreadPoolTaskExecutor trackMetricsExecutor(@Value("${biking2.tracks.metrics.backfill.pool-size:2}") final int poolSize) {
+        return newExecutor("track-metrics-", poolSize);
+    }
+
+    /**
+     * @param poolSize The number of workers rendering vector tiles
+     * @param queueCapacity The maximum number of tiles waiting for a worker
+     * @return The executor rendering vector tiles
+     */
+    @Bean
+    public ThreadPoolTaskExecutor trackTilesExecutor(
+            @Value("${biking2.tracks.tiles.pool-size:2}") final int poolSize,
+            @Value("${biking2.tracks.tiles.queue-capacity:64}") final int queueCapacity
+    ) {
+        final ThreadPoolTaskExecutor rv = newExecutor("track-tiles-", poolSize);
+        rv.setQueueCapacity(queueCapacity);
+        return rv;
+    }
+
+    /**
+     * @return The executor reconciling the track files with the tracks, one worker lists the directory, the other one
+     * loads the tracks
+     */
+    @Bean
+    public ThreadPoolTaskExecutor trackReconciliationExecutor() {
+        return newExecutor("track-reconciliation-", 2);
+    }
+
+    /**
+     * @param poolSize The number of workers moving files into their shards
+     * @return The executor migrating the datastore
+     */
+    @Bean
+    public ThreadPoolTaskExecutor datastoreMigrationExecutor(@Value("${biking2.datastore.migration.pool-size:4}") final int poolSize) {
+        return newExecutor("datastore-migration-", poolSize);
+    }
+
+    private static ThreadPoolTaskExecutor newExecutor(final String threadNamePrefix, final int poolSize) {
+        final ThreadPoolTaskExecutor rv = new ThreadPoolTaskExecutor();
+        rv.setCorePoolSize(poolSize);
+        rv.setMaxPoolSize(poolSize);
+        rv.setAllowCoreThreadTimeOut(true);
+        rv.setThreadNamePrefix(threadNamePrefix);
+        return rv;
+    }
+}
@@ -15,13 +15,13 @@
  */
 package ac.simons.biking2.gallerypictures;
 
-import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
 import ac.simons.biking2.support.FileBasedResource;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.channels.Channels;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -47,7 +47,6 @@ import org.springframework.web.server.ResponseStatusException;
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static java.lang.String.format;
-import java.nio.channels.ReadableByteChannel;
 import static java.security.MessageDigest.getInstance;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -70,7 +69,7 @@ class GalleryController {
     }
 
     private final GalleryPictureRepository galleryPictureRepository;
-    private final File datastoreBaseDirectory;
+    private final Datastore datastore;
     private final FilenameGenerator filenameGenerator = new FilenameGenerator() {
         @Override
         @SneakyThrows
@@ -119,14 +118,10 @@ class GalleryController {
             rv = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } else {
             final String filename = this.filenameGenerator.generateFile(imageData.getOriginalFilename());
-            final File imageFile = new File(datastoreBaseDirectory, String.format("%s/%s", DatastoreConfig.GALLERY_PICTURES_DIRECTORY, filename));
+            final File imageFile = this.datastore.getFile(Datastore.Area.GALLERY_PICTURES, filename);
 
-            try (
-                    ReadableByteChannel in = Channels.newChannel(imageData.getInputStream());
-                    FileOutputStream out = new FileOutputStream(imageFile);
-            ) {
-                out.getChannel().transferFrom(in, 0, Integer.MAX_VALUE);
-                out.flush();
+            try (InputStream in = imageData.getInputStream()) {
+                AtomicFiles.write(imageFile, in);
 
                 final GalleryPictureEntity galleryPicture = new GalleryPictureEntity(takenOn.withZoneSameInstant(ZoneId.systemDefault()).toLocalDate(), filename);
                 galleryPicture.setDescription(description);
@@ -154,7 +149,9 @@ class GalleryController {
                 .findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        final FileBasedResource resource = new FileBasedResource(new File(datastoreBaseDirectory, String.format("%s/%s", DatastoreConfig.GALLERY_PICTURES_DIRECTORY, galleryPicture.getFilename())), String.format("%s.jpg", id), 365);
+        final File imageFile = this.datastore.findFile(Datastore.Area.GALLERY_PICTURES, galleryPicture.getFilename())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        final FileBasedResource resource = new FileBasedResource(imageFile, String.format("%s.jpg", id), 365);
         resource.send(request, response);
     }
 }
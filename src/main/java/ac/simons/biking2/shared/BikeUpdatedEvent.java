@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.shared;
+
+/**
+ * Published after the attributes of a bike that are relevant for statistics
+ * have been updated.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public record BikeUpdatedEvent(
+
+    Integer bikeId,
+
+    String color,
+
+    boolean miscellaneous
+) {
+}
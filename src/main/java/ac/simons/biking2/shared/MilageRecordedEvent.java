@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 michael-simons.eu.
+ * Copyright 2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,26 +13,24 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package ac.simons.biking2.tracks.gpx;
+package ac.simons.biking2.shared;
 
-import jakarta.xml.bind.annotation.XmlAccessType;
-import jakarta.xml.bind.annotation.XmlAccessorType;
-import jakarta.xml.bind.annotation.XmlRootElement;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 /**
- * @author Michael J. Simons, 2014-02-21
+ * Published after a new milage has been recorded for a bike, including the
+ * very first milage of a new bike.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
  */
-@XmlRootElement
-@XmlAccessorType(XmlAccessType.FIELD)
-public final class GPX {
+public record MilageRecordedEvent(
 
-    private Bounds bounds;
+    Integer bikeId,
 
-    public Bounds getBounds() {
-        return bounds;
-    }
+    LocalDate recordedOn,
 
-    public void setBounds(final Bounds bounds) {
-        this.bounds = bounds;
-    }
+    BigDecimal amount
+) {
 }
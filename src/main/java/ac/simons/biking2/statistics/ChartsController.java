@@ -18,6 +18,7 @@ package ac.simons.biking2.statistics;
 import static java.util.stream.Collectors.summarizingDouble;
 import static java.util.stream.IntStream.rangeClosed;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
@@ -25,11 +26,15 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -37,12 +42,21 @@ import org.springframework.web.bind.annotation.RestController;
 
 import ac.simons.biking2.statistics.highcharts.HighchartsNgConfig;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 /**
+ * The charts are expensive to build and serialize and are only rendered once per instance of the underlying statistics.
+ * As long as the {@link StatisticService} returns the same, cached instance, the JSON representation is served from
+ * {@link #serializedCharts} with a strong ETag.
+ *
  * @author Michael J. Simons
  * @since 2014-02-09
  */
 @RestController
-@RequestMapping("/api/charts")
+@RequestMapping("/api")
 class ChartsController {
 
     enum Messages {
@@ -58,29 +72,120 @@ class ChartsController {
         }
     }
 
+    /**
+     * A chart serialized to JSON, including a strong ETag.
+     *
+     * @param json The serialized chart
+     * @param eTag The ETag of the serialized chart
+     */
+    record SerializedChart(byte[] json, String eTag) {
+    }
+
+    /**
+     * All charts and the summary shown on the dashboard.
+     *
+     * @param summary The summary
+     * @param currentYear The chart of the current year
+     * @param monthlyAverage The chart of the monthly averages
+     * @param history The chart of the history
+     */
+    record DashboardCharts(Summary summary, HighchartsNgConfig currentYear, HighchartsNgConfig monthlyAverage, HighchartsNgConfig history) {
+    }
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMM", Locale.ENGLISH);
+
     private final StatisticService statisticService;
 
     private final String colorOfCumulativeGraph;
 
     private final MessageSourceAccessor i18n;
 
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Serialized charts keyed by the identity of the statistics they have been rendered from. An entry is gone as soon
+     * as its statistics are evicted from the statistics cache and not referenced anywhere else.
+     */
+    private final Cache<Object, SerializedChart> serializedCharts = Caffeine.newBuilder().weakKeys().build();
+
     ChartsController(
             final StatisticService statisticService,
             @Value("${biking2.color-of-cumulative-graph:000000}") final String colorOfCumulativeGraph,
-            final MessageSource messageSource
+            final MessageSource messageSource,
+            final ObjectMapper objectMapper
     ) {
         this.statisticService = statisticService;
         this.colorOfCumulativeGraph = colorOfCumulativeGraph;
         this.i18n = new MessageSourceAccessor(messageSource, Locale.ENGLISH);
+        this.objectMapper = objectMapper;
     }
 
-    @GetMapping("/currentYear")
-    public HighchartsNgConfig getCurrentYear() {
-        // Start of current year
-        final LocalDate january1st = LocalDate.now().withMonth(1).withDayOfMonth(1);
+    @GetMapping("/charts/currentYear")
+    public ResponseEntity<byte[]> getCurrentYear() {
 
-        // Get statistics
         final CurrentYear currentYear = this.statisticService.computeCurrentYear();
+        return respondWith(currentYear, () -> renderCurrentYear(currentYear));
+    }
+
+    @GetMapping("/charts/history")
+    public ResponseEntity<byte[]> getHistory(
+            @RequestParam(value = "start") final Optional<Integer> yearStart,
+            @RequestParam(value = "end") final Optional<Integer> yearEnd
+    ) {
+        final Map<Integer, HistoricYear> history = this.statisticService.computeHistory(yearStart, yearEnd);
+        return respondWith(history, () -> renderHistory(history));
+    }
+
+    @GetMapping("/charts/monthlyAverage")
+    public ResponseEntity<byte[]> getMonthlyAverage() {
+
+        final Map<Integer, MonthlyAverage> monthlyAverages = this.statisticService.computeMonthlyAverage();
+        return respondWith(monthlyAverages, () -> renderMonthlyAverage(monthlyAverages));
+    }
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<byte[]> getDashboard(
+            @RequestParam(value = "start") final Optional<Integer> yearStart,
+            @RequestParam(value = "end") final Optional<Integer> yearEnd
+    ) {
+        final Dashboard dashboard = this.statisticService.computeDashboard(yearStart, yearEnd);
+        return respondWith(dashboard, () -> new DashboardCharts(
+                dashboard.summary(),
+                renderCurrentYear(dashboard.currentYear()),
+                renderMonthlyAverage(dashboard.monthlyAverages()),
+                renderHistory(dashboard.history())
+        ));
+    }
+
+    /**
+     * Responds with the serialized chart for the given statistics. {@code If-None-Match} is evaluated by Spring MVC
+     * through the ETag of the response.
+     *
+     * @param statistics The statistics the chart is rendered from
+     * @param chart Renders the chart when there is no serialized version for the given statistics instance
+     * @return A response containing the JSON representation of the chart
+     */
+    ResponseEntity<byte[]> respondWith(final Object statistics, final Supplier<?> chart) {
+
+        final SerializedChart serializedChart = this.serializedCharts.get(statistics, key -> serialize(chart.get()));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(serializedChart.eTag())
+                .body(serializedChart.json());
+    }
+
+    SerializedChart serialize(final Object chart) {
+        try {
+            final byte[] json = this.objectMapper.writeValueAsBytes(chart);
+            return new SerializedChart(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    HighchartsNgConfig renderCurrentYear(final CurrentYear currentYear) {
+        // Start of current year
+        final LocalDate january1st = LocalDate.now().withMonth(1).withDayOfMonth(1);
 
         final Map<String, Object> userData = new HashMap<>();
         userData.put("worstPeriod", currentYear.getWorstPeriod());
@@ -113,7 +218,6 @@ class ChartsController {
                         .build()
                         .computeCurrentMaxYValue().intValue();
 
-        final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("MMM", Locale.ENGLISH);
         return builder
                 .options()
                     .chart()
@@ -127,7 +231,7 @@ class ChartsController {
                         .build()
                     .xAxis()
                         .withCategories(
-                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(dateTimeFormat)).toArray(size -> new String[size])
+                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(MONTH_FORMAT)).toArray(size -> new String[size])
                         )
                         .build()
                     .yAxis()
@@ -160,18 +264,13 @@ class ChartsController {
                 .build();
     }
 
-    @GetMapping("/history")
-    public HighchartsNgConfig getHistory(
-            @RequestParam(value = "start") final Optional<Integer> yearStart,
-            @RequestParam(value = "end") final Optional<Integer> yearEnd
-    ) {
+    HighchartsNgConfig renderHistory(final Map<Integer, HistoricYear> history) {
         final LocalDate january1st = LocalDate.now().withMonth(1).withDayOfMonth(1);
 
         final Map<String, Object> userData = new HashMap<>();
         final HighchartsNgConfig.Builder builder = HighchartsNgConfig.define();
 
-        // Get statistics and create series in builder
-        final Map<Integer, HistoricYear> history = this.statisticService.computeHistory(yearStart, yearEnd);
+        // Create series in builder
         history.forEach((k, v) -> builder.series().withName(Integer.toString(k)).withData(v.getValues()).build());
 
         final StringBuilder title = new StringBuilder();
@@ -204,7 +303,6 @@ class ChartsController {
                     .append(history.keySet().stream().max(Integer::compare).orElseThrow());
         }
 
-        final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("MMM", Locale.ENGLISH);
         return builder
                 .withUserData(userData)
                 .options()
@@ -220,7 +318,7 @@ class ChartsController {
                         .build()
                     .xAxis()
                         .withCategories(
-                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(dateTimeFormat)).toArray(size -> new String[size])
+                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(MONTH_FORMAT)).toArray(size -> new String[size])
                         )
                         .build()
                     .yAxis()
@@ -252,11 +350,7 @@ class ChartsController {
                 .build();
     }
 
-    @GetMapping("/monthlyAverage")
-    public HighchartsNgConfig getMonthlyAverage() {
-
-        // Get statistics
-        final Map<Integer, MonthlyAverage> monthlyAverages = this.statisticService.computeMonthlyAverage();
+    HighchartsNgConfig renderMonthlyAverage(final Map<Integer, MonthlyAverage> monthlyAverages) {
 
         // Create stupid arrays from statistics...
         final Double[] averages = new Double[12];
@@ -272,7 +366,6 @@ class ChartsController {
                 monthlyAverages.values().stream().collect(summarizingDouble(MonthlyAverage::getValue)).getAverage();
 
         final LocalDate january1st = LocalDate.now().withMonth(1).withDayOfMonth(1);
-        final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("MMM", Locale.ENGLISH);
         final String labelColor = "#7CB5EB";
         final HighchartsNgConfig.Builder builder = HighchartsNgConfig.define()
                 .options()
@@ -288,7 +381,7 @@ class ChartsController {
                         .build()
                     .xAxis()
                         .withCategories(
-                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(dateTimeFormat)).toArray(size -> new String[size])
+                            rangeClosed(1, 12).mapToObj(i -> january1st.withMonth(i).format(MONTH_FORMAT)).toArray(size -> new String[size])
                         )
                         .build()
                     .yAxis()
@@ -0,0 +1,613 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.db.Tables.ASSORTED_TRIPS;
+import static ac.simons.biking2.db.Tables.BIKES;
+import static ac.simons.biking2.db.Tables.MILAGES;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+/**
+ * An in-memory engine for the statistics. All milages and assorted trips are loaded once into primitive arrays
+ * (one array per column, distances in hundredths) and all statistics are computed by loops over those arrays, without
+ * any access to the database.
+ * <p>
+ * The store is kept current by the events published when milages and trips are recorded or bikes are updated. Each
+ * change creates a new, immutable set of columns, so that reading never needs a lock. Changes are applied before the
+ * caches are invalidated.
+ * <p>
+ * The engine is enabled with {@code biking2.statistics.engine=in-memory}.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(name = "biking2.statistics.engine", havingValue = "in-memory")
+class ColumnarMilageStore {
+
+    /**
+     * Marks the latest milage of a bike, for which the distance covered is not yet known.
+     */
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final DSLContext database;
+
+    private volatile Columns columns;
+
+    ColumnarMilageStore(final DSLContext database) {
+        this.database = database;
+        this.reload();
+    }
+
+    /**
+     * Loads all bikes, milages and assorted trips from the database, replacing the current content of the store.
+     */
+    public synchronized void reload() {
+
+        var bikes = this.database
+                .select(BIKES.ID, BIKES.NAME, BIKES.COLOR, BIKES.MISCELLANEOUS)
+                .from(BIKES)
+                .orderBy(BIKES.ID)
+                .fetch();
+        var bikeIds = new int[bikes.size()];
+        var names = new String[bikes.size()];
+        var colors = new String[bikes.size()];
+        var miscellaneous = new boolean[bikes.size()];
+        var bikeIndexes = new HashMap<Integer, Integer>(bikes.size());
+        for (int i = 0; i < bikes.size(); ++i) {
+            var bike = bikes.get(i);
+            bikeIds[i] = bike.get(BIKES.ID);
+            names[i] = bike.get(BIKES.NAME);
+            colors[i] = bike.get(BIKES.COLOR);
+            miscellaneous[i] = bike.get(BIKES.MISCELLANEOUS);
+            bikeIndexes.put(bikeIds[i], i);
+        }
+
+        // Ordered by id, so that the milages are ordered by bike index
+        var milages = this.database
+                .select(MILAGES.BIKE_ID, MILAGES.RECORDED_ON, MILAGES.AMOUNT)
+                .from(MILAGES)
+                .orderBy(MILAGES.BIKE_ID, MILAGES.RECORDED_ON)
+                .fetch();
+        var milageBikes = new int[milages.size()];
+        var milageMonths = new int[milages.size()];
+        var amounts = new long[milages.size()];
+        for (int i = 0; i < milages.size(); ++i) {
+            var milage = milages.get(i);
+            milageBikes[i] = bikeIndexes.get(milage.get(MILAGES.BIKE_ID));
+            milageMonths[i] = toEpochMonth(milage.get(MILAGES.RECORDED_ON));
+            amounts[i] = toHundredths(milage.get(MILAGES.AMOUNT));
+        }
+
+        var tripMonths = new int[0];
+        var tripDistances = new long[0];
+        for (var trip : this.database
+                .select(ASSORTED_TRIPS.COVERED_ON, ASSORTED_TRIPS.DISTANCE)
+                .from(ASSORTED_TRIPS)
+                .orderBy(ASSORTED_TRIPS.COVERED_ON)
+                .fetch()) {
+            var month = toEpochMonth(trip.get(ASSORTED_TRIPS.COVERED_ON));
+            var distance = toHundredths(trip.get(ASSORTED_TRIPS.DISTANCE));
+            var last = tripMonths.length - 1;
+            if (last >= 0 && tripMonths[last] == month) {
+                tripDistances[last] += distance;
+            } else {
+                tripMonths = Arrays.copyOf(tripMonths, last + 2);
+                tripDistances = Arrays.copyOf(tripDistances, last + 2);
+                tripMonths[last + 1] = month;
+                tripDistances[last + 1] = distance;
+            }
+        }
+
+        this.columns = new Columns(bikeIds, names, colors, miscellaneous, milageBikes, milageMonths, amounts, tripMonths, tripDistances);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onMilageRecorded(final MilageRecordedEvent event) {
+
+        var current = this.columns;
+        var bike = current.indexOf(event.bikeId());
+        if (bike < 0) {
+            // The first milage of a new bike
+            var newBike = this.database
+                    .select(BIKES.NAME, BIKES.COLOR, BIKES.MISCELLANEOUS)
+                    .from(BIKES)
+                    .where(BIKES.ID.eq(event.bikeId()))
+                    .fetchSingle();
+            current = current.withBike(event.bikeId(), newBike.get(BIKES.NAME), newBike.get(BIKES.COLOR), newBike.get(BIKES.MISCELLANEOUS));
+            bike = current.bikeIds.length - 1;
+        }
+        this.columns = current.withMilage(bike, toEpochMonth(event.recordedOn()), toHundredths(event.amount()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onTripRecorded(final TripRecordedEvent event) {
+        this.columns = this.columns.withTrip(toEpochMonth(event.coveredOn()), toHundredths(event.distance()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onBikeUpdated(final BikeUpdatedEvent event) {
+        var current = this.columns;
+        var bike = current.indexOf(event.bikeId());
+        if (bike >= 0) {
+            this.columns = current.withBike(bike, event.color(), event.miscellaneous());
+        }
+    }
+
+    public Map<Integer, MonthlyAverage> computeMonthlyAverage() {
+        return computeMonthlyAverage(this.columns);
+    }
+
+    public Map<Integer, HistoricYear> computeHistory(final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
+        return computeHistory(this.columns, yearStart, yearEnd);
+    }
+
+    public CurrentYear computeCurrentYear() {
+        return computeCurrentYear(this.columns);
+    }
+
+    public Summary computeSummary() {
+        return computeSummary(this.columns);
+    }
+
+    public Dashboard computeDashboard(final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
+        var current = this.columns;
+        return new Dashboard(
+                computeSummary(current),
+                computeCurrentYear(current),
+                computeMonthlyAverage(current),
+                computeHistory(current, yearStart, yearEnd)
+        );
+    }
+
+    /**
+     * Only months with at least one milage are taken into account, trips are added to those.
+     */
+    private static Map<Integer, MonthlyAverage> computeMonthlyAverage(final Columns columns) {
+
+        var minimum = new long[12];
+        var maximum = new long[12];
+        var sum = new long[12];
+        var count = new int[12];
+        for (int i = 0; i < columns.milagePerMonth.length; ++i) {
+            if (columns.deltasPerMonth[i] == 0) {
+                continue;
+            }
+            var value = columns.milagePerMonth[i] + columns.tripsPerMonth[i];
+            var month = (columns.firstMonth + i) % 12;
+            if (count[month] == 0 || value < minimum[month]) {
+                minimum[month] = value;
+            }
+            if (count[month] == 0 || value > maximum[month]) {
+                maximum[month] = value;
+            }
+            sum[month] += value;
+            ++count[month];
+        }
+
+        var rv = new HashMap<Integer, MonthlyAverage>(12);
+        for (int i = 0; i < 12; ++i) {
+            var monthlyAverage = MonthlyAverage.builder().month(Month.of(i + 1));
+            if (count[i] > 0) {
+                monthlyAverage
+                        .minimum((int) roundHalfUp(minimum[i], 100))
+                        .maximum((int) roundHalfUp(maximum[i], 100))
+                        .value(roundHalfUp(sum[i], 100L * count[i]));
+            }
+            rv.put(i + 1, monthlyAverage.build());
+        }
+        return Collections.unmodifiableMap(rv);
+    }
+
+    private static Map<Integer, HistoricYear> computeHistory(final Columns columns, final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
+
+        var rv = new HashMap<Integer, HistoricYear>();
+        if (columns.milagePerMonth.length == 0) {
+            return rv;
+        }
+
+        var firstYear = columns.firstMonth / 12;
+        var lastYear = (columns.firstMonth + columns.milagePerMonth.length - 1) / 12;
+        var lowerBound = Math.max(firstYear, yearStart.orElse(Integer.MIN_VALUE));
+        var upperBound = Math.min(lastYear, yearEnd.orElseGet(() -> LocalDate.now().getYear()) - 1);
+        for (int year = lowerBound; year <= upperBound; ++year) {
+            var values = new int[12];
+            var hasMilages = false;
+            for (int month = 0; month < 12; ++month) {
+                var i = year * 12 + month - columns.firstMonth;
+                if (i < 0 || i >= columns.milagePerMonth.length || columns.milagesPerMonth[i] == 0) {
+                    continue;
+                }
+                hasMilages = true;
+                values[month] = (int) roundHalfUp(columns.milagePerMonth[i], 100);
+            }
+            if (!hasMilages) {
+                continue;
+            }
+
+            String preferredBike = null;
+            var preferredValue = NO_VALUE;
+            var offset = (year - firstYear) * columns.bikeIds.length;
+            for (int bike : columns.byName) {
+                var value = columns.milagePerYearAndBike[offset + bike];
+                if (value != NO_VALUE && (preferredBike == null || value > preferredValue)) {
+                    preferredBike = columns.names[bike];
+                    preferredValue = value;
+                }
+            }
+            rv.put(year, HistoricYear.builder().year(year).values(values).preferredBike(preferredBike).build());
+        }
+        return rv;
+    }
+
+    private static CurrentYear computeCurrentYear(final Columns columns) {
+
+        var startOfYear = LocalDate.now().withMonth(1).withDayOfMonth(1);
+        var firstMonthOfYear = toEpochMonth(startOfYear);
+
+        int[] totals = new int[12];
+        Arrays.fill(totals, -1);
+        for (int month = 0; month < 12; ++month) {
+            var i = firstMonthOfYear + month - columns.firstMonth;
+            if (i < 0 || i >= columns.milagePerMonth.length || columns.deltasPerMonth[i] == 0 && !columns.tripsInMonth[i]) {
+                continue;
+            }
+            totals[month] = (int) (columns.milagePerMonth[i] / 100) + (int) roundHalfUp(columns.tripsPerMonth[i], 100);
+        }
+
+        // Only include non miscellaneous bikes
+        Map<Tuple2<String, String>, int[]> values = new LinkedHashMap<>();
+        for (int bike : columns.byName) {
+            if (columns.miscellaneous[bike]) {
+                continue;
+            }
+            int[] milagesInYear = null;
+            // Rows of a bike are ordered by month, so only the tail needs to be visited
+            for (int i = columns.bikeOffsets[bike + 1] - 1; i >= columns.bikeOffsets[bike]; --i) {
+                var month = columns.months[i] - firstMonthOfYear;
+                if (month < 0) {
+                    break;
+                }
+                if (month >= 12 || columns.deltas[i] == NO_VALUE) {
+                    continue;
+                }
+                if (milagesInYear == null) {
+                    milagesInYear = new int[12];
+                    values.put(Tuple.tuple(columns.names[bike], columns.colors[bike]), milagesInYear);
+                }
+                milagesInYear[month] = (int) (columns.deltas[i] / 100);
+            }
+        }
+
+        return StatisticService.newCurrentYear(startOfYear, totals, values);
+    }
+
+    /**
+     * Only months with at least one milage are part of the summary, trips are added to the total.
+     */
+    private static Summary computeSummary(final Columns columns) {
+
+        var firstMonth = -1;
+        var bestMonth = -1;
+        var worstMonth = -1;
+        var milages = 0L;
+        var trips = 0L;
+        for (int i = 0; i < columns.milagePerMonth.length; ++i) {
+            trips += columns.tripsPerMonth[i];
+            if (columns.deltasPerMonth[i] == 0) {
+                continue;
+            }
+
+            var value = columns.milagePerMonth[i];
+            milages += value;
+            if (firstMonth < 0) {
+                firstMonth = i;
+                bestMonth = i;
+                worstMonth = i;
+            }
+            // Later months win on equal values for the best period, earlier months for the worst
+            if (value >= columns.milagePerMonth[bestMonth]) {
+                bestMonth = i;
+            }
+            if (value < columns.milagePerMonth[worstMonth]) {
+                worstMonth = i;
+            }
+        }
+
+        if (firstMonth < 0) {
+            return Summary.builder().total(0.0).average(0.0).build();
+        }
+
+        var total = (milages + trips) / 100.0;
+        var dateOfFirstRecord = toLocalDate(columns.firstMonth + firstMonth);
+        var days = ChronoUnit.DAYS.between(dateOfFirstRecord, LocalDate.now());
+        return Summary.builder()
+                .worstPeriod(new AccumulatedPeriod(toLocalDate(columns.firstMonth + worstMonth), (int) (columns.milagePerMonth[worstMonth] / 100)))
+                .bestPeriod(new AccumulatedPeriod(toLocalDate(columns.firstMonth + bestMonth), (int) (columns.milagePerMonth[bestMonth] / 100)))
+                .average(days == 0 ? Double.POSITIVE_INFINITY : total / Math.ceil(days / 30.4167))
+                .total(total)
+                .dateOfFirstRecord(dateOfFirstRecord)
+                .build();
+    }
+
+    static int toEpochMonth(final LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    static LocalDate toLocalDate(final int epochMonth) {
+        return LocalDate.of(epochMonth / 12, epochMonth % 12 + 1, 1);
+    }
+
+    static long toHundredths(final BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Divides and rounds half up, like {@link RoundingMode#HALF_UP} does.
+     *
+     * @param value The dividend
+     * @param divisor A positive divisor
+     * @return The rounded quotient
+     */
+    static long roundHalfUp(final long value, final long divisor) {
+        return value >= 0 ? (2 * value + divisor) / (2 * divisor) : -((-2 * value + divisor) / (2 * divisor));
+    }
+
+    /**
+     * An immutable set of columns. The milages are ordered by bike index and month, the trips are summed up per month
+     * and ordered by month. All other values are derived from those columns when a new instance is created.
+     */
+    private static final class Columns {
+
+        private final int[] bikeIds;
+
+        private final String[] names;
+
+        private final String[] colors;
+
+        private final boolean[] miscellaneous;
+
+        private final int[] bikes;
+
+        private final int[] months;
+
+        private final long[] amounts;
+
+        private final int[] tripMonths;
+
+        private final long[] tripDistances;
+
+        /**
+         * The indexes of all bikes, ordered by name.
+         */
+        private final int[] byName;
+
+        /**
+         * The first milage of a bike, the last entry points behind the last milage.
+         */
+        private final int[] bikeOffsets;
+
+        /**
+         * The distance covered in the month of a milage, {@link #NO_VALUE} for the latest milage of a bike.
+         */
+        private final long[] deltas;
+
+        /**
+         * The first month of all per month values.
+         */
+        private final int firstMonth;
+
+        private final long[] milagePerMonth;
+
+        /**
+         * Number of milages per month with a known distance.
+         */
+        private final int[] deltasPerMonth;
+
+        /**
+         * Number of milages per month, regardless whether the distance is known.
+         */
+        private final int[] milagesPerMonth;
+
+        private final long[] tripsPerMonth;
+
+        private final boolean[] tripsInMonth;
+
+        /**
+         * Distance per year and bike, the first year is the year of {@link #firstMonth}.
+         */
+        private final long[] milagePerYearAndBike;
+
+        Columns(
+                final int[] bikeIds, final String[] names, final String[] colors, final boolean[] miscellaneous,
+                final int[] bikes, final int[] months, final long[] amounts,
+                final int[] tripMonths, final long[] tripDistances
+        ) {
+            this.bikeIds = bikeIds;
+            this.names = names;
+            this.colors = colors;
+            this.miscellaneous = miscellaneous;
+            this.bikes = bikes;
+            this.months = months;
+            this.amounts = amounts;
+            this.tripMonths = tripMonths;
+            this.tripDistances = tripDistances;
+
+            this.byName = IntStream.range(0, bikeIds.length).boxed()
+                    .sorted(Comparator.comparing(i -> names[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            this.bikeOffsets = new int[bikeIds.length + 1];
+            for (int bike : bikes) {
+                ++this.bikeOffsets[bike + 1];
+            }
+            for (int i = 1; i < this.bikeOffsets.length; ++i) {
+                this.bikeOffsets[i] += this.bikeOffsets[i - 1];
+            }
+
+            this.deltas = new long[bikes.length];
+            var first = Integer.MAX_VALUE;
+            var last = Integer.MIN_VALUE;
+            for (int i = 0; i < bikes.length; ++i) {
+                this.deltas[i] = i + 1 < bikes.length && bikes[i + 1] == bikes[i] ? amounts[i + 1] - amounts[i] : NO_VALUE;
+                first = Math.min(first, months[i]);
+                last = Math.max(last, months[i]);
+            }
+            for (int month : tripMonths) {
+                first = Math.min(first, month);
+                last = Math.max(last, month);
+            }
+
+            var numberOfMonths = first > last ? 0 : last - first + 1;
+            this.firstMonth = first > last ? 0 : first;
+            this.milagePerMonth = new long[numberOfMonths];
+            this.deltasPerMonth = new int[numberOfMonths];
+            this.milagesPerMonth = new int[numberOfMonths];
+            this.tripsPerMonth = new long[numberOfMonths];
+            this.tripsInMonth = new boolean[numberOfMonths];
+
+            var firstYear = this.firstMonth / 12;
+            var numberOfYears = numberOfMonths == 0 ? 0 : (this.firstMonth + numberOfMonths - 1) / 12 - firstYear + 1;
+            this.milagePerYearAndBike = new long[numberOfYears * bikeIds.length];
+            Arrays.fill(this.milagePerYearAndBike, NO_VALUE);
+
+            for (int i = 0; i < bikes.length; ++i) {
+                var month = months[i] - this.firstMonth;
+                ++this.milagesPerMonth[month];
+                if (this.deltas[i] == NO_VALUE) {
+                    continue;
+                }
+                this.milagePerMonth[month] += this.deltas[i];
+                ++this.deltasPerMonth[month];
+                var yearAndBike = (months[i] / 12 - firstYear) * bikeIds.length + bikes[i];
+                this.milagePerYearAndBike[yearAndBike] = (this.milagePerYearAndBike[yearAndBike] == NO_VALUE ? 0 : this.milagePerYearAndBike[yearAndBike]) + this.deltas[i];
+            }
+            for (int i = 0; i < tripMonths.length; ++i) {
+                var month = tripMonths[i] - this.firstMonth;
+                this.tripsPerMonth[month] += tripDistances[i];
+                this.tripsInMonth[month] = true;
+            }
+        }
+
+        int indexOf(final int bikeId) {
+            for (int i = 0; i < this.bikeIds.length; ++i) {
+                if (this.bikeIds[i] == bikeId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Columns withBike(final int bikeId, final String name, final String color, final boolean isMiscellaneous) {
+            var n = this.bikeIds.length;
+            var newBikeIds = Arrays.copyOf(this.bikeIds, n + 1);
+            var newNames = Arrays.copyOf(this.names, n + 1);
+            var newColors = Arrays.copyOf(this.colors, n + 1);
+            var newMiscellaneous = Arrays.copyOf(this.miscellaneous, n + 1);
+            newBikeIds[n] = bikeId;
+            newNames[n] = name;
+            newColors[n] = color;
+            newMiscellaneous[n] = isMiscellaneous;
+            return new Columns(newBikeIds, newNames, newColors, newMiscellaneous, this.bikes, this.months, this.amounts, this.tripMonths, this.tripDistances);
+        }
+
+        Columns withBike(final int bike, final String color, final boolean isMiscellaneous) {
+            var newColors = this.colors.clone();
+            var newMiscellaneous = this.miscellaneous.clone();
+            newColors[bike] = color;
+            newMiscellaneous[bike] = isMiscellaneous;
+            return new Columns(this.bikeIds, this.names, newColors, newMiscellaneous, this.bikes, this.months, this.amounts, this.tripMonths, this.tripDistances);
+        }
+
+        Columns withMilage(final int bike, final int month, final long amount) {
+
+            var position = this.bikeOffsets[bike];
+            while (position < this.bikeOffsets[bike + 1] && this.months[position] < month) {
+                ++position;
+            }
+
+            if (position < this.bikeOffsets[bike + 1] && this.months[position] == month) {
+                var newAmounts = this.amounts.clone();
+                newAmounts[position] = amount;
+                return new Columns(this.bikeIds, this.names, this.colors, this.miscellaneous, this.bikes, this.months, newAmounts, this.tripMonths, this.tripDistances);
+            }
+
+            return new Columns(this.bikeIds, this.names, this.colors, this.miscellaneous,
+                    insert(this.bikes, position, bike), insert(this.months, position, month), insert(this.amounts, position, amount),
+                    this.tripMonths, this.tripDistances);
+        }
+
+        Columns withTrip(final int month, final long distance) {
+
+            var position = Arrays.binarySearch(this.tripMonths, month);
+            if (position >= 0) {
+                var newDistances = this.tripDistances.clone();
+                newDistances[position] += distance;
+                return new Columns(this.bikeIds, this.names, this.colors, this.miscellaneous, this.bikes, this.months, this.amounts, this.tripMonths, newDistances);
+            }
+
+            position = -(position + 1);
+            return new Columns(this.bikeIds, this.names, this.colors, this.miscellaneous, this.bikes, this.months, this.amounts,
+                    insert(this.tripMonths, position, month), insert(this.tripDistances, position, distance));
+        }
+
+        private static int[] insert(final int[] values, final int position, final int value) {
+            var rv = new int[values.length + 1];
+            System.arraycopy(values, 0, rv, 0, position);
+            rv[position] = value;
+            System.arraycopy(values, position, rv, position + 1, values.length - position);
+            return rv;
+        }
+
+        private static long[] insert(final long[] values, final int position, final long value) {
+            var rv = new long[values.length + 1];
+            System.arraycopy(values, 0, rv, 0, position);
+            rv[position] = value;
+            System.arraycopy(values, position, rv, position + 1, values.length - position);
+            return rv;
+        }
+    }
+}
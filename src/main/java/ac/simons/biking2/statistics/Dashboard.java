@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2019 michael-simons.eu.
+ * Copyright 2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,24 +13,23 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package ac.simons.biking2.tracks.gpx;
+package ac.simons.biking2.statistics;
 
-import ac.simons.biking2.support.BeanTester;
 import java.util.Map;
 
-import org.junit.jupiter.api.Test;
-
 /**
- * @author Michael J. Simons
+ * All statistics shown on the dashboard, computed together.
  *
- * @since 2014-05-23
+ * @author Michael J. Simons
+ * @since 2026-10-17
  */
-class GPXTest {
+final record Dashboard(
+    Summary summary,
+
+    CurrentYear currentYear,
 
-    @Test
-    void beanShouldWorkAsExpected() {
+    Map<Integer, MonthlyAverage> monthlyAverages,
 
-        var values = Map.of("bounds", new Bounds());
-        values.forEach(new BeanTester(GPX.class));
-    }
+    Map<Integer, HistoricYear> history
+) {
 }
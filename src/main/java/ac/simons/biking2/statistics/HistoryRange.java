@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import java.util.Optional;
+
+/**
+ * Cache key for a computed history. The lower bound is inclusive, the upper bound exclusive, {@literal null} means unbounded.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+record HistoryRange(
+    Integer yearStart,
+
+    Integer yearEnd
+) {
+
+    public static HistoryRange of(final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
+        return new HistoryRange(yearStart.orElse(null), yearEnd.orElse(null));
+    }
+
+    /**
+     * Parses a range in the form of {@code start..end}. Both bounds are optional. A bound that is signed or {@code 0} is
+     * relative to the current year, so that {@code -3..0} are the three years before the current one.
+     *
+     * @param value       The range to parse
+     * @param currentYear The year relative bounds refer to
+     * @return The parsed range
+     */
+    static HistoryRange parse(final String value, final int currentYear) {
+        var bounds = value.strip().split("\\.\\.", -1);
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Invalid history range: " + value);
+        }
+        return new HistoryRange(parseBound(bounds[0], currentYear), parseBound(bounds[1], currentYear));
+    }
+
+    private static Integer parseBound(final String value, final int currentYear) {
+        var bound = value.strip();
+        if (bound.isEmpty()) {
+            return null;
+        }
+        var year = Integer.valueOf(bound);
+        var relative = bound.charAt(0) == '+' || bound.charAt(0) == '-' || year == 0;
+        return relative ? currentYear + year : year;
+    }
+
+    /**
+     * @param year The year to check
+     * @return True, if a history computed for this range contains the given year
+     */
+    boolean contains(final int year) {
+        return (yearStart == null || yearStart <= year) && (yearEnd == null || year < yearEnd);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.db.Tables.ASSORTED_TRIPS;
+import static ac.simons.biking2.db.Tables.MILAGES;
+import static ac.simons.biking2.db.Tables.MONTHLY_MILAGE_ROLLUP;
+import static org.jooq.impl.DSL.extract;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.lead;
+import static org.jooq.impl.DSL.localDateAdd;
+import static org.jooq.impl.DSL.partitionBy;
+import static org.jooq.impl.DSL.sum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.jooq.DSLContext;
+import org.jooq.DatePart;
+import org.jooq.impl.DSL;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains the {@code monthly_milage_rollup} table. The rollup contains the distance covered per bike and month
+ * (the difference between a milage and the next milage of the same bike) and the sum of all assorted trips per month,
+ * so that the {@link StatisticService} doesn't need to compute those values over the whole history on each call.
+ * <p>
+ * The rollup is updated incrementally whenever a milage or trip is recorded. Only the row for the new milage and the
+ * row of the milage directly before it are touched.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Service
+@RequiredArgsConstructor
+class MilageRollupService {
+
+    /**
+     * The rollup is part of the transaction that records a milage or trip. Without a transaction, all listeners run
+     * right away, so the rollup must be updated before the caches are invalidated and warmed up again.
+     */
+    static final int ORDER = StatisticsCacheInvalidator.ORDER - 1;
+
+    private final DSLContext database;
+
+    @EventListener
+    @Order(ORDER)
+    public void onMilageRecorded(final MilageRecordedEvent event) {
+
+        var bikeId = event.bikeId();
+        var recordedOn = event.recordedOn().withDayOfMonth(1);
+        var amount = event.amount();
+
+        this.database
+                .select(MILAGES.RECORDED_ON, MILAGES.AMOUNT)
+                .from(MILAGES)
+                .where(MILAGES.BIKE_ID.eq(bikeId).and(MILAGES.RECORDED_ON.lt(recordedOn)))
+                .orderBy(MILAGES.RECORDED_ON.desc())
+                .limit(1)
+                .fetchOptional()
+                .ifPresent(previous -> storeDelta(bikeId, previous.value1(), amount.subtract(previous.value2())));
+
+        var delta = this.database
+                .select(MILAGES.AMOUNT)
+                .from(MILAGES)
+                .where(MILAGES.BIKE_ID.eq(bikeId).and(MILAGES.RECORDED_ON.gt(recordedOn)))
+                .orderBy(MILAGES.RECORDED_ON.asc())
+                .limit(1)
+                .fetchOptional(MILAGES.AMOUNT)
+                .map(next -> next.subtract(amount));
+        storeDelta(bikeId, recordedOn, delta.orElse(null));
+    }
+
+    @EventListener
+    @Order(ORDER)
+    public void onTripRecorded(final TripRecordedEvent event) {
+
+        var recordedOn = event.coveredOn().withDayOfMonth(1);
+        var updated = this.database
+                .update(MONTHLY_MILAGE_ROLLUP)
+                .set(MONTHLY_MILAGE_ROLLUP.TRIPS, MONTHLY_MILAGE_ROLLUP.TRIPS.plus(event.distance()))
+                .where(MONTHLY_MILAGE_ROLLUP.BIKE_ID.isNull().and(MONTHLY_MILAGE_ROLLUP.RECORDED_ON.eq(recordedOn)))
+                .execute();
+        if (updated == 0) {
+            this.database
+                    .insertInto(MONTHLY_MILAGE_ROLLUP, MONTHLY_MILAGE_ROLLUP.RECORDED_ON, MONTHLY_MILAGE_ROLLUP.TRIPS)
+                    .values(recordedOn, event.distance())
+                    .execute();
+        }
+    }
+
+    /**
+     * Recreates the whole rollup from milages and assorted trips. Needed only when data has been written without
+     * publishing the corresponding events, for example by an import directly into the database.
+     */
+    public void rebuild() {
+
+        this.database.deleteFrom(MONTHLY_MILAGE_ROLLUP).execute();
+
+        this.database
+                .insertInto(MONTHLY_MILAGE_ROLLUP, MONTHLY_MILAGE_ROLLUP.BIKE_ID, MONTHLY_MILAGE_ROLLUP.RECORDED_ON, MONTHLY_MILAGE_ROLLUP.DELTA)
+                .select(DSL
+                        .select(MILAGES.BIKE_ID, MILAGES.RECORDED_ON, lead(MILAGES.AMOUNT).over(partitionBy(MILAGES.BIKE_ID).orderBy(MILAGES.RECORDED_ON)).minus(MILAGES.AMOUNT))
+                        .from(MILAGES))
+                .execute();
+
+        var startOfMonth = localDateAdd(
+                ASSORTED_TRIPS.COVERED_ON,
+                extract(ASSORTED_TRIPS.COVERED_ON, DatePart.DAY).neg().plus(inline(1)),
+                DatePart.DAY
+        );
+        this.database
+                .insertInto(MONTHLY_MILAGE_ROLLUP, MONTHLY_MILAGE_ROLLUP.RECORDED_ON, MONTHLY_MILAGE_ROLLUP.TRIPS)
+                .select(DSL
+                        .select(startOfMonth, sum(ASSORTED_TRIPS.DISTANCE))
+                        .from(ASSORTED_TRIPS)
+                        .groupBy(startOfMonth))
+                .execute();
+    }
+
+    private void storeDelta(final Integer bikeId, final LocalDate recordedOn, final BigDecimal delta) {
+
+        var updated = this.database
+                .update(MONTHLY_MILAGE_ROLLUP)
+                .set(MONTHLY_MILAGE_ROLLUP.DELTA, delta)
+                .where(MONTHLY_MILAGE_ROLLUP.BIKE_ID.eq(bikeId).and(MONTHLY_MILAGE_ROLLUP.RECORDED_ON.eq(recordedOn)))
+                .execute();
+        if (updated == 0) {
+            this.database
+                    .insertInto(MONTHLY_MILAGE_ROLLUP, MONTHLY_MILAGE_ROLLUP.BIKE_ID, MONTHLY_MILAGE_ROLLUP.RECORDED_ON, MONTHLY_MILAGE_ROLLUP.DELTA)
+                    .values(bikeId, recordedOn, delta)
+                    .execute();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs two independent statistic queries concurrently: The first one on a small, dedicated pool, the second one on the
+ * calling thread. Each pool thread holds at most one connection, so the size of the pool is the number of additional
+ * connections the statistics may use. When all pool threads are busy, the caller runs both queries itself.
+ * <p>
+ * The latency of each query is recorded as {@code statistics.queries}, tagged with the name of the query.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+class ParallelQueries {
+
+    static final String METRIC_QUERIES = "statistics.queries";
+
+    private final Executor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    ParallelQueries(final Executor statisticsQueryExecutor, final MeterRegistry meterRegistry) {
+        this.executor = statisticsQueryExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return An instance running all queries one after another on the calling thread
+     */
+    static ParallelQueries sequential() {
+        return new ParallelQueries(Runnable::run, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Runs both queries and combines their results. Inside a transaction, both queries run on the calling thread, as
+     * the pool threads would not see uncommitted changes.
+     *
+     * @param <A> Type of the first result
+     * @param <B> Type of the second result
+     * @param <R> Type of the combined result
+     * @param nameOfFirst Name of the first query
+     * @param first The first query
+     * @param nameOfSecond Name of the second query
+     * @param second The second query
+     * @param combiner Combines both results
+     * @return The combined result
+     */
+    <A, B, R> R join(
+            final String nameOfFirst, final Supplier<A> first,
+            final String nameOfSecond, final Supplier<B> second,
+            final BiFunction<A, B, R> combiner
+    ) {
+        var executorToUse = TransactionSynchronizationManager.isActualTransactionActive() ? (Executor) Runnable::run : this.executor;
+        var firstResult = CompletableFuture.supplyAsync(timed(nameOfFirst, first), executorToUse);
+        var secondResult = timed(nameOfSecond, second).get();
+        return combiner.apply(join(firstResult), secondResult);
+    }
+
+    private <T> Supplier<T> timed(final String name, final Supplier<T> query) {
+        var timer = Timer.builder(METRIC_QUERIES).tag("query", name).register(this.meterRegistry);
+        return () -> timer.record(query);
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            } else if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -15,17 +15,15 @@
  */
 package ac.simons.biking2.statistics;
 
-import static ac.simons.biking2.db.Tables.ASSORTED_TRIPS;
 import static ac.simons.biking2.db.Tables.BIKES;
-import static ac.simons.biking2.db.Tables.MILAGES;
+import static ac.simons.biking2.db.Tables.MONTHLY_MILAGE_ROLLUP;
 import static org.jooq.impl.DSL.avg;
 import static org.jooq.impl.DSL.ceil;
 import static org.jooq.impl.DSL.coalesce;
+import static org.jooq.impl.DSL.count;
 import static org.jooq.impl.DSL.denseRank;
 import static org.jooq.impl.DSL.extract;
 import static org.jooq.impl.DSL.inline;
-import static org.jooq.impl.DSL.lead;
-import static org.jooq.impl.DSL.localDateAdd;
 import static org.jooq.impl.DSL.localDateDiff;
 import static org.jooq.impl.DSL.max;
 import static org.jooq.impl.DSL.min;
@@ -37,98 +35,113 @@ import static org.jooq.impl.DSL.round;
 import static org.jooq.impl.DSL.sum;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Period;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import org.jooq.CommonTableExpression;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.DatePart;
-import org.jooq.Field;
-import org.jooq.Record5;
 import org.jooq.impl.DSL;
 import org.jooq.lambda.tuple.Tuple;
 import org.jooq.lambda.tuple.Tuple2;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
+import ac.simons.biking2.db.tables.MonthlyMilageRollup;
 
 /**
- * Thin abstraction over the database access.
+ * Thin abstraction over the database access. All statistics are computed from the {@code monthly_milage_rollup},
+ * which is maintained by the {@link MilageRollupService}, or by the {@link ColumnarMilageStore} if the in-memory engine
+ * is enabled.
  *
  * @author Michael J. Simons
  * @since 2019-10-28
  */
 @Service
-@RequiredArgsConstructor
 class StatisticService {
 
+    static final String CACHE_CURRENT_YEAR = "statistics.currentYear";
+    static final String CACHE_DASHBOARD = "statistics.dashboard";
+    static final String CACHE_HISTORY = "statistics.history";
+    static final String CACHE_MONTHLY_AVERAGE = "statistics.monthlyAverage";
+    static final String CACHE_SUMMARY = "statistics.summary";
+
     private static final String ALIAS_FOR_VALUE = "value";
 
     /**
-     * The computed monthly milage value.
+     * Contains the monthly milage value per bike and the sum of assorted trips per month.
      */
-    private static final Field<BigDecimal> MONTHLY_MILAGE_VALUE =
-            lead(MILAGES.AMOUNT).over(partitionBy(BIKES.ID).orderBy(MILAGES.RECORDED_ON)).minus(MILAGES.AMOUNT).as(ALIAS_FOR_VALUE);
+    private static final MonthlyMilageRollup ROLLUP = MONTHLY_MILAGE_ROLLUP;
+
+    private final DSLContext database;
 
     /**
-     * The cte for computing the monthly milage value.
+     * The in-memory engine, {@literal null} if the statistics are computed by the database.
      */
-    private static final CommonTableExpression<Record5<String, String, Boolean, LocalDate, BigDecimal>> MONTHLY_MILAGES =
-            name("monthlyMilages").as(DSL
-                    .select(BIKES.NAME, BIKES.COLOR, BIKES.MISCELLANEOUS, MILAGES.RECORDED_ON, MONTHLY_MILAGE_VALUE)
-                    .from(BIKES).join(MILAGES).onKey()
-                    .orderBy(MILAGES.RECORDED_ON.asc()));
+    private final ColumnarMilageStore store;
 
-    private final DSLContext database;
+    private final ParallelQueries queries;
+
+    StatisticService(final DSLContext database) {
+        this(database, Optional.empty());
+    }
+
+    StatisticService(final DSLContext database, final Optional<ColumnarMilageStore> store) {
+        this(database, store, ParallelQueries.sequential());
+    }
 
-    @Cacheable(value = "statistics", key = "#root.methodName")
+    @Autowired
+    StatisticService(final DSLContext database, final Optional<ColumnarMilageStore> store, final ParallelQueries queries) {
+        this.database = database;
+        this.store = store.orElse(null);
+        this.queries = queries;
+    }
+
+    @Cacheable(value = CACHE_MONTHLY_AVERAGE, key = "#root.methodName", sync = true)
     public Map<Integer, MonthlyAverage> computeMonthlyAverage() {
 
+        if (this.store != null) {
+            return this.store.computeMonthlyAverage();
+        }
+
         var rv = new HashMap<Integer, MonthlyAverage>(12);
 
-        var aggregatedMonthlyValue = sum(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE)).as(ALIAS_FOR_VALUE);
-        var aggregatedMonthlyMilages = name("aggregatedMonthlyMilages").as(DSL
-                .select(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), aggregatedMonthlyValue)
-                .from(MONTHLY_MILAGES)
-                .where(MONTHLY_MILAGE_VALUE.isNotNull())
-                .groupBy(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON)));
-
-        var assortedTripRecordedOn = localDateAdd(
-                ASSORTED_TRIPS.COVERED_ON,
-                extract(ASSORTED_TRIPS.COVERED_ON, DatePart.DAY).neg().plus(inline(1)),
-                DatePart.DAY
-        ).as("recorded_on");
-        var assortedTripValue = sum(ASSORTED_TRIPS.DISTANCE).as(ALIAS_FOR_VALUE);
-        var aggregatedAssortedTrips = name("aggregatedAssortedTrips").as(DSL
-                .select(assortedTripRecordedOn, assortedTripValue)
-                .from(ASSORTED_TRIPS)
-                .groupBy(assortedTripRecordedOn));
-
-        var value = aggregatedMonthlyMilages.field(aggregatedMonthlyValue).plus(coalesce(aggregatedAssortedTrips.field(assortedTripValue), inline(0)));
+        // Only months with at least one milage value are taken into account, trips are added to those
+        var monthlyValue = sum(ROLLUP.DELTA).plus(sum(ROLLUP.TRIPS)).as(ALIAS_FOR_VALUE);
+        var monthlyValues = name("monthlyValues").as(DSL
+                .select(ROLLUP.RECORDED_ON, monthlyValue)
+                .from(ROLLUP)
+                .groupBy(ROLLUP.RECORDED_ON)
+                .having(count(ROLLUP.DELTA).gt(0)));
+
+        var value = monthlyValues.field(monthlyValue);
         var minimum = round(min(value)).as("minimum");
         var maximum = round(max(value)).as("maximum");
         var average = round(avg(value)).as("average");
-        var month = extract(aggregatedMonthlyMilages.field(MILAGES.RECORDED_ON), DatePart.MONTH).as("month");
+        var month = extract(monthlyValues.field(ROLLUP.RECORDED_ON), DatePart.MONTH).as("month");
         this.database
-                .with(MONTHLY_MILAGES)
-                .with(aggregatedMonthlyMilages)
-                .with(aggregatedAssortedTrips)
+                .with(monthlyValues)
                 .select(month, minimum, maximum, average)
-                .from(aggregatedMonthlyMilages)
-                .leftOuterJoin(aggregatedAssortedTrips)
-                .on(aggregatedAssortedTrips.field(assortedTripRecordedOn).eq(aggregatedMonthlyMilages.field(MILAGES.RECORDED_ON)))
+                .from(monthlyValues)
                 .groupBy(month).orderBy(month.asc())
                 .forEach(record -> {
                     var monthNumber = record.get(month).intValue();
@@ -147,113 +160,162 @@ class StatisticService {
         return Collections.unmodifiableMap(rv);
     }
 
-    @Cacheable(value = "statistics", key = "#root.methodName+#yearStart+#yearEnd")
+    @Cacheable(value = CACHE_HISTORY, key = "T(ac.simons.biking2.statistics.HistoryRange).of(#yearStart, #yearEnd)", sync = true)
     public Map<Integer, HistoricYear> computeHistory(final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
 
-        var lowerBound = yearStart.orElse(Integer.MIN_VALUE);
-        var upperBound = yearEnd.orElseGet(() -> LocalDate.now().getYear()) - 1;
+        if (this.store != null) {
+            return this.store.computeHistory(yearStart, yearEnd);
+        }
+
+        // Compares the dates and not their years, so that the index on recorded_on can be used. The bounds are inlined,
+        // as H2 doesn't evaluate bind values inside common table expressions correctly.
+        var inRange = ROLLUP.RECORDED_ON.lessThan(inline(firstDayOf(yearEnd.orElseGet(() -> LocalDate.now().getYear()))));
+        if (yearStart.isPresent()) {
+            inRange = inRange.and(ROLLUP.RECORDED_ON.greaterOrEqual(inline(firstDayOf(yearStart.get()))));
+        }
+        var condition = inRange;
+
+        return this.queries.join(
+                "history.values", () -> selectYearlyValues(condition),
+                "history.preferredBikes", () -> selectPreferredBikes(condition),
+                (yearlyValues, preferredBikes) -> yearlyValues.entrySet().stream()
+                        .map(e -> HistoricYear.builder().year(e.getKey()).values(e.getValue()).preferredBike(preferredBikes.get(e.getKey())).build())
+                        .collect(Collectors.toMap(HistoricYear::getYear, Function.identity()))
+        );
+    }
+
+    private static LocalDate firstDayOf(final int year) {
+        return LocalDate.of(Math.max(Year.MIN_VALUE, Math.min(Year.MAX_VALUE, year)), 1, 1);
+    }
+
+    private Map<Integer, int[]> selectYearlyValues(final Condition inRange) {
 
-        // Select yearly values
         var yearlyValues = new HashMap<Integer, int[]>();
 
-        var aggregatedMonthlyValue = nvl(round(sum(MONTHLY_MILAGE_VALUE)), BigDecimal.ZERO);
+        var aggregatedMonthlyValue = nvl(round(sum(ROLLUP.DELTA)), BigDecimal.ZERO);
         this.database
-                .with(MONTHLY_MILAGES)
                 .select(
-                        MONTHLY_MILAGES.field(MILAGES.RECORDED_ON),
+                        ROLLUP.RECORDED_ON,
                         aggregatedMonthlyValue
                 )
-                .from(MONTHLY_MILAGES)
-                .where(extract(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), DatePart.YEAR).between(lowerBound).and(upperBound))
-                .groupBy(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON))
-                .orderBy(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON).asc())
+                .from(ROLLUP)
+                .where(ROLLUP.BIKE_ID.isNotNull())
+                .and(inRange)
+                .groupBy(ROLLUP.RECORDED_ON)
+                .orderBy(ROLLUP.RECORDED_ON.asc())
                 .forEach(record -> {
-                    var recordedOn = record.get(MILAGES.RECORDED_ON);
+                    var recordedOn = record.get(ROLLUP.RECORDED_ON);
                     var year = yearlyValues.computeIfAbsent(recordedOn.getYear(), y -> new int[12]);
                     year[recordedOn.getMonthValue() - 1] = record.get(aggregatedMonthlyValue).intValue();
                 });
+        return yearlyValues;
+    }
+
+    private Map<Integer, String> selectPreferredBikes(final Condition inRange) {
 
-        // Select preferred bikes
         var preferredBikes = new HashMap<Integer, String>();
 
-        var year = extract(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), DatePart.YEAR).as("year");
-        var aggregatedYearlyValue = sum(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE)).as(ALIAS_FOR_VALUE);
+        var year = extract(ROLLUP.RECORDED_ON, DatePart.YEAR).as("year");
+        var aggregatedYearlyValue = sum(ROLLUP.DELTA).as(ALIAS_FOR_VALUE);
         var yearlyMilages = name("yearlyMilages").as(DSL
-                .select(MONTHLY_MILAGES.field(BIKES.NAME), year, aggregatedYearlyValue)
-                .from(MONTHLY_MILAGES)
-                .where(MONTHLY_MILAGE_VALUE.isNotNull())
-                .groupBy(MONTHLY_MILAGES.field(BIKES.NAME), year));
-        var bikeRank = denseRank().over(partitionBy(yearlyMilages.field(year)).orderBy(max(aggregatedYearlyValue).desc())).as("r");
+                .select(BIKES.NAME, year, aggregatedYearlyValue)
+                .from(ROLLUP)
+                .join(BIKES).on(BIKES.ID.eq(ROLLUP.BIKE_ID))
+                .where(ROLLUP.DELTA.isNotNull())
+                .and(inRange)
+                .groupBy(BIKES.NAME, year));
+        var bikeRank = denseRank().over(partitionBy(yearlyMilages.field(year)).orderBy(yearlyMilages.field(aggregatedYearlyValue).desc())).as("r");
         var rankedYears = DSL
                 .select(
                         yearlyMilages.field(BIKES.NAME),
                         yearlyMilages.field(year),
                         bikeRank
                 )
-                .from(yearlyMilages)
-                .where(yearlyMilages.field(year).between(lowerBound).and(upperBound))
-                .groupBy(yearlyMilages.field(BIKES.NAME), yearlyMilages.field(year));
+                .from(yearlyMilages);
         this.database
-                .with(MONTHLY_MILAGES)
                 .with(yearlyMilages)
                 .select(rankedYears.field(BIKES.NAME), rankedYears.field(year))
                 .from(rankedYears)
                 .where(bikeRank.eq(inline(1)))
                 .forEach(record ->
                         preferredBikes.putIfAbsent(record.get(yearlyMilages.field(year)), record.get(yearlyMilages.field(BIKES.NAME))));
-
-        return yearlyValues.entrySet().stream()
-                .map(e -> HistoricYear.builder().year(e.getKey()).values(e.getValue()).preferredBike(preferredBikes.get(e.getKey())).build())
-                .collect(Collectors.toMap(HistoricYear::getYear, Function.identity()));
+        return preferredBikes;
     }
 
-    @Cacheable(value = "statistics", key = "#root.methodName")
+    @Cacheable(value = CACHE_CURRENT_YEAR, key = "T(java.time.LocalDate).now().year", sync = true)
     public CurrentYear computeCurrentYear() {
 
+        if (this.store != null) {
+            return this.store.computeCurrentYear();
+        }
+
         var startOfYear = LocalDate.now().withMonth(1).withDayOfMonth(1);
 
+        return this.queries.join(
+                "currentYear.totals", () -> selectMonthlyTotals(startOfYear),
+                "currentYear.bikes", () -> selectMonthlyValuesPerBike(startOfYear),
+                (totals, values) -> newCurrentYear(startOfYear, totals, values)
+        );
+    }
+
+    /**
+     * Rows without a bike contain the assorted trips, the totals per month are the sum of both.
+     *
+     * @param startOfYear The first day of the current year
+     * @return The total per month, {@literal -1} for months without any values
+     */
+    private int[] selectMonthlyTotals(final LocalDate startOfYear) {
+
         int[] totals = new int[12];
         Arrays.fill(totals, -1);
-        Map<Tuple2<String, String>, int[]> values = new LinkedHashMap<>();
 
-        var total = sum(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE)).over(partitionBy(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON))).as("total");
-        var idxA = extract(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), DatePart.MONTH).minus(inline(1)).as("idx");
+        var milageTotal = nvl(sum(ROLLUP.DELTA), BigDecimal.ZERO).as("milageTotal");
+        var tripsTotal = round(sum(ROLLUP.TRIPS)).as("tripsTotal");
         this.database
-                .with(MONTHLY_MILAGES)
-                .select(
-                        MONTHLY_MILAGES.field(BIKES.NAME), MONTHLY_MILAGES.field(BIKES.COLOR), MONTHLY_MILAGES.field(BIKES.MISCELLANEOUS),
-                        idxA,
-                        MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE),
-                        total
-                )
-                .from(MONTHLY_MILAGES)
-                .where(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE).isNotNull())
-                .and(extract(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), DatePart.YEAR)
-                        .greaterOrEqual(extract(startOfYear, DatePart.YEAR)))
-                .orderBy(MONTHLY_MILAGES.field(BIKES.NAME).asc())
-                .forEach(record -> {
-                    var index = record.get(idxA).intValue();
-                    if (totals[index] == -1) {
-                        totals[index] = record.get(total).intValue();
-                    }
-                    // Only include non miscellaneous bikes
-                    if (!record.get(BIKES.MISCELLANEOUS).booleanValue()) {
-                        var bikeAndColor = Tuple.tuple(record.get(BIKES.NAME), record.get(BIKES.COLOR));
-                        var milagesInYear = values.computeIfAbsent(bikeAndColor, k -> new int[12]);
-                        milagesInYear[index] = record.get(MONTHLY_MILAGE_VALUE).intValue();
-                    }
-                });
+                .select(ROLLUP.RECORDED_ON, milageTotal, tripsTotal)
+                .from(ROLLUP)
+                .where(ROLLUP.DELTA.isNotNull().or(ROLLUP.BIKE_ID.isNull()))
+                .and(ROLLUP.RECORDED_ON.greaterOrEqual(startOfYear))
+                .groupBy(ROLLUP.RECORDED_ON)
+                .forEach(record -> totals[record.get(ROLLUP.RECORDED_ON).getMonthValue() - 1] =
+                        record.get(milageTotal).intValue() + record.get(tripsTotal).intValue());
+        return totals;
+    }
 
-        var idxB = extract(ASSORTED_TRIPS.COVERED_ON, DatePart.MONTH).minus(inline(1)).as("idx");
+    /**
+     * Only includes non miscellaneous bikes.
+     *
+     * @param startOfYear The first day of the current year
+     * @return The values per bike (name and color) and month, ordered by the name of the bike
+     */
+    private Map<Tuple2<String, String>, int[]> selectMonthlyValuesPerBike(final LocalDate startOfYear) {
+
+        Map<Tuple2<String, String>, int[]> values = new LinkedHashMap<>();
         this.database
-                .select(idxB, round(sum(ASSORTED_TRIPS.DISTANCE)).as("distance"))
-                .from(ASSORTED_TRIPS)
-                .where(ASSORTED_TRIPS.COVERED_ON.greaterOrEqual(startOfYear))
-                .groupBy(idxB)
+                .select(BIKES.NAME, BIKES.COLOR, ROLLUP.RECORDED_ON, ROLLUP.DELTA)
+                .from(ROLLUP)
+                .join(BIKES).on(BIKES.ID.eq(ROLLUP.BIKE_ID))
+                .where(ROLLUP.DELTA.isNotNull())
+                .and(BIKES.MISCELLANEOUS.isFalse())
+                .and(ROLLUP.RECORDED_ON.greaterOrEqual(startOfYear))
+                .orderBy(BIKES.NAME.asc())
                 .forEach(record -> {
-                    var index = record.component1();
-                    totals[index] = Math.max(totals[index], 0) + record.component2().intValue();
+                    var bikeAndColor = Tuple.tuple(record.get(BIKES.NAME), record.get(BIKES.COLOR));
+                    var milagesInYear = values.computeIfAbsent(bikeAndColor, k -> new int[12]);
+                    milagesInYear[record.get(ROLLUP.RECORDED_ON).getMonthValue() - 1] = record.get(ROLLUP.DELTA).intValue();
                 });
+        return values;
+    }
+
+    /**
+     * Computes the derived values of the current year.
+     *
+     * @param startOfYear The first day of the current year
+     * @param totals The total per month, {@literal -1} for months without any values
+     * @param values The values per bike (name and color) and month
+     * @return A new current year
+     */
+    static CurrentYear newCurrentYear(final LocalDate startOfYear, final int[] totals, final Map<Tuple2<String, String>, int[]> values) {
 
         var maxValue = Integer.MIN_VALUE;
         var minValue = Integer.MAX_VALUE;
@@ -294,24 +356,28 @@ class StatisticService {
                 .build();
     }
 
-    @Cacheable(value = "statistics", key = "#root.methodName")
+    @Cacheable(value = CACHE_SUMMARY, key = "#root.methodName", sync = true)
     public Summary computeSummary() {
 
-        var aggregatedMonthlyValue = sum(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE)).as(ALIAS_FOR_VALUE);
-        var monthRank = rank().over().orderBy(sum(MONTHLY_MILAGES.field(MONTHLY_MILAGE_VALUE)).desc(), MONTHLY_MILAGES.field(MILAGES.RECORDED_ON).desc()).as("month_rank");
+        if (this.store != null) {
+            return this.store.computeSummary();
+        }
+
+        var aggregatedMonthlyValue = sum(ROLLUP.DELTA).as(ALIAS_FOR_VALUE);
+        var monthRank = rank().over().orderBy(sum(ROLLUP.DELTA).desc(), ROLLUP.RECORDED_ON.desc()).as("month_rank");
         var aggregatedMonthlyMilages = name("aggregatedMonthlyMilages").as(DSL
-                .select(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON), aggregatedMonthlyValue, monthRank)
-                .from(MONTHLY_MILAGES)
-                .where(MONTHLY_MILAGE_VALUE.isNotNull())
-                .groupBy(MONTHLY_MILAGES.field(MILAGES.RECORDED_ON)));
+                .select(ROLLUP.RECORDED_ON, aggregatedMonthlyValue, monthRank)
+                .from(ROLLUP)
+                .where(ROLLUP.DELTA.isNotNull())
+                .groupBy(ROLLUP.RECORDED_ON));
 
-        var aggregatedTripsValue = sum(ASSORTED_TRIPS.DISTANCE).as(ALIAS_FOR_VALUE);
+        var aggregatedTripsValue = sum(ROLLUP.TRIPS).as(ALIAS_FOR_VALUE);
         var aggregatedTrips = name("aggregatedTrips").as(DSL
                 .select(aggregatedTripsValue)
-                .from(ASSORTED_TRIPS));
+                .from(ROLLUP));
 
-        var minPeriod = min(aggregatedMonthlyMilages.field(MILAGES.RECORDED_ON)).as("min_period");
-        var summaryValue = sum(aggregatedMonthlyMilages.field(aggregatedMonthlyValue)).plus(coalesce(aggregatedTrips.field(aggregatedTripsValue), inline(0))).as("summaryValue");
+        var minPeriod = min(aggregatedMonthlyMilages.field(ROLLUP.RECORDED_ON)).as("min_period");
+        var summaryValue = sum(aggregatedMonthlyMilages.field(aggregatedMonthlyValue)).plus(coalesce(max(aggregatedTrips.field(aggregatedTripsValue)), inline(0))).as("summaryValue");
         var summary = name("summary").as(DSL
                 .select(minPeriod, summaryValue)
                 .from(aggregatedMonthlyMilages, aggregatedTrips)
@@ -319,29 +385,28 @@ class StatisticService {
 
         var bestPeriod = DSL
                 .select(
-                        aggregatedMonthlyMilages.field(MILAGES.RECORDED_ON),
+                        aggregatedMonthlyMilages.field(ROLLUP.RECORDED_ON),
                         aggregatedMonthlyMilages.field(aggregatedMonthlyValue))
                 .from(aggregatedMonthlyMilages)
                 .where(aggregatedMonthlyMilages.field(monthRank).eq(inline(1)))
                 .asTable("bestPeriod");
         var worstPeriod = DSL
                 .select(
-                        aggregatedMonthlyMilages.field(MILAGES.RECORDED_ON),
+                        aggregatedMonthlyMilages.field(ROLLUP.RECORDED_ON),
                         aggregatedMonthlyMilages.field(aggregatedMonthlyValue))
                 .from(aggregatedMonthlyMilages)
                 .where(aggregatedMonthlyMilages.field(monthRank).eq(DSL.select(max(aggregatedMonthlyMilages.field(monthRank))).from(aggregatedMonthlyMilages)))
                 .asTable("worstPeriod");
 
-        var bestPeriodRecordedOn = bestPeriod.field(MILAGES.RECORDED_ON);
+        var bestPeriodRecordedOn = bestPeriod.field(ROLLUP.RECORDED_ON);
         var bestPeriodValue = bestPeriod.field(aggregatedMonthlyValue);
-        var worstPeriodRecordedOn = worstPeriod.field(MILAGES.RECORDED_ON);
+        var worstPeriodRecordedOn = worstPeriod.field(ROLLUP.RECORDED_ON);
         var worstPeriodValue = worstPeriod.field(aggregatedMonthlyValue);
         var dateDiff = localDateDiff(DSL.currentLocalDate(), summary.field(minPeriod));
         var average = DSL.if_(dateDiff.eq(0), inline(Double.POSITIVE_INFINITY), summary.field(summaryValue).div(ceil(dateDiff.div(inline(30.4167)))))
             .cast(Double.class)
             .as("average");
         return this.database
-                .with(MONTHLY_MILAGES)
                 .with(aggregatedMonthlyMilages)
                 .with(aggregatedTrips)
                 .with(summary)
@@ -363,4 +428,190 @@ class StatisticService {
                         .build()
                 ).orElse(Summary.builder().total(0.0).average(0.0).build());
     }
+
+    /**
+     * Computes all statistics needed for the dashboard with one query. The rollup is read once and the summary,
+     * the current year, the monthly averages and the history are derived from it in memory, with the same semantics as
+     * the single computations.
+     *
+     * @param yearStart Optional lower bound of the history (inclusive)
+     * @param yearEnd Optional upper bound of the history (exclusive)
+     * @return All statistics shown on the dashboard
+     */
+    @Cacheable(value = CACHE_DASHBOARD, key = "T(ac.simons.biking2.statistics.HistoryRange).of(#yearStart, #yearEnd)", sync = true)
+    public Dashboard computeDashboard(final Optional<Integer> yearStart, final Optional<Integer> yearEnd) {
+
+        if (this.store != null) {
+            return this.store.computeDashboard(yearStart, yearEnd);
+        }
+
+        var today = LocalDate.now();
+        var startOfYear = today.withMonth(1).withDayOfMonth(1);
+        var lowerBound = yearStart.orElse(Integer.MIN_VALUE);
+        var upperBound = yearEnd.orElseGet(today::getYear) - 1;
+
+        var months = new TreeMap<LocalDate, MonthlyTotal>();
+        var currentYearValues = new LinkedHashMap<Tuple2<String, String>, int[]>();
+        var historicValues = new HashMap<Integer, BigDecimal[]>();
+        var historicMilagesPerBike = new HashMap<Integer, Map<String, BigDecimal>>();
+
+        this.database
+                .select(ROLLUP.BIKE_ID, BIKES.NAME, BIKES.COLOR, BIKES.MISCELLANEOUS, ROLLUP.RECORDED_ON, ROLLUP.DELTA, ROLLUP.TRIPS)
+                .from(ROLLUP)
+                .leftJoin(BIKES).on(BIKES.ID.eq(ROLLUP.BIKE_ID))
+                .orderBy(BIKES.NAME.asc(), ROLLUP.RECORDED_ON.asc())
+                .forEach(record -> {
+                    var recordedOn = record.get(ROLLUP.RECORDED_ON);
+                    var delta = record.get(ROLLUP.DELTA);
+                    var isTrip = record.get(ROLLUP.BIKE_ID) == null;
+                    months.computeIfAbsent(recordedOn, k -> new MonthlyTotal()).add(delta, record.get(ROLLUP.TRIPS), isTrip);
+                    if (isTrip) {
+                        return;
+                    }
+
+                    var index = recordedOn.getMonthValue() - 1;
+                    var year = recordedOn.getYear();
+                    if (year >= lowerBound && year <= upperBound) {
+                        var values = historicValues.computeIfAbsent(year, y -> new BigDecimal[12]);
+                        if (delta != null) {
+                            values[index] = values[index] == null ? delta : values[index].add(delta);
+                            historicMilagesPerBike.computeIfAbsent(year, y -> new HashMap<>()).merge(record.get(BIKES.NAME), delta, BigDecimal::add);
+                        }
+                    }
+                    // Only include non miscellaneous bikes
+                    if (delta != null && !recordedOn.isBefore(startOfYear) && !record.get(BIKES.MISCELLANEOUS).booleanValue()) {
+                        var bikeAndColor = Tuple.tuple(record.get(BIKES.NAME), record.get(BIKES.COLOR));
+                        currentYearValues.computeIfAbsent(bikeAndColor, k -> new int[12])[index] = delta.intValue();
+                    }
+                });
+
+        int[] totals = new int[12];
+        Arrays.fill(totals, -1);
+        months.tailMap(startOfYear).forEach((recordedOn, monthlyTotal) -> {
+            if (monthlyTotal.hasMilage || monthlyTotal.hasTrips) {
+                totals[recordedOn.getMonthValue() - 1] = monthlyTotal.milage.intValue() + monthlyTotal.trips.setScale(0, RoundingMode.HALF_UP).intValue();
+            }
+        });
+
+        return new Dashboard(
+                newSummary(months, today),
+                newCurrentYear(startOfYear, totals, currentYearValues),
+                newMonthlyAverages(months),
+                historicValues.entrySet().stream()
+                        .map(e -> HistoricYear.builder()
+                                .year(e.getKey())
+                                .values(Arrays.stream(e.getValue()).mapToInt(v -> v == null ? 0 : v.setScale(0, RoundingMode.HALF_UP).intValue()).toArray())
+                                .preferredBike(historicMilagesPerBike.getOrDefault(e.getKey(), Map.of()).entrySet().stream()
+                                        .max(Map.Entry.comparingByValue())
+                                        .map(Map.Entry::getKey)
+                                        .orElse(null))
+                                .build())
+                        .collect(Collectors.toMap(HistoricYear::getYear, Function.identity()))
+        );
+    }
+
+    /**
+     * Only months with at least one milage are part of the summary, trips are added to the total.
+     */
+    private static Summary newSummary(final SortedMap<LocalDate, MonthlyTotal> months, final LocalDate today) {
+
+        LocalDate firstMonth = null;
+        LocalDate bestMonth = null;
+        LocalDate worstMonth = null;
+        var best = BigDecimal.ZERO;
+        var worst = BigDecimal.ZERO;
+        var milages = BigDecimal.ZERO;
+        var trips = BigDecimal.ZERO;
+        for (var entry : months.entrySet()) {
+            var monthlyTotal = entry.getValue();
+            trips = trips.add(monthlyTotal.trips);
+            if (!monthlyTotal.hasMilage) {
+                continue;
+            }
+
+            var value = monthlyTotal.milage;
+            milages = milages.add(value);
+            if (firstMonth == null) {
+                firstMonth = entry.getKey();
+                bestMonth = firstMonth;
+                worstMonth = firstMonth;
+                best = value;
+                worst = value;
+            }
+            // Later months win on equal values for the best period, earlier months for the worst
+            if (value.compareTo(best) >= 0) {
+                best = value;
+                bestMonth = entry.getKey();
+            }
+            if (value.compareTo(worst) < 0) {
+                worst = value;
+                worstMonth = entry.getKey();
+            }
+        }
+
+        if (firstMonth == null) {
+            return Summary.builder().total(0.0).average(0.0).build();
+        }
+
+        var total = milages.add(trips).doubleValue();
+        var days = ChronoUnit.DAYS.between(firstMonth, today);
+        return Summary.builder()
+                .worstPeriod(new AccumulatedPeriod(worstMonth, worst.intValue()))
+                .bestPeriod(new AccumulatedPeriod(bestMonth, best.intValue()))
+                .average(days == 0 ? Double.POSITIVE_INFINITY : total / Math.ceil(days / 30.4167))
+                .total(total)
+                .dateOfFirstRecord(firstMonth)
+                .build();
+    }
+
+    /**
+     * Only months with at least one milage are taken into account, trips are added to those.
+     */
+    private static Map<Integer, MonthlyAverage> newMonthlyAverages(final SortedMap<LocalDate, MonthlyTotal> months) {
+
+        var valuesPerMonth = new HashMap<Integer, List<BigDecimal>>(12);
+        months.forEach((recordedOn, monthlyTotal) -> {
+            if (monthlyTotal.hasMilage) {
+                valuesPerMonth.computeIfAbsent(recordedOn.getMonthValue(), k -> new ArrayList<>()).add(monthlyTotal.milage.add(monthlyTotal.trips));
+            }
+        });
+
+        var rv = new HashMap<Integer, MonthlyAverage>(12);
+        IntStream.rangeClosed(1, 12).forEach(i -> {
+            var monthlyAverage = MonthlyAverage.builder().month(Month.of(i));
+            var values = valuesPerMonth.get(i);
+            if (values != null) {
+                var sum = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+                monthlyAverage
+                        .minimum(values.stream().min(Comparator.naturalOrder()).orElseThrow().setScale(0, RoundingMode.HALF_UP).intValue())
+                        .maximum(values.stream().max(Comparator.naturalOrder()).orElseThrow().setScale(0, RoundingMode.HALF_UP).intValue())
+                        .value(sum.divide(BigDecimal.valueOf(values.size()), 10, RoundingMode.HALF_UP).setScale(0, RoundingMode.HALF_UP).doubleValue());
+            }
+            rv.put(i, monthlyAverage.build());
+        });
+        return Collections.unmodifiableMap(rv);
+    }
+
+    /**
+     * Accumulates all rows of the rollup for one month.
+     */
+    private static final class MonthlyTotal {
+
+        private BigDecimal milage = BigDecimal.ZERO;
+
+        private BigDecimal trips = BigDecimal.ZERO;
+
+        private boolean hasMilage;
+
+        private boolean hasTrips;
+
+        void add(final BigDecimal delta, final BigDecimal additionalTrips, final boolean isTrip) {
+            if (delta != null) {
+                this.milage = this.milage.add(delta);
+                this.hasMilage = true;
+            }
+            this.trips = this.trips.add(additionalTrips);
+            this.hasTrips |= isTrip;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticService.CACHE_CURRENT_YEAR;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_DASHBOARD;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_HISTORY;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_MONTHLY_AVERAGE;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_SUMMARY;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Configures the statistics cache regions: All of them are bounded, expire after a fixed time (some statistics depend
+ * on the current date) and are refreshed in the background when accessed after the refresh interval, so that visitors
+ * are served the old value instead of waiting for the queries.
+ * <p>
+ * Refreshing uses an instance of the {@link StatisticService} that is not cached, the cached one would just return the
+ * value to be refreshed. That instance is created on first use: The database access depends on the transaction manager,
+ * which in turn depends on the cache manager customized here.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+class StatisticsCacheCustomizer implements CacheManagerCustomizer<CaffeineCacheManager> {
+
+    private final Supplier<StatisticService> statisticService;
+
+    private final long maximumNumberOfHistories;
+
+    private final Duration expireAfterWrite;
+
+    private final Duration refreshAfterWrite;
+
+    @Autowired
+    StatisticsCacheCustomizer(
+            final ObjectProvider<DSLContext> database,
+            final ObjectProvider<ColumnarMilageStore> store,
+            final ObjectProvider<ParallelQueries> queries,
+            @Value("${biking2.statistics.cache.maximum-number-of-histories:64}") final long maximumNumberOfHistories,
+            @Value("${biking2.statistics.cache.expire-after-write:1d}") final Duration expireAfterWrite,
+            @Value("${biking2.statistics.cache.refresh-after-write:1h}") final Duration refreshAfterWrite
+    ) {
+        this(SingletonSupplier.of(() -> new StatisticService(database.getObject(), Optional.ofNullable(store.getIfAvailable()), queries.getObject())), maximumNumberOfHistories, expireAfterWrite, refreshAfterWrite);
+    }
+
+    StatisticsCacheCustomizer(
+            final StatisticService statisticService,
+            final long maximumNumberOfHistories,
+            final Duration expireAfterWrite,
+            final Duration refreshAfterWrite
+    ) {
+        this(() -> statisticService, maximumNumberOfHistories, expireAfterWrite, refreshAfterWrite);
+    }
+
+    private StatisticsCacheCustomizer(
+            final Supplier<StatisticService> statisticService,
+            final long maximumNumberOfHistories,
+            final Duration expireAfterWrite,
+            final Duration refreshAfterWrite
+    ) {
+        this.statisticService = statisticService;
+        this.maximumNumberOfHistories = maximumNumberOfHistories;
+        this.expireAfterWrite = expireAfterWrite;
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+
+    @Override
+    public void customize(final CaffeineCacheManager cacheManager) {
+
+        // The current year is keyed by year, so there's at most the old year around at the turn of a year
+        register(cacheManager, CACHE_CURRENT_YEAR, 2, year -> statisticService.get().computeCurrentYear());
+        register(cacheManager, CACHE_HISTORY, maximumNumberOfHistories, key -> {
+            var range = (HistoryRange) key;
+            return statisticService.get().computeHistory(Optional.ofNullable(range.yearStart()), Optional.ofNullable(range.yearEnd()));
+        });
+        register(cacheManager, CACHE_MONTHLY_AVERAGE, 1, key -> statisticService.get().computeMonthlyAverage());
+        register(cacheManager, CACHE_SUMMARY, 1, key -> statisticService.get().computeSummary());
+        register(cacheManager, CACHE_DASHBOARD, maximumNumberOfHistories, key -> {
+            var range = (HistoryRange) key;
+            return statisticService.get().computeDashboard(Optional.ofNullable(range.yearStart()), Optional.ofNullable(range.yearEnd()));
+        });
+    }
+
+    private void register(final CaffeineCacheManager cacheManager, final String name, final long maximumSize, final CacheLoader<Object, Object> loader) {
+        cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .build(loader));
+    }
+}
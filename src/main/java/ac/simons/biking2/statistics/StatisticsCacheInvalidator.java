@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticService.CACHE_CURRENT_YEAR;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_DASHBOARD;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_HISTORY;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_MONTHLY_AVERAGE;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_SUMMARY;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Invalidates only those statistics that are affected by a new milage or trip. Histories of years that are not
+ * affected stay cached. The number of evicted entries per cache region is available as
+ * {@code statistics.cache.invalidations}, hits and misses are recorded by the cache itself.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+class StatisticsCacheInvalidator {
+
+    static final String METRIC_INVALIDATIONS = "statistics.cache.invalidations";
+
+    /**
+     * Caches are invalidated after the in-memory engine and the {@link MilageRollupService rollup} have been updated
+     * and before they are warmed up again.
+     */
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private final CacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void onMilageRecorded(final MilageRecordedEvent event) {
+        // A new milage completes the value of the month before and may change the value of its own month
+        var recordedOn = event.recordedOn();
+        invalidate(Set.of(recordedOn.minusMonths(1).getYear(), recordedOn.getYear()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void onTripRecorded(final TripRecordedEvent event) {
+        invalidate(Set.of(event.coveredOn().getYear()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(ORDER)
+    public void onBikeUpdated(final BikeUpdatedEvent event) {
+        // Color and being miscellaneous are only relevant for the chart of the current year
+        evictIf(CACHE_CURRENT_YEAR, key -> true);
+        evictIf(CACHE_DASHBOARD, key -> true);
+    }
+
+    void invalidate(final Set<Integer> years) {
+        evictIf(CACHE_CURRENT_YEAR, years::contains);
+        evictIf(CACHE_HISTORY, key -> key instanceof HistoryRange range && years.stream().anyMatch(range::contains));
+        evictIf(CACHE_MONTHLY_AVERAGE, key -> true);
+        evictIf(CACHE_SUMMARY, key -> true);
+        // The dashboard contains the summary and the current year as well
+        evictIf(CACHE_DASHBOARD, key -> true);
+    }
+
+    private void evictIf(final String cacheName, final Predicate<Object> predicate) {
+        var cache = this.cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+
+        var keys = keysOf(cache);
+        if (keys == null) {
+            cache.clear();
+            return;
+        }
+
+        var evicted = keys.stream().filter(predicate).filter(cache::evictIfPresent).count();
+        this.meterRegistry.counter(METRIC_INVALIDATIONS, "cache", cacheName).increment(evicted);
+    }
+
+    /**
+     * @param cache The cache whose keys should be retrieved
+     * @return A snapshot of the keys of the given cache or {@literal null} if the keys cannot be enumerated
+     */
+    private static Collection<Object> keysOf(final Cache cache) {
+        var nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            return List.copyOf(caffeineCache.asMap().keySet());
+        } else if (nativeCache instanceof Map<?, ?> map) {
+            return List.copyOf(map.keySet());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills the statistics caches on startup and again after the {@link StatisticsCacheInvalidator} evicted entries, so
+ * that visitors don't have to wait for the queries. The warm-up runs on the {@code taskScheduler}, several changes in
+ * a row lead to only one warm-up as long as the previous one has not started yet.
+ * <p>
+ * Histories and dashboards are warmed up for the ranges configured through
+ * {@code biking2.statistics.warm-up.history-ranges}, see {@link HistoryRange#parse(String, int)}. Relative ranges are
+ * resolved against the year of each warm-up. The default is the range the milages page requests initially.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class StatisticsCacheWarmer {
+
+    private final StatisticService statisticService;
+
+    private final Executor taskScheduler;
+
+    private final List<String> historyRanges;
+
+    private final AtomicBoolean warmUpPending = new AtomicBoolean();
+
+    StatisticsCacheWarmer(
+            final StatisticService statisticService,
+            final Executor taskScheduler,
+            @Value("${biking2.statistics.warm-up.history-ranges:-3..0}") final List<String> historyRanges
+    ) {
+        this.statisticService = statisticService;
+        this.taskScheduler = taskScheduler;
+        // Fail on startup and not on each warm-up
+        historyRanges.forEach(range -> HistoryRange.parse(range, LocalDate.now().getYear()));
+        this.historyRanges = List.copyOf(historyRanges);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleWarmUp();
+    }
+
+    @TransactionalEventListener(classes = {MilageRecordedEvent.class, TripRecordedEvent.class, BikeUpdatedEvent.class}, fallbackExecution = true)
+    @Order(StatisticsCacheInvalidator.ORDER + 1)
+    public void onStatisticsChanged() {
+        scheduleWarmUp();
+    }
+
+    void scheduleWarmUp() {
+        if (!this.warmUpPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            this.taskScheduler.execute(this::warmUp);
+        } catch (RejectedExecutionException e) {
+            this.warmUpPending.set(false);
+            log.warn("Could not schedule warm-up of the statistics caches", e);
+        }
+    }
+
+    void warmUp() {
+        // Changes from now on need another warm-up
+        this.warmUpPending.set(false);
+
+        try {
+            this.statisticService.computeSummary();
+            this.statisticService.computeCurrentYear();
+            this.statisticService.computeMonthlyAverage();
+            var currentYear = LocalDate.now().getYear();
+            var ranges = this.historyRanges.stream().map(range -> HistoryRange.parse(range, currentYear)).distinct().toList();
+            for (var range : ranges) {
+                var yearStart = Optional.ofNullable(range.yearStart());
+                var yearEnd = Optional.ofNullable(range.yearEnd());
+                this.statisticService.computeHistory(yearStart, yearEnd);
+                this.statisticService.computeDashboard(yearStart, yearEnd);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the statistics caches", e);
+        }
+    }
+}
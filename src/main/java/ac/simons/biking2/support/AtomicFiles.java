@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.support;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files of the datastore so that readers see either the old or the complete new content, never a partially
+ * written file: The content is written to a temporary file in the same directory, forced to disk and then atomically
+ * moved into place. Temporary files are named after their target with the suffix {@value #TEMPORARY_SUFFIX}, so that
+ * leftovers of a crash can be recognized.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public final class AtomicFiles {
+
+    public static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Writes the content of a file.
+     *
+     * @param <T> The type of the result
+     * @param <E> The type of an additional exception thrown while writing
+     */
+    @FunctionalInterface
+    public interface Content<T, E extends Exception> {
+
+        /**
+         * @param out The stream to write to, closing it has no effect
+         * @return Anything computed while writing
+         * @throws IOException If writing fails
+         * @throws E If the content cannot be computed
+         */
+        T writeTo(OutputStream out) throws IOException, E;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes a file atomically. The target is left untouched if writing fails.
+     *
+     * @param <T> The type of the result
+     * @param <E> The type of an additional exception thrown while writing
+     * @param target The file to write
+     * @param content Writes the content
+     * @return Whatever the content returned
+     * @throws IOException If the file cannot be written
+     * @throws E If the content cannot be computed
+     */
+    public static <T, E extends Exception> T write(final File target, final Content<T, E> content) throws IOException, E {
+        final Path directory = target.getAbsoluteFile().getParentFile().toPath();
+        final Path tmp = Files.createTempFile(directory, target.getName(), TEMPORARY_SUFFIX);
+        try {
+            final T rv;
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                final OutputStream buffered = new BufferedOutputStream(out);
+                rv = content.writeTo(new FilterOutputStream(buffered) {
+                    @Override
+                    public void write(final byte[] b, final int off, final int len) throws IOException {
+                        buffered.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                });
+                buffered.flush();
+                out.getFD().sync();
+            }
+            Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+            return rv;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes a file atomically from a stream. The stream is read completely but not closed.
+     *
+     * @param target The file to write
+     * @param in The content
+     * @return The number of bytes written
+     * @throws IOException If the stream cannot be read or the file cannot be written
+     */
+    public static long write(final File target, final InputStream in) throws IOException {
+        return write(target, in::transferTo);
+    }
+
+    /**
+     * Writes a file atomically.
+     *
+     * @param target The file to write
+     * @param data The content
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(final File target, final byte[] data) throws IOException {
+        write(target, out -> {
+            out.write(data);
+            return data.length;
+        });
+    }
+
+    /**
+     * Atomically moves a file that has been written completely before into place, for example a temporary file whose
+     * final name was not known while writing it. Both files must be on the same file system.
+     *
+     * @param source The file to move
+     * @param target The new name of the file
+     * @throws IOException If the file cannot be moved
+     */
+    public static void move(final File source, final File target) throws IOException {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.getAbsoluteFile().getParentFile().toPath());
+    }
+
+    /**
+     * @param file Any file
+     * @return {@literal true} if the file is a temporary file created while writing another file
+     */
+    public static boolean isTemporary(final File file) {
+        return file.getName().endsWith(TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Makes the move of a file durable. Not all platforms support opening directories, in which case the move is
+     * left to the file system.
+     */
+    private static void syncDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform
+        }
+    }
+}
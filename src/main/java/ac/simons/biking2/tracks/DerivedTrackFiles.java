@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import org.springframework.core.io.Resource;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Manages all files that are computed from the GPX file of a track. They are written when a track is ingested or
+ * imported and computed on first access for tracks that are older than the respective format.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Slf4j
+final class DerivedTrackFiles {
+
+    /**
+     * The GPX file compressed with gzip, served to all clients accepting it.
+     */
+    static final String COMPRESSED_GPX_FORMAT = "gpx.gz";
+
+    static final List<String> FORMATS = List.of(TrackPolylines.FORMAT, TrackPoints.FORMAT, COMPRESSED_GPX_FORMAT);
+
+    private final Datastore datastore;
+
+    private final TrackSegmentsReader trackSegmentsReader;
+
+    private final TrackPolylines trackPolylines;
+
+    private final TrackThumbnails trackThumbnails;
+
+    DerivedTrackFiles(final Datastore datastore) {
+        this.datastore = datastore;
+        this.trackSegmentsReader = new TrackSegmentsReader();
+        this.trackPolylines = new TrackPolylines(datastore);
+        this.trackThumbnails = new TrackThumbnails(datastore);
+    }
+
+    /**
+     * Computes and stores all derived files of the given track. The GPX data is read only once. The stream is not
+     * closed.
+     *
+     * @param track The track
+     * @param gpx The GPX data of the track
+     * @return The metrics of the track
+     * @throws XMLStreamException If the GPX data is invalid
+     * @throws IOException If a file cannot be stored
+     */
+    TrackMetrics store(final TrackEntity track, final InputStream gpx) throws XMLStreamException, IOException {
+        return store(track, this.trackSegmentsReader.read(gpx));
+    }
+
+    /**
+     * Computes and stores all derived files of the given track from its segments. The GPX file is compressed if it
+     * has already been written.
+     *
+     * @param track The track
+     * @param segments The segments of the track
+     * @return The metrics of the track
+     * @throws IOException If a file cannot be stored
+     */
+    TrackMetrics store(final TrackEntity track, final List<TrackSegment> segments) throws IOException {
+        this.trackPolylines.store(track, segments);
+        TrackPoints.write(segments, track.getTrackFile(datastore, TrackPoints.FORMAT));
+        final File gpxFile = track.getTrackFile(datastore, "gpx");
+        if (gpxFile.isFile()) {
+            compress(gpxFile, track.getTrackFile(datastore, COMPRESSED_GPX_FORMAT));
+        }
+        return TrackMetrics.of(segments);
+    }
+
+    /**
+     * Retrieves the compressed GPX file of the given track, compressing it first if the track has been stored before
+     * there were compressed files or if the GPX file has been written since.
+     *
+     * @param track The track
+     * @return The compressed GPX file or an empty optional if there is no GPX file
+     * @throws IOException If the GPX file cannot be compressed
+     */
+    Optional<File> compressedGpx(final TrackEntity track) throws IOException {
+        final Optional<File> gpxFile = track.findTrackFile(datastore, "gpx");
+        if (gpxFile.isEmpty()) {
+            return Optional.empty();
+        }
+        final Optional<File> compressed = track.findTrackFile(datastore, COMPRESSED_GPX_FORMAT);
+        if (compressed.isPresent() && compressed.get().lastModified() >= gpxFile.get().lastModified()) {
+            return compressed;
+        }
+        final File target = track.getTrackFile(datastore, COMPRESSED_GPX_FORMAT);
+        compress(gpxFile.get(), target);
+        return Optional.of(target);
+    }
+
+    private static void compress(final File source, final File target) throws IOException {
+        AtomicFiles.write(target, stream -> {
+            try (OutputStream out = new GZIPOutputStream(stream)) {
+                return Files.copy(source.toPath(), out);
+            }
+        });
+    }
+
+    /**
+     * @see TrackPolylines#get(TrackEntity, int, int)
+     */
+    Optional<TrackPolylines.Polyline> polyline(final TrackEntity track, final int width, final int height) throws XMLStreamException, IOException {
+        return this.trackPolylines.get(track, width, height);
+    }
+
+    /**
+     * @see TrackPolylines#get(TrackEntity, double)
+     */
+    Optional<TrackPolylines.Polyline> polyline(final TrackEntity track, final double tolerance) throws XMLStreamException, IOException {
+        return this.trackPolylines.get(track, tolerance);
+    }
+
+    /**
+     * @see TrackThumbnails#get(TrackEntity, int, int)
+     */
+    Optional<Resource> thumbnail(final TrackEntity track, final int width, final int height) throws XMLStreamException, IOException {
+        return this.trackThumbnails.get(track, width, height);
+    }
+
+    /**
+     * Opens the points of the given track, writing them first if the track has been stored before there were point
+     * files.
+     *
+     * @param track The track
+     * @return The points of the track or an empty optional if the track hasn't been ingested yet
+     * @throws XMLStreamException If the points have to be written and the GPX data of the track is invalid
+     * @throws IOException If the points cannot be read or written
+     */
+    Optional<TrackPoints> points(final TrackEntity track) throws XMLStreamException, IOException {
+        final Optional<File> points = track.findTrackFile(datastore, TrackPoints.FORMAT);
+        if (points.isPresent()) {
+            return Optional.of(TrackPoints.open(points.get()));
+        }
+        final Optional<File> gpxFile = track.findTrackFile(datastore, "gpx");
+        if (track.getMinlat() == null || gpxFile.isEmpty()) {
+            return Optional.empty();
+        }
+        final File target = track.getTrackFile(datastore, TrackPoints.FORMAT);
+        try (InputStream gpx = new BufferedInputStream(new FileInputStream(gpxFile.get()))) {
+            TrackPoints.write(this.trackSegmentsReader.read(gpx), target);
+        }
+        return Optional.of(TrackPoints.open(target));
+    }
+
+    /**
+     * Deletes all derived files and thumbnails of the given track, failures are only logged.
+     *
+     * @param track The track
+     */
+    void delete(final TrackEntity track) {
+        for (var format : FORMATS) {
+            final File trackFile = track.getTrackFile(datastore, format);
+            if (trackFile != null && trackFile.isFile() && !trackFile.delete()) {
+                log.warn("Could not delete track file {}", trackFile.getAbsolutePath());
+            }
+        }
+        this.trackThumbnails.delete(track);
+    }
+}
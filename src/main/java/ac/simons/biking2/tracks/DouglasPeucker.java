@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies polylines with the
+ * <a href="https://en.wikipedia.org/wiki/Ramer%E2%80%93Douglas%E2%80%93Peucker_algorithm">Ramer-Douglas-Peucker algorithm</a>.
+ * The ranges still to be simplified are kept on an explicit stack, so that tracks with many thousand points don't
+ * exhaust the call stack.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class DouglasPeucker {
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Simplifies the polyline given by {@code xs} and {@code ys}. The first and the last point are always kept, no
+     * removed point is further away from the simplified polyline than the given tolerance.
+     *
+     * @param xs The x coordinates of all points
+     * @param ys The y coordinates of all points
+     * @param tolerance The maximum distance of a removed point, in the unit of the coordinates
+     * @return The ascending indexes of all points that have been kept
+     */
+    static int[] simplify(final double[] xs, final double[] ys, final double tolerance) {
+        final int n = xs.length;
+        if (n <= 2) {
+            final int[] rv = new int[n];
+            Arrays.setAll(rv, i -> i);
+            return rv;
+        }
+
+        final boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        // Pairs of first and last index of a range
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            final int last = stack[--top];
+            final int first = stack[--top];
+
+            int farthest = -1;
+            double maxDistance = tolerance;
+            for (int i = first + 1; i < last; ++i) {
+                final double distance = distanceToSegment(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+
+        int size = 0;
+        for (boolean k : keep) {
+            if (k) {
+                ++size;
+            }
+        }
+        final int[] rv = new int[size];
+        for (int i = 0, j = 0; i < n; ++i) {
+            if (keep[i]) {
+                rv[j++] = i;
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * @return The distance of point {@code p} to the segment from {@code a} to {@code b}
+     */
+    static double distanceToSegment(final double px, final double py, final double ax, final double ay, final double bx, final double by) {
+        final double dx = bx - ax;
+        final double dy = by - ay;
+        final double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0.0) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        final double t = Math.max(0.0, Math.min(1.0, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of a track needed to embed it into other pages.
+ *
+ * @param id The id of the track
+ * @param name The name of the track
+ * @param minlat The minimum latitude of the track
+ * @param minlon The minimum longitude of the track
+ * @param maxlat The maximum latitude of the track
+ * @param maxlon The maximum longitude of the track
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+record EmbeddableTrack(Integer id, String name, BigDecimal minlat, BigDecimal minlon, BigDecimal maxlat, BigDecimal maxlon) {
+
+    /**
+     * @return The id of the track as used in all urls
+     */
+    public String prettyId() {
+        return Integer.toString(this.id, 36);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through caches for embedding tracks into other pages: The tracks themselves and the oEmbed responses describing
+ * them. Both are requested far more often than tracks change and are only read again after a track has been created
+ * or deleted or when they expire.
+ * <p>
+ * Tracks that haven't been ingested completely are not cached, their bounds are about to change.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+class EmbeddableTracks {
+
+    static final String CACHE_TRACKS = "tracks.embeddable";
+    static final String CACHE_OEMBED_RESPONSES = "tracks.oembedResponses";
+
+    /**
+     * The number of seconds consumers of oEmbed responses may cache them.
+     */
+    static final long CACHE_AGE = 24 * 60 * 60;
+
+    private final TrackRepository trackRepository;
+
+    /**
+     * @param id The id of a track
+     * @return The track if it exists
+     */
+    @Cacheable(cacheNames = CACHE_TRACKS, unless = "#result == null || #result.minlat() == null")
+    public Optional<EmbeddableTrack> get(final Integer id) {
+        return this.trackRepository.findEmbeddableTrackById(id);
+    }
+
+    /**
+     * Retrieves the oEmbed response for a track. The response is the same for JSON and XML.
+     *
+     * @param baseUrl The url of this application, including the context path
+     * @param id The id of a track
+     * @param width The width of the embedded map
+     * @param height The height of the embedded map
+     * @return The oEmbed response if the track exists
+     */
+    @Cacheable(cacheNames = CACHE_OEMBED_RESPONSES, key = "{#baseUrl, #id, #width, #height}", unless = "#result == null")
+    public Optional<OEmbedResponse> getOEmbedResponse(final String baseUrl, final Integer id, final int width, final int height) {
+        return this.trackRepository.findEmbeddableTrackById(id).map(track -> {
+            final OEmbedResponse response = new OEmbedResponse();
+            response.setType("rich");
+            response.setVersion("1.0");
+            response.setTitle(track.name());
+            response.setAuthorName("Michael J. Simons");
+            response.setAuthorUrl("http://michael-simons.eu");
+            response.setProviderName("biking2");
+            response.setProviderUrl("https://biking.michael-simons.eu");
+            response.setCacheAge(CACHE_AGE);
+            response.setHtml(String.format(
+                    "<iframe width='%1$d' height='%2$d' src='%3$s/tracks/%4$s/embed?width=%1$d&height=%2$d' class='bikingTrack'></iframe>",
+                    width, height, baseUrl, track.prettyId()
+            ));
+            return response;
+        });
+    }
+
+    /**
+     * Evicts a created or deleted track and all oEmbed responses.
+     *
+     * @param id The id of the track
+     */
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CACHE_TRACKS, key = "#id"),
+        @CacheEvict(cacheNames = CACHE_OEMBED_RESPONSES, allEntries = true)
+    })
+    public void evict(final Integer id) {
+        // Eviction is done by the cache interceptor
+    }
+}
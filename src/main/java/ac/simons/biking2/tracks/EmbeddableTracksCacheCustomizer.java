@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Configures the caches of {@link EmbeddableTracks}: Both are bounded, as the size of oEmbed responses is chosen by
+ * the consumers, and entries expire when consumers are allowed to ask again.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+class EmbeddableTracksCacheCustomizer implements CacheManagerCustomizer<CaffeineCacheManager> {
+
+    private final long maximumSize;
+
+    EmbeddableTracksCacheCustomizer(@Value("${biking2.tracks.embed.cache.maximum-size:1024}") final long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void customize(final CaffeineCacheManager cacheManager) {
+        register(cacheManager, EmbeddableTracks.CACHE_TRACKS);
+        register(cacheManager, EmbeddableTracks.CACHE_OEMBED_RESPONSES);
+    }
+
+    private void register(final CaffeineCacheManager cacheManager, final String name) {
+        cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(EmbeddableTracks.CACHE_AGE))
+                .build());
+    }
+}
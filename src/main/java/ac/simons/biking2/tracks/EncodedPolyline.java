@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes positions in the
+ * <a href="https://developers.google.com/maps/documentation/utilities/polylinealgorithm">encoded polyline format</a>:
+ * Each coordinate is stored with five decimal places (about one meter) as difference to the previous point, so a
+ * point of a track usually takes no more than a few bytes. The encoded string contains only printable ASCII
+ * characters without whitespace.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class EncodedPolyline {
+
+    private static final double FACTOR = 1e5;
+
+    private EncodedPolyline() {
+    }
+
+    /**
+     * Encodes the selected points.
+     *
+     * @param latitudes The latitudes of all points
+     * @param longitudes The longitudes of all points
+     * @param indexes The indexes of the points to encode
+     * @return The encoded polyline
+     */
+    static String encode(final double[] latitudes, final double[] longitudes, final int[] indexes) {
+        final StringBuilder rv = new StringBuilder(indexes.length * 6);
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (int index : indexes) {
+            final long latitude = Math.round(latitudes[index] * FACTOR);
+            final long longitude = Math.round(longitudes[index] * FACTOR);
+            encode(latitude - previousLatitude, rv);
+            encode(longitude - previousLongitude, rv);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return rv.toString();
+    }
+
+    private static void encode(final long delta, final StringBuilder target) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            target.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        target.append((char) (value + 63));
+    }
+
+    /**
+     * @param encoded An encoded polyline
+     * @return All points of the polyline as pairs of latitude and longitude
+     */
+    static List<double[]> decode(final String encoded) {
+        final List<double[]> rv = new ArrayList<>();
+        final int[] position = {0};
+        long latitude = 0;
+        long longitude = 0;
+        while (position[0] < encoded.length()) {
+            latitude += decodeNext(encoded, position);
+            longitude += decodeNext(encoded, position);
+            rv.add(new double[] {latitude / FACTOR, longitude / FACTOR});
+        }
+        return rv;
+    }
+
+    private static long decodeNext(final String encoded, final int[] position) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (position[0] >= encoded.length()) {
+                throw new IllegalArgumentException("Truncated polyline");
+            }
+            b = encoded.charAt(position[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable, packed R-tree over bounding boxes: The boxes are sorted along a Hilbert curve through their centers,
+ * so that boxes close to each other end up in the same nodes, and packed bottom-up into nodes of {@value #NODE_SIZE}
+ * children. All boxes and nodes are stored in one array, level by level, so that the tree needs no objects per entry.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class HilbertRTree {
+
+    static final int NODE_SIZE = 16;
+
+    /**
+     * Centers are mapped onto a grid of 2^15 x 2^15 cells, so that the Hilbert value and the index of a box fit into
+     * one long for sorting.
+     */
+    private static final int HILBERT_ORDER = 1 << 15;
+
+    private final int[] ids;
+
+    /**
+     * Minimum longitude, minimum latitude, maximum longitude and maximum latitude of each box and each node.
+     */
+    private final double[] boxes;
+
+    /**
+     * The index of the first node of each level, the boxes themselves being level 0, followed by the number of all
+     * nodes.
+     */
+    private final int[] levelStarts;
+
+    /**
+     * Builds a tree. The coordinates of box {@code i} are given by the values at index {@code i} of all arrays.
+     *
+     * @param ids The ids of all boxes
+     * @param minLons The minimum longitudes
+     * @param minLats The minimum latitudes
+     * @param maxLons The maximum longitudes
+     * @param maxLats The maximum latitudes
+     */
+    HilbertRTree(final int[] ids, final double[] minLons, final double[] minLats, final double[] maxLons, final double[] maxLats) {
+        final int size = ids.length;
+
+        int[] starts = {0};
+        int total = size;
+        int count = size;
+        do {
+            starts = Arrays.copyOf(starts, starts.length + 1);
+            starts[starts.length - 1] = total;
+            count = (count + NODE_SIZE - 1) / NODE_SIZE;
+            total += count;
+        } while (count > 1);
+        starts = Arrays.copyOf(starts, starts.length + 1);
+        starts[starts.length - 1] = total;
+        if (size <= 1) {
+            // A single box is the root itself
+            starts = new int[] {0, size};
+            total = size;
+        }
+        this.levelStarts = starts;
+        this.ids = new int[size];
+        this.boxes = new double[total * 4];
+
+        final long[] order = sortByHilbertValue(minLons, minLats, maxLons, maxLats);
+        for (int i = 0; i < size; ++i) {
+            final int source = (int) order[i];
+            this.ids[i] = ids[source];
+            this.boxes[i * 4] = minLons[source];
+            this.boxes[i * 4 + 1] = minLats[source];
+            this.boxes[i * 4 + 2] = maxLons[source];
+            this.boxes[i * 4 + 3] = maxLats[source];
+        }
+
+        for (int level = 1; level < this.levelStarts.length - 1; ++level) {
+            for (int node = this.levelStarts[level]; node < this.levelStarts[level + 1]; ++node) {
+                final int childStart = firstChild(node, level);
+                final int childEnd = Math.min(childStart + NODE_SIZE, this.levelStarts[level]);
+                this.boxes[node * 4] = Double.POSITIVE_INFINITY;
+                this.boxes[node * 4 + 1] = Double.POSITIVE_INFINITY;
+                this.boxes[node * 4 + 2] = Double.NEGATIVE_INFINITY;
+                this.boxes[node * 4 + 3] = Double.NEGATIVE_INFINITY;
+                for (int child = childStart; child < childEnd; ++child) {
+                    this.boxes[node * 4] = Math.min(this.boxes[node * 4], this.boxes[child * 4]);
+                    this.boxes[node * 4 + 1] = Math.min(this.boxes[node * 4 + 1], this.boxes[child * 4 + 1]);
+                    this.boxes[node * 4 + 2] = Math.max(this.boxes[node * 4 + 2], this.boxes[child * 4 + 2]);
+                    this.boxes[node * 4 + 3] = Math.max(this.boxes[node * 4 + 3], this.boxes[child * 4 + 3]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The indexes of all boxes in the lower 32 bits, sorted by the Hilbert value of their centers
+     */
+    private static long[] sortByHilbertValue(final double[] minLons, final double[] minLats, final double[] maxLons, final double[] maxLats) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < minLons.length; ++i) {
+            minX = Math.min(minX, (minLons[i] + maxLons[i]) / 2.0);
+            minY = Math.min(minY, (minLats[i] + maxLats[i]) / 2.0);
+            maxX = Math.max(maxX, (minLons[i] + maxLons[i]) / 2.0);
+            maxY = Math.max(maxY, (minLats[i] + maxLats[i]) / 2.0);
+        }
+        final double width = maxX > minX ? maxX - minX : 1.0;
+        final double height = maxY > minY ? maxY - minY : 1.0;
+
+        final long[] rv = new long[minLons.length];
+        for (int i = 0; i < rv.length; ++i) {
+            final int x = (int) ((HILBERT_ORDER - 1) * (((minLons[i] + maxLons[i]) / 2.0 - minX) / width));
+            final int y = (int) ((HILBERT_ORDER - 1) * (((minLats[i] + maxLats[i]) / 2.0 - minY) / height));
+            rv[i] = (long) hilbert(x, y) << 32 | i;
+        }
+        Arrays.sort(rv);
+        return rv;
+    }
+
+    /**
+     * @return The distance of the given cell along the Hilbert curve through the grid
+     */
+    static int hilbert(final int x, final int y) {
+        int rx;
+        int ry;
+        int d = 0;
+        int cx = x;
+        int cy = y;
+        for (int s = HILBERT_ORDER / 2; s > 0; s /= 2) {
+            rx = (cx & s) > 0 ? 1 : 0;
+            ry = (cy & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant, so that the curve continues at the right place
+            if (ry == 0) {
+                if (rx == 1) {
+                    cx = HILBERT_ORDER - 1 - cx;
+                    cy = HILBERT_ORDER - 1 - cy;
+                }
+                final int t = cx;
+                cx = cy;
+                cy = t;
+            }
+        }
+        return d;
+    }
+
+    private int firstChild(final int node, final int level) {
+        return this.levelStarts[level - 1] + (node - this.levelStarts[level]) * NODE_SIZE;
+    }
+
+    /**
+     * @return The number of boxes
+     */
+    int size() {
+        return this.ids.length;
+    }
+
+    /**
+     * Passes the ids of all boxes intersecting the given box to the consumer, in no particular order.
+     *
+     * @param minLon The minimum longitude
+     * @param minLat The minimum latitude
+     * @param maxLon The maximum longitude
+     * @param maxLat The maximum latitude
+     * @param consumer The consumer of all ids found
+     */
+    void search(final double minLon, final double minLat, final double maxLon, final double maxLat, final IntConsumer consumer) {
+        if (this.ids.length == 0) {
+            return;
+        }
+
+        // Pairs of node and level
+        int[] stack = new int[64];
+        int top = 0;
+        final int root = this.levelStarts[this.levelStarts.length - 1] - 1;
+        if (intersects(root, minLon, minLat, maxLon, maxLat)) {
+            stack[top++] = root;
+            stack[top++] = this.levelStarts.length - 2;
+        }
+        while (top > 0) {
+            final int level = stack[--top];
+            final int node = stack[--top];
+            if (level == 0) {
+                consumer.accept(this.ids[node]);
+                continue;
+            }
+            final int childStart = firstChild(node, level);
+            final int childEnd = Math.min(childStart + NODE_SIZE, this.levelStarts[level]);
+            for (int child = childStart; child < childEnd; ++child) {
+                if (intersects(child, minLon, minLat, maxLon, maxLat)) {
+                    if (top + 2 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = child;
+                    stack[top++] = level - 1;
+                }
+            }
+        }
+    }
+
+    private boolean intersects(final int node, final double minLon, final double minLat, final double maxLon, final double maxLat) {
+        return this.boxes[node * 4] <= maxLon && this.boxes[node * 4 + 1] <= maxLat
+                && this.boxes[node * 4 + 2] >= minLon && this.boxes[node * 4 + 3] >= minLat;
+    }
+}
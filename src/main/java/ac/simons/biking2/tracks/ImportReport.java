@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a bulk import, with one entry per file of the archive that has been looked at.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@JsonPropertyOrder(alphabetic = true)
+@Getter
+final class ImportReport {
+
+    public enum Status {
+
+        imported, skipped, failed
+    }
+
+    /**
+     * The result for one file of the archive.
+     *
+     * @param file The name of the file inside the archive
+     * @param status What happened to the file
+     * @param track The id of the imported track
+     * @param message Why the file has been skipped or why it failed
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonPropertyOrder(alphabetic = true)
+    record Entry(String file, Status status, String track, String message) {
+    }
+
+    private int imported;
+
+    private int skipped;
+
+    private int failed;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    void imported(final String file, final TrackEntity track) {
+        this.entries.add(new Entry(file, Status.imported, track.getPrettyId(), null));
+        ++this.imported;
+    }
+
+    void skipped(final String file, final String reason) {
+        this.entries.add(new Entry(file, Status.skipped, null, reason));
+        ++this.skipped;
+    }
+
+    void failed(final String file, final String reason) {
+        this.entries.add(new Entry(file, Status.failed, null, reason));
+        ++this.failed;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * The state of the ingestion of one uploaded track.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonPropertyOrder(alphabetic = true)
+@Getter
+final class IngestionJob {
+
+    public enum Status {
+
+        queued, running, completed, failed
+    }
+
+    private final String id;
+
+    private volatile Status status;
+
+    private volatile TrackEntity track;
+
+    private volatile String message;
+
+    IngestionJob(final TrackEntity track) {
+        this.id = UUID.randomUUID().toString();
+        this.status = Status.queued;
+        this.track = track;
+    }
+
+    void started() {
+        this.status = Status.running;
+    }
+
+    void completed(final TrackEntity ingestedTrack) {
+        this.track = ingestedTrack;
+        this.status = Status.completed;
+    }
+
+    void failed(final String reason) {
+        // The track has been discarded
+        this.track = null;
+        this.message = reason;
+        this.status = Status.failed;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package ac.simons.biking2.tracks;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -27,6 +28,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.URL;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -55,11 +57,10 @@ class OEmbedController {
     }
 
     private final TrackIdParser trackIdParser;
-    private final TrackRepository trackRepository;
+    private final EmbeddableTracks embeddableTracks;
     private final Coordinate home;
 
     @GetMapping(value = "/oembed", produces = {"application/json", "application/xml"})
-    @SuppressWarnings({"checkstyle:innerassignment"})
     public ResponseEntity<OEmbedResponse> getEmbeddableTrack(
             @RequestParam(required = true) @URL final String url,
             @RequestParam(required = false, defaultValue = "json") final String format,
@@ -74,37 +75,15 @@ class OEmbedController {
         if (id == null || !ACCEPTABLE_FORMATS.containsKey(requestedFormat)) {
             rv = new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
         } else {
-            final TrackEntity track = this.trackRepository.findById(id)
+            final String baseUrl = request.getScheme() + "://"
+                    + request.getServerName()
+                    + (Arrays.asList(80, 443).contains(request.getServerPort()) ? "" : (":" + request.getServerPort()))
+                    + request.getContextPath();
+            final OEmbedResponse response = this.embeddableTracks.getOEmbedResponse(baseUrl, id, maxwidth, maxheight)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-            final OEmbedResponse response = new OEmbedResponse();
-
-            response.setType("rich");
-            response.setVersion("1.0");
-            response.setTitle(track.getName());
-            response.setAuthorName("Michael J. Simons");
-            response.setAuthorUrl("http://michael-simons.eu");
-            response.setProviderName("biking2");
-            response.setProviderUrl("https://biking.michael-simons.eu");
-            response.setCacheAge((long) (24 * 60 * 60));
-            response.setHtml(new StringBuilder()
-                    .append("<iframe ")
-                    .append("width='").append(maxwidth).append("' ")
-                    .append("height='").append(maxheight).append("' ")
-                    .append("src='")
-                    .append(request.getScheme()).append("://")
-                    .append(request.getServerName())
-                    .append(Arrays.asList(80, 443).contains(request.getServerPort()) ? "" : (":" + request.getServerPort()))
-                    .append(request.getContextPath())
-                    .append("/tracks/").append(m.group(1)).append("/embed?")
-                    .append("width=").append(maxwidth).append("&")
-                    .append("height=").append(maxheight)
-                    .append("' ")
-                    .append("class='bikingTrack'>")
-                    .append("</iframe>")
-                    .toString()
-            );
-
-            rv = new ResponseEntity<>(response, HttpStatus.OK);
+            rv = ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(Duration.ofSeconds(response.getCacheAge())).cachePublic())
+                    .body(response);
         }
 
         return rv;
@@ -120,11 +99,11 @@ class OEmbedController {
             final HttpServletResponse response
     ) {
         final Integer requestedId = trackIdParser.fromPrettyId(id);
-        TrackEntity track;
+        EmbeddableTrack track;
         String rv = null;
         if (requestedId == null) {
             response.setStatus(HttpServletResponse.SC_NOT_ACCEPTABLE);
-        } else if ((track = this.trackRepository.findById(requestedId).orElse(null)) == null) {
+        } else if ((track = this.embeddableTracks.get(requestedId).orElse(null)) == null) {
             response.setStatus(HttpServletResponse.SC_NOT_FOUND);
         } else {
             model
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 michael-simons.eu.
+ * Copyright 2016-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,11 @@ package ac.simons.biking2.tracks;
 /**
  * @author Michael J. Simons, 2016-08-05
  */
-final class GPSBabelException extends RuntimeException {
+final class TcxConversionException extends RuntimeException {
 
-    private static final long serialVersionUID = 8539135117566785204L;
+    private static final long serialVersionUID = -2514377906713958186L;
 
-    GPSBabelException(final String message) {
+    TcxConversionException(final String message) {
         super(message);
     }
 }
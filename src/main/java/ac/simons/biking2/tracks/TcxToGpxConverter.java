@@ -0,0 +1,321 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.tracks.gpx.Bounds;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts TCX files into GPX 1.0 files in a single, streaming pass. All tracks of all activities and courses are
+ * converted, each {@code Track} element of the TCX file becomes a track segment. Trackpoints without a position are
+ * skipped.
+ * <p>
+ * The bounds of the track and its start are determined while converting and returned to the caller. The bounds are
+ * not written to the GPX file, as they would have to precede the track points. Lap waypoints are not written for the same reason.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class TcxToGpxConverter {
+
+    static final String TCX_NAMESPACE = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2";
+
+    static final String GPX_NAMESPACE = "http://www.topografix.com/GPX/1/0";
+
+    private final XMLInputFactory inputFactory;
+
+    private final XMLOutputFactory outputFactory;
+
+    TcxToGpxConverter() {
+        this.inputFactory = XMLInputFactory.newFactory();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.outputFactory = XMLOutputFactory.newFactory();
+    }
+
+    /**
+     * Converts the given TCX data. Neither stream is closed.
+     *
+     * @param tcx The TCX data to convert
+     * @param gpx The stream to which the GPX data is written
+     * @return The bounds of all positions in the track and the time of its first trackpoint
+     * @throws XMLStreamException If the TCX data is not well-formed or the GPX data cannot be written
+     * @throws TcxConversionException If the data is not a TCX file or doesn't contain any positions
+     */
+    TrackSummary convert(final InputStream tcx, final OutputStream gpx) throws XMLStreamException {
+        final XMLStreamReader reader = this.inputFactory.createXMLStreamReader(tcx);
+        final XMLStreamWriter writer = this.outputFactory.createXMLStreamWriter(gpx, StandardCharsets.UTF_8.name());
+        try {
+            reader.nextTag();
+            if (!isTcxElement(reader, "TrainingCenterDatabase")) {
+                throw new TcxConversionException("Not a TCX file, unexpected root element " + reader.getName());
+            }
+
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.setDefaultNamespace(GPX_NAMESPACE);
+            writer.writeStartElement(GPX_NAMESPACE, "gpx");
+            writer.writeDefaultNamespace(GPX_NAMESPACE);
+            writer.writeAttribute("version", "1.0");
+            writer.writeAttribute("creator", "biking2");
+
+            final Conversion conversion = new Conversion(reader, writer);
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, "Activities")) {
+                    conversion.readContainer("Activity", "Id");
+                } else if (isTcxElement(reader, "Courses")) {
+                    conversion.readContainer("Course", "Name");
+                } else {
+                    skipElement(reader);
+                }
+            }
+            // Make sure there's nothing but whitespace, comments and processing instructions after the root element
+            while (reader.hasNext()) {
+                reader.next();
+            }
+
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+
+            return new TrackSummary(conversion.getBounds(), TrackSegmentsReader.parseTime(conversion.firstTime));
+        } finally {
+            reader.close();
+            writer.close();
+        }
+    }
+
+    static boolean isTcxElement(final XMLStreamReader reader, final String localName) {
+        return TCX_NAMESPACE.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+
+    /**
+     * Moves the reader to the next child element of the current element.
+     *
+     * @param reader The reader to move
+     * @return {@literal true} if the reader is positioned on the next child element, {@literal false} if it reached
+     * the end of the current element
+     * @throws XMLStreamException On any reader error
+     */
+    static boolean nextChild(final XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+                default:
+                    // Ignore text, comments and the like
+            }
+        }
+        return false;
+    }
+
+    static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+    }
+
+    /**
+     * Holds the state of one conversion, that is the current trackpoint and the bounds computed so far.
+     */
+    private static final class Conversion {
+
+        private final XMLStreamReader reader;
+
+        private final XMLStreamWriter writer;
+
+        private BigDecimal minlat;
+
+        private BigDecimal minlon;
+
+        private BigDecimal maxlat;
+
+        private BigDecimal maxlon;
+
+        private String latitude;
+
+        private String longitude;
+
+        private String altitude;
+
+        private String time;
+
+        private String firstTime;
+
+        Conversion(final XMLStreamReader reader, final XMLStreamWriter writer) {
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        Bounds getBounds() {
+            if (this.minlat == null) {
+                throw new TcxConversionException("The TCX file doesn't contain any positions");
+            }
+            return new Bounds(this.minlat, this.minlon, this.maxlat, this.maxlon);
+        }
+
+        /**
+         * Reads {@code Activities} or {@code Courses}, each contained activity or course becomes a GPX track.
+         */
+        void readContainer(final String nameOfElement, final String nameOfName) throws XMLStreamException {
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, nameOfElement)) {
+                    readActivityOrCourse(nameOfName);
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+
+        private void readActivityOrCourse(final String nameOfName) throws XMLStreamException {
+            writer.writeStartElement(GPX_NAMESPACE, "trk");
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, nameOfName)) {
+                    writer.writeStartElement(GPX_NAMESPACE, "name");
+                    writer.writeCharacters(reader.getElementText().trim());
+                    writer.writeEndElement();
+                } else if (isTcxElement(reader, "Lap")) {
+                    readLap();
+                } else if (isTcxElement(reader, "Track")) {
+                    readTrack();
+                } else {
+                    skipElement(reader);
+                }
+            }
+            writer.writeEndElement();
+        }
+
+        private void readLap() throws XMLStreamException {
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, "Track")) {
+                    readTrack();
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+
+        private void readTrack() throws XMLStreamException {
+            writer.writeStartElement(GPX_NAMESPACE, "trkseg");
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, "Trackpoint")) {
+                    readTrackpoint();
+                } else {
+                    skipElement(reader);
+                }
+            }
+            writer.writeEndElement();
+        }
+
+        private void readTrackpoint() throws XMLStreamException {
+            this.latitude = null;
+            this.longitude = null;
+            this.altitude = null;
+            this.time = null;
+
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, "Time")) {
+                    this.time = reader.getElementText().trim();
+                } else if (isTcxElement(reader, "AltitudeMeters")) {
+                    this.altitude = reader.getElementText().trim();
+                } else if (isTcxElement(reader, "Position")) {
+                    readPosition();
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            if (this.latitude == null || this.longitude == null) {
+                return;
+            }
+            if (this.firstTime == null) {
+                this.firstTime = this.time;
+            }
+
+            writer.writeStartElement(GPX_NAMESPACE, "trkpt");
+            writer.writeAttribute("lat", this.latitude);
+            writer.writeAttribute("lon", this.longitude);
+            writeOptionalElement("ele", this.altitude);
+            writeOptionalElement("time", this.time);
+            writer.writeEndElement();
+        }
+
+        private void readPosition() throws XMLStreamException {
+            while (nextChild(reader)) {
+                if (isTcxElement(reader, "LatitudeDegrees")) {
+                    this.latitude = reader.getElementText().trim();
+                } else if (isTcxElement(reader, "LongitudeDegrees")) {
+                    this.longitude = reader.getElementText().trim();
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            if (this.latitude != null && this.longitude != null) {
+                updateBounds(parseDegrees(this.latitude), parseDegrees(this.longitude));
+            }
+        }
+
+        private void updateBounds(final BigDecimal lat, final BigDecimal lon) {
+            if (this.minlat == null) {
+                this.minlat = lat;
+                this.maxlat = lat;
+                this.minlon = lon;
+                this.maxlon = lon;
+            } else {
+                this.minlat = this.minlat.min(lat);
+                this.maxlat = this.maxlat.max(lat);
+                this.minlon = this.minlon.min(lon);
+                this.maxlon = this.maxlon.max(lon);
+            }
+        }
+
+        private void writeOptionalElement(final String localName, final String value) throws XMLStreamException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            writer.writeStartElement(GPX_NAMESPACE, localName);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+
+        private static BigDecimal parseDegrees(final String value) {
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new TcxConversionException("Invalid position: " + value);
+            }
+        }
+    }
+}
@@ -15,7 +15,7 @@
  */
 package ac.simons.biking2.tracks;
 
-import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.config.Datastore;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -43,6 +43,7 @@ import java.io.File;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Optional;
 
 /**
  * @author Michael J. Simons, 2014-02-08
@@ -71,7 +72,7 @@ class TrackEntity implements Serializable {
     @JsonIgnore
     private Integer id;
 
-    @Column(length = 512, nullable = false)
+    @Column(name = "name", length = 512, nullable = false)
     @NotBlank
     @Size(max = 512)
     private String name;
@@ -80,30 +81,73 @@ class TrackEntity implements Serializable {
     @NotNull
     private LocalDate coveredOn;
 
-    @Column(length = 2048)
+    @Column(name = "description", length = 2048)
     @Setter
     private String description;
 
-    @Column(precision = 18, scale = 15)
+    @Column(name = "minlat", precision = 18, scale = 15)
     @Setter
     private BigDecimal minlat;
 
-    @Column(precision = 18, scale = 15)
+    @Column(name = "minlon", precision = 18, scale = 15)
     @Setter
     private BigDecimal minlon;
 
-    @Column(precision = 18, scale = 15)
+    @Column(name = "maxlat", precision = 18, scale = 15)
     @Setter
     private BigDecimal maxlat;
 
-    @Column(precision = 18, scale = 15)
+    @Column(name = "maxlon", precision = 18, scale = 15)
     @Setter
     private BigDecimal maxlon;
 
+    @Column(name = "type")
     @Enumerated(EnumType.STRING)
     @Setter
     private Type type = Type.biking;
 
+    /**
+     * Distance in km, {@literal null} as long as the track has not been measured.
+     */
+    @Column(name = "distance", precision = 8, scale = 2)
+    @Setter
+    private BigDecimal distance;
+
+    /**
+     * Ascent in m.
+     */
+    @Column(name = "ascent", precision = 8, scale = 1)
+    @Setter
+    private BigDecimal ascent;
+
+    /**
+     * Descent in m.
+     */
+    @Column(name = "descent", precision = 8, scale = 1)
+    @Setter
+    private BigDecimal descent;
+
+    /**
+     * Time from the first to the last point in seconds, {@literal null} if there are no times.
+     */
+    @Column(name = "elapsed_time")
+    @Setter
+    private Integer elapsedTime;
+
+    /**
+     * Time spent moving in seconds, {@literal null} if there are no times.
+     */
+    @Column(name = "moving_time")
+    @Setter
+    private Integer movingTime;
+
+    /**
+     * Maximum speed in km/h, {@literal null} if there are no times.
+     */
+    @Column(name = "max_speed", precision = 5, scale = 2)
+    @Setter
+    private BigDecimal maxSpeed;
+
     TrackEntity(final String name, final LocalDate coveredOn) {
         this.name = name;
         this.coveredOn = coveredOn;
@@ -114,7 +158,11 @@ class TrackEntity implements Serializable {
         return this.getId() == null ? "" : Integer.toString(this.getId(), 36);
     }
 
-    public File getTrackFile(final File datastoreBaseDirectory, final String format) {
-        return new File(datastoreBaseDirectory, String.format("%s/%d.%s", DatastoreConfig.TRACK_DIRECTORY, this.getId(), format));
+    public File getTrackFile(final Datastore datastore, final String format) {
+        return datastore.getFile(Datastore.Area.TRACKS, String.format("%d.%s", this.getId(), format));
+    }
+
+    public Optional<File> findTrackFile(final Datastore datastore, final String format) {
+        return datastore.findFile(Datastore.Area.TRACKS, String.format("%d.%s", this.getId(), format));
     }
 }
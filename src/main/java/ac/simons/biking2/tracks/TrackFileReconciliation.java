@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Reconciles the track directory of the datastore with the tracks table when the application is ready: The directory
+ * and its shards are listed and the ids of all tracks are loaded concurrently, then
+ * <ul>
+ * <li>temporary files left over by interrupted writes are deleted,</li>
+ * <li>files of tracks that don't exist anymore are cleaned up: TCX and GPX files are moved into
+ * {@value #ORPHANED_DIRECTORY}, derived files are deleted,</li>
+ * <li>tracks without any TCX or GPX file are logged. Their rows are kept, as they might just be on a datastore that
+ * is not completely available, but they can be deleted like any other track.</li>
+ * </ul>
+ * Only files older than this component are considered, so that tracks created while the scan is running are left
+ * alone.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackFileReconciliation {
+
+    static final String ORPHANED_DIRECTORY = "orphaned";
+
+    private static final Set<String> PRIMARY_FORMATS = Set.of("tcx", "gpx");
+
+    /**
+     * @param temporaryFiles The number of deleted temporary files
+     * @param orphanedFiles The number of moved or deleted files without a track
+     * @param tracksWithoutFiles The number of tracks without any TCX or GPX file
+     */
+    record Result(int temporaryFiles, int orphanedFiles, int tracksWithoutFiles) {
+    }
+
+    private final TrackRepository trackRepository;
+
+    private final Datastore datastore;
+
+    private final Executor executor;
+
+    private final long startedAt;
+
+    @Autowired
+    TrackFileReconciliation(final TrackRepository trackRepository, final Datastore datastore, final Executor trackReconciliationExecutor) {
+        this(trackRepository, datastore, trackReconciliationExecutor, System.currentTimeMillis());
+    }
+
+    TrackFileReconciliation(final TrackRepository trackRepository, final Datastore datastore, final Executor executor, final long startedAt) {
+        this.trackRepository = trackRepository;
+        this.datastore = datastore;
+        this.executor = executor;
+        this.startedAt = startedAt;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile().exceptionally(e -> {
+            log.warn("Could not reconcile track files", e);
+            return null;
+        });
+    }
+
+    /**
+     * Starts the reconciliation.
+     *
+     * @return The result, completes when all files have been reconciled
+     */
+    CompletableFuture<Result> reconcile() {
+        final CompletableFuture<List<File>> files = CompletableFuture.supplyAsync(this::listFiles, this.executor);
+        final CompletableFuture<Set<Integer>> ids = CompletableFuture.supplyAsync(() -> new HashSet<>(this.trackRepository.findAllIds()), this.executor);
+        return files.thenCombine(ids, this::reconcile);
+    }
+
+    private List<File> listFiles() {
+        final List<File> rv = new ArrayList<>();
+        // Files moved into their shard while listing are listed at least once
+        for (var directory : this.datastore.getDirectories(Datastore.Area.TRACKS)) {
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory.toPath(), Files::isRegularFile)) {
+                for (var path : directoryStream) {
+                    rv.add(path.toFile());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return rv;
+    }
+
+    private Result reconcile(final List<File> files, final Set<Integer> ids) {
+        int temporaryFiles = 0;
+        int orphanedFiles = 0;
+        final Set<Integer> idsWithFiles = new HashSet<>();
+        for (var file : files) {
+            if (AtomicFiles.isTemporary(file)) {
+                // Not all temporary files are named after a track, imports write them before the track exists
+                if (file.isFile() && file.lastModified() < this.startedAt) {
+                    temporaryFiles += delete(file);
+                }
+                continue;
+            }
+            final String name = file.getName();
+            final int separator = name.indexOf('.');
+            final Integer id = separator > 0 ? parseId(name.substring(0, separator)) : null;
+            if (id == null) {
+                continue;
+            }
+            final String format = name.substring(separator + 1);
+            if (ids.contains(id) && PRIMARY_FORMATS.contains(format)) {
+                idsWithFiles.add(id);
+            } else if (!file.isFile() || file.lastModified() >= this.startedAt) {
+                // Moved or deleted since it has been listed, or possibly written by a track created after the tracks have been loaded
+                continue;
+            } else if (ids.contains(id)) {
+                continue;
+            } else if (PRIMARY_FORMATS.contains(format)) {
+                orphanedFiles += moveToOrphaned(file);
+            } else if (DerivedTrackFiles.FORMATS.contains(format)) {
+                orphanedFiles += delete(file);
+            }
+        }
+
+        int tracksWithoutFiles = 0;
+        for (var id : ids) {
+            if (!idsWithFiles.contains(id)) {
+                log.warn("Track {} has neither a TCX nor a GPX file, it can be deleted through the API", Integer.toString(id, 36));
+                ++tracksWithoutFiles;
+            }
+        }
+
+        final Result rv = new Result(temporaryFiles, orphanedFiles, tracksWithoutFiles);
+        if (temporaryFiles + orphanedFiles + tracksWithoutFiles > 0) {
+            log.info("Reconciled track files: {}", rv);
+        }
+        return rv;
+    }
+
+    private static Integer parseId(final String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int delete(final File file) {
+        if (file.delete()) {
+            return 1;
+        }
+        log.warn("Could not delete {}", file.getAbsolutePath());
+        return 0;
+    }
+
+    private int moveToOrphaned(final File file) {
+        final File orphanedDirectory = new File(this.datastore.getDirectory(Datastore.Area.TRACKS), ORPHANED_DIRECTORY);
+        try {
+            Files.createDirectories(orphanedDirectory.toPath());
+            Files.move(file.toPath(), new File(orphanedDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log.warn("Moved {} without a track to {}", file.getName(), orphanedDirectory.getAbsolutePath());
+            return 1;
+        } catch (IOException e) {
+            log.warn("Could not move {} without a track", file.getAbsolutePath(), e);
+            return 0;
+        }
+    }
+}
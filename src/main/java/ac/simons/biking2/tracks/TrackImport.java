@@ -0,0 +1,482 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.TrackEntity.Type;
+import ac.simons.biking2.tracks.gpx.Bounds;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports ZIP archives of TCX and GPX files. The archive is read entry by entry from the stream and each entry is
+ * converted as soon as it has been read. When all workers are busy, the importing thread converts the entry itself.
+ * The converted TCX and GPX files are written to temporary files right away, so only the entries being converted are
+ * held in memory, at most one more than there are workers, each no larger than the maximum entry size.
+ * <p>
+ * The new tracks of a batch of converted entries are inserted within one transaction. Afterwards, their temporary
+ * files are moved into place and the derived files are computed concurrently again. The GPX data of each entry is
+ * parsed only once, so the points of the converted entries of one batch are kept until the batch has been stored.
+ * They need less memory than the GPX data they have been read from, about 32 bytes per point.
+ * <p>
+ * The name of a track is the name of its file without extension, the date is taken from the first trackpoint or, if
+ * there are no times in the file, from the archive entry. Files for which a track with the same name and date already
+ * exists are skipped.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackImport {
+
+    private static final Set<String> SUPPORTED_FORMATS = Set.of("tcx", "gpx");
+
+    private final TrackRepository trackRepository;
+
+    private final TrackIndex trackIndex;
+
+    private final Datastore datastore;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final long maxEntrySize;
+
+    private final TcxToGpxConverter tcxToGpxConverter;
+
+    private final TrackSegmentsReader trackSegmentsReader;
+
+    private final DerivedTrackFiles derivedTrackFiles;
+
+    @Autowired
+    TrackImport(
+            final TrackRepository trackRepository,
+            final TrackIndex trackIndex,
+            final Datastore datastore,
+            final Executor trackImportExecutor,
+            @Value("${biking2.tracks.import.batch-size:50}") final int batchSize,
+            @Value("${biking2.tracks.import.max-entry-size:5MB}") final DataSize maxEntrySize
+    ) {
+        this(trackRepository, trackIndex, datastore, trackImportExecutor, batchSize, maxEntrySize.toBytes());
+    }
+
+    TrackImport(
+            final TrackRepository trackRepository,
+            final TrackIndex trackIndex,
+            final Datastore datastore,
+            final Executor executor,
+            final int batchSize,
+            final long maxEntrySize
+    ) {
+        this.trackRepository = trackRepository;
+        this.trackIndex = trackIndex;
+        this.datastore = datastore;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxEntrySize = maxEntrySize;
+        this.tcxToGpxConverter = new TcxToGpxConverter();
+        this.trackSegmentsReader = new TrackSegmentsReader();
+        this.derivedTrackFiles = new DerivedTrackFiles(datastore);
+    }
+
+    /**
+     * A file read from the archive.
+     */
+    private record Upload(String file, String name, String format, byte[] data, Instant lastModified) {
+    }
+
+    /**
+     * A file read from the archive that is being converted.
+     */
+    private record PendingConversion(String file, CompletableFuture<Conversion> conversion) {
+    }
+
+    /**
+     * A file that has been converted and can be stored as a new track. The TCX file, if any, and the GPX file are
+     * temporary files until the track has been stored.
+     */
+    private record Conversion(String file, String name, LocalDate coveredOn, Bounds bounds, List<TrackSegment> segments, File tcx, File gpx) {
+
+        TrackEntity newTrack(final Type type) {
+            final TrackEntity track = new TrackEntity(name, coveredOn);
+            track.setType(type);
+            track.setMinlat(bounds.getMinlat());
+            track.setMinlon(bounds.getMinlon());
+            track.setMaxlat(bounds.getMaxlat());
+            track.setMaxlon(bounds.getMaxlon());
+            TrackMetrics.of(segments).applyTo(track);
+            return track;
+        }
+
+        String key() {
+            return key(coveredOn, name);
+        }
+
+        void discard() {
+            deleteTrackFile(tcx);
+            deleteTrackFile(gpx);
+        }
+
+        static String key(final LocalDate coveredOn, final String name) {
+            return coveredOn + "/" + name;
+        }
+    }
+
+    /**
+     * Imports all TCX and GPX files of the given archive. Other files are skipped. The stream is not closed.
+     *
+     * @param archive The ZIP archive to import
+     * @param type The type of all imported tracks
+     * @return A report containing the result for each file
+     * @throws IOException If the archive cannot be read
+     */
+    @SuppressWarnings({"checkstyle:innerassignment"})
+    ImportReport importArchive(final InputStream archive, final Type type) throws IOException {
+        final ImportReport report = new ImportReport();
+        final Set<String> seen = new HashSet<>();
+        final List<PendingConversion> batch = new ArrayList<>(this.batchSize);
+
+        final ZipInputStream zip = new ZipInputStream(archive);
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final String file = entry.getName();
+                if (entry.isDirectory() || isHidden(file)) {
+                    continue;
+                }
+                final String format = getExtension(file);
+                if (!SUPPORTED_FORMATS.contains(format)) {
+                    report.skipped(file, "Unsupported file type");
+                    continue;
+                }
+                final byte[] data = readEntry(zip);
+                if (data == null) {
+                    report.failed(file, "File is larger than " + this.maxEntrySize + " bytes");
+                    continue;
+                }
+                final Instant lastModified = Optional.ofNullable(entry.getLastModifiedTime()).map(FileTime::toInstant).orElse(null);
+                final Upload upload = new Upload(file, getName(file), format, data, lastModified);
+                batch.add(new PendingConversion(file, CompletableFuture.supplyAsync(() -> convert(upload), this.executor)));
+                if (batch.size() >= this.batchSize) {
+                    importBatch(batch, type, seen, report);
+                }
+            }
+            importBatch(batch, type, seen, report);
+        } catch (ZipException | EOFException e) {
+            log.warn("Could not read archive completely", e);
+            importBatch(batch, type, seen, report);
+            report.failed("", "Invalid archive: " + e.getMessage());
+        } finally {
+            discard(batch);
+        }
+        return report;
+    }
+
+    /**
+     * Discards the staged files of conversions that have not been imported when the import is aborted. Running
+     * conversions cannot be stopped, so their files are discarded as soon as they are done.
+     */
+    private static void discard(final List<PendingConversion> conversions) {
+        for (var pendingConversion : conversions) {
+            pendingConversion.conversion().thenAccept(Conversion::discard);
+        }
+    }
+
+    static boolean isHidden(final String file) {
+        final String name = file.substring(file.lastIndexOf('/') + 1);
+        return file.startsWith("__MACOSX/") || name.startsWith(".");
+    }
+
+    static String getExtension(final String file) {
+        final int index = file.lastIndexOf('.');
+        return index < 0 ? "" : file.substring(index + 1).toLowerCase(Locale.ENGLISH);
+    }
+
+    static String getName(final String file) {
+        final String name = file.substring(file.lastIndexOf('/') + 1);
+        final int index = name.lastIndexOf('.');
+        return (index < 0 ? name : name.substring(0, index)).trim();
+    }
+
+    /**
+     * @return The data of the current entry or {@literal null} if it is larger than allowed
+     */
+    @SuppressWarnings({"checkstyle:innerassignment"})
+    private byte[] readEntry(final ZipInputStream zip) throws IOException {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zip.read(buffer)) >= 0) {
+            if (data.size() + read > this.maxEntrySize) {
+                return null;
+            }
+            data.write(buffer, 0, read);
+        }
+        return data.toByteArray();
+    }
+
+    private void importBatch(final List<PendingConversion> conversions, final Type type, final Set<String> seen, final ImportReport report) {
+        if (conversions.isEmpty()) {
+            return;
+        }
+
+        final List<Conversion> candidates = new ArrayList<>();
+        for (var pendingConversion : conversions) {
+            try {
+                candidates.add(pendingConversion.conversion().join());
+            } catch (CompletionException e) {
+                report.failed(pendingConversion.file(), e.getCause().getMessage());
+            }
+        }
+
+        final Set<String> existing = this.trackRepository
+                .findAllByCoveredOnIn(candidates.stream().map(Conversion::coveredOn).collect(Collectors.toSet())).stream()
+                .map(track -> Conversion.key(track.getCoveredOn(), track.getName()))
+                .collect(Collectors.toSet());
+        final List<Conversion> newTracks = new ArrayList<>();
+        for (var candidate : candidates) {
+            if (existing.contains(candidate.key()) || !seen.add(candidate.key())) {
+                candidate.discard();
+                report.skipped(candidate.file(), "Track already exists");
+            } else {
+                newTracks.add(candidate);
+            }
+        }
+
+        final List<TrackEntity> tracks = save(newTracks, type);
+        final List<CompletableFuture<Boolean>> stored = new ArrayList<>();
+        for (int i = 0; i < newTracks.size(); ++i) {
+            final Conversion conversion = newTracks.get(i);
+            final TrackEntity track = tracks.get(i);
+            stored.add(track == null ? null : CompletableFuture.supplyAsync(() -> store(conversion, track), this.executor));
+        }
+        for (int i = 0; i < newTracks.size(); ++i) {
+            final String file = newTracks.get(i).file();
+            if (stored.get(i) == null) {
+                newTracks.get(i).discard();
+                report.skipped(file, "Track already exists");
+            } else if (stored.get(i).join()) {
+                this.trackIndex.add(tracks.get(i));
+                report.imported(file, tracks.get(i));
+            } else {
+                report.failed(file, "Could not store track");
+            }
+        }
+        conversions.clear();
+    }
+
+    /**
+     * Converts the given upload and writes the TCX and GPX files to temporary files.
+     *
+     * @param upload The upload to convert
+     * @return The conversion
+     * @throws IllegalArgumentException If the upload cannot be converted, the message is meant for the report
+     * @throws UncheckedIOException If the temporary files cannot be written
+     */
+    private Conversion convert(final Upload upload) {
+        if (upload.name().isEmpty() || upload.name().length() > 512) {
+            throw new IllegalArgumentException("Invalid track name");
+        }
+
+        File tcx = null;
+        File gpx = null;
+        boolean converted = false;
+        try {
+            final TrackSummary summary;
+            final List<TrackSegment> segments;
+            gpx = newTemporaryFile();
+            if ("tcx".equals(upload.format())) {
+                tcx = newTemporaryFile();
+                AtomicFiles.write(tcx, upload.data());
+                summary = AtomicFiles.write(gpx, out -> this.tcxToGpxConverter.convert(new ByteArrayInputStream(upload.data()), out));
+                try (InputStream in = new BufferedInputStream(new FileInputStream(gpx))) {
+                    segments = this.trackSegmentsReader.read(in);
+                }
+            } else {
+                segments = this.trackSegmentsReader.read(new ByteArrayInputStream(upload.data()));
+                final Bounds bounds = boundsOf(segments)
+                        .orElseThrow(() -> new IllegalArgumentException("The GPX file doesn't contain any positions"));
+                summary = new TrackSummary(bounds, startOf(segments));
+                AtomicFiles.write(gpx, upload.data());
+            }
+
+            final Optional<Instant> start = summary.startedAt().or(() -> Optional.ofNullable(upload.lastModified()));
+            if (start.isPresent()) {
+                converted = true;
+                return new Conversion(upload.file(), upload.name(), start.get().atZone(ZoneId.systemDefault()).toLocalDate(), summary.bounds(), segments, tcx, gpx);
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            log.debug("Could not convert {}", upload.file(), e);
+            throw new IllegalArgumentException("Invalid track data: " + e.getMessage(), e);
+        } catch (IOException e) {
+            log.warn("Could not write temporary files of {}", upload.file(), e);
+            throw new UncheckedIOException("Could not store track", e);
+        } finally {
+            if (!converted) {
+                deleteTrackFile(tcx);
+                deleteTrackFile(gpx);
+            }
+        }
+        throw new IllegalArgumentException("Track has no date");
+    }
+
+    private File newTemporaryFile() throws IOException {
+        // Temporary files are created next to the shards of the tracks, so that they can be moved atomically
+        return Files.createTempFile(this.datastore.getDirectory(Datastore.Area.TRACKS).toPath(), "import-", AtomicFiles.TEMPORARY_SUFFIX).toFile();
+    }
+
+    /**
+     * @param segments The segments of a track
+     * @return The bounds of all points or an empty optional if there are none
+     */
+    static Optional<Bounds> boundsOf(final List<TrackSegment> segments) {
+        if (segments.isEmpty()) {
+            return Optional.empty();
+        }
+        double minlat = Double.POSITIVE_INFINITY;
+        double minlon = Double.POSITIVE_INFINITY;
+        double maxlat = Double.NEGATIVE_INFINITY;
+        double maxlon = Double.NEGATIVE_INFINITY;
+        for (var segment : segments) {
+            for (int i = 0; i < segment.size(); ++i) {
+                minlat = Math.min(minlat, segment.latitudes()[i]);
+                minlon = Math.min(minlon, segment.longitudes()[i]);
+                maxlat = Math.max(maxlat, segment.latitudes()[i]);
+                maxlon = Math.max(maxlon, segment.longitudes()[i]);
+            }
+        }
+        return Optional.of(new Bounds(BigDecimal.valueOf(minlat), BigDecimal.valueOf(minlon), BigDecimal.valueOf(maxlat), BigDecimal.valueOf(maxlon)));
+    }
+
+    /**
+     * The time of the GPX file itself is the time it has been created, so only the times of points are considered.
+     *
+     * @param segments The segments of a track
+     * @return The time of the first point that has one
+     */
+    static Optional<Instant> startOf(final List<TrackSegment> segments) {
+        for (var segment : segments) {
+            for (var time : segment.times()) {
+                if (time != TrackSegment.NO_TIME) {
+                    return Optional.of(Instant.ofEpochMilli(time));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Inserts all tracks within one transaction. If that fails because one of the tracks has been created in the
+     * meantime, the tracks are inserted one by one.
+     *
+     * @return The saved tracks, {@literal null} for each track that already existed
+     */
+    private List<TrackEntity> save(final List<Conversion> conversions, final Type type) {
+        if (conversions.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return this.trackRepository.saveAll(conversions.stream().map(c -> c.newTrack(type)).toList());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Could not insert batch of tracks, inserting them one by one", e);
+            final List<TrackEntity> rv = new ArrayList<>(conversions.size());
+            for (var conversion : conversions) {
+                TrackEntity track;
+                try {
+                    track = this.trackRepository.save(conversion.newTrack(type));
+                } catch (DataIntegrityViolationException e2) {
+                    track = null;
+                }
+                rv.add(track);
+            }
+            return rv;
+        }
+    }
+
+    /**
+     * Moves the files of a new track into place and computes all derived files. The track is deleted when its files
+     * could not be stored.
+     *
+     * @return {@literal true} if all files have been stored
+     */
+    private boolean store(final Conversion conversion, final TrackEntity track) {
+        final File tcxFile = track.getTrackFile(datastore, "tcx");
+        final File gpxFile = track.getTrackFile(datastore, "gpx");
+        try {
+            if (conversion.tcx() != null) {
+                AtomicFiles.move(conversion.tcx(), tcxFile);
+            }
+            AtomicFiles.move(conversion.gpx(), gpxFile);
+            this.derivedTrackFiles.store(track, conversion.segments());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store files of imported track {}, discarding it.", track.getPrettyId(), e);
+            conversion.discard();
+            deleteTrackFile(tcxFile);
+            deleteTrackFile(gpxFile);
+            this.derivedTrackFiles.delete(track);
+            this.trackRepository.delete(track);
+            return false;
+        }
+    }
+
+    private static void deleteTrackFile(final File trackFile) {
+        if (trackFile != null && trackFile.isFile() && !trackFile.delete()) {
+            log.warn("Could not delete track file {} while discarding a track.", trackFile.getAbsolutePath());
+        }
+    }
+}
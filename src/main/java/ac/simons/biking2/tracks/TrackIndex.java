@@ -0,0 +1,260 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory spatial index over the bounds of all ingested tracks. The index is loaded on first use and kept up to
+ * date by ingestion, import and deletion of tracks.
+ * <p>
+ * Queries run without locks against an immutable snapshot: a {@link HilbertRTree} over all tracks known when it was
+ * built plus the tracks that have been added or removed since then. Once there are more than
+ * {@value #MAX_PENDING_CHANGES} such changes, the tree is rebuilt.
+ * <p>
+ * Each change publishes a {@link BoundsChangedEvent} for the old and the new bounds of the track, so that anything
+ * derived from the tracks in an area can be invalidated.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackIndex {
+
+    static final int MAX_PENDING_CHANGES = 256;
+
+    /**
+     * Published when a track has been added to, moved within or removed from an area.
+     *
+     * @param minLon The minimum longitude of the area
+     * @param minLat The minimum latitude of the area
+     * @param maxLon The maximum longitude of the area
+     * @param maxLat The maximum latitude of the area
+     */
+    record BoundsChangedEvent(double minLon, double minLat, double maxLon, double maxLat) {
+    }
+
+    private record Entry(int id, double minLon, double minLat, double maxLon, double maxLat) {
+
+        static Entry of(final TrackEntity track) {
+            return new Entry(track.getId(),
+                    track.getMinlon().doubleValue(), track.getMinlat().doubleValue(),
+                    track.getMaxlon().doubleValue(), track.getMaxlat().doubleValue());
+        }
+
+        BoundsChangedEvent toEvent() {
+            return new BoundsChangedEvent(minLon, minLat, maxLon, maxLat);
+        }
+
+        boolean intersects(final double queryMinLon, final double queryMinLat, final double queryMaxLon, final double queryMaxLat) {
+            return minLon <= queryMaxLon && minLat <= queryMaxLat && maxLon >= queryMinLon && maxLat >= queryMinLat;
+        }
+    }
+
+    /**
+     * @param tree All tracks known when the tree was built
+     * @param added Tracks added since then, taking precedence over the tree
+     * @param removed Ids of tracks in the tree that have been removed or changed since then
+     */
+    private record Snapshot(HilbertRTree tree, List<Entry> added, Set<Integer> removed) {
+
+        int pendingChanges() {
+            return added.size() + removed.size();
+        }
+    }
+
+    private final TrackRepository trackRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * All indexed tracks, guarded by this index.
+     */
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * {@literal null} until the index has been loaded.
+     */
+    private volatile Snapshot snapshot;
+
+    TrackIndex(final TrackRepository trackRepository, final ApplicationEventPublisher eventPublisher) {
+        this.trackRepository = trackRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        snapshot();
+    }
+
+    private Snapshot snapshot() {
+        final Snapshot rv = this.snapshot;
+        return rv == null ? load() : rv;
+    }
+
+    private synchronized Snapshot load() {
+        if (this.snapshot == null) {
+            for (var track : this.trackRepository.findAllByMinlatIsNotNull()) {
+                this.entries.put(track.getId(), Entry.of(track));
+            }
+            this.snapshot = build();
+            log.info("Indexed {} tracks", this.entries.size());
+        }
+        return this.snapshot;
+    }
+
+    private Snapshot build() {
+        final int size = this.entries.size();
+        final int[] ids = new int[size];
+        final double[] minLons = new double[size];
+        final double[] minLats = new double[size];
+        final double[] maxLons = new double[size];
+        final double[] maxLats = new double[size];
+        int i = 0;
+        for (var entry : this.entries.values()) {
+            ids[i] = entry.id();
+            minLons[i] = entry.minLon();
+            minLats[i] = entry.minLat();
+            maxLons[i] = entry.maxLon();
+            maxLats[i] = entry.maxLat();
+            ++i;
+        }
+        return new Snapshot(new HilbertRTree(ids, minLons, minLats, maxLons, maxLats), List.of(), Set.of());
+    }
+
+    /**
+     * Adds a track or updates its bounds. Tracks without bounds are ignored.
+     *
+     * @param track The track to add
+     */
+    void add(final TrackEntity track) {
+        if (track.getId() == null || track.getMinlat() == null) {
+            return;
+        }
+        final Entry entry = Entry.of(track);
+        final Entry previous;
+        synchronized (this) {
+            final Snapshot current = snapshot();
+            previous = this.entries.put(entry.id(), entry);
+
+            final List<Entry> added = new ArrayList<>(current.added().size() + 1);
+            for (var existing : current.added()) {
+                if (existing.id() != entry.id()) {
+                    added.add(existing);
+                }
+            }
+            added.add(entry);
+            final Set<Integer> removed = new HashSet<>(current.removed());
+            removed.add(entry.id());
+            update(new Snapshot(current.tree(), List.copyOf(added), Set.copyOf(removed)));
+        }
+
+        if (previous != null && !previous.equals(entry)) {
+            this.eventPublisher.publishEvent(previous.toEvent());
+        }
+        this.eventPublisher.publishEvent(entry.toEvent());
+    }
+
+    /**
+     * Removes a track.
+     *
+     * @param id The id of the track to remove
+     */
+    void remove(final Integer id) {
+        if (id == null) {
+            return;
+        }
+        final Entry previous;
+        synchronized (this) {
+            final Snapshot current = snapshot();
+            previous = this.entries.remove(id);
+            if (previous == null) {
+                return;
+            }
+            final List<Entry> added = current.added().stream().filter(entry -> entry.id() != id).toList();
+            final Set<Integer> removed = new HashSet<>(current.removed());
+            removed.add(id);
+            update(new Snapshot(current.tree(), added, Set.copyOf(removed)));
+        }
+        this.eventPublisher.publishEvent(previous.toEvent());
+    }
+
+    private void update(final Snapshot newSnapshot) {
+        this.snapshot = newSnapshot.pendingChanges() > MAX_PENDING_CHANGES ? build() : newSnapshot;
+    }
+
+    /**
+     * Finds all tracks whose bounds intersect the given box. A box whose minimum longitude is greater than its maximum
+     * longitude crosses the antimeridian.
+     *
+     * @param minLon The minimum longitude
+     * @param minLat The minimum latitude
+     * @param maxLon The maximum longitude
+     * @param maxLat The maximum latitude
+     * @return The ids of all tracks found, in no particular order
+     */
+    List<Integer> query(final double minLon, final double minLat, final double maxLon, final double maxLat) {
+        final Snapshot current = snapshot();
+        if (minLon > maxLon) {
+            final Set<Integer> rv = new HashSet<>();
+            query(current, minLon, minLat, 180.0, maxLat, rv);
+            query(current, -180.0, minLat, maxLon, maxLat, rv);
+            return new ArrayList<>(rv);
+        }
+        final List<Integer> rv = new ArrayList<>();
+        query(current, minLon, minLat, maxLon, maxLat, rv);
+        return rv;
+    }
+
+    private static void query(
+            final Snapshot current,
+            final double minLon, final double minLat, final double maxLon, final double maxLat,
+            final Collection<Integer> rv
+    ) {
+        current.tree().search(minLon, minLat, maxLon, maxLat, id -> {
+            if (!current.removed().contains(id)) {
+                rv.add(id);
+            }
+        });
+        for (var entry : current.added()) {
+            if (entry.intersects(minLon, minLat, maxLon, maxLat)) {
+                rv.add(entry.id());
+            }
+        }
+    }
+
+    /**
+     * @return The number of indexed tracks
+     */
+    synchronized int size() {
+        snapshot();
+        return this.entries.size();
+    }
+}
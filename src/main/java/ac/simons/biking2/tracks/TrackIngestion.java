@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.gpx.Bounds;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Ingests uploaded tracks: The upload is stored as TCX file right away, the conversion into GPX and the computation
+ * of the bounds run later on a small pool of workers. The number of uploads waiting for a worker is limited, further
+ * uploads are rejected until there's room again.
+ * <p>
+ * A track is accepted once its row and TCX file exist. Tracks without bounds but with a TCX file are queued again
+ * on startup, so that an ingestion interrupted by a shutdown is finished. The state of an ingestion is available for
+ * an hour after it changed for the last time.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackIngestion {
+
+    private final TrackRepository trackRepository;
+
+    private final TrackIndex trackIndex;
+
+    private final Datastore datastore;
+
+    private final Executor executor;
+
+    private final TcxToGpxConverter tcxToGpxConverter;
+
+    private final DerivedTrackFiles derivedTrackFiles;
+
+    private final Cache<String, IngestionJob> jobs;
+
+    TrackIngestion(final TrackRepository trackRepository, final TrackIndex trackIndex, final Datastore datastore, final Executor trackIngestionExecutor) {
+        this.trackRepository = trackRepository;
+        this.trackIndex = trackIndex;
+        this.datastore = datastore;
+        this.executor = trackIngestionExecutor;
+        this.tcxToGpxConverter = new TcxToGpxConverter();
+        this.derivedTrackFiles = new DerivedTrackFiles(datastore);
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(Duration.ofHours(1)).build();
+    }
+
+    /**
+     * Stores the uploaded data as TCX file of the given track and makes sure it has been written to disk.
+     *
+     * @param track The track to which the data belongs
+     * @param tcxData The uploaded TCX data
+     * @throws IOException If the data could not be stored
+     */
+    void storeUpload(final TrackEntity track, final InputStream tcxData) throws IOException {
+        AtomicFiles.write(track.getTrackFile(datastore, "tcx"), tcxData);
+    }
+
+    /**
+     * Queues the ingestion of a track whose upload has been stored.
+     *
+     * @param track The track to ingest
+     * @return The new job
+     * @throws RejectedExecutionException If there are too many tracks waiting to be ingested
+     */
+    IngestionJob submit(final TrackEntity track) {
+        final IngestionJob job = new IngestionJob(track);
+        this.jobs.put(job.getId(), job);
+        try {
+            this.executor.execute(() -> ingest(job));
+        } catch (RejectedExecutionException e) {
+            this.jobs.invalidate(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    Optional<IngestionJob> getJob(final String id) {
+        return Optional.ofNullable(this.jobs.getIfPresent(id));
+    }
+
+    void ingest(final IngestionJob job) {
+        job.started();
+        final TrackEntity track = job.getTrack();
+        try {
+            final TrackEntity ingestedTrack = this.trackRepository.save(convert(track));
+            this.trackIndex.add(ingestedTrack);
+            job.completed(ingestedTrack);
+        } catch (Exception e) {
+            log.warn("Could not ingest track {}... Maybe an invalid TCX file? Discarding it.", track.getPrettyId(), e);
+            discard(track);
+            job.failed("Invalid track data: " + e.getMessage());
+        }
+        this.jobs.put(job.getId(), job);
+    }
+
+    /**
+     * Converts the stored TCX file of the given track into GPX, computes the bounds and metrics of the track and
+     * all files derived from the GPX file.
+     *
+     * @param track The track to convert
+     * @return The track with its bounds and metrics set
+     */
+    @SneakyThrows({IOException.class, XMLStreamException.class})
+    TrackEntity convert(final TrackEntity track) {
+        final File tcxFile = track.getTrackFile(datastore, "tcx");
+        final File gpxFile = track.getTrackFile(datastore, "gpx");
+
+        final TrackSummary summary;
+        try (InputStream tcx = new BufferedInputStream(new FileInputStream(tcxFile))) {
+            summary = AtomicFiles.write(gpxFile, gpx -> this.tcxToGpxConverter.convert(tcx, gpx));
+        }
+        final TrackMetrics metrics;
+        try (InputStream gpx = new BufferedInputStream(new FileInputStream(gpxFile))) {
+            metrics = this.derivedTrackFiles.store(track, gpx);
+        }
+
+        final Bounds bounds = summary.bounds();
+        track.setMinlon(bounds.getMinlon());
+        track.setMinlat(bounds.getMinlat());
+        track.setMaxlon(bounds.getMaxlon());
+        track.setMaxlat(bounds.getMaxlat());
+        metrics.applyTo(track);
+
+        return track;
+    }
+
+    /**
+     * @param track The track to check
+     * @return True, if the given track has been accepted but its ingestion has not been finished yet
+     */
+    boolean isPending(final TrackEntity track) {
+        return track.getMinlat() == null && track.getTrackFile(datastore, "tcx").isFile();
+    }
+
+    /**
+     * Deletes the given track together with all its files. Files that don't exist are considered deleted, files that
+     * cannot be deleted are only logged and left to the {@link TrackFileReconciliation}.
+     *
+     * @param track The track to discard
+     */
+    void discard(final TrackEntity track) {
+        this.trackRepository.delete(track);
+        deleteTrackFile(track.getTrackFile(datastore, "tcx"));
+        deleteTrackFile(track.getTrackFile(datastore, "gpx"));
+        this.derivedTrackFiles.delete(track);
+    }
+
+    private static void deleteTrackFile(final File trackFile) {
+        try {
+            Files.deleteIfExists(trackFile.toPath());
+        } catch (IOException e) {
+            log.warn("Could not delete track file {} while discarding a track.", trackFile.getAbsolutePath(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedIngestions() {
+        for (var track : this.trackRepository.findAllByMinlatIsNull()) {
+            if (!isPending(track)) {
+                continue;
+            }
+            try {
+                submit(track);
+                log.info("Resuming ingestion of track {}", track.getPrettyId());
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not resume ingestion of track {}, too many tracks are waiting.", track.getPrettyId());
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Metrics of a track, computed in one pass over all its points. Distances are summed up within segments only, the
+ * gaps between segments are not counted.
+ * <p>
+ * Recorded elevations are noisy, so ascent and descent are only counted once the elevation changed by at least
+ * {@value #ELEVATION_THRESHOLD} meters. Moving time is the time between points that are at least
+ * {@value #MOVING_SPEED} m/s apart. The maximum speed is averaged over at least {@value #MAX_SPEED_WINDOW} ms, so that
+ * single jumps of the position are evened out.
+ *
+ * @param distance The distance in meters
+ * @param ascent The ascent in meters
+ * @param descent The descent in meters
+ * @param elapsedTime The time between the first and last point in milliseconds, {@literal null} without times
+ * @param movingTime The time spent moving in milliseconds, {@literal null} without times
+ * @param maxSpeed The maximum speed in meters per second, {@literal null} if the track is too short
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+record TrackMetrics(double distance, double ascent, double descent, Long elapsedTime, Long movingTime, Double maxSpeed) {
+
+    static final double EARTH_RADIUS = 6_371_008.8;
+
+    static final double ELEVATION_THRESHOLD = 5.0;
+
+    static final double MOVING_SPEED = 0.5;
+
+    static final long MAX_SPEED_WINDOW = 10_000;
+
+    static TrackMetrics of(final List<TrackSegment> segments) {
+        final Accumulator accumulator = new Accumulator();
+        for (var segment : segments) {
+            for (int i = 0; i < segment.size(); ++i) {
+                accumulator.add(segment.latitudes()[i], segment.longitudes()[i], segment.elevations()[i], segment.times()[i]);
+            }
+            accumulator.endSegment();
+        }
+        return accumulator.result();
+    }
+
+    static TrackMetrics of(final TrackPoints points) {
+        final Accumulator accumulator = new Accumulator();
+        for (int s = 0; s < points.segmentCount(); ++s) {
+            for (int i = points.segmentStart(s); i < points.segmentEnd(s); ++i) {
+                accumulator.add(points.latitude(i), points.longitude(i), points.elevation(i), points.time(i));
+            }
+            accumulator.endSegment();
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * @return The great-circle distance between both positions in meters
+     */
+    static double haversine(final double lat1, final double lon1, final double lat2, final double lon2) {
+        final double sinDeltaLat = Math.sin(Math.toRadians(lat2 - lat1) / 2.0);
+        final double sinDeltaLon = Math.sin(Math.toRadians(lon2 - lon1) / 2.0);
+        final double a = sinDeltaLat * sinDeltaLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinDeltaLon * sinDeltaLon;
+        return 2.0 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Stores the metrics in the units of the database.
+     *
+     * @param track The track to update
+     */
+    void applyTo(final TrackEntity track) {
+        track.setDistance(BigDecimal.valueOf(distance / 1000.0).setScale(2, RoundingMode.HALF_UP));
+        track.setAscent(BigDecimal.valueOf(ascent).setScale(1, RoundingMode.HALF_UP));
+        track.setDescent(BigDecimal.valueOf(descent).setScale(1, RoundingMode.HALF_UP));
+        track.setElapsedTime(elapsedTime == null ? null : Math.toIntExact(elapsedTime / 1000));
+        track.setMovingTime(movingTime == null ? null : Math.toIntExact(movingTime / 1000));
+        track.setMaxSpeed(maxSpeed == null ? null : BigDecimal.valueOf(maxSpeed * 3.6).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Collects the metrics point by point.
+     */
+    private static final class Accumulator {
+
+        private double distance;
+
+        private double ascent;
+
+        private double descent;
+
+        private long firstTime = TrackSegment.NO_TIME;
+
+        private long lastTime = TrackSegment.NO_TIME;
+
+        private long movingTime;
+
+        private double maxSpeed = Double.NaN;
+
+        private double referenceElevation = Double.NaN;
+
+        /**
+         * Position of the previous point of the current segment, NaN at the start of a segment.
+         */
+        private double previousLatitude = Double.NaN;
+
+        private double previousLongitude;
+
+        /**
+         * Time and distance from the start of the segment of the points with time within the current window.
+         */
+        private long[] windowTimes = new long[16];
+
+        private double[] windowDistances = new double[16];
+
+        private int windowStart;
+
+        private int windowSize;
+
+        private double segmentDistance;
+
+        void add(final double latitude, final double longitude, final double elevation, final long time) {
+            if (!Double.isNaN(previousLatitude)) {
+                final double delta = haversine(previousLatitude, previousLongitude, latitude, longitude);
+                distance += delta;
+                segmentDistance += delta;
+            }
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+
+            if (!Double.isNaN(elevation)) {
+                if (Double.isNaN(referenceElevation)) {
+                    referenceElevation = elevation;
+                } else if (elevation - referenceElevation >= ELEVATION_THRESHOLD) {
+                    ascent += elevation - referenceElevation;
+                    referenceElevation = elevation;
+                } else if (referenceElevation - elevation >= ELEVATION_THRESHOLD) {
+                    descent += referenceElevation - elevation;
+                    referenceElevation = elevation;
+                }
+            }
+
+            if (time != TrackSegment.NO_TIME) {
+                addTime(time);
+            }
+        }
+
+        private void addTime(final long time) {
+            if (firstTime == TrackSegment.NO_TIME) {
+                firstTime = time;
+            }
+            lastTime = time;
+
+            if (windowSize > 0) {
+                final int newest = (windowStart + windowSize - 1) % windowTimes.length;
+                final long duration = time - windowTimes[newest];
+                if (duration > 0 && (segmentDistance - windowDistances[newest]) / duration * 1000.0 >= MOVING_SPEED) {
+                    movingTime += duration;
+                }
+            }
+
+            if (windowSize == windowTimes.length) {
+                windowTimes = grow(windowTimes);
+                windowDistances = grow(windowDistances);
+                windowStart = 0;
+            }
+            windowTimes[(windowStart + windowSize) % windowTimes.length] = time;
+            windowDistances[(windowStart + windowSize) % windowTimes.length] = segmentDistance;
+            ++windowSize;
+
+            // Keep the window as short as possible but at least as long as the minimum
+            while (windowSize > 2 && time - windowTimes[(windowStart + 1) % windowTimes.length] >= MAX_SPEED_WINDOW) {
+                windowStart = (windowStart + 1) % windowTimes.length;
+                --windowSize;
+            }
+            final long duration = time - windowTimes[windowStart];
+            if (duration >= MAX_SPEED_WINDOW) {
+                final double speed = (segmentDistance - windowDistances[windowStart]) / duration * 1000.0;
+                maxSpeed = Double.isNaN(maxSpeed) ? speed : Math.max(maxSpeed, speed);
+            }
+        }
+
+        private long[] grow(final long[] values) {
+            final long[] rv = new long[values.length * 2];
+            for (int i = 0; i < windowSize; ++i) {
+                rv[i] = values[(windowStart + i) % values.length];
+            }
+            return rv;
+        }
+
+        private double[] grow(final double[] values) {
+            final double[] rv = new double[values.length * 2];
+            for (int i = 0; i < windowSize; ++i) {
+                rv[i] = values[(windowStart + i) % values.length];
+            }
+            return rv;
+        }
+
+        void endSegment() {
+            previousLatitude = Double.NaN;
+            segmentDistance = 0.0;
+            windowSize = 0;
+            windowStart = 0;
+        }
+
+        TrackMetrics result() {
+            final boolean hasTime = firstTime != TrackSegment.NO_TIME;
+            return new TrackMetrics(
+                    distance, ascent, descent,
+                    hasTime ? Math.max(0, lastTime - firstTime) : null,
+                    hasTime ? movingTime : null,
+                    Double.isNaN(maxSpeed) ? null : maxSpeed
+            );
+        }
+    }
+}
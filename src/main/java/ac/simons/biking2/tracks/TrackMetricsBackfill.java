@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Measures all tracks that have been ingested before there were metrics. The backfill starts when the application is
+ * ready and runs in the background: Tracks are measured concurrently from their point files, the metrics of each batch
+ * are stored within one transaction as soon as all tracks of the batch have been measured.
+ * <p>
+ * Tracks that cannot be measured keep their empty metrics and are tried again on the next start.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackMetricsBackfill {
+
+    private final TrackRepository trackRepository;
+
+    private final DerivedTrackFiles derivedTrackFiles;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    TrackMetricsBackfill(
+            final TrackRepository trackRepository,
+            final Datastore datastore,
+            final Executor trackMetricsExecutor,
+            @Value("${biking2.tracks.metrics.backfill.batch-size:50}") final int batchSize
+    ) {
+        this.trackRepository = trackRepository;
+        this.derivedTrackFiles = new DerivedTrackFiles(datastore);
+        this.executor = trackMetricsExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill();
+    }
+
+    /**
+     * Starts measuring all tracks without metrics.
+     *
+     * @return The number of tracks that have been measured, completes when all batches have been stored
+     */
+    CompletableFuture<Integer> backfill() {
+        final List<TrackEntity> tracks = this.trackRepository.findAllByMinlatIsNotNullAndDistanceIsNull();
+        if (tracks.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        log.info("Measuring {} tracks", tracks.size());
+
+        final List<CompletableFuture<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < tracks.size(); from += this.batchSize) {
+            final List<CompletableFuture<Optional<TrackEntity>>> measurements = tracks.subList(from, Math.min(tracks.size(), from + this.batchSize)).stream()
+                    .map(track -> CompletableFuture.supplyAsync(() -> measure(track), this.executor))
+                    .toList();
+            batches.add(CompletableFuture.allOf(measurements.toArray(CompletableFuture[]::new))
+                    .thenApplyAsync(ignored -> save(measurements.stream().map(CompletableFuture::join).flatMap(Optional::stream).toList()), this.executor));
+        }
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    final int measured = batches.stream().mapToInt(CompletableFuture::join).sum();
+                    log.info("Measured {} of {} tracks", measured, tracks.size());
+                    return measured;
+                });
+    }
+
+    private Optional<TrackEntity> measure(final TrackEntity track) {
+        try {
+            final Optional<TrackPoints> points = this.derivedTrackFiles.points(track);
+            if (points.isEmpty()) {
+                log.warn("Could not measure track {}, there is no GPX file", track.getPrettyId());
+            }
+            return points.map(TrackMetrics::of).map(metrics -> {
+                metrics.applyTo(track);
+                return track;
+            });
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            log.warn("Could not measure track {}", track.getPrettyId(), e);
+            return Optional.empty();
+        }
+    }
+
+    private int save(final List<TrackEntity> tracks) {
+        if (tracks.isEmpty()) {
+            return 0;
+        }
+        try {
+            return this.trackRepository.saveAll(tracks).size();
+        } catch (DataAccessException e) {
+            log.warn("Could not store the metrics of {} tracks", tracks.size(), e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * All points of a track in a compact binary file with fixed-width records, so that any point can be accessed without
+ * parsing the GPX file. The file is mapped into memory for reading.
+ * <p>
+ * The file starts with a header, all values are big-endian:
+ * <ul>
+ * <li>the magic number {@code B2TP} and the version of the format (two bytes), followed by two unused bytes</li>
+ * <li>the base time in milliseconds since the epoch, {@link TrackSegment#NO_TIME} if no point has a time</li>
+ * <li>the number of points and the number of segments</li>
+ * <li>the index of the first point of each segment</li>
+ * </ul>
+ * followed by 16 bytes for each point: latitude and longitude in 1e-7 degrees, the elevation as float ({@link Float#NaN}
+ * if unknown) and the time in milliseconds relative to the base time ({@link Integer#MIN_VALUE} if unknown).
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class TrackPoints {
+
+    static final String FORMAT = "points";
+
+    static final int MAGIC = 0x42325450;
+
+    static final short VERSION = 1;
+
+    static final int POINT_SIZE = 16;
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final double FACTOR = 1e7;
+
+    private static final int NO_TIME_DELTA = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+
+    private final long baseTime;
+
+    private final int size;
+
+    private final int[] segmentStarts;
+
+    private final int pointsOffset;
+
+    private TrackPoints(final ByteBuffer buffer, final long baseTime, final int size, final int[] segmentStarts) {
+        this.buffer = buffer;
+        this.baseTime = baseTime;
+        this.size = size;
+        this.segmentStarts = segmentStarts;
+        this.pointsOffset = HEADER_SIZE + segmentStarts.length * Integer.BYTES;
+    }
+
+    /**
+     * Writes all points of the given segments. The file is written to a temporary file first, so that concurrent
+     * readers see either nothing or all points.
+     *
+     * @param segments The segments of a track
+     * @param target The file to write
+     * @throws IOException If the file cannot be written
+     */
+    static void write(final List<TrackSegment> segments, final File target) throws IOException {
+        long baseTime = TrackSegment.NO_TIME;
+        int size = 0;
+        for (var segment : segments) {
+            for (long time : segment.times()) {
+                if (baseTime == TrackSegment.NO_TIME && time != TrackSegment.NO_TIME) {
+                    baseTime = time;
+                }
+            }
+            size += segment.size();
+        }
+
+        final long finalBaseTime = baseTime;
+        final int finalSize = size;
+        AtomicFiles.write(target, stream -> {
+            try (DataOutputStream out = new DataOutputStream(stream)) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(0);
+                out.writeLong(finalBaseTime);
+                out.writeInt(finalSize);
+                out.writeInt(segments.size());
+                int start = 0;
+                for (var segment : segments) {
+                    out.writeInt(start);
+                    start += segment.size();
+                }
+                for (var segment : segments) {
+                    for (int i = 0; i < segment.size(); ++i) {
+                        out.writeInt((int) Math.round(segment.latitudes()[i] * FACTOR));
+                        out.writeInt((int) Math.round(segment.longitudes()[i] * FACTOR));
+                        out.writeFloat((float) segment.elevations()[i]);
+                        out.writeInt(timeDelta(finalBaseTime, segment.times()[i]));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static int timeDelta(final long baseTime, final long time) {
+        if (time == TrackSegment.NO_TIME) {
+            return NO_TIME_DELTA;
+        }
+        final long delta = time - baseTime;
+        return delta > Integer.MIN_VALUE && delta <= Integer.MAX_VALUE ? (int) delta : NO_TIME_DELTA;
+    }
+
+    /**
+     * Maps the given file into memory. The mapping stays valid after the file has been replaced or deleted.
+     *
+     * @param file A file written by {@link #write(List, File)}
+     * @return The points of the track
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If the file is not a valid track points file
+     */
+    static TrackPoints open(final File file) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a track points file: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a track points file: " + file);
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported version " + buffer.getShort(4) + " of track points file " + file);
+        }
+        final long baseTime = buffer.getLong(8);
+        final int size = buffer.getInt(16);
+        final int segmentCount = buffer.getInt(20);
+        if (size < 0 || segmentCount < 0 || buffer.capacity() != HEADER_SIZE + (long) segmentCount * Integer.BYTES + (long) size * POINT_SIZE) {
+            throw new IllegalArgumentException("Truncated track points file: " + file);
+        }
+        final int[] segmentStarts = new int[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segmentStarts[i] = buffer.getInt(HEADER_SIZE + i * Integer.BYTES);
+            if (segmentStarts[i] < (i == 0 ? 0 : segmentStarts[i - 1]) || segmentStarts[i] > size) {
+                throw new IllegalArgumentException("Invalid segment in track points file: " + file);
+            }
+        }
+        return new TrackPoints(buffer, baseTime, size, segmentStarts);
+    }
+
+    /**
+     * @return The number of points of all segments
+     */
+    int size() {
+        return this.size;
+    }
+
+    int segmentCount() {
+        return this.segmentStarts.length;
+    }
+
+    /**
+     * @param segment The index of a segment
+     * @return The index of the first point of the segment
+     */
+    int segmentStart(final int segment) {
+        return this.segmentStarts[segment];
+    }
+
+    /**
+     * @param segment The index of a segment
+     * @return The index after the last point of the segment
+     */
+    int segmentEnd(final int segment) {
+        return segment + 1 < this.segmentStarts.length ? this.segmentStarts[segment + 1] : this.size;
+    }
+
+    double latitude(final int point) {
+        return this.buffer.getInt(offset(point)) / FACTOR;
+    }
+
+    double longitude(final int point) {
+        return this.buffer.getInt(offset(point) + 4) / FACTOR;
+    }
+
+    /**
+     * @param point The index of a point
+     * @return The elevation in meters or {@link Double#NaN} if unknown
+     */
+    double elevation(final int point) {
+        return this.buffer.getFloat(offset(point) + 8);
+    }
+
+    boolean hasTime(final int point) {
+        return this.buffer.getInt(offset(point) + 12) != NO_TIME_DELTA;
+    }
+
+    /**
+     * @param point The index of a point
+     * @return The time in milliseconds since the epoch or {@link TrackSegment#NO_TIME} if unknown
+     */
+    long time(final int point) {
+        final int delta = this.buffer.getInt(offset(point) + 12);
+        return delta == NO_TIME_DELTA ? TrackSegment.NO_TIME : this.baseTime + delta;
+    }
+
+    private int offset(final int point) {
+        if (point < 0 || point >= this.size) {
+            throw new IndexOutOfBoundsException(point);
+        }
+        return this.pointsOffset + point * POINT_SIZE;
+    }
+}
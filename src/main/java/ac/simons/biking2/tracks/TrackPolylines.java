@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Simplified geometries of tracks, so that maps showing a whole track don't have to load every recorded point. Each
+ * track is simplified with several tolerances, each level being a quarter of the size of the previous one. All levels
+ * are stored as encoded polylines in one file next to the GPX file, from the coarsest to the finest level.
+ * <p>
+ * Tolerances are given in degrees of latitude. Longitudes are scaled by the cosine of the latitude in the middle of
+ * the track before simplifying, so that the tolerance is about the same in both directions.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class TrackPolylines {
+
+    static final String FORMAT = "polylines";
+
+    /**
+     * From about one meter up to about a kilometer.
+     */
+    static final double[] TOLERANCES = {0.00001, 0.00004, 0.00016, 0.00064, 0.00256, 0.01024};
+
+    /**
+     * A track simplified with one tolerance.
+     *
+     * @param tolerance The tolerance in degrees of latitude
+     * @param segments One encoded polyline per segment of the track
+     */
+    @JsonPropertyOrder(alphabetic = true)
+    record Polyline(double tolerance, List<String> segments) {
+    }
+
+    private final Datastore datastore;
+
+    private final TrackSegmentsReader trackSegmentsReader;
+
+    TrackPolylines(final Datastore datastore) {
+        this.datastore = datastore;
+        this.trackSegmentsReader = new TrackSegmentsReader();
+    }
+
+    /**
+     * Computes and stores all levels of the given track from its GPX data. The stream is not closed.
+     *
+     * @param track The track to simplify
+     * @param gpx The GPX data of the track
+     * @throws XMLStreamException If the GPX data is invalid
+     * @throws IOException If the levels cannot be stored
+     */
+    void store(final TrackEntity track, final InputStream gpx) throws XMLStreamException, IOException {
+        store(track, this.trackSegmentsReader.read(gpx));
+    }
+
+    /**
+     * Computes and stores all levels of the given track from its segments.
+     *
+     * @param track The track to simplify
+     * @param segments The segments of the track
+     * @throws IOException If the levels cannot be stored
+     */
+    void store(final TrackEntity track, final List<TrackSegment> segments) throws IOException {
+        final List<Polyline> levels = simplify(segments);
+
+        final File target = track.getTrackFile(datastore, FORMAT);
+        // Concurrent readers see either nothing or all levels
+        AtomicFiles.write(target, out -> {
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.US_ASCII)) {
+                for (var level : levels) {
+                    writer.write(Double.toString(level.tolerance()));
+                    for (var segment : level.segments()) {
+                        writer.write(' ');
+                        writer.write(segment);
+                    }
+                    writer.write('\n');
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the level of the given track that is appropriate for a map of the given size, that shows the whole
+     * track. Levels of tracks that have been stored before there were simplified geometries are computed and stored
+     * on the first request.
+     *
+     * @param track The track
+     * @param width The width of the map in pixel
+     * @param height The height of the map in pixel
+     * @return The simplified track or an empty optional if the track hasn't been ingested yet
+     * @throws XMLStreamException If the GPX data of the track is invalid
+     * @throws IOException If the levels cannot be read or stored
+     */
+    Optional<Polyline> get(final TrackEntity track, final int width, final int height) throws XMLStreamException, IOException {
+        if (track.getMinlat() == null) {
+            return Optional.empty();
+        }
+        return get(track, selectTolerance(track, width, height));
+    }
+
+    /**
+     * Retrieves the coarsest level of the given track whose tolerance is not greater than the given tolerance, or
+     * the finest level if there is no such level.
+     *
+     * @param track The track
+     * @param tolerance The highest acceptable tolerance in degrees of latitude
+     * @return The simplified track or an empty optional if the track hasn't been ingested yet
+     * @throws XMLStreamException If the GPX data of the track is invalid
+     * @throws IOException If the levels cannot be read or stored
+     */
+    @SuppressWarnings({"checkstyle:innerassignment"})
+    Optional<Polyline> get(final TrackEntity track, final double tolerance) throws XMLStreamException, IOException {
+        if (track.getMinlat() == null) {
+            return Optional.empty();
+        }
+
+        File levels = track.findTrackFile(datastore, FORMAT).orElse(null);
+        if (levels == null) {
+            final Optional<File> gpxFile = track.findTrackFile(datastore, "gpx");
+            if (gpxFile.isEmpty()) {
+                return Optional.empty();
+            }
+            try (InputStream gpx = new BufferedInputStream(new FileInputStream(gpxFile.get()))) {
+                store(track, gpx);
+            }
+            levels = track.getTrackFile(datastore, FORMAT);
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(levels.toPath(), StandardCharsets.US_ASCII)) {
+            String line;
+            String[] candidate = null;
+            // Levels are ordered from coarse to fine, take the coarsest that is fine enough
+            while ((line = reader.readLine()) != null) {
+                candidate = line.split(" ");
+                if (Double.parseDouble(candidate[0]) <= tolerance) {
+                    break;
+                }
+            }
+            return Optional.ofNullable(candidate)
+                    .map(values -> new Polyline(Double.parseDouble(values[0]), List.of(Arrays.copyOfRange(values, 1, values.length))));
+        }
+    }
+
+    /**
+     * Computes the tolerance that is not visible on a map of the given size showing the whole track, that is the
+     * size of a pixel in degrees of latitude.
+     *
+     * @param track The track with bounds
+     * @param width The width of the map in pixel
+     * @param height The height of the map in pixel
+     * @return The highest tolerance that is not visible
+     */
+    static double selectTolerance(final TrackEntity track, final int width, final int height) {
+        final double minlat = track.getMinlat().doubleValue();
+        final double maxlat = track.getMaxlat().doubleValue();
+        final double scale = Math.cos(Math.toRadians((minlat + maxlat) / 2.0));
+        final double lonExtent = (track.getMaxlon().doubleValue() - track.getMinlon().doubleValue()) * scale;
+        return Math.max((maxlat - minlat) / Math.max(1, height), lonExtent / Math.max(1, width));
+    }
+
+    /**
+     * Simplifies all segments with each tolerance.
+     *
+     * @param segments The segments of a track
+     * @return One polyline per tolerance, ordered from the coarsest to the finest level
+     */
+    static List<Polyline> simplify(final List<TrackSegment> segments) {
+        double minlat = Double.POSITIVE_INFINITY;
+        double maxlat = Double.NEGATIVE_INFINITY;
+        for (var segment : segments) {
+            for (double latitude : segment.latitudes()) {
+                minlat = Math.min(minlat, latitude);
+                maxlat = Math.max(maxlat, latitude);
+            }
+        }
+        final double scale = segments.isEmpty() ? 1.0 : Math.cos(Math.toRadians((minlat + maxlat) / 2.0));
+        final List<double[]> scaledLongitudes = segments.stream()
+                .map(segment -> Arrays.stream(segment.longitudes()).map(longitude -> longitude * scale).toArray())
+                .toList();
+
+        final List<Polyline> rv = new ArrayList<>(TOLERANCES.length);
+        for (int level = TOLERANCES.length - 1; level >= 0; --level) {
+            final List<String> encodedSegments = new ArrayList<>(segments.size());
+            for (int i = 0; i < segments.size(); ++i) {
+                final TrackSegment segment = segments.get(i);
+                final int[] kept = DouglasPeucker.simplify(scaledLongitudes.get(i), segment.latitudes(), TOLERANCES[level]);
+                encodedSegments.add(EncodedPolyline.encode(segment.latitudes(), segment.longitudes(), kept));
+            }
+            rv.add(new Polyline(TOLERANCES[level], encodedSegments));
+        }
+        return rv;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 michael-simons.eu.
+ * Copyright 2014-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,70 @@
 
 package ac.simons.biking2.tracks;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * @author Michael J. Simons, 2014-02-08
  */
 interface TrackRepository extends JpaRepository<TrackEntity, Integer> {
+
+    /**
+     * @return All tracks without bounds, which haven't been ingested completely
+     */
+    List<TrackEntity> findAllByMinlatIsNull();
+
+    /**
+     * @return All ingested tracks
+     */
+    List<TrackEntity> findAllByMinlatIsNotNull();
+
+    /**
+     * @return All ingested tracks that haven't been measured yet
+     */
+    List<TrackEntity> findAllByMinlatIsNotNullAndDistanceIsNull();
+
+    /**
+     * @return The ids of all tracks
+     */
+    @Query("SELECT t.id FROM TrackEntity t")
+    List<Integer> findAllIds();
+
+    /**
+     * @param id The id of a track
+     * @return The track if it exists, with only the attributes needed to embed it
+     */
+    Optional<EmbeddableTrack> findEmbeddableTrackById(Integer id);
+
+    /**
+     * @param coveredOn A set of dates
+     * @return All tracks covered on one of the given dates
+     */
+    List<TrackEntity> findAllByCoveredOnIn(Collection<LocalDate> coveredOn);
+
+    /**
+     * @param limit The maximum number of tracks
+     * @return The first page of tracks, ordered by the date on which they have been covered and their id
+     */
+    List<TrackEntity> findAllByOrderByCoveredOnAscIdAsc(Limit limit);
+
+    /**
+     * Retrieves the next page of tracks after the last track of the previous page.
+     *
+     * @param coveredOn The date of the last track of the previous page
+     * @param id The id of the last track of the previous page
+     * @param limit The maximum number of tracks
+     * @return The next page of tracks, ordered by the date on which they have been covered and their id
+     */
+    @Query("""
+            SELECT t FROM TrackEntity t
+            WHERE t.coveredOn > :coveredOn OR (t.coveredOn = :coveredOn AND t.id > :id)
+            ORDER BY t.coveredOn ASC, t.id ASC""")
+    List<TrackEntity> findAllAfter(LocalDate coveredOn, Integer id, Limit limit);
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+
+import org.jooq.DSLContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static ac.simons.biking2.db.Tables.TRACKS;
+
+/**
+ * Writes all tracks as newline delimited JSON, one track per line in the same representation as the JSON API. The
+ * tracks are read through a database cursor and written as they come, so that neither the tracks nor the response
+ * are kept in memory as a whole.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@RequiredArgsConstructor
+class TrackStream {
+
+    /**
+     * Number of rows fetched from the cursor at once, the response is flushed after each batch.
+     */
+    static final int FETCH_SIZE = 100;
+
+    private final DSLContext database;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes all tracks, ordered by the date on which they have been covered and their id.
+     *
+     * @param out The stream to write to, will not be closed
+     * @throws IOException If writing fails
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        final ObjectWriter writer = this.objectMapper.writerFor(TrackEntity.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(SerializationFeature.CLOSE_CLOSEABLE);
+        try (
+                Stream<TrackEntity> tracks = this.database
+                        .selectFrom(TRACKS)
+                        .orderBy(TRACKS.COVERED_ON, TRACKS.ID)
+                        .fetchSize(FETCH_SIZE)
+                        .fetchStreamInto(TrackEntity.class);
+                JsonGenerator generator = writer.createGenerator(out)
+        ) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            int written = 0;
+            for (Iterator<TrackEntity> it = tracks.iterator(); it.hasNext();) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (++written % FETCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+}
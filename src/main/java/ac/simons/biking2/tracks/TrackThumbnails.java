@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.support.AtomicFiles;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import javax.imageio.ImageIO;
+import javax.xml.stream.XMLStreamException;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Static images of tracks: The simplified geometry of a track that matches the size of the image is drawn onto a
+ * plain background, without any map. Requested sizes are rounded up to one of a few {@link #SIZES}, so that there is
+ * a small number of different images per track. Each of them is rendered once and cached on disk, one directory per
+ * track, until the track is deleted.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Slf4j
+final class TrackThumbnails {
+
+    /**
+     * The sizes in which thumbnails are rendered, the largest one is large enough for link previews.
+     */
+    static final int[] SIZES = {64, 128, 256, 512, 1024};
+
+    static final int MIN_SIZE = 16;
+
+    static final int MAX_SIZE = SIZES[SIZES.length - 1];
+
+    private static final Color BACKGROUND = new Color(0xF5F5F5);
+
+    private static final Color LINE = new Color(0x1F5FBF);
+
+    private final File cacheDirectory;
+
+    private final TrackPolylines trackPolylines;
+
+    TrackThumbnails(final Datastore datastore) {
+        this.cacheDirectory = new File(datastore.getBaseDirectory(), DatastoreConfig.THUMBNAIL_CACHE_DIRECTORY);
+        this.trackPolylines = new TrackPolylines(datastore);
+    }
+
+    static boolean isValidSize(final int width, final int height) {
+        return width >= MIN_SIZE && width <= MAX_SIZE && height >= MIN_SIZE && height <= MAX_SIZE;
+    }
+
+    /**
+     * @param size A valid size
+     * @return The smallest of the {@link #SIZES} not smaller than the given size
+     */
+    static int roundUp(final int size) {
+        for (var candidate : SIZES) {
+            if (size <= candidate) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Invalid thumbnail size: " + size);
+    }
+
+    /**
+     * Retrieves a cached thumbnail of the given track or renders it. The thumbnail has the requested size rounded up to
+     * the next of the {@link #SIZES}.
+     *
+     * @param track The track
+     * @param width The width of the thumbnail in pixel, must be a valid size
+     * @param height The height of the thumbnail in pixel, must be a valid size
+     * @return The PNG image or an empty optional if the track hasn't been ingested yet
+     * @throws XMLStreamException If the simplified track has to be computed and the GPX file is invalid
+     * @throws IOException If the thumbnail cannot be rendered or stored
+     */
+    Optional<Resource> get(final TrackEntity track, final int width, final int height) throws XMLStreamException, IOException {
+        final int imageWidth = roundUp(width);
+        final int imageHeight = roundUp(height);
+        final File target = new File(directory(track), String.format("%dx%d.png", imageWidth, imageHeight));
+        if (target.isFile()) {
+            return Optional.of(new FileSystemResource(target));
+        }
+        if (track.getMinlat() == null) {
+            return Optional.empty();
+        }
+        final Optional<TrackPolylines.Polyline> polyline = this.trackPolylines.get(track, imageWidth, imageHeight);
+        if (polyline.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final BufferedImage image = render(track, polyline.get(), imageWidth, imageHeight);
+        final File directory = target.getParentFile();
+        if (!(directory.isDirectory() || directory.mkdirs())) {
+            throw new IOException("Could not create thumbnail directory " + directory.getAbsolutePath());
+        }
+        AtomicFiles.write(target, out -> ImageIO.write(image, "png", out));
+        return Optional.of(new FileSystemResource(target));
+    }
+
+    private File directory(final TrackEntity track) {
+        return new File(this.cacheDirectory, Integer.toString(track.getId()));
+    }
+
+    /**
+     * Draws the given polyline of a track centered onto an image of the given size. Longitudes are scaled by the cosine
+     * of the latitude in the middle of the track, just like when simplifying the track.
+     *
+     * @param track The track with bounds
+     * @param polyline The simplified track
+     * @param width The width of the image
+     * @param height The height of the image
+     * @return The image
+     */
+    static BufferedImage render(final TrackEntity track, final TrackPolylines.Polyline polyline, final int width, final int height) {
+        final double minlat = track.getMinlat().doubleValue();
+        final double maxlat = track.getMaxlat().doubleValue();
+        final double minlon = track.getMinlon().doubleValue();
+        final double scale = Math.cos(Math.toRadians((minlat + maxlat) / 2.0));
+        final double extentX = (track.getMaxlon().doubleValue() - minlon) * scale;
+        final double extentY = maxlat - minlat;
+
+        final float lineWidth = Math.max(1.5f, Math.min(width, height) / 100f);
+        final double padding = lineWidth + 2.0;
+        final double availableWidth = width - 2 * padding;
+        final double availableHeight = height - 2 * padding;
+        final double factor = Math.min(
+                extentX > 0 ? availableWidth / extentX : Double.POSITIVE_INFINITY,
+                extentY > 0 ? availableHeight / extentY : Double.POSITIVE_INFINITY
+        );
+        final double pixelPerDegree = Double.isInfinite(factor) ? 0.0 : factor;
+        final double offsetX = (width - extentX * pixelPerDegree) / 2.0;
+        final double offsetY = (height - extentY * pixelPerDegree) / 2.0;
+
+        final BufferedImage rv = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = rv.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            graphics.setColor(BACKGROUND);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(LINE);
+            graphics.setStroke(new BasicStroke(lineWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+
+            final Path2D.Double path = new Path2D.Double();
+            for (var segment : polyline.segments()) {
+                final List<double[]> points = EncodedPolyline.decode(segment);
+                for (int i = 0; i < points.size(); ++i) {
+                    final double x = offsetX + (points.get(i)[1] - minlon) * scale * pixelPerDegree;
+                    final double y = offsetY + (maxlat - points.get(i)[0]) * pixelPerDegree;
+                    if (i == 0) {
+                        path.moveTo(x, y);
+                    } else {
+                        path.lineTo(x, y);
+                    }
+                }
+            }
+            graphics.draw(path);
+        } finally {
+            graphics.dispose();
+        }
+        return rv;
+    }
+
+    /**
+     * Deletes all thumbnails of the given track, failures are only logged.
+     *
+     * @param track The track
+     */
+    void delete(final TrackEntity track) {
+        final File[] thumbnails = directory(track).listFiles();
+        if (thumbnails == null) {
+            return;
+        }
+        for (var thumbnail : thumbnails) {
+            if (!thumbnail.delete()) {
+                log.warn("Could not delete thumbnail {}", thumbnail.getAbsolutePath());
+            }
+        }
+        if (!directory(track).delete()) {
+            log.warn("Could not delete thumbnail directory {}", directory(track).getAbsolutePath());
+        }
+    }
+}
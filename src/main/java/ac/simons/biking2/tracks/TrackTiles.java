@@ -0,0 +1,375 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.DatastoreConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders all tracks as Mapbox Vector Tiles in Web Mercator. Each track is one feature in the layer
+ * {@value #LAYER}, taken from the simplified geometry of the track that matches the zoom level of the tile.
+ * <p>
+ * Tiles are rendered on first request on a small pool of workers and cached on disk. Concurrent requests for the same
+ * tile share one rendering. Whenever a track is added, moved or removed, all cached tiles covering its bounds are
+ * deleted.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@Component
+@Slf4j
+class TrackTiles {
+
+    static final String MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+
+    static final String LAYER = "tracks";
+
+    static final int MAX_ZOOM = 18;
+
+    /**
+     * Lines are clipped this far outside the tile, so that they are drawn without gaps at the edges.
+     */
+    static final int BUFFER = 64;
+
+    /**
+     * Tiles are usually displayed with 512 pixel, the tolerance of the geometries is chosen accordingly.
+     */
+    private static final int TILE_SIZE = 512;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    /**
+     * A tile in the XYZ scheme.
+     *
+     * @param z The zoom level
+     * @param x The column, starting at the antimeridian
+     * @param y The row, starting in the north
+     */
+    record Tile(int z, int x, int y) {
+
+        boolean isValid() {
+            return z >= 0 && z <= MAX_ZOOM && x >= 0 && y >= 0 && x < 1 << z && y < 1 << z;
+        }
+    }
+
+    private final TrackRepository trackRepository;
+
+    private final TrackIndex trackIndex;
+
+    private final File cacheDirectory;
+
+    private final DerivedTrackFiles derivedTrackFiles;
+
+    private final Executor executor;
+
+    private final Map<Tile, CompletableFuture<byte[]>> renderings = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on each change of the tracks. Tiles are only cached if no track changed while they have been
+     * rendered.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    TrackTiles(final TrackRepository trackRepository, final TrackIndex trackIndex, final Datastore datastore, final Executor trackTilesExecutor) {
+        this.trackRepository = trackRepository;
+        this.trackIndex = trackIndex;
+        this.cacheDirectory = new File(datastore.getBaseDirectory(), DatastoreConfig.TILE_CACHE_DIRECTORY);
+        this.derivedTrackFiles = new DerivedTrackFiles(datastore);
+        this.executor = trackTilesExecutor;
+    }
+
+    /**
+     * Retrieves a tile from the cache or renders it.
+     *
+     * @param tile A valid tile
+     * @return The encoded tile, empty if there are no tracks on it
+     * @throws RejectedExecutionException If the tile needs to be rendered and there are too many tiles waiting
+     */
+    CompletableFuture<byte[]> get(final Tile tile) {
+        final File cachedTile = file(tile);
+        if (cachedTile.isFile()) {
+            try {
+                return CompletableFuture.completedFuture(Files.readAllBytes(cachedTile.toPath()));
+            } catch (IOException e) {
+                log.warn("Could not read cached tile {}, rendering it again", tile, e);
+            }
+        }
+
+        final CompletableFuture<byte[]> rendering = new CompletableFuture<>();
+        final CompletableFuture<byte[]> existing = this.renderings.putIfAbsent(tile, rendering);
+        if (existing != null) {
+            return existing;
+        }
+        final long requestedGeneration = this.generation.get();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    rendering.complete(renderAndCache(tile, requestedGeneration));
+                } catch (IOException | RuntimeException e) {
+                    rendering.completeExceptionally(e);
+                } finally {
+                    this.renderings.remove(tile, rendering);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.renderings.remove(tile, rendering);
+            throw e;
+        }
+        return rendering;
+    }
+
+    private File file(final Tile tile) {
+        return new File(this.cacheDirectory, String.format("%d/%d/%d.mvt", tile.z(), tile.x(), tile.y()));
+    }
+
+    private byte[] renderAndCache(final Tile tile, final long requestedGeneration) throws IOException {
+        final byte[] rv = render(tile);
+
+        final File target = file(tile);
+        final File directory = target.getParentFile();
+        if (!(directory.isDirectory() || directory.mkdirs())) {
+            throw new IOException("Could not create tile directory " + directory.getAbsolutePath());
+        }
+        final File tmp = File.createTempFile(target.getName(), ".tmp", directory);
+        try {
+            Files.write(tmp.toPath(), rv);
+            if (this.generation.get() == requestedGeneration) {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+        return rv;
+    }
+
+    byte[] render(final Tile tile) {
+        final int n = 1 << tile.z();
+        final double buffer = (double) BUFFER / VectorTile.EXTENT;
+        final double minLon = Math.max(-180.0, longitude(tile.x() - buffer, n));
+        final double maxLon = Math.min(180.0, longitude(tile.x() + 1 + buffer, n));
+        final double minLat = latitude(tile.y() + 1 + buffer, n);
+        final double maxLat = latitude(tile.y() - buffer, n);
+
+        final List<Integer> ids = this.trackIndex.query(minLon, minLat, maxLon, maxLat);
+        if (ids.isEmpty()) {
+            return new byte[0];
+        }
+        final List<TrackEntity> tracks = new ArrayList<>(this.trackRepository.findAllById(ids));
+        tracks.sort(Comparator.comparing(TrackEntity::getId));
+
+        // The size of a pixel in degrees of latitude in the middle of the tile
+        final double tolerance = 360.0 * Math.cos(Math.toRadians(latitude(tile.y() + 0.5, n))) / ((double) n * TILE_SIZE);
+        final VectorTile rv = new VectorTile(LAYER);
+        for (var track : tracks) {
+            final Optional<TrackPolylines.Polyline> polyline;
+            try {
+                polyline = this.derivedTrackFiles.polyline(track, tolerance);
+            } catch (IOException | XMLStreamException | RuntimeException e) {
+                log.warn("Could not read the geometry of track {}", track.getPrettyId(), e);
+                continue;
+            }
+            if (polyline.isEmpty()) {
+                continue;
+            }
+            final List<int[]> lines = new ArrayList<>();
+            for (var segment : polyline.get().segments()) {
+                clip(EncodedPolyline.decode(segment), tile, lines);
+            }
+            rv.addLines(track.getId(), Map.of("type", track.getType().name()), lines);
+        }
+        return rv.toByteArray();
+    }
+
+    /**
+     * Projects the given points onto the tile and clips them to the tile and its buffer.
+     *
+     * @param points The points as pairs of latitude and longitude
+     * @param tile The tile
+     * @param lines Receives all parts of the line that are on the tile in tile coordinates
+     */
+    static void clip(final List<double[]> points, final Tile tile, final List<int[]> lines) {
+        final int n = 1 << tile.z();
+        final double min = -BUFFER;
+        final double max = VectorTile.EXTENT + BUFFER;
+
+        final Line line = new Line();
+        double x0 = Double.NaN;
+        double y0 = Double.NaN;
+        for (var point : points) {
+            final double x1 = (worldX(point[1]) * n - tile.x()) * VectorTile.EXTENT;
+            final double y1 = (worldY(point[0]) * n - tile.y()) * VectorTile.EXTENT;
+            if (!Double.isNaN(x0)) {
+                // Liang-Barsky
+                final double dx = x1 - x0;
+                final double dy = y1 - y0;
+                final double[] p = {-dx, dx, -dy, dy};
+                final double[] q = {x0 - min, max - x0, y0 - min, max - y0};
+                double t0 = 0.0;
+                double t1 = 1.0;
+                for (int i = 0; i < 4 && t0 <= t1; ++i) {
+                    if (p[i] == 0.0) {
+                        if (q[i] < 0.0) {
+                            t0 = 2.0;
+                        }
+                    } else {
+                        final double t = q[i] / p[i];
+                        if (p[i] < 0.0) {
+                            t0 = Math.max(t0, t);
+                        } else {
+                            t1 = Math.min(t1, t);
+                        }
+                    }
+                }
+                if (t0 <= t1) {
+                    final int startX = (int) Math.round(x0 + t0 * dx);
+                    final int startY = (int) Math.round(y0 + t0 * dy);
+                    if (!line.endsAt(startX, startY)) {
+                        line.flushTo(lines);
+                        line.add(startX, startY);
+                    }
+                    line.add((int) Math.round(x0 + t1 * dx), (int) Math.round(y0 + t1 * dy));
+                    if (t1 < 1.0) {
+                        line.flushTo(lines);
+                    }
+                }
+            }
+            x0 = x1;
+            y0 = y1;
+        }
+        line.flushTo(lines);
+    }
+
+    static double worldX(final double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    static double worldY(final double latitude) {
+        final double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1.0 + sin) / (1.0 - sin)) / (4.0 * Math.PI);
+    }
+
+    private static double longitude(final double x, final int n) {
+        return x / n * 360.0 - 180.0;
+    }
+
+    private static double latitude(final double y, final int n) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1.0 - 2.0 * y / n))));
+    }
+
+    /**
+     * Deletes all cached tiles covering the changed bounds, including their buffers.
+     *
+     * @param event The changed bounds
+     */
+    @EventListener
+    public void onBoundsChanged(final TrackIndex.BoundsChangedEvent event) {
+        this.generation.incrementAndGet();
+
+        final double buffer = (double) BUFFER / VectorTile.EXTENT;
+        int deleted = 0;
+        for (int z = 0; z <= MAX_ZOOM; ++z) {
+            final int n = 1 << z;
+            final int minX = (int) Math.floor(worldX(event.minLon()) * n - buffer);
+            final int maxX = (int) Math.floor(worldX(event.maxLon()) * n + buffer);
+            final int minY = (int) Math.floor(worldY(event.maxLat()) * n - buffer);
+            final int maxY = (int) Math.floor(worldY(event.minLat()) * n + buffer);
+            // Only the cached columns are visited, not all columns within the bounds
+            for (var column : cachedEntries(new File(this.cacheDirectory, Integer.toString(z)), "", minX, maxX)) {
+                for (var cachedTile : cachedEntries(column, ".mvt", minY, maxY)) {
+                    if (cachedTile.delete()) {
+                        ++deleted;
+                    } else {
+                        log.warn("Could not delete cached tile {}", cachedTile.getAbsolutePath());
+                    }
+                }
+            }
+        }
+        log.debug("Deleted {} cached tiles", deleted);
+    }
+
+    private static List<File> cachedEntries(final File directory, final String suffix, final int min, final int max) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return List.of();
+        }
+        return Arrays.stream(files)
+                .filter(file -> file.getName().endsWith(suffix))
+                .filter(file -> {
+                    final String name = file.getName();
+                    try {
+                        final int value = Integer.parseInt(name.substring(0, name.length() - suffix.length()));
+                        return value >= min && value <= max;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                })
+                .toList();
+    }
+
+    /**
+     * A line in tile coordinates that is built point by point.
+     */
+    private static final class Line {
+
+        private int[] coordinates = new int[16];
+
+        private int size;
+
+        boolean endsAt(final int x, final int y) {
+            return this.size > 0 && this.coordinates[this.size - 2] == x && this.coordinates[this.size - 1] == y;
+        }
+
+        void add(final int x, final int y) {
+            if (endsAt(x, y)) {
+                return;
+            }
+            if (this.size + 2 > this.coordinates.length) {
+                this.coordinates = Arrays.copyOf(this.coordinates, this.coordinates.length * 2);
+            }
+            this.coordinates[this.size++] = x;
+            this.coordinates[this.size++] = y;
+        }
+
+        void flushTo(final List<int[]> lines) {
+            if (this.size >= 4) {
+                lines.add(Arrays.copyOf(this.coordinates, this.size));
+            }
+            this.size = 0;
+        }
+    }
+}
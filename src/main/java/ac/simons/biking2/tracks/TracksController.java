@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2023 michael-simons.eu.
+ * Copyright 2014-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,16 +15,19 @@
  */
 package ac.simons.biking2.tracks;
 
-import ac.simons.biking2.support.JAXBContextFactory;
+import ac.simons.biking2.config.Datastore;
 import ac.simons.biking2.tracks.TrackEntity.Type;
-import ac.simons.biking2.tracks.gpx.GPX;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -34,26 +37,35 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.xml.bind.JAXBContext;
-import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 
@@ -67,20 +79,43 @@ class TracksController {
 
     private static final Map<String, String> ACCEPTABLE_FORMATS = Map.of("gpx", "application/gpx+xml", "tcx", "application/xml");
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final TrackIdParser trackIdParser;
     private final TrackRepository trackRepository;
-    private final File datastoreBaseDirectory;
-    private final String gpsBabel;
+    private final TrackIndex trackIndex;
+    private final TrackStream trackStream;
+    private final TrackTiles trackTiles;
+    private final EmbeddableTracks embeddableTracks;
+    private final Datastore datastore;
+    private final TrackIngestion trackIngestion;
+    private final TrackImport trackImport;
     private final Coordinate home;
-    private final JAXBContext gpxContext;
+    private final DerivedTrackFiles derivedTrackFiles;
 
-    TracksController(final TrackIdParser trackIdParser, final TrackRepository trackRepository, final File datastoreBaseDirectory, @Value("${biking2.gpsBabel:/opt/local/bin/gpsbabel}") final String gpsBabel, final Coordinate home) {
+    TracksController(
+            final TrackIdParser trackIdParser,
+            final TrackRepository trackRepository,
+            final TrackIndex trackIndex,
+            final TrackStream trackStream,
+            final TrackTiles trackTiles,
+            final EmbeddableTracks embeddableTracks,
+            final Datastore datastore,
+            final TrackIngestion trackIngestion,
+            final TrackImport trackImport,
+            final Coordinate home
+    ) {
         this.trackIdParser = trackIdParser;
         this.trackRepository = trackRepository;
-        this.datastoreBaseDirectory = datastoreBaseDirectory;
-        this.gpsBabel = gpsBabel;
+        this.trackIndex = trackIndex;
+        this.trackStream = trackStream;
+        this.trackTiles = trackTiles;
+        this.embeddableTracks = embeddableTracks;
+        this.datastore = datastore;
+        this.trackIngestion = trackIngestion;
+        this.trackImport = trackImport;
         this.home = home;
-        this.gpxContext = new JAXBContextFactory(GPX.class).createContext();
+        this.derivedTrackFiles = new DerivedTrackFiles(datastore);
     }
 
     @GetMapping("/api/tracks")
@@ -91,9 +126,147 @@ class TracksController {
         return trackRepository.findAll(Sort.by("coveredOn").ascending());
     }
 
+    /**
+     * Retrieves one page of tracks, ordered by the date on which they have been covered. Pages are addressed by the
+     * last track of the previous page, so that each page is read straight from an index, no matter how many tracks
+     * come before it. If there might be more tracks, the response links to the next page.
+     *
+     * @param limit The maximum number of tracks on the page
+     * @param after The cursor of the previous page as {@code coveredOn,id}, empty for the first page
+     * @return One page of tracks
+     */
+    @GetMapping(path = "/api/tracks", params = {"limit", "!bbox"})
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<TrackEntity>> getTracksPage(
+            @RequestParam final int limit,
+            @RequestParam(required = false) final String after
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        final List<TrackEntity> page;
+        if (after == null || after.isBlank()) {
+            page = this.trackRepository.findAllByOrderByCoveredOnAscIdAsc(Limit.of(limit));
+        } else {
+            final Cursor cursor = Cursor.parse(after);
+            page = this.trackRepository.findAllAfter(cursor.coveredOn(), cursor.id(), Limit.of(limit));
+        }
+
+        final ResponseEntity.BodyBuilder rv = ResponseEntity.ok();
+        if (page.size() == limit) {
+            final String next = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .queryParam("limit", limit)
+                    .queryParam("after", Cursor.of(page.get(page.size() - 1)))
+                    .build()
+                    .toUriString();
+            rv.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return rv.body(page);
+    }
+
+    /**
+     * Position of a track in the list of all tracks.
+     *
+     * @param coveredOn The date on which the track has been covered
+     * @param id The id of the track
+     */
+    record Cursor(LocalDate coveredOn, int id) {
+
+        static String of(final TrackEntity track) {
+            return track.getCoveredOn() + "," + track.getPrettyId();
+        }
+
+        static Cursor parse(final String value) {
+            final String[] parts = value.split(",");
+            if (parts.length != 2) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A cursor needs a date and an id");
+            }
+            try {
+                return new Cursor(LocalDate.parse(parts[0].trim()), Integer.parseInt(parts[1].trim(), 36));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Streams all tracks as newline delimited JSON, ordered by the date on which they have been covered. Clients can
+     * process the first tracks while the rest is still being read from the database.
+     *
+     * @return A stream of all tracks
+     */
+    @GetMapping(path = "/api/tracks", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> streamTracks() {
+        final StreamingResponseBody body = this.trackStream::writeTo;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves only the tracks on a part of the map.
+     *
+     * @param bbox The part of the map as {@code minLon,minLat,maxLon,maxLat}, the minimum longitude being greater than
+     *             the maximum longitude if the box crosses the antimeridian
+     * @return All tracks whose bounds intersect the box, ordered by the date on which they have been covered
+     */
+    @GetMapping(path = "/api/tracks", params = {"bbox", "!limit"})
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public List<TrackEntity> getTracksWithin(@RequestParam final String bbox) {
+        final double[] box = parseBoundingBox(bbox);
+        final List<Integer> ids = this.trackIndex.query(box[0], box[1], box[2], box[3]);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final List<TrackEntity> rv = new ArrayList<>(this.trackRepository.findAllById(ids));
+        rv.sort(Comparator.comparing(TrackEntity::getCoveredOn).thenComparing(TrackEntity::getId));
+        return rv;
+    }
+
+    /**
+     * Rejects requests for pages of tracks on a part of the map. The tracks on a part of the map are already limited
+     * by the box and cannot be paged.
+     */
+    @GetMapping(path = "/api/tracks", params = {"bbox", "limit"})
+    @PreAuthorize("isAuthenticated()")
+    public void getTracksPageWithin() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tracks within a bounding box cannot be paged");
+    }
+
+    static double[] parseBoundingBox(final String value) {
+        final String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A bounding box needs 4 coordinates");
+        }
+        final double[] rv = new double[4];
+        try {
+            for (int i = 0; i < 4; ++i) {
+                rv[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid coordinate in bounding box", e);
+        }
+        if (!(Math.abs(rv[0]) <= 180.0 && Math.abs(rv[2]) <= 180.0 && Math.abs(rv[1]) <= 90.0 && Math.abs(rv[3]) <= 90.0 && rv[1] <= rv[3])) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid bounding box");
+        }
+        return rv;
+    }
+
+    /**
+     * Accepts a new track. The upload is stored right away, the track itself is ingested asynchronously. The state of
+     * the ingestion is available through {@link #getIngestionJob(String)}.
+     *
+     * @param name The name of the new track
+     * @param coveredOn The date on which the track was covered
+     * @param description An optional description
+     * @param type The type of the track
+     * @param trackData The TCX data
+     * @return The ingestion job
+     * @throws IOException If the uploaded data cannot be read
+     */
     @PostMapping(value = "/api/tracks")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<TrackEntity> createTrack(
+    public ResponseEntity<IngestionJob> createTrack(
             @RequestParam(value = "name", required = true)
             final String name,
             @RequestParam(value = "coveredOn", required = true)
@@ -106,7 +279,7 @@ class TracksController {
             @RequestParam("trackData")
             final MultipartFile trackData
     ) throws IOException {
-        ResponseEntity<TrackEntity> rv;
+        ResponseEntity<IngestionJob> rv;
         if (trackData == null || trackData.isEmpty()) {
             rv = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } else {
@@ -116,20 +289,22 @@ class TracksController {
                 track.setType(type);
 
                 track = this.trackRepository.save(track);
+                this.embeddableTracks.evict(track.getId());
 
-                try {
-                    this.storeFile(track, trackData.getInputStream());
-
-                    track = this.trackRepository.save(track);
-                    rv = new ResponseEntity<>(track, HttpStatus.OK);
-                } catch (Exception e) {
-                    log.warn("Could not store track... Maybe an invalid GPX file? Handling as a bad request.", e);
+                try (InputStream tcxData = trackData.getInputStream()) {
+                    this.trackIngestion.storeUpload(track, tcxData);
+                    final IngestionJob job = this.trackIngestion.submit(track);
+                    rv = ResponseEntity.accepted().location(URI.create("/api/tracks/jobs/" + job.getId())).body(job);
+                } catch (RejectedExecutionException e) {
+                    log.warn("Too many tracks waiting for ingestion, rejecting upload.");
 
-                    this.trackRepository.delete(track);
-                    deleteTrackFile(track.getTrackFile(datastoreBaseDirectory, "tcx"));
-                    deleteTrackFile(track.getTrackFile(datastoreBaseDirectory, "gpx"));
+                    this.trackIngestion.discard(track);
+                    rv = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+                } catch (IOException e) {
+                    log.warn("Could not store uploaded track.", e);
 
-                    rv = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                    this.trackIngestion.discard(track);
+                    rv = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
                 }
             } catch (DataIntegrityViolationException e) {
                 log.debug("Data integrity violation while storing a new track (coveredOn=" + coveredOn + ",name=" + name + ")", e);
@@ -140,41 +315,33 @@ class TracksController {
         return rv;
     }
 
-    private static void deleteTrackFile(final File trackFile) {
-
-        if (trackFile != null && trackFile.isFile() && !trackFile.delete()) {
-            log.warn("Could not delete tcx file {} during storage exception.", trackFile.getAbsolutePath());
+    /**
+     * Imports all TCX and GPX files of a ZIP archive. The archive is the body of the request and is read while it is
+     * uploaded, so it is not subject to the size limits of multipart uploads.
+     *
+     * @param type The type of all imported tracks
+     * @param request The request containing the archive
+     * @return A report containing the result for each file of the archive
+     * @throws IOException If the archive cannot be read
+     */
+    @PostMapping(value = "/api/tracks/import", consumes = {"application/zip", "application/x-zip-compressed", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ImportReport> importTracks(
+            @RequestParam(value = "type", required = true, defaultValue = "biking")
+            final Type type,
+            final HttpServletRequest request
+    ) throws IOException {
+        try (InputStream archive = request.getInputStream()) {
+            return new ResponseEntity<>(this.trackImport.importArchive(archive, type), HttpStatus.OK);
         }
     }
 
-    @SneakyThrows({IOException.class, JAXBException.class, InterruptedException.class})
-    TrackEntity storeFile(final TrackEntity track, final InputStream tcxData) {
-        final File tcxFile = track.getTrackFile(datastoreBaseDirectory, "tcx");
-        final File gpxFile = track.getTrackFile(datastoreBaseDirectory, "gpx");
-
-        try (
-                ReadableByteChannel tcxDataChannel = Channels.newChannel(tcxData);
-                FileOutputStream out = new FileOutputStream(tcxFile);
-        ) {
-            out.getChannel().transferFrom(tcxDataChannel, 0, Integer.MAX_VALUE);
-            out.flush();
-        }
-
-        final Process process = new ProcessBuilder(gpsBabel, "-i", "gtrnctr", "-f", tcxFile.getAbsolutePath(), "-o", "gpx", "-F", gpxFile.getAbsolutePath()).start();
-        process.waitFor();
-        int exitValue = process.exitValue();
-
-        if (exitValue != 0) {
-            throw new GPSBabelException("GPSBabel could not convert the input file!");
-        }
-        final Unmarshaller unmarschaller = gpxContext.createUnmarshaller();
-        GPX gpx = (GPX) unmarschaller.unmarshal(gpxFile);
-        track.setMinlon(gpx.getBounds().getMinlon());
-        track.setMinlat(gpx.getBounds().getMinlat());
-        track.setMaxlon(gpx.getBounds().getMaxlon());
-        track.setMaxlat(gpx.getBounds().getMaxlat());
-
-        return track;
+    @GetMapping("/api/tracks/jobs/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<IngestionJob> getIngestionJob(@PathVariable final String id) {
+        return this.trackIngestion.getJob(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping(path = "/api/tracks/{id:\\w+}")
@@ -199,21 +366,31 @@ class TracksController {
             rv = new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
         } else {
             final TrackEntity track = this.trackRepository.findById(requestedId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-            final File tcxFile = track.getTrackFile(datastoreBaseDirectory, "tcx");
-            final File gpxFile = track.getTrackFile(datastoreBaseDirectory, "gpx");
-            if (tcxFile.delete() && gpxFile.delete()) {
-                log.debug("Deleted {} and {}", tcxFile, gpxFile);
-                this.trackRepository.delete(track);
-                rv = new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            if (this.trackIngestion.isPending(track)) {
+                rv = new ResponseEntity<>(HttpStatus.CONFLICT);
             } else {
-                rv = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                // Missing files, for example TCX files of tracks imported from GPX files, don't prevent the deletion
+                this.trackIngestion.discard(track);
+                this.trackIndex.remove(track.getId());
+                this.embeddableTracks.evict(track.getId());
+                log.debug("Deleted track {}", track.getId());
+                rv = new ResponseEntity<>(HttpStatus.NO_CONTENT);
             }
         }
         return rv;
     }
 
+    /**
+     * Downloads the GPX or TCX file of a track. The files support conditional and range requests. GPX files are sent
+     * compressed to all clients accepting gzip, unless only a range of the file has been requested.
+     *
+     * @param id The id of the track
+     * @param format The requested format
+     * @param request The current request
+     * @param response The response the file is written to
+     * @throws IOException If the file cannot be sent
+     */
     @GetMapping({"/tracks/{id:\\w+}.{format}"})
-    @SuppressWarnings({"checkstyle:innerassignment"})
     public void downloadTrack(
             @PathVariable final String id,
             @PathVariable final String format,
@@ -226,26 +403,203 @@ class TracksController {
             response.setStatus(HttpServletResponse.SC_NOT_ACCEPTABLE);
         } else {
             final TrackEntity track = this.trackRepository.findById(requestedId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-            final File trackFile = track.getTrackFile(datastoreBaseDirectory, requestedFormat);
+            final File trackFile = track.findTrackFile(datastore, requestedFormat).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
             response.setHeader("Content-Type", ACCEPTABLE_FORMATS.get(requestedFormat));
             response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s.%s\"", id, requestedFormat));
 
-            // Attribute maybe null
-            if (request == null || !Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
-                Files.copy(trackFile.toPath(), response.getOutputStream());
-                response.getOutputStream().flush();
-            } else {
-                long l = trackFile.length();
-                request.setAttribute("org.apache.tomcat.sendfile.filename", trackFile.getAbsolutePath());
-                request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
-                request.setAttribute("org.apache.tomcat.sendfile.end", l);
-                response.setHeader("Content-Length", Long.toString(l));
+            File body = trackFile;
+            if ("gpx".equals(requestedFormat)) {
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                // Ranges always refer to the uncompressed file
+                if (request.getHeader(HttpHeaders.RANGE) == null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                    final Optional<File> compressed = this.derivedTrackFiles.compressedGpx(track);
+                    if (compressed.isPresent()) {
+                        body = compressed.get();
+                        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                }
+            }
+            // The compressed file is a representation of its own and has a different tag
+            final String etag = String.format("\"%x-%x\"", body.length(), body.lastModified());
+            if (!new ServletWebRequest(request, response).checkNotModified(etag, trackFile.lastModified())) {
+                sendFile(request, response, body, etag, trackFile.lastModified());
             }
         }
 
         response.flushBuffer();
     }
 
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding != null) {
+            for (var coding : acceptEncoding.split(",")) {
+                final String[] parts = coding.split(";");
+                if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                    return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends the whole file or the single range requested. Requests for multiple ranges and Range headers that cannot
+     * be parsed are answered with the whole file. The file is handed over to Tomcat if it supports sendfile, otherwise
+     * it is copied.
+     */
+    private static void sendFile(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final File file,
+            final String etag,
+            final long lastModified
+    ) throws IOException {
+        final long length = file.length();
+        long start = 0;
+        long end = length;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        final String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // Invalid Range headers are ignored, only valid ranges that cannot be satisfied are an error
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length) + 1;
+                if (start >= end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d", start, end - 1, length));
+            }
+        }
+        response.setContentLengthLong(end - start);
+
+        // Attribute maybe null
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end);
+        } else {
+            try (FileChannel channel = FileChannel.open(file.toPath())) {
+                final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                for (long position = start; position < end;) {
+                    position += channel.transferTo(position, end - position, out);
+                }
+            }
+            response.getOutputStream().flush();
+        }
+    }
+
+    /**
+     * @return {@literal true} if the file hasn't changed since the client received the validator in the If-Range
+     *         header or if there is no such header
+     */
+    private static boolean rangeApplies(final String ifRange, final String etag, final long lastModified) {
+        if (ifRange == null) {
+            return true;
+        } else if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() == lastModified / 1000 * 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves a static image of the track without a map, cheap enough to show many tracks at once. The image may be
+     * larger than requested, see {@link TrackThumbnails#get(TrackEntity, int, int)}.
+     *
+     * @param id The id of the track
+     * @param width The width of the image in pixel
+     * @param height The height of the image in pixel
+     * @return The image as PNG
+     * @throws IOException If the image cannot be stored
+     * @throws XMLStreamException If the simplified track has to be computed and the GPX file is invalid
+     */
+    @GetMapping(value = "/tracks/{id:\\w+}/thumbnail.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<Resource> getThumbnail(
+            @PathVariable final String id,
+            @RequestParam(required = false, defaultValue = "256") final Integer width,
+            @RequestParam(required = false, defaultValue = "256") final Integer height
+    ) throws IOException, XMLStreamException {
+        final Integer requestedId = trackIdParser.fromPrettyId(id);
+        if (requestedId == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        } else if (!TrackThumbnails.isValidSize(width, height)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Width and height must be between %d and %d", TrackThumbnails.MIN_SIZE, TrackThumbnails.MAX_SIZE));
+        }
+        final TrackEntity track = this.trackRepository.findById(requestedId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return this.derivedTrackFiles.thumbnail(track, width, height)
+                .map(image -> ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic()).body(image))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Retrieves the track simplified just enough to show it on a map of the given size. This is a fraction of the
+     * GPX file for longer tracks.
+     *
+     * @param id The id of the track
+     * @param width The width of the map in pixel
+     * @param height The height of the map in pixel
+     * @return The simplified track
+     * @throws IOException If the simplified track cannot be read
+     * @throws XMLStreamException If the simplified track has to be computed and the GPX file is invalid
+     */
+    @GetMapping("/tracks/{id:\\w+}/polyline")
+    public ResponseEntity<TrackPolylines.Polyline> getPolyline(
+            @PathVariable final String id,
+            @RequestParam(required = false, defaultValue = "1024") final Integer width,
+            @RequestParam(required = false, defaultValue = "576") final Integer height
+    ) throws IOException, XMLStreamException {
+        final Integer requestedId = trackIdParser.fromPrettyId(id);
+        if (requestedId == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+        }
+        final TrackEntity track = this.trackRepository.findById(requestedId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return this.derivedTrackFiles.polyline(track, width, height)
+                .map(polyline -> ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic()).body(polyline))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Retrieves one tile of a map of all tracks as Mapbox Vector Tile. Tiles are rendered on first request and cached
+     * until a track on them changes.
+     *
+     * @param z The zoom level
+     * @param x The column of the tile
+     * @param y The row of the tile
+     * @return The tile, empty if there are no tracks on it
+     */
+    @GetMapping("/api/tracks/tiles/{z}/{x}/{y}.mvt")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<byte[]>> getTile(
+            @PathVariable final int z,
+            @PathVariable final int x,
+            @PathVariable final int y
+    ) {
+        final TrackTiles.Tile tile = new TrackTiles.Tile(z, x, y);
+        if (!tile.isValid()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        try {
+            return this.trackTiles.get(tile).thenApply(content -> ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(TrackTiles.MEDIA_TYPE))
+                    .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate())
+                    .body(content));
+        } catch (RejectedExecutionException e) {
+            log.warn("Too many tiles waiting to be rendered, rejecting request.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+        }
+    }
+
     @GetMapping("/api/home")
     @ResponseBody
     public Coordinate getHome() {
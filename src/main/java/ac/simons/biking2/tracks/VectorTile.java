@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a Mapbox Vector Tile (version 2.1) with a single layer of line strings. Only the small part of the protocol
+ * buffers encoding needed for that is implemented: varints, packed varints and length delimited fields.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+final class VectorTile {
+
+    /**
+     * The size of a tile in tile coordinates.
+     */
+    static final int EXTENT = 4096;
+
+    private static final int WIRE_TYPE_VARINT = 0;
+
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+    private static final int COMMAND_MOVE_TO = 1;
+
+    private static final int COMMAND_LINE_TO = 2;
+
+    private static final int GEOMETRY_TYPE_LINESTRING = 2;
+
+    private final String layerName;
+
+    /**
+     * Keys and values of all attributes, mapped to their index in the layer.
+     */
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+
+    private final Map<String, Integer> values = new LinkedHashMap<>();
+
+    private final List<byte[]> features = new ArrayList<>();
+
+    VectorTile(final String layerName) {
+        this.layerName = layerName;
+    }
+
+    /**
+     * Adds a feature consisting of one or more lines. Lines with less than two points are ignored, as is the whole
+     * feature if no line remains.
+     *
+     * @param id The id of the feature
+     * @param attributes The attributes of the feature
+     * @param lines The lines, each given as {@code x0, y0, x1, y1, ...} in tile coordinates
+     */
+    void addLines(final long id, final Map<String, String> attributes, final List<int[]> lines) {
+        final Buffer geometry = new Buffer();
+        int cursorX = 0;
+        int cursorY = 0;
+        for (var line : lines) {
+            final int points = line.length / 2;
+            if (points < 2) {
+                continue;
+            }
+            geometry.writeVarint(command(COMMAND_MOVE_TO, 1));
+            geometry.writeVarint(zigZag(line[0] - cursorX));
+            geometry.writeVarint(zigZag(line[1] - cursorY));
+            geometry.writeVarint(command(COMMAND_LINE_TO, points - 1));
+            for (int i = 1; i < points; ++i) {
+                geometry.writeVarint(zigZag(line[i * 2] - line[i * 2 - 2]));
+                geometry.writeVarint(zigZag(line[i * 2 + 1] - line[i * 2 - 1]));
+            }
+            cursorX = line[line.length - 2];
+            cursorY = line[line.length - 1];
+        }
+        if (geometry.size() == 0) {
+            return;
+        }
+
+        final Buffer tags = new Buffer();
+        attributes.forEach((key, value) -> {
+            tags.writeVarint(this.keys.computeIfAbsent(key, k -> this.keys.size()));
+            tags.writeVarint(this.values.computeIfAbsent(value, v -> this.values.size()));
+        });
+
+        final Buffer feature = new Buffer();
+        feature.writeTag(1, WIRE_TYPE_VARINT);
+        feature.writeVarint(id);
+        feature.writeBytes(2, tags.toByteArray());
+        feature.writeTag(3, WIRE_TYPE_VARINT);
+        feature.writeVarint(GEOMETRY_TYPE_LINESTRING);
+        feature.writeBytes(4, geometry.toByteArray());
+        this.features.add(feature.toByteArray());
+    }
+
+    /**
+     * @return {@literal true} if no feature has been added
+     */
+    boolean isEmpty() {
+        return this.features.isEmpty();
+    }
+
+    /**
+     * @return The encoded tile, an empty array if there are no features
+     */
+    byte[] toByteArray() {
+        if (isEmpty()) {
+            return new byte[0];
+        }
+
+        final Buffer layer = new Buffer();
+        layer.writeTag(15, WIRE_TYPE_VARINT);
+        layer.writeVarint(2);
+        layer.writeBytes(1, this.layerName.getBytes(StandardCharsets.UTF_8));
+        for (var feature : this.features) {
+            layer.writeBytes(2, feature);
+        }
+        for (var key : this.keys.keySet()) {
+            layer.writeBytes(3, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (var value : this.values.keySet()) {
+            final Buffer stringValue = new Buffer();
+            stringValue.writeBytes(1, value.getBytes(StandardCharsets.UTF_8));
+            layer.writeBytes(4, stringValue.toByteArray());
+        }
+        layer.writeTag(5, WIRE_TYPE_VARINT);
+        layer.writeVarint(EXTENT);
+
+        final Buffer tile = new Buffer();
+        tile.writeBytes(3, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    private static int command(final int id, final int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static long zigZag(final int value) {
+        return ((long) value << 1) ^ (value >> 31);
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        void writeVarint(final long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            write((int) remaining);
+        }
+
+        void writeTag(final int field, final int wireType) {
+            writeVarint(field << 3 | wireType);
+        }
+
+        void writeBytes(final int field, final byte[] bytes) {
+            writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
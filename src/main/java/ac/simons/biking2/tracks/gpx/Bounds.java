@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 michael-simons.eu.
+ * Copyright 2014-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,27 +16,28 @@
 package ac.simons.biking2.tracks.gpx;
 
 import java.math.BigDecimal;
-import jakarta.xml.bind.annotation.XmlAccessType;
-import jakarta.xml.bind.annotation.XmlAccessorType;
-import jakarta.xml.bind.annotation.XmlAttribute;
 
 /**
+ * The surrounding rectangle of a track.
+ *
  * @author Michael J. Simons, 2014-02-21
  */
-@XmlAccessorType(XmlAccessType.FIELD)
 public final class Bounds {
 
-    @XmlAttribute
-    private BigDecimal minlat;
+    private final BigDecimal minlat;
+
+    private final BigDecimal minlon;
 
-    @XmlAttribute
-    private BigDecimal minlon;
+    private final BigDecimal maxlat;
 
-    @XmlAttribute
-    private BigDecimal maxlat;
+    private final BigDecimal maxlon;
 
-    @XmlAttribute
-    private BigDecimal maxlon;
+    public Bounds(final BigDecimal minlat, final BigDecimal minlon, final BigDecimal maxlat, final BigDecimal maxlon) {
+        this.minlat = minlat;
+        this.minlon = minlon;
+        this.maxlat = maxlat;
+        this.maxlon = maxlon;
+    }
 
     public BigDecimal getMinlat() {
         return minlat;
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks.gpx;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Reads the bounds of GPX 1.0 and 1.1 files without unmarshalling them. Reading stops at the {@code bounds} element,
+ * which is near the top of the file, if there is one. Otherwise the bounds are computed from all waypoints, route- and
+ * trackpoints while streaming through the file, so the memory needed doesn't depend on the size of the track.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public final class BoundsReader {
+
+    static final Set<String> GPX_NAMESPACES = Set.of("http://www.topografix.com/GPX/1/0", "http://www.topografix.com/GPX/1/1");
+
+    private static final Set<String> POINTS = Set.of("wpt", "rtept", "trkpt");
+
+    private final XMLInputFactory inputFactory;
+
+    public BoundsReader() {
+        this.inputFactory = XMLInputFactory.newFactory();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads the bounds from the given GPX data. The stream is not closed.
+     *
+     * @param gpx The GPX data
+     * @return The bounds of the data or an empty optional if it contains neither bounds nor any points
+     * @throws XMLStreamException If the data is not well-formed
+     * @throws IllegalArgumentException If the data is not GPX or contains invalid coordinates
+     */
+    public Optional<Bounds> read(final InputStream gpx) throws XMLStreamException {
+        final XMLStreamReader reader = this.inputFactory.createXMLStreamReader(gpx);
+        try {
+            reader.nextTag();
+            if (!isGpxElement(reader, "gpx")) {
+                throw new IllegalArgumentException("Not a GPX file, unexpected root element " + reader.getName());
+            }
+
+            BigDecimal minlat = null;
+            BigDecimal minlon = null;
+            BigDecimal maxlat = null;
+            BigDecimal maxlon = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT || !isGpxNamespace(reader.getNamespaceURI())) {
+                    continue;
+                }
+
+                if ("bounds".equals(reader.getLocalName())) {
+                    final List<String> values = Stream.of("minlat", "minlon", "maxlat", "maxlon")
+                            .map(name -> reader.getAttributeValue(null, name))
+                            .toList();
+                    // Incomplete bounds are ignored, the points will be used instead
+                    if (!values.contains(null)) {
+                        return Optional.of(new Bounds(parseDegrees(values.get(0)), parseDegrees(values.get(1)), parseDegrees(values.get(2)), parseDegrees(values.get(3))));
+                    }
+                } else if (POINTS.contains(reader.getLocalName())) {
+                    final BigDecimal lat = parseDegrees(reader.getAttributeValue(null, "lat"));
+                    final BigDecimal lon = parseDegrees(reader.getAttributeValue(null, "lon"));
+                    if (minlat == null) {
+                        minlat = lat;
+                        maxlat = lat;
+                        minlon = lon;
+                        maxlon = lon;
+                    } else {
+                        minlat = minlat.min(lat);
+                        maxlat = maxlat.max(lat);
+                        minlon = minlon.min(lon);
+                        maxlon = maxlon.max(lon);
+                    }
+                }
+            }
+
+            return minlat == null ? Optional.empty() : Optional.of(new Bounds(minlat, minlon, maxlat, maxlon));
+        } finally {
+            reader.close();
+        }
+    }
+
+    static boolean isGpxElement(final XMLStreamReader reader, final String localName) {
+        return isGpxNamespace(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+
+    static boolean isGpxNamespace(final String namespaceURI) {
+        return namespaceURI != null && GPX_NAMESPACES.contains(namespaceURI);
+    }
+
+    private static BigDecimal parseDegrees(final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing coordinate");
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid coordinate: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks.gpx;
+
+/**
+ * The points of a continuous part of a track, that is a track segment or a route of a GPX file. The point with index
+ * {@code i} is made up of {@code latitudes[i]}, {@code longitudes[i]}, {@code elevations[i]} and {@code times[i]}.
+ *
+ * @param latitudes The latitudes of all points in degrees
+ * @param longitudes The longitudes of all points in degrees
+ * @param elevations The elevations of all points in meters, {@link Double#NaN} if unknown
+ * @param times The times of all points in milliseconds since the epoch, {@link #NO_TIME} if unknown
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public record TrackSegment(double[] latitudes, double[] longitudes, double[] elevations, long[] times) {
+
+    /**
+     * Marks points without time.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    public TrackSegment {
+        if (latitudes.length != longitudes.length || latitudes.length != elevations.length || latitudes.length != times.length) {
+            throw new IllegalArgumentException("All values must be given for each point");
+        }
+    }
+
+    /**
+     * @return The number of points in this segment
+     */
+    public int size() {
+        return latitudes.length;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks.gpx;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static ac.simons.biking2.tracks.gpx.BoundsReader.isGpxElement;
+
+/**
+ * Reads the points of all track segments and routes of GPX 1.0 and 1.1 files, that is their position, elevation and
+ * time. Waypoints are ignored, as they are not part of the way that has been covered.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+public final class TrackSegmentsReader {
+
+    private final XMLInputFactory inputFactory;
+
+    public TrackSegmentsReader() {
+        this.inputFactory = XMLInputFactory.newFactory();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads all segments from the given GPX data. Segments without points are skipped. The stream is not closed.
+     *
+     * @param gpx The GPX data
+     * @return All segments in the order of the file
+     * @throws XMLStreamException If the data is not well-formed
+     * @throws IllegalArgumentException If the data is not GPX or contains invalid coordinates
+     */
+    public List<TrackSegment> read(final InputStream gpx) throws XMLStreamException {
+        final XMLStreamReader reader = this.inputFactory.createXMLStreamReader(gpx);
+        try {
+            reader.nextTag();
+            if (!isGpxElement(reader, "gpx")) {
+                throw new IllegalArgumentException("Not a GPX file, unexpected root element " + reader.getName());
+            }
+
+            final List<TrackSegment> rv = new ArrayList<>();
+            Points points = null;
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (isGpxElement(reader, "trkseg") || isGpxElement(reader, "rte")) {
+                        points = new Points();
+                    } else if (points != null && (isGpxElement(reader, "trkpt") || isGpxElement(reader, "rtept"))) {
+                        readPoint(reader, points);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && points != null && (isGpxElement(reader, "trkseg") || isGpxElement(reader, "rte"))) {
+                    if (points.size > 0) {
+                        rv.add(points.toSegment());
+                    }
+                    points = null;
+                }
+            }
+            return rv;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void readPoint(final XMLStreamReader reader, final Points points) throws XMLStreamException {
+        final double latitude = parseDegrees(reader.getAttributeValue(null, "lat"));
+        final double longitude = parseDegrees(reader.getAttributeValue(null, "lon"));
+        double elevation = Double.NaN;
+        long time = TrackSegment.NO_TIME;
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 1 && isGpxElement(reader, "ele")) {
+                    elevation = parseElevation(reader.getElementText());
+                } else if (depth == 1 && isGpxElement(reader, "time")) {
+                    time = parseTime(reader.getElementText()).map(Instant::toEpochMilli).orElse(TrackSegment.NO_TIME);
+                } else {
+                    ++depth;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+        points.add(latitude, longitude, elevation, time);
+    }
+
+    /**
+     * Parses an {@code xsd:dateTime} as used in GPX and TCX files. Values without an offset are treated as UTC.
+     *
+     * @param value The value to parse, may be {@literal null}
+     * @return The instant or an empty optional if the value is missing or invalid
+     */
+    public static Optional<Instant> parseTime(final String value) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(OffsetDateTime.parse(value.trim()).toInstant());
+        } catch (DateTimeParseException e) {
+            try {
+                return Optional.of(LocalDateTime.parse(value.trim()).toInstant(ZoneOffset.UTC));
+            } catch (DateTimeParseException e2) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static double parseElevation(final String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double parseDegrees(final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing coordinate");
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid coordinate: " + value, e);
+        }
+    }
+
+    /**
+     * Collects the points of one segment without boxing them.
+     */
+    private static final class Points {
+
+        private double[] latitudes = new double[256];
+
+        private double[] longitudes = new double[256];
+
+        private double[] elevations = new double[256];
+
+        private long[] times = new long[256];
+
+        private int size;
+
+        void add(final double latitude, final double longitude, final double elevation, final long time) {
+            if (size == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+                elevations = Arrays.copyOf(elevations, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            elevations[size] = elevation;
+            times[size] = time;
+            ++size;
+        }
+
+        TrackSegment toSegment() {
+            return new TrackSegment(Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size), Arrays.copyOf(elevations, size), Arrays.copyOf(times, size));
+        }
+    }
+}
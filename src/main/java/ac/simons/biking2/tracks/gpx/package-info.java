@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 michael-simons.eu.
+ * Copyright 2014-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,10 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-@XmlSchema(
-        namespace = "http://www.topografix.com/GPX/1/0",
-        elementFormDefault = jakarta.xml.bind.annotation.XmlNsForm.QUALIFIED
-)
+/**
+ * Support for reading GPX files.
+ */
 package ac.simons.biking2.tracks.gpx;
-
-import jakarta.xml.bind.annotation.XmlSchema;
@@ -16,7 +16,7 @@
 /**
  <!-- tag::intent[] -->
    `tracks` manages file uploads (TCX files), converts them to GPX files and
-   computes their surrounding rectangle (envelope) using GPSBabel.
+   computes their surrounding rectangle (envelope) in a single, streaming pass.
    It also provides the oEmbed interface that resolves URLS to embeddable tracks.
  <!-- end::intent[] -->
  */
@@ -15,15 +15,16 @@
  */
 package ac.simons.biking2.trips;
 
+import ac.simons.biking2.shared.TripRecordedEvent;
 import java.math.BigDecimal;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -39,26 +40,33 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 @RequestMapping("/api/trips")
-@Slf4j
 class TripsController {
 
     private final AssortedTripRepository assortedTripRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Stores a new trip. The trip and everything the listeners of the {@link TripRecordedEvent} write are committed
+     * together, so that the statistics cannot miss a stored trip. Duplicate trips are answered with
+     * {@code 409 Conflict} by the global exception handler.
+     *
+     * @param newTrip The new trip
+     * @param bindingResult The result of validating the new trip
+     * @return The stored trip
+     */
     @PostMapping("")
     @PreAuthorize("isAuthenticated()")
+    @Transactional
     public ResponseEntity<Object> createTrip(@RequestBody @Valid final NewTripCmd newTrip, final BindingResult bindingResult) {
         ResponseEntity<Object> rv;
 
         if (bindingResult.hasErrors()) {
             rv = new ResponseEntity<>("Invalid arguments.", HttpStatus.BAD_REQUEST);
         } else {
-            try {
-                final AssortedTripEntity trip = this.assortedTripRepository.save(new AssortedTripEntity(newTrip.coveredOn(), BigDecimal.valueOf(newTrip.distance())));
-                rv = new ResponseEntity<>(trip, HttpStatus.OK);
-            } catch (DataIntegrityViolationException e) {
-                log.debug("Data integrity violation while uploading a new trip", e);
-                rv = new ResponseEntity<>(HttpStatus.CONFLICT);
-            }
+            final AssortedTripEntity trip = this.assortedTripRepository.save(new AssortedTripEntity(newTrip.coveredOn(), BigDecimal.valueOf(newTrip.distance())));
+            this.eventPublisher.publishEvent(new TripRecordedEvent(trip.getCoveredOn(), trip.getDistance()));
+            rv = new ResponseEntity<>(trip, HttpStatus.OK);
         }
 
         return rv;
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+-- Rows with a bike contain the distance covered in a month on that bike (null for the latest reading),
+-- rows without a bike contain the sum of all assorted trips of a month.
+CREATE TABLE monthly_milage_rollup (
+  id                  serial primary key,
+  bike_id             INTEGER,
+  recorded_on         DATE NOT NULL,
+  delta               DECIMAL(8, 2),
+  trips               DECIMAL(10, 2) DEFAULT 0 NOT NULL,
+  CONSTRAINT monthly_milage_rollup_unique UNIQUE(bike_id, recorded_on),
+  CONSTRAINT monthly_milage_rollup_bike_fk FOREIGN KEY(bike_id) REFERENCES bikes(id) ON DELETE CASCADE
+);
+
+INSERT INTO monthly_milage_rollup(bike_id, recorded_on, delta)
+SELECT bike_id, recorded_on, lead(amount) OVER (PARTITION BY bike_id ORDER BY recorded_on) - amount
+  FROM milages;
+
+INSERT INTO monthly_milage_rollup(recorded_on, trips)
+SELECT recorded_on, sum(distance)
+  FROM (
+    SELECT DATEADD(DAY, 1 - EXTRACT(DAY FROM covered_on), covered_on) AS recorded_on, distance
+      FROM assorted_trips
+  ) t
+ GROUP BY recorded_on;
@@ -0,0 +1,21 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+-- The statistics of the current year and of bounded histories only read a range of months
+CREATE INDEX monthly_milage_rollup_recorded_on ON monthly_milage_rollup(recorded_on, bike_id, delta, trips);
+
+-- Trips are aggregated per month when the rollup is rebuilt and when the in-memory engine is loaded
+CREATE INDEX assorted_trips_covered_on ON assorted_trips(covered_on, distance);
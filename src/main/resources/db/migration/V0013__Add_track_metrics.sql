@@ -0,0 +1,24 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+-- Computed from the points of a track, a distance of NULL means the track has not been measured yet.
+-- Distance in km, ascent and descent in m, times in seconds and the maximum speed in km/h
+ALTER TABLE tracks ADD COLUMN distance DECIMAL(8, 2);
+ALTER TABLE tracks ADD COLUMN ascent DECIMAL(8, 1);
+ALTER TABLE tracks ADD COLUMN descent DECIMAL(8, 1);
+ALTER TABLE tracks ADD COLUMN elapsed_time INTEGER;
+ALTER TABLE tracks ADD COLUMN moving_time INTEGER;
+ALTER TABLE tracks ADD COLUMN max_speed DECIMAL(5, 2);
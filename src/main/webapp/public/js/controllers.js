@@ -123,37 +123,40 @@ biking2Controllers.controller('MilagesCtrl', ['$scope', '$http', '$modal', 'empt
 	max: currentYear - 1
     };
 
-    $http.get('/api/charts/currentYear').success(function(data) {
-	$scope.currentYearConfig = data;
-    });
-    
-    $http.get('/api/charts/monthlyAverage').success(function(data) {
-	$scope.monthlyAverageConfig = data;
-    });
-    
+    var showHistory = function(data) {
+	$scope.historyConfig = data;
+	if(data.userData.worstYear !== null) {
+	    var year = Object.keys(data.userData.worstYear)[0];
+	    $scope.worstYear = {
+		year: year,
+		value: data.userData.worstYear[year]
+	    };
+	}
+	if(data.userData.bestYear !== null) {
+	    var year = Object.keys(data.userData.bestYear)[0];
+	    $scope.bestYear = {
+		year: year,
+		value: data.userData.bestYear[year]
+	    };
+	}
+    };
+
     $scope.updateHistory = function() {
 	$http.get(
 		'/api/charts/history', 
 		{params: {start: $scope.historyRange.start, end: ($scope.historyRange.end + 1)}}
-	).success(function(data) {	    
-	    $scope.historyConfig = data;
-	    if(data.userData.worstYear !== null) {
-		var year = Object.keys(data.userData.worstYear)[0];
-		$scope.worstYear = {
-		    year: year,
-		    value: data.userData.worstYear[year]
-		};
-	    }
-	    if(data.userData.bestYear !== null) {
-		var year = Object.keys(data.userData.bestYear)[0];
-		$scope.bestYear = {
-		    year: year,
-		    value: data.userData.bestYear[year]
-		};	    
-	    }
-	});
+	).success(showHistory);
     };
-    $scope.updateHistory();
+
+    // All initial charts are computed together
+    $http.get(
+	    '/api/dashboard',
+	    {params: {start: $scope.historyRange.start, end: ($scope.historyRange.end + 1)}}
+    ).success(function(data) {
+	$scope.currentYearConfig = data.currentYear;
+	$scope.monthlyAverageConfig = data.monthlyAverage;
+	showHistory(data.history);
+    });
 
     $scope.bikes = [];
     $http.get('/api/bikes').success(function(data) {
@@ -355,7 +358,7 @@ biking2Controllers.controller('TracksCtrl', ['$scope', '$http', '$modal', functi
     };
 }]);
 
-biking2Controllers.controller('AddNewTrackCtrl', ['$scope', '$modalInstance', '$upload', function($scope, $modalInstance, $upload) {
+biking2Controllers.controller('AddNewTrackCtrl', ['$scope', '$http', '$timeout', '$modalInstance', '$upload', function($scope, $http, $timeout, $modalInstance, $upload) {
     $scope.track = {
 	name: null,
 	coveredOn: new Date(),
@@ -402,17 +405,36 @@ biking2Controllers.controller('AddNewTrackCtrl', ['$scope', '$modalInstance', '$
 		else
 		    formData.append(key, val);
 	    }
-	}).success(function(data) {
-	    $scope.submitting = false;
-	    $modalInstance.close(data);
+	}).success(function(job) {
+	    // The track is ingested in the background
+	    waitForIngestion(job);
 	}).error(function(data, status) {
 	    $scope.submitting = false;
 	    if (status === 409)
 		$scope.badRequest = 'A track with the given name on that date already exists.';
+	    else if (status === 503)
+		$scope.badRequest = 'Too many tracks are being processed right now, please try again later.';
 	    else
 		$scope.badRequest = 'There\'s something wrong with your input, please check!';
 	});
     };
+
+    var waitForIngestion = function(job) {
+	if (job.status === 'completed') {
+	    $scope.submitting = false;
+	    $modalInstance.close(job.track);
+	} else if (job.status === 'failed') {
+	    $scope.submitting = false;
+	    $scope.badRequest = 'There\'s something wrong with your input, please check!';
+	} else {
+	    $timeout(function() {
+		$http.get('/api/tracks/jobs/' + job.id).success(waitForIngestion).error(function() {
+		    $scope.submitting = false;
+		    $scope.badRequest = 'Could not determine whether your track has been processed.';
+		});
+	    }, 1000);
+	}
+    };
 }]);
 
 biking2Controllers.controller('TrackCtrl', ['$scope', '$http', '$q', '$routeParams', function($scope, $http, $q, $routeParams) {
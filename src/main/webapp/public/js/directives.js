@@ -1,5 +1,5 @@
 /* 
- * Copyright 2014 Michael J. Simons.
+ * Copyright 2014-2026 Michael J. Simons.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -260,7 +260,30 @@ angular.module('highcharts-ng', []).directive('ngHighchart', function () {
 
 angular
 	.module('track-map-ng', [])
-	.directive('ngTrackMap', [function() {
+	.directive('ngTrackMap', ['$http', function($http) {
+		/**
+		 * Decodes an encoded polyline into points in the given projection.
+		 */
+		var decodePolyline = function(encoded, fromProjection, toProjection) {
+		    var points = [];
+		    var index = 0, lat = 0, lon = 0;
+		    var decodeNext = function() {
+			var result = 0, shift = 0, b;
+			do {
+			    b = encoded.charCodeAt(index++) - 63;
+			    result |= (b & 0x1f) << shift;
+			    shift += 5;
+			} while (b >= 0x20);
+			return (result & 1) ? ~(result >> 1) : (result >> 1);
+		    };
+		    while (index < encoded.length) {
+			lat += decodeNext();
+			lon += decodeNext();
+			points.push(new OpenLayers.Geometry.Point(lon / 1e5, lat / 1e5).transform(fromProjection, toProjection));
+		    }
+		    return points;
+		};
+
 		return {
 		    restrict: 'EA',
 		    priority: -10,
@@ -318,11 +341,23 @@ angular
 			    if (oldLayer.length > 0) {
 				map.removeLayer(oldLayer[0]);
 			    }
-			    var newLayer = new OpenLayers.Layer.GML(track.name, "/tracks/" + track.id + ".gpx", {
-				format: OpenLayers.Format.GPX,
-				style: {strokeColor: "red", strokeWidth: 5, strokeOpacity: 1.0},
-				projection: new OpenLayers.Projection("EPSG:4326")
-			    });
+			    var style = {strokeColor: "red", strokeWidth: 5, strokeOpacity: 1.0};
+			    var newLayer;
+			    if (attrs['polyline'] !== undefined) {
+				// A track simplified for the size of the map is only a fraction of the GPX file
+				newLayer = new OpenLayers.Layer.Vector(track.name);
+				$http.get(attrs['polyline']).then(function(response) {
+				    newLayer.addFeatures(response.data.segments.map(function(segment) {
+					return new OpenLayers.Feature.Vector(new OpenLayers.Geometry.LineString(decodePolyline(segment, map.displayProjection, map.getProjectionObject())), null, style);
+				    }));
+				});
+			    } else {
+				newLayer = new OpenLayers.Layer.GML(track.name, "/tracks/" + track.id + ".gpx", {
+				    format: OpenLayers.Format.GPX,
+				    style: style,
+				    projection: new OpenLayers.Projection("EPSG:4326")
+				});
+			    }
 			    map.addLayer(newLayer);
 			    map.raiseLayer(newLayer, -1);
 
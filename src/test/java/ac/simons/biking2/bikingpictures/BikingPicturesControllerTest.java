@@ -16,6 +16,7 @@
 package ac.simons.biking2.bikingpictures;
 
 import ac.simons.biking2.bikingpictures.rss.RSSDateTimeAdapter;
+import ac.simons.biking2.config.Datastore;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -86,7 +87,7 @@ class BikingPicturesControllerTest {
         final BikingPictureRepository repository = mock(BikingPictureRepository.class);
         when(repository.findById(1)).thenReturn(Optional.of(new BikingPictureEntity("http://dailyfratze.de/fratzen/m/45644.jpg", dateTimeAdapter.unmarshal("Sun, 12 Jan 2014 21:40:25 GMT"), "http://dailyfratze.de/michael/2014/1/12")));
 
-        final BikingPicturesController controller = new BikingPicturesController(repository, tmpDir);
+        final BikingPicturesController controller = new BikingPicturesController(repository, new Datastore(tmpDir));
         final ZonedDateTime expiresIn = ZonedDateTime.now(ZoneId.of("UTC")).plusDays(365);
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
@@ -118,7 +119,7 @@ class BikingPicturesControllerTest {
     void shouldGetGalleryPictures() {
         final BikingPictureRepository repository = mock(BikingPictureRepository.class);
         when(repository.findAll(Mockito.any(Sort.class))).thenReturn(new ArrayList<>());
-        final BikingPicturesController controller = new BikingPicturesController(repository, this.tmpDir);
+        final BikingPicturesController controller = new BikingPicturesController(repository, new Datastore(this.tmpDir));
 
         final List<BikingPictureEntity> pictures = controller.getBikingPictures();
         Assertions.assertNotNull(pictures);
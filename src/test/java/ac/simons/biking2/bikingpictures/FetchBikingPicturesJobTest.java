@@ -15,7 +15,7 @@
  */
 package ac.simons.biking2.bikingpictures;
 
-import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.config.Datastore;
 import ac.simons.biking2.bikingpictures.rss.RSSDateTimeAdapter;
 import java.io.File;
 import java.io.IOException;
@@ -61,7 +61,7 @@ class FetchBikingPicturesJobTest {
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.getMaxPubDate()).thenReturn(dateTimeAdapter.unmarshal("Sat, 07 Sep 2013 18:43:48 GMT").toOffsetDateTime());
 
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(tmpDir));
 
         final List<BikingPictureEntity> toDownload = job.createDownloadList();
 
@@ -78,7 +78,7 @@ class FetchBikingPicturesJobTest {
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.getMaxPubDate()).thenReturn(dateTimeAdapter.unmarshal("Sun, 08 May 2011 18:38:25 GMT").toOffsetDateTime());
 
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(tmpDir));
 
         final List<BikingPictureEntity> toDownload = job.createDownloadList();
 
@@ -95,7 +95,7 @@ class FetchBikingPicturesJobTest {
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.getMaxPubDate()).thenReturn(dateTimeAdapter.unmarshal("Sun, 08 May 2011 18:38:25 GMT").toOffsetDateTime());
 
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(tmpDir));
         final List<BikingPictureEntity> toDownload = job.createDownloadList();
         assertEquals(0, toDownload.size());
     }
@@ -111,7 +111,7 @@ class FetchBikingPicturesJobTest {
 
         var msg = Assertions.assertThrows(
                 BikingPicturesStorageException.class,
-                () -> new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, someFile)).getMessage();
+                () -> new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(someFile))).getMessage();
         Assertions.assertEquals("Could not create bikingPicturesStorage!", msg);
     }
 
@@ -123,7 +123,7 @@ class FetchBikingPicturesJobTest {
         when(dailyFratzeProvider.getRSSConnection(page2)).thenReturn(this.getClass().getResource("/biking_pictures.2.rss").openConnection());
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.getMaxPubDate()).thenReturn(ZonedDateTime.of(2000, 1, 1, 21, 21, 00, 0, ZoneId.systemDefault()).toOffsetDateTime());
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(tmpDir));
 
         final List<BikingPictureEntity> toDownload = job.createDownloadList();
 
@@ -152,7 +152,8 @@ class FetchBikingPicturesJobTest {
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.findByExternalId(45325)).thenReturn(existingPicture);
 
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final Datastore datastore = new Datastore(tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, datastore);
 
         final List<BikingPictureEntity> downloadList = Arrays.asList(new BikingPictureEntity("http://dailyfratze.de/fratzen/m/45644.jpg", dateTimeAdapter.unmarshal("Sun, 12 Jan 2014 21:40:25 GMT"), "http://dailyfratze.de/michael/2014/1/12"),
                 existingPicture,
@@ -163,10 +164,10 @@ class FetchBikingPicturesJobTest {
         final List<BikingPictureEntity> downloaded = job.download(downloadList);
 
         assertEquals(1, downloaded.size());
-        assertTrue(new File(this.tmpDir, DatastoreConfig.BIKING_PICTURES_DIRECTORY + "/45644.jpg").isFile());
-        assertFalse(new File(this.tmpDir, DatastoreConfig.BIKING_PICTURES_DIRECTORY + "/45325.jpg").isFile());
-        assertFalse(new File(this.tmpDir, DatastoreConfig.BIKING_PICTURES_DIRECTORY + "/44142.jpg").isFile());
-        assertFalse(new File(this.tmpDir, DatastoreConfig.BIKING_PICTURES_DIRECTORY + "/43461.jpg").isFile());
+        assertTrue(datastore.getFile(Datastore.Area.BIKING_PICTURES, "45644.jpg").isFile());
+        assertFalse(datastore.getFile(Datastore.Area.BIKING_PICTURES, "45325.jpg").isFile());
+        assertFalse(datastore.getFile(Datastore.Area.BIKING_PICTURES, "44142.jpg").isFile());
+        assertFalse(datastore.getFile(Datastore.Area.BIKING_PICTURES, "43461.jpg").isFile());
         // Verify number of calls with arbitrary ints
         verify(dailyFratzeProvider, times(3)).getImageConnection(anyInt());
     }
@@ -179,7 +180,7 @@ class FetchBikingPicturesJobTest {
         final BikingPictureRepository bikingPictureRepository = mock(BikingPictureRepository.class);
         when(bikingPictureRepository.getMaxPubDate()).thenReturn(OffsetDateTime.now());
 
-        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, tmpDir);
+        final FetchBikingPicturesJob job = new FetchBikingPicturesJob(dailyFratzeProvider, bikingPictureRepository, new Datastore(tmpDir));
         job.run();
 
         verify(dailyFratzeProvider).getRSSConnection(null);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class DatastoreMigrationTest {
+
+    @TempDir
+    File baseDirectory;
+
+    @Test
+    void shouldMoveAllFilesIntoShards() throws IOException {
+        final Datastore datastore = new Datastore(baseDirectory);
+        for (var area : Datastore.Area.values()) {
+            datastore.getDirectory(area).mkdirs();
+        }
+        for (int i = 0; i < DatastoreMigration.BATCH_SIZE + 1; ++i) {
+            Files.writeString(datastore.getUnshardedFile(Datastore.Area.TRACKS, i + ".gpx").toPath(), "gpx " + i);
+        }
+        Files.writeString(datastore.getUnshardedFile(Datastore.Area.BIKING_PICTURES, "45644.jpg").toPath(), "picture");
+        final File tmp = new File(datastore.getDirectory(Datastore.Area.TRACKS), "1.tcx4711.tmp");
+        Files.writeString(tmp.toPath(), "incomplete");
+
+        final DatastoreMigration migration = new DatastoreMigration(datastore, Runnable::run);
+        assertThat(migration.migrate().join()).isEqualTo(DatastoreMigration.BATCH_SIZE + 2);
+
+        assertThat(datastore.getFile(Datastore.Area.TRACKS, "42.gpx"))
+                .isEqualTo(datastore.getShardedFile(Datastore.Area.TRACKS, "42.gpx"))
+                .hasContent("gpx 42");
+        assertThat(datastore.getFile(Datastore.Area.BIKING_PICTURES, "45644.jpg"))
+                .isEqualTo(datastore.getShardedFile(Datastore.Area.BIKING_PICTURES, "45644.jpg"))
+                .hasContent("picture");
+        assertThat(tmp).isFile();
+        assertThat(migration.migrate().join()).isZero();
+    }
+
+    @Test
+    void shouldMigrateInTheBackground() throws Exception {
+        final Datastore datastore = new Datastore(baseDirectory);
+        datastore.createDirectories(Datastore.Area.GALLERY_PICTURES);
+        final File picture = datastore.getUnshardedFile(Datastore.Area.GALLERY_PICTURES, "test.jpg");
+        Files.writeString(picture.toPath(), "picture");
+
+        final ThreadPoolTaskExecutor executor = new ExecutorConfig().datastoreMigrationExecutor(1);
+        executor.initialize();
+        final DatastoreMigration migration = new DatastoreMigration(datastore, executor);
+        try {
+            assertThat(migration.migrate().get(5, TimeUnit.SECONDS)).isOne();
+            assertThat(picture).doesNotExist();
+            assertThat(datastore.getFile(Datastore.Area.GALLERY_PICTURES, "test.jpg")).hasContent("picture");
+            migration.onApplicationReady();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldSkipAreasThatCannotBeListed() throws IOException {
+        final File file = new File(baseDirectory, "file");
+        assertThat(file.createNewFile()).isTrue();
+        final DatastoreMigration migration = new DatastoreMigration(new Datastore(file), Runnable::run);
+        assertThat(migration.migrate().join()).isZero();
+    }
+}
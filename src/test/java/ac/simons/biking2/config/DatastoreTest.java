@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class DatastoreTest {
+
+    @TempDir
+    File baseDirectory;
+
+    @Test
+    void shouldSpreadFilesOverShards() {
+        assertThat(Datastore.shardOf("4711.gpx")).isEqualTo("77");
+        assertThat(Datastore.shardOf("4711.gpx.gz")).isEqualTo(Datastore.shardOf("4711.tcx"));
+        assertThat(Datastore.shardOf("4711")).isEqualTo("77");
+
+        final Set<String> shards = new HashSet<>();
+        for (int i = 0; i < 10_000; ++i) {
+            shards.add(Datastore.shardOf(i + ".gpx"));
+        }
+        assertThat(shards).hasSize(Datastore.SHARDS);
+    }
+
+    @Test
+    void shouldPreferFilesStoredBeforeThereWereShards() throws IOException {
+        final Datastore datastore = new Datastore(baseDirectory);
+        assertThat(datastore.getBaseDirectory()).isEqualTo(baseDirectory);
+        assertThat(datastore.createDirectories(Datastore.Area.GALLERY_PICTURES)).isTrue();
+        assertThat(datastore.getDirectories(Datastore.Area.GALLERY_PICTURES)).hasSize(Datastore.SHARDS + 1).allMatch(File::isDirectory);
+
+        final File sharded = new File(baseDirectory, DatastoreConfig.GALLERY_PICTURES_DIRECTORY + "/77/4711.jpg");
+        assertThat(datastore.getFile(Datastore.Area.GALLERY_PICTURES, "4711.jpg")).isEqualTo(sharded);
+
+        final File unsharded = new File(baseDirectory, DatastoreConfig.GALLERY_PICTURES_DIRECTORY + "/4711.jpg");
+        assertThat(unsharded.createNewFile()).isTrue();
+        assertThat(datastore.getFile(Datastore.Area.GALLERY_PICTURES, "4711.jpg")).isEqualTo(unsharded);
+    }
+
+    @Test
+    void shouldFindExistingFiles() throws IOException {
+        final Datastore datastore = new Datastore(baseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        assertThat(datastore.findFile(Datastore.Area.TRACKS, "4711.gpx")).isEmpty();
+
+        final File sharded = new File(baseDirectory, DatastoreConfig.TRACK_DIRECTORY + "/77/4711.gpx");
+        assertThat(sharded.createNewFile()).isTrue();
+        assertThat(datastore.findFile(Datastore.Area.TRACKS, "4711.gpx")).hasValue(sharded);
+
+        final File unsharded = new File(baseDirectory, DatastoreConfig.TRACK_DIRECTORY + "/4711.gpx");
+        assertThat(unsharded.createNewFile()).isTrue();
+        assertThat(datastore.findFile(Datastore.Area.TRACKS, "4711.gpx")).hasValue(unsharded);
+    }
+
+    @Test
+    void shouldReportDirectoriesThatCannotBeCreated() throws IOException {
+        final File file = new File(baseDirectory, "file");
+        assertThat(file.createNewFile()).isTrue();
+
+        assertThat(new Datastore(file).createDirectories(Datastore.Area.TRACKS)).isFalse();
+    }
+}
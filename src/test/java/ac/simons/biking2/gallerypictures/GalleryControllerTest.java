@@ -15,6 +15,7 @@
  */
 package ac.simons.biking2.gallerypictures;
 
+import ac.simons.biking2.config.Datastore;
 import ac.simons.biking2.config.DatastoreConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -77,7 +78,7 @@ class GalleryControllerTest {
         this.tmpDir = new File(System.getProperty("java.io.tmpdir"), Long.toString(System.currentTimeMillis()));
         this.tmpDir.deleteOnExit();
         this.galleryPictures = new File(this.tmpDir, DatastoreConfig.GALLERY_PICTURES_DIRECTORY);
-        this.galleryPictures.mkdirs();
+        new Datastore(this.tmpDir).createDirectories(Datastore.Area.GALLERY_PICTURES);
     }
 
     @Test
@@ -93,7 +94,7 @@ class GalleryControllerTest {
             }
         };
         when(repository.save(Mockito.any(GalleryPictureEntity.class))).thenReturn(galleryPicture);
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setMessageConverters(httpMessageConverter)
@@ -124,7 +125,7 @@ class GalleryControllerTest {
         };
         when(repository.save(Mockito.any(GalleryPictureEntity.class))).thenReturn(galleryPicture);
         // use non existing dir
-        final GalleryController controller = new GalleryController(repository, new File(this.tmpDir, "haha, got you"));
+        final GalleryController controller = new GalleryController(repository, new Datastore(new File(this.tmpDir, "haha, got you")));
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setMessageConverters(httpMessageConverter)
@@ -146,7 +147,7 @@ class GalleryControllerTest {
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
         when(repository.save(Mockito.any(GalleryPictureEntity.class))).thenThrow(new DataIntegrityViolationException("fud"));
 
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setMessageConverters(httpMessageConverter)
@@ -166,7 +167,7 @@ class GalleryControllerTest {
     @Test
     void shouldNotCreateInvalidGalleryPicture() throws Exception {
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setMessageConverters(httpMessageConverter)
@@ -198,7 +199,7 @@ class GalleryControllerTest {
     @Test
     void shouldNotFindNonExistingPicture() throws Exception {
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setMessageConverters(httpMessageConverter)
@@ -236,7 +237,7 @@ class GalleryControllerTest {
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
         when(repository.findById(42)).thenReturn(Optional.of(new GalleryPictureEntity(LocalDate.now(), imageFile.getName())));
 
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         // Test copying of resources
         final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
@@ -276,7 +277,7 @@ class GalleryControllerTest {
     void shouldGetGalleryPictures() {
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
         when(repository.findAll(Mockito.any(Sort.class))).thenReturn(new ArrayList<>());
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         final List<GalleryPictureEntity> galleryPictures = controller.getGalleryPictures();
         Assertions.assertNotNull(galleryPictures);
@@ -290,7 +291,7 @@ class GalleryControllerTest {
     void shouldGetGalleryPicturesInRange() throws Exception {
 
         final GalleryPictureRepository repository = mock(GalleryPictureRepository.class);
-        final GalleryController controller = new GalleryController(repository, this.tmpDir);
+        final GalleryController controller = new GalleryController(repository, new Datastore(this.tmpDir));
 
         LocalDate takenOn = LocalDate.of(2018, 12, 24);
 
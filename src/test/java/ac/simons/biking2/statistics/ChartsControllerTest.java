@@ -24,11 +24,15 @@ import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,12 +57,16 @@ import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.context.MessageSourceAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 
 import ac.simons.biking2.config.SecurityConfig;
 import ac.simons.biking2.shared.TestData;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * @author Michael J. Simons
  * @since 2014-02-15
@@ -76,6 +84,9 @@ class ChartsControllerTest {
     @MockBean
     private StatisticService statisticService;
 
+    @SpyBean
+    private ObjectMapper objectMapper;
+
     private final TestData sharedTestData = new TestData();
 
     @Test
@@ -235,4 +246,75 @@ class ChartsControllerTest {
         verify(statisticService).computeHistory(Optional.empty(), Optional.empty());
         verifyNoMoreInteractions(statisticService);
     }
+
+    @Test
+    void dashboard() throws Exception {
+
+        var summary = Summary.builder().total(42.0).average(21.0).build();
+        var currentYear = CurrentYear.builder().preferredBike("bike1").build();
+        Map<Integer, MonthlyAverage> monthlyAverages = new TreeMap<>();
+        IntStream.rangeClosed(1, 12)
+                .forEach(i -> monthlyAverages.put(i, MonthlyAverage.builder().month(Month.of(i)).build()));
+        Map<Integer, HistoricYear> history = new TreeMap<>();
+        history.put(2014, HistoricYear.builder().values(new int[12]).year(2014).preferredBike("bike2").build());
+        when(statisticService.computeDashboard(Optional.of(2014), Optional.empty())).thenReturn(new Dashboard(summary, currentYear, monthlyAverages, history));
+
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/api/dashboard").param("start", "2014"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.summary.total", is(equalTo(42.0))))
+                .andExpect(jsonPath("$.currentYear.userData.preferredBike.name", is(equalTo("bike1"))))
+                .andExpect(jsonPath("$.monthlyAverage.series", hasSize(2)))
+                .andExpect(jsonPath("$.history.series", hasSize(1)))
+                .andExpect(jsonPath("$.history.userData.preferredBikes.2014.name", is(equalTo("bike2"))));
+
+        verify(statisticService).computeDashboard(Optional.of(2014), Optional.empty());
+        verifyNoMoreInteractions(statisticService);
+    }
+
+    @Test
+    void chartsShouldBeServedWithETags() throws Exception {
+
+        var currentYear = CurrentYear.builder().build();
+        when(statisticService.computeCurrentYear()).thenReturn(currentYear);
+
+        var eTag = mockMvc
+                .perform(get("http://biking.michael-simons.eu/api/charts/currentYear"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/api/charts/currentYear").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        // New statistics lead to a new chart with the same content
+        when(statisticService.computeCurrentYear()).thenReturn(CurrentYear.builder().build());
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/api/charts/currentYear").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // New statistics with different content
+        when(statisticService.computeCurrentYear()).thenReturn(CurrentYear.builder().preferredBike("bike1").build());
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/api/charts/currentYear").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(equalTo(eTag))))
+                .andExpect(jsonPath("$.userData.preferredBike.name", is(equalTo("bike1"))));
+    }
+
+    @Test
+    void chartsShouldBeSerializedOncePerStatistics() throws Exception {
+
+        when(statisticService.computeHistory(Optional.empty(), Optional.empty())).thenReturn(new TreeMap<>());
+
+        for (int i = 0; i < 3; ++i) {
+            mockMvc
+                    .perform(get("http://biking.michael-simons.eu/api/charts/history"))
+                    .andExpect(status().isOk());
+        }
+        verify(objectMapper, times(1)).writeValueAsBytes(Mockito.any());
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticServiceTest.prepareTestBikes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.AutoConfigureJooq;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import ac.simons.biking2.bikes.BikeEntity;
+import ac.simons.biking2.bikes.BikeRepository;
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TestData;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@AutoConfigureJooq
+@TestPropertySource(properties = {
+        "spring.flyway.skip-default-callbacks=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@ActiveProfiles("test")
+class ColumnarMilageStoreTest {
+
+    private final TestData sharedTestData = new TestData();
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    DSLContext database;
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void emptyStore() {
+
+        var store = new ColumnarMilageStore(database);
+
+        assertSameStatistics(store, Optional.empty(), Optional.empty());
+        assertThat(store.computeHistory(Optional.empty(), Optional.empty())).isEmpty();
+        assertThat(store.computeSummary().getTotal()).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldComputeSameStatisticsAsDatabase() {
+
+        final LocalDate startDate = sharedTestData.january1st.minusYears(2);
+
+        prepareTestBikes(startDate).forEach(bikeRepository::save);
+        insertTrip(LocalDate.now(), BigDecimal.TEN);
+        insertTrip(startDate.plusMonths(3), new BigDecimal("12.6"));
+        insertTrip(startDate.plusMonths(3).plusDays(3), new BigDecimal("0.45"));
+
+        var store = new ColumnarMilageStore(database);
+
+        assertSameStatistics(store, Optional.empty(), Optional.empty());
+        assertSameStatistics(store, Optional.of(startDate.getYear() + 1), Optional.empty());
+        assertSameStatistics(store, Optional.empty(), Optional.of(startDate.getYear() + 1));
+        assertSameStatistics(store, Optional.of(startDate.getYear() - 4), Optional.of(startDate.getYear() - 2));
+    }
+
+    @Test
+    void shouldBeKeptCurrentByEvents() {
+
+        final LocalDate startDate = sharedTestData.january1st.minusYears(2);
+        final LocalDate startOfYear = sharedTestData.january1st;
+
+        var bikes = new HashMap<String, BikeEntity>();
+        prepareTestBikes(startDate).forEach(bike -> bikes.put(bike.getName(), bikeRepository.save(bike)));
+        entityManager.flush();
+
+        var store = new ColumnarMilageStore(database);
+
+        // New milages for an existing bike
+        var bike2 = bikes.get("bike2");
+        var newMilages = List.of(bike2.addMilage(startOfYear, 1600), bike2.addMilage(startOfYear.plusMonths(1), 1650));
+        bikeRepository.save(bike2);
+        entityManager.flush();
+        newMilages.forEach(milage -> store.onMilageRecorded(new MilageRecordedEvent(bike2.getId(), milage.getRecordedOn(), milage.getAmount())));
+
+        // A new bike
+        var bike4 = new BikeEntity("bike4", startOfYear);
+        var milages = new NewMilage[] {
+                new NewMilage(startOfYear, 0),
+                new NewMilage(startOfYear.plusMonths(1), 123.45)
+        };
+        for (var m : milages) {
+            bike4.addMilage(m.recordedOn(), m.amount());
+        }
+        bike4 = bikeRepository.save(bike4);
+        entityManager.flush();
+        for (var m : milages) {
+            store.onMilageRecorded(new MilageRecordedEvent(bike4.getId(), m.recordedOn(), BigDecimal.valueOf(m.amount())));
+        }
+
+        // New trips
+        insertTrip(startOfYear.plusDays(4), new BigDecimal("42.42"));
+        store.onTripRecorded(new TripRecordedEvent(startOfYear.plusDays(4), new BigDecimal("42.42")));
+        insertTrip(startDate.minusYears(1), BigDecimal.ONE);
+        store.onTripRecorded(new TripRecordedEvent(startDate.minusYears(1), BigDecimal.ONE));
+
+        // An updated bike
+        var bike1 = bikes.get("bike1");
+        jdbcTemplate.update("UPDATE bikes SET color = :color, miscellaneous = true WHERE id = :id", Map.of("color", "FF0000", "id", bike1.getId()));
+        store.onBikeUpdated(new BikeUpdatedEvent(bike1.getId(), "FF0000", true));
+
+        assertSameStatistics(store, Optional.empty(), Optional.empty());
+        assertSameStatistics(store, Optional.of(startDate.getYear() - 1), Optional.of(startDate.getYear() + 1));
+        assertThat(store.computeCurrentYear().getMonths().getValues().keySet()).extracting(bike -> bike.v1).containsExactly("bike2", "bike4");
+    }
+
+    @Test
+    void statisticServiceShouldUseStore() {
+
+        var bike = new BikeEntity("bike", LocalDate.now());
+        bike.addMilage(sharedTestData.january1st.minusMonths(1), 0);
+        bike.addMilage(sharedTestData.january1st, 20);
+        bikeRepository.save(bike);
+        insertTrip(LocalDate.now(), BigDecimal.TEN);
+        entityManager.flush();
+
+        var store = new ColumnarMilageStore(database);
+        // Not rebuilding the rollup, so the database knows nothing about these values
+        var service = new StatisticService(database, Optional.of(store));
+
+        assertThat(service.computeSummary().getTotal()).isEqualTo(30.0);
+        assertThat(service.computeHistory(Optional.empty(), Optional.empty())).containsOnlyKeys(sharedTestData.january1st.getYear() - 1);
+        assertThat(service.computeCurrentYear().getYearlyTotal()).isEqualTo(10);
+    }
+
+    @Test
+    void roundHalfUpShouldWork() {
+        assertThat(ColumnarMilageStore.roundHalfUp(149, 100)).isEqualTo(1);
+        assertThat(ColumnarMilageStore.roundHalfUp(150, 100)).isEqualTo(2);
+        assertThat(ColumnarMilageStore.roundHalfUp(-149, 100)).isEqualTo(-1);
+        assertThat(ColumnarMilageStore.roundHalfUp(-150, 100)).isEqualTo(-2);
+        assertThat(ColumnarMilageStore.roundHalfUp(5, 10)).isEqualTo(1);
+    }
+
+    private void insertTrip(LocalDate coveredOn, BigDecimal distance) {
+        this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)", Map.of("covered_on", coveredOn, "distance", distance));
+    }
+
+    private void assertSameStatistics(ColumnarMilageStore store, Optional<Integer> yearStart, Optional<Integer> yearEnd) {
+        new MilageRollupService(database).rebuild();
+        StatisticServiceTest.assertSameStatistics(store.computeDashboard(yearStart, yearEnd), new StatisticService(database), yearStart, yearEnd);
+    }
+
+    record NewMilage(LocalDate recordedOn, double amount) {
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.db.Tables.MILAGES;
+import static ac.simons.biking2.db.Tables.MONTHLY_MILAGE_ROLLUP;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jooq.DSLContext;
+import org.jooq.Record4;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.AutoConfigureJooq;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import ac.simons.biking2.bikes.BikeRepository;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TestData;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@AutoConfigureJooq
+@TestPropertySource(properties = {
+        "spring.flyway.skip-default-callbacks=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@ActiveProfiles("test")
+class MilageRollupServiceTest {
+
+    private final TestData sharedTestData = new TestData();
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private DSLContext database;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void incrementalUpdatesShouldMatchRebuild() {
+
+        sharedTestData.value.forEach(bikeRepository::save);
+        var trips = List.of(
+                new TripRecordedEvent(sharedTestData.january1st.plusDays(3), new BigDecimal("12.50")),
+                new TripRecordedEvent(sharedTestData.january1st.plusDays(20), new BigDecimal("7.25")),
+                new TripRecordedEvent(sharedTestData.january1st.plusMonths(4), BigDecimal.TEN)
+        );
+        trips.forEach(this::storeTrip);
+
+        var service = new MilageRollupService(database);
+        fetchMilageEvents().forEach(service::onMilageRecorded);
+        trips.forEach(service::onTripRecorded);
+        var incremental = fetchRollup();
+
+        service.rebuild();
+        var rebuild = fetchRollup();
+
+        assertThat(incremental).isNotEmpty().isEqualTo(rebuild);
+        assertThat(incremental)
+                .filteredOn(r -> r.value1() == null && r.value2().equals(sharedTestData.january1st))
+                .singleElement()
+                .satisfies(r -> assertThat(r.value4()).isEqualByComparingTo("19.75"));
+    }
+
+    @Test
+    void eventsInReverseOrderShouldMatchRebuild() {
+
+        sharedTestData.value.forEach(bikeRepository::save);
+
+        var service = new MilageRollupService(database);
+        var events = fetchMilageEvents();
+        Collections.reverse(events);
+        events.forEach(service::onMilageRecorded);
+        var incremental = fetchRollup();
+
+        service.rebuild();
+        assertThat(incremental).isNotEmpty().isEqualTo(fetchRollup());
+    }
+
+    @Test
+    void latestMilageShouldHaveNoDelta() {
+
+        var bike = bikeRepository.save(sharedTestData.value.get(0));
+        var service = new MilageRollupService(database);
+        fetchMilageEvents().forEach(service::onMilageRecorded);
+
+        var latest = this.database
+                .select(MONTHLY_MILAGE_ROLLUP.DELTA)
+                .from(MONTHLY_MILAGE_ROLLUP)
+                .where(MONTHLY_MILAGE_ROLLUP.BIKE_ID.eq(bike.getId()))
+                .orderBy(MONTHLY_MILAGE_ROLLUP.RECORDED_ON.desc())
+                .limit(1)
+                .fetchOne(MONTHLY_MILAGE_ROLLUP.DELTA);
+        assertThat(latest).isNull();
+    }
+
+    private void storeTrip(final TripRecordedEvent trip) {
+        this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)",
+                Map.of("covered_on", trip.coveredOn(), "distance", trip.distance()));
+    }
+
+    private List<MilageRecordedEvent> fetchMilageEvents() {
+        return this.database
+                .select(MILAGES.BIKE_ID, MILAGES.RECORDED_ON, MILAGES.AMOUNT)
+                .from(MILAGES)
+                .orderBy(MILAGES.BIKE_ID, MILAGES.RECORDED_ON)
+                .fetch(r -> new MilageRecordedEvent(r.value1(), r.value2(), r.value3()));
+    }
+
+    private List<Record4<Integer, LocalDate, BigDecimal, BigDecimal>> fetchRollup() {
+        return this.database
+                .select(MONTHLY_MILAGE_ROLLUP.BIKE_ID, MONTHLY_MILAGE_ROLLUP.RECORDED_ON, MONTHLY_MILAGE_ROLLUP.DELTA, MONTHLY_MILAGE_ROLLUP.TRIPS)
+                .from(MONTHLY_MILAGE_ROLLUP)
+                .orderBy(MONTHLY_MILAGE_ROLLUP.BIKE_ID.asc().nullsFirst(), MONTHLY_MILAGE_ROLLUP.RECORDED_ON)
+                .fetch();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.ParallelQueries.METRIC_QUERIES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ac.simons.biking2.config.ExecutorConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class ParallelQueriesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ThreadPoolTaskExecutor executor = new ExecutorConfig().statisticsQueryExecutor(2);
+
+    private final ParallelQueries queries = new ParallelQueries(executor, meterRegistry);
+
+    @BeforeEach
+    void initialize() {
+        executor.initialize();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRunQueriesConcurrently() {
+        var firstStarted = new CountDownLatch(1);
+
+        var result = queries.join(
+                "first", () -> {
+                    firstStarted.countDown();
+                    return Thread.currentThread().getName();
+                },
+                "second", () -> {
+                    try {
+                        // Would time out if the first query ran after this one
+                        return firstStarted.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                },
+                (first, second) -> first + " " + second);
+
+        assertThat(result).startsWith("statistics-query-").endsWith(" true");
+    }
+
+    @Test
+    void shouldRecordLatencyPerQuery() {
+        queries.join("first", () -> 1, "second", () -> 2, Integer::sum);
+
+        assertThat(meterRegistry.get(METRIC_QUERIES).tag("query", "first").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_QUERIES).tag("query", "second").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRethrowExceptionsOfPooledQueries() {
+        assertThatExceptionOfType(DataRetrievalFailureException.class).isThrownBy(() -> queries.join(
+                "first", () -> {
+                    throw new DataRetrievalFailureException("Oops");
+                },
+                "second", () -> 2,
+                (first, second) -> first))
+                .withMessage("Oops");
+    }
+
+    @Test
+    void shouldRunSequentiallyInsideTransactions() {
+        var caller = Thread.currentThread().getName();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            var result = queries.join(
+                    "first", () -> Thread.currentThread().getName(),
+                    "second", () -> Thread.currentThread().getName(),
+                    (first, second) -> first + " " + second);
+            assertThat(result).isEqualTo(caller + " " + caller);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticServiceTest.prepareTestBikes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.jooq.DSLContext;
+import org.jooq.impl.CallbackExecuteListener;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.AutoConfigureJooq;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import ac.simons.biking2.bikes.BikeRepository;
+import ac.simons.biking2.shared.TestData;
+
+/**
+ * Runs {@code EXPLAIN} on the queries of the {@link StatisticService}, so that changes to the queries or the schema
+ * don't silently lead to full scans where only a range of months is needed.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@AutoConfigureJooq
+@TestPropertySource(properties = {
+        "spring.flyway.skip-default-callbacks=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@ActiveProfiles("test")
+class StatisticServiceQueryPlanTest {
+
+    private static final String FULL_SCAN_OF_ROLLUP = "PUBLIC.MONTHLY_MILAGE_ROLLUP.tableScan";
+
+    private static final String RANGE_SCAN_OF_ROLLUP = "PUBLIC.MONTHLY_MILAGE_ROLLUP_RECORDED_ON: RECORDED_ON";
+
+    private static final String RAW_MILAGES = "PUBLIC.MILAGES";
+
+    private static final String RAW_TRIPS = "PUBLIC.ASSORTED_TRIPS";
+
+    private final TestData sharedTestData = new TestData();
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    DSLContext database;
+
+    @BeforeEach
+    void prepareData() {
+        prepareTestBikes(sharedTestData.january1st.minusYears(10)).forEach(bikeRepository::save);
+        new MilageRollupService(database).rebuild();
+    }
+
+    @Test
+    void currentYearShouldOnlyReadCurrentYear() {
+        assertThat(explain(StatisticService::computeCurrentYear))
+                .hasSize(2)
+                .allSatisfy(plan -> assertThat(plan).contains(RANGE_SCAN_OF_ROLLUP).doesNotContain(FULL_SCAN_OF_ROLLUP));
+    }
+
+    @Test
+    void boundedHistoryShouldOnlyReadItsRange() {
+        var yearStart = Optional.of(sharedTestData.january1st.getYear() - 5);
+        var yearEnd = Optional.of(sharedTestData.january1st.getYear() - 3);
+        assertThat(explain(service -> service.computeHistory(yearStart, yearEnd)))
+                .hasSize(2)
+                .allSatisfy(plan -> assertThat(plan).contains(RANGE_SCAN_OF_ROLLUP).doesNotContain(FULL_SCAN_OF_ROLLUP));
+    }
+
+    @Test
+    void historyStartingInThePastShouldOnlyReadItsRange() {
+        var yearStart = Optional.of(sharedTestData.january1st.getYear() - 2);
+        assertThat(explain(service -> service.computeHistory(yearStart, Optional.empty())))
+                .hasSize(2)
+                .allSatisfy(plan -> assertThat(plan).contains(RANGE_SCAN_OF_ROLLUP).doesNotContain(FULL_SCAN_OF_ROLLUP));
+    }
+
+    @Test
+    void aggregatesOverAllMonthsShouldUseCoveringIndex() {
+        for (var plans : List.of(
+                explain(StatisticService::computeMonthlyAverage),
+                explain(StatisticService::computeSummary),
+                explain(service -> service.computeHistory(Optional.empty(), Optional.empty()))
+        )) {
+            assertThat(plans).isNotEmpty().allSatisfy(plan -> assertThat(plan).doesNotContain(FULL_SCAN_OF_ROLLUP, RAW_MILAGES, RAW_TRIPS));
+        }
+    }
+
+    @Test
+    void dashboardShouldReadRollupOnce() {
+        assertThat(explain(service -> service.computeDashboard(Optional.empty(), Optional.empty())))
+                .singleElement()
+                .satisfies(plan -> assertThat(plan).doesNotContain(RAW_MILAGES, RAW_TRIPS));
+    }
+
+    /**
+     * Executes the given computation and returns the plans of all queries it executed.
+     */
+    private List<String> explain(Consumer<StatisticService> computation) {
+
+        var queries = new ArrayList<String>();
+        var recordingDatabase = database.configuration()
+                .derive(new DefaultExecuteListenerProvider(new CallbackExecuteListener().onExecuteStart(ctx -> queries.add(database.renderInlined(ctx.query())))))
+                .dsl();
+        computation.accept(new StatisticService(recordingDatabase));
+
+        return queries.stream()
+                .map(query -> String.valueOf(database.fetchValue("EXPLAIN " + query)))
+                .toList();
+    }
+}
@@ -84,7 +84,7 @@ class StatisticServiceTest {
         var bike2 = Tuple.tuple("bike2", "CCCCCC");
         var bike3 = Tuple.tuple("bike3", "CCCCCC");
 
-        var service = new StatisticService(database);
+        var service = createService();
         var currentYear = service.computeCurrentYear();
         var months = currentYear.getMonths();
 
@@ -102,7 +102,7 @@ class StatisticServiceTest {
     @Test
     void currentYearNoDataAvailable() {
 
-        var service = new StatisticService(database);
+        var service = createService();
         var currentYear = service.computeCurrentYear();
         var months = currentYear.getMonths();
 
@@ -118,7 +118,7 @@ class StatisticServiceTest {
 
         bikeRepository.save(new BikeEntity("a bike", LocalDate.now()));
 
-        var service = new StatisticService(database);
+        var service = createService();
         var currentYear = service.computeCurrentYear();
         var months = currentYear.getMonths();
 
@@ -133,7 +133,7 @@ class StatisticServiceTest {
         // Prepare testdata
         sharedTestData.value.forEach(bikeRepository::save);
 
-        var service = new StatisticService(database);
+        var service = createService();
         var history = service.computeHistory(Optional.empty(), Optional.empty());
 
         assertThat(history).isEmpty();
@@ -142,7 +142,7 @@ class StatisticServiceTest {
     @Test
     void historyNoDataAvailable() {
 
-        var service = new StatisticService(database);
+        var service = createService();
         var history = service.computeHistory(Optional.empty(), Optional.empty());
 
         assertThat(history).isEmpty();
@@ -153,7 +153,7 @@ class StatisticServiceTest {
 
         bikeRepository.save(new BikeEntity("a bike", LocalDate.now()));
 
-        var service = new StatisticService(database);
+        var service = createService();
         var history = service.computeHistory(Optional.empty(), Optional.empty());
 
         assertThat(history).isEmpty();
@@ -166,7 +166,7 @@ class StatisticServiceTest {
 
         prepareTestBikes(startDate).forEach(bikeRepository::save);
 
-        var service = new StatisticService(database);
+        var service = createService();
 
         var history = service.computeHistory(Optional.empty(), Optional.empty());
         assertThat(history).containsKeys(startDate.getYear(), startDate.getYear() + 1);
@@ -196,7 +196,7 @@ class StatisticServiceTest {
     @Test
     void monthlyAverageNoDataAvailable() {
 
-        var service = new StatisticService(database);
+        var service = createService();
         var monthlyAverage = service.computeMonthlyAverage();
 
         assertThat(monthlyAverage.size()).isEqualTo(12);
@@ -208,7 +208,7 @@ class StatisticServiceTest {
 
         bikeRepository.save(new BikeEntity("a bike", LocalDate.now()));
 
-        var service = new StatisticService(database);
+        var service = createService();
         var monthlyAverage = service.computeMonthlyAverage();
 
         assertThat(monthlyAverage.size()).isEqualTo(12);
@@ -222,7 +222,7 @@ class StatisticServiceTest {
 
         prepareTestBikes(startDate).forEach(bikeRepository::save);
 
-        var service = new StatisticService(database);
+        var service = createService();
 
         var expectedData = new double[][] {
                 {0, 50, (0 + 10 + 50) / 3.0},
@@ -247,7 +247,7 @@ class StatisticServiceTest {
 
         sharedTestData.value.forEach(bikeRepository::save);
 
-        var service = new StatisticService(database);
+        var service = createService();
 
         var expectedData = new double[][] {
                 {10, 10, 10.0},
@@ -270,7 +270,7 @@ class StatisticServiceTest {
     @Test
     void summaryNoDataAvailable() {
 
-        var service = new StatisticService(database);
+        var service = createService();
         var summary = service.computeSummary();
 
         assertThat(summary.getBestPeriod()).isNull();
@@ -286,7 +286,7 @@ class StatisticServiceTest {
         sharedTestData.value.forEach(bikeRepository::save);
         this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)", Map.of("covered_on", LocalDate.now(), "distance", BigDecimal.TEN));
 
-        var service = new StatisticService(database);
+        var service = createService();
         var summary = service.computeSummary();
 
         assertThat(summary.getBestPeriod().startOfPeriod()).isEqualTo(LocalDate.now().withMonth(9).withDayOfMonth(1));
@@ -316,7 +316,7 @@ class StatisticServiceTest {
         );
         bikes.forEach(bikeRepository::save);
 
-        var service = new StatisticService(database);
+        var service = createService();
         var summary = service.computeSummary();
 
         assertThat(summary.getWorstPeriod()).isNotNull();
@@ -329,6 +329,97 @@ class StatisticServiceTest {
         assertThat(summary.getAverage()).isEqualTo(93.0 / Math.ceil(ChronoUnit.DAYS.between(LocalDate.of(2009, 1, 1), LocalDate.now()) / 30.4167), Offset.offset(0.1));
     }
 
+    @Test
+    void dashboardNoDataAvailable() {
+
+        var service = createService();
+        var dashboard = service.computeDashboard(Optional.empty(), Optional.empty());
+
+        assertThat(dashboard.summary().getBestPeriod()).isNull();
+        assertThat(dashboard.summary().getWorstPeriod()).isNull();
+        assertThat(dashboard.summary().getTotal()).isEqualTo(0);
+        assertThat(dashboard.summary().getAverage()).isEqualTo(0);
+
+        assertThat(dashboard.currentYear().getMonths().getTotals()).containsOnly(0);
+        assertThat(dashboard.currentYear().getBestPeriod().value()).isEqualTo(0);
+        assertThat(dashboard.currentYear().getWorstPeriod().value()).isEqualTo(0);
+
+        assertThat(dashboard.monthlyAverages().size()).isEqualTo(12);
+        assertThat(dashboard.monthlyAverages().values()).allSatisfy(v -> assertThat(v.getValue()).isEqualTo(0.0));
+
+        assertThat(dashboard.history()).isEmpty();
+    }
+
+    @Test
+    void dashboardShouldMatchSingleStatistics() {
+
+        final LocalDate startDate = sharedTestData.january1st.minusYears(2);
+
+        prepareTestBikes(startDate).forEach(bikeRepository::save);
+        this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)", Map.of("covered_on", LocalDate.now(), "distance", BigDecimal.TEN));
+        this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)", Map.of("covered_on", startDate.plusMonths(3), "distance", new BigDecimal("12.6")));
+
+        var service = createService();
+
+        for (var range : List.of(
+                new HistoryRange(null, null),
+                new HistoryRange(startDate.getYear() + 1, null),
+                new HistoryRange(null, startDate.getYear() + 1))
+        ) {
+            var yearStart = Optional.ofNullable(range.yearStart());
+            var yearEnd = Optional.ofNullable(range.yearEnd());
+            assertSameStatistics(service.computeDashboard(yearStart, yearEnd), service, yearStart, yearEnd);
+        }
+    }
+
+    /**
+     * Test data is stored via repositories and plain JDBC without publishing events, so the rollup needs to be rebuilt.
+     *
+     * @return A new service instance
+     */
+    private StatisticService createService() {
+        new MilageRollupService(database).rebuild();
+        return new StatisticService(database);
+    }
+
+    /**
+     * Asserts that the given dashboard contains the same statistics as computed one by one by the given service.
+     */
+    static void assertSameStatistics(Dashboard dashboard, StatisticService service, Optional<Integer> yearStart, Optional<Integer> yearEnd) {
+
+        var summary = service.computeSummary();
+        assertThat(dashboard.summary().getDateOfFirstRecord()).isEqualTo(summary.getDateOfFirstRecord());
+        assertThat(dashboard.summary().getTotal()).isEqualTo(summary.getTotal());
+        assertThat(dashboard.summary().getBestPeriod()).isEqualTo(summary.getBestPeriod());
+        assertThat(dashboard.summary().getWorstPeriod()).isEqualTo(summary.getWorstPeriod());
+        assertThat(dashboard.summary().getAverage()).isEqualTo(summary.getAverage(), Offset.offset(0.1));
+
+        var currentYear = service.computeCurrentYear();
+        assertThat(dashboard.currentYear().getStartOfYear()).isEqualTo(currentYear.getStartOfYear());
+        assertThat(dashboard.currentYear().getMonths().getTotals()).isEqualTo(currentYear.getMonths().getTotals());
+        assertThat(dashboard.currentYear().getMonths().getValues()).containsOnlyKeys(currentYear.getMonths().getValues().keySet());
+        currentYear.getMonths().getValues().forEach((bike, values) -> assertThat(dashboard.currentYear().getMonths().getValues().get(bike)).isEqualTo(values));
+        assertThat(dashboard.currentYear().getYearlyTotal()).isEqualTo(currentYear.getYearlyTotal());
+        assertThat(dashboard.currentYear().getBestPeriod()).isEqualTo(currentYear.getBestPeriod());
+        assertThat(dashboard.currentYear().getWorstPeriod()).isEqualTo(currentYear.getWorstPeriod());
+        assertThat(dashboard.currentYear().getPreferredBike()).isEqualTo(currentYear.getPreferredBike());
+
+        var monthlyAverages = service.computeMonthlyAverage();
+        assertThat(dashboard.monthlyAverages()).containsOnlyKeys(monthlyAverages.keySet());
+        monthlyAverages.forEach((month, v) -> assertThat(dashboard.monthlyAverages().get(month)).satisfies(w -> {
+            assertThat(w.getMinimum()).isEqualTo(v.getMinimum());
+            assertThat(w.getMaximum()).isEqualTo(v.getMaximum());
+            assertThat(w.getValue()).isEqualTo(v.getValue());
+        }));
+
+        var history = service.computeHistory(yearStart, yearEnd);
+        assertThat(dashboard.history()).containsOnlyKeys(history.keySet());
+        history.forEach((year, v) -> assertThat(dashboard.history().get(year)).satisfies(w -> {
+            assertThat(w.getValues()).isEqualTo(v.getValues());
+            assertThat(w.getPreferredBike()).isEqualTo(v.getPreferredBike());
+        }));
+    }
+
     private static void assertMonthlyAverage(Map<Integer, MonthlyAverage> monthlyAverage, double[][] expectedData) {
         assertThat(monthlyAverage.size()).isEqualTo(12);
         for (int i = 0; i < expectedData.length; ++i) {
@@ -341,7 +432,7 @@ class StatisticServiceTest {
         }
     }
 
-    private static List<BikeEntity> prepareTestBikes(LocalDate startDate) {
+    static List<BikeEntity> prepareTestBikes(LocalDate startDate) {
         final Map<String, Integer[]> testData = new TreeMap<>();
         testData.put("bike1", new Integer[] {
                 10, 20, 30, 40, 50, 60, 70, 80, 90, 100, 110, 120,
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticService.CACHE_CURRENT_YEAR;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_DASHBOARD;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_HISTORY;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_MONTHLY_AVERAGE;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_SUMMARY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class StatisticsCacheCustomizerTest {
+
+    private final StatisticService statisticService = mock(StatisticService.class);
+
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+    StatisticsCacheCustomizerTest() {
+        new StatisticsCacheCustomizer(statisticService, 2, Duration.ofDays(1), Duration.ofHours(1)).customize(cacheManager);
+    }
+
+    @Test
+    void shouldRegisterAllCaches() {
+        assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder(CACHE_CURRENT_YEAR, CACHE_DASHBOARD, CACHE_HISTORY, CACHE_MONTHLY_AVERAGE, CACHE_SUMMARY);
+    }
+
+    @Test
+    void shouldLoadMissingValues() {
+        var summary = Summary.builder().total(42.0).build();
+        when(statisticService.computeSummary()).thenReturn(summary);
+        var history = Map.<Integer, HistoricYear>of();
+        when(statisticService.computeHistory(Optional.of(2010), Optional.empty())).thenReturn(history);
+
+        assertThat(cacheManager.getCache(CACHE_SUMMARY).get("computeSummary").get()).isSameAs(summary);
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(new HistoryRange(2010, null)).get()).isSameAs(history);
+    }
+
+    @Test
+    void historiesShouldBeBounded() {
+        var cache = cacheManager.getCache(CACHE_HISTORY);
+        for (int i = 0; i < 100; ++i) {
+            cache.put(new HistoryRange(i, i + 1), Map.of());
+        }
+
+        var nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        nativeCache.cleanUp();
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void concurrentMissesShouldComputeOnlyOnce() throws Exception {
+        var cache = cacheManager.getCache(CACHE_MONTHLY_AVERAGE);
+        var executor = Executors.newFixedThreadPool(4);
+        var start = new CountDownLatch(1);
+        var computations = new AtomicInteger();
+        try {
+            var results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < 4; ++i) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("computeMonthlyAverage", () -> {
+                        computations.incrementAndGet();
+                        TimeUnit.MILLISECONDS.sleep(100);
+                        return Map.of();
+                    });
+                }));
+            }
+            start.countDown();
+            for (var result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(computations).hasValue(1);
+        verify(statisticService, times(0)).computeMonthlyAverage();
+    }
+
+    @Test
+    void historiesShouldBeCachedByRange() {
+        var store = mock(ColumnarMilageStore.class);
+        var history = Map.<Integer, HistoricYear>of();
+        when(store.computeHistory(Optional.of(2010), Optional.empty())).thenReturn(history);
+
+        try (var context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(CacheManager.class, () -> cacheManager);
+            context.registerBean(StatisticService.class, () -> new StatisticService(mock(DSLContext.class), Optional.of(store)));
+            context.register(CachingConfig.class);
+            context.refresh();
+
+            var service = context.getBean(StatisticService.class);
+            assertThat(service.computeHistory(Optional.of(2010), Optional.empty())).isSameAs(history);
+            assertThat(service.computeHistory(Optional.of(2010), Optional.empty())).isSameAs(history);
+        }
+        verify(store, times(1)).computeHistory(Optional.of(2010), Optional.empty());
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(new HistoryRange(2010, null)).get()).isSameAs(history);
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticService.CACHE_CURRENT_YEAR;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_HISTORY;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_MONTHLY_AVERAGE;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_SUMMARY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import ac.simons.biking2.shared.BikeUpdatedEvent;
+import ac.simons.biking2.shared.MilageRecordedEvent;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class StatisticsCacheInvalidatorTest {
+
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager(CACHE_CURRENT_YEAR, CACHE_HISTORY, CACHE_MONTHLY_AVERAGE, CACHE_SUMMARY);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StatisticsCacheInvalidator invalidator = new StatisticsCacheInvalidator(cacheManager, meterRegistry);
+
+    private final List<HistoryRange> histories = List.of(
+            HistoryRange.of(Optional.empty(), Optional.empty()),
+            HistoryRange.of(Optional.of(2010), Optional.of(2015)),
+            HistoryRange.of(Optional.of(2015), Optional.of(2020)),
+            HistoryRange.of(Optional.of(2020), Optional.empty())
+    );
+
+    @BeforeEach
+    void fillCaches() {
+        cacheManager.getCache(CACHE_CURRENT_YEAR).put(2019, "2019");
+        cacheManager.getCache(CACHE_CURRENT_YEAR).put(2020, "2020");
+        histories.forEach(range -> cacheManager.getCache(CACHE_HISTORY).put(range, range.toString()));
+        cacheManager.getCache(CACHE_MONTHLY_AVERAGE).put("computeMonthlyAverage", "monthlyAverage");
+        cacheManager.getCache(CACHE_SUMMARY).put("computeSummary", "summary");
+    }
+
+    @Test
+    void historyCacheKeyShouldBeHistoryRange() throws NoSuchMethodException {
+        var key = StatisticService.class.getMethod("computeHistory", Optional.class, Optional.class).getAnnotation(Cacheable.class).key();
+        var context = new StandardEvaluationContext();
+        context.setVariable("yearStart", Optional.of(2015));
+        context.setVariable("yearEnd", Optional.empty());
+
+        assertThat(new SpelExpressionParser().parseExpression(key).getValue(context))
+                .isEqualTo(HistoryRange.of(Optional.of(2015), Optional.empty()));
+    }
+
+    @Test
+    void historyRangeShouldWork() {
+        var range = HistoryRange.of(Optional.of(2015), Optional.of(2020));
+        assertThat(range.contains(2014)).isFalse();
+        assertThat(range.contains(2015)).isTrue();
+        assertThat(range.contains(2019)).isTrue();
+        assertThat(range.contains(2020)).isFalse();
+
+        var unbounded = HistoryRange.of(Optional.empty(), Optional.empty());
+        assertThat(unbounded.contains(Integer.MIN_VALUE)).isTrue();
+        assertThat(unbounded.contains(Integer.MAX_VALUE)).isTrue();
+    }
+
+    @Test
+    void tripsShouldOnlyInvalidateAffectedYear() {
+
+        invalidator.onTripRecorded(new TripRecordedEvent(LocalDate.of(2012, 6, 5), BigDecimal.TEN));
+
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2019)).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2020)).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(0))).isNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(1))).isNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(2))).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(3))).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_MONTHLY_AVERAGE).get("computeMonthlyAverage")).isNull();
+        assertThat(cacheManager.getCache(CACHE_SUMMARY).get("computeSummary")).isNull();
+
+        assertThat(meterRegistry.counter(StatisticsCacheInvalidator.METRIC_INVALIDATIONS, "cache", CACHE_HISTORY).count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter(StatisticsCacheInvalidator.METRIC_INVALIDATIONS, "cache", CACHE_CURRENT_YEAR).count()).isZero();
+    }
+
+    @Test
+    void milagesShouldInvalidateYearBefore() {
+
+        invalidator.onMilageRecorded(new MilageRecordedEvent(1, LocalDate.of(2020, 1, 1), BigDecimal.TEN));
+
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2019)).isNull();
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2020)).isNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(0))).isNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(1))).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(2))).isNull();
+        assertThat(cacheManager.getCache(CACHE_HISTORY).get(histories.get(3))).isNull();
+    }
+
+    @Test
+    void bikeUpdatesShouldOnlyInvalidateCurrentYear() {
+
+        invalidator.onBikeUpdated(new BikeUpdatedEvent(1, "CCCCCC", true));
+
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2019)).isNull();
+        assertThat(cacheManager.getCache(CACHE_CURRENT_YEAR).get(2020)).isNull();
+        assertThat(histories).allSatisfy(range -> assertThat(cacheManager.getCache(CACHE_HISTORY).get(range)).isNotNull());
+        assertThat(cacheManager.getCache(CACHE_MONTHLY_AVERAGE).get("computeMonthlyAverage")).isNotNull();
+        assertThat(cacheManager.getCache(CACHE_SUMMARY).get("computeSummary")).isNotNull();
+    }
+
+    @Test
+    void shouldWorkWithConcurrentMapCaches() {
+
+        var otherCacheManager = new ConcurrentMapCacheManager(CACHE_CURRENT_YEAR, CACHE_HISTORY, CACHE_MONTHLY_AVERAGE, CACHE_SUMMARY);
+        otherCacheManager.getCache(CACHE_HISTORY).put(histories.get(2), "2015-2020");
+        otherCacheManager.getCache(CACHE_HISTORY).put(histories.get(3), "2020-");
+
+        new StatisticsCacheInvalidator(otherCacheManager, meterRegistry).onTripRecorded(new TripRecordedEvent(LocalDate.of(2021, 6, 5), BigDecimal.TEN));
+        assertThat(otherCacheManager.getCache(CACHE_HISTORY).get(histories.get(2))).isNotNull();
+        assertThat(otherCacheManager.getCache(CACHE_HISTORY).get(histories.get(3))).isNull();
+    }
+}
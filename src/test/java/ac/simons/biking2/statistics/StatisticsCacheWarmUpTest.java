@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static ac.simons.biking2.statistics.StatisticService.CACHE_CURRENT_YEAR;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_DASHBOARD;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_HISTORY;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_MONTHLY_AVERAGE;
+import static ac.simons.biking2.statistics.StatisticService.CACHE_SUMMARY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.data.Offset;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.AutoConfigureJooq;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ac.simons.biking2.bikes.BikeRepository;
+import ac.simons.biking2.shared.TestData;
+import ac.simons.biking2.shared.TripRecordedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Checks that the caches are warmed up with the data written by the listeners of the same event, which all run right
+ * away when an event is published outside a transaction.
+ *
+ * @author Michael J. Simons
+ * @since 2026-10-18
+ */
+@DataJpaTest
+@AutoConfigureJooq
+@TestPropertySource(properties = {
+        "spring.flyway.skip-default-callbacks=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@ActiveProfiles("test")
+class StatisticsCacheWarmUpTest {
+
+    private final TestData sharedTestData = new TestData();
+
+    @Autowired
+    private BikeRepository bikeRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MilageRollupService milageRollupService;
+
+    @Autowired
+    private StatisticsCacheWarmer statisticsCacheWarmer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @AfterEach
+    void deleteData() {
+        List.of("monthly_milage_rollup", "assorted_trips", "lent_milages", "milages", "bikes")
+                .forEach(table -> this.jdbcTemplate.update("DELETE FROM " + table, Map.of()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void warmedUpStatisticsShouldContainTripsRecordedOutsideTransactions() {
+
+        sharedTestData.value.forEach(bikeRepository::save);
+        milageRollupService.rebuild();
+        // The caches have already been warmed up on startup, without any data
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statisticsCacheWarmer.warmUp();
+        var totalBefore = cachedSummary().getTotal();
+
+        var trip = new TripRecordedEvent(sharedTestData.january1st.plusDays(3), new BigDecimal("42.00"));
+        this.jdbcTemplate.update("INSERT INTO assorted_trips (covered_on, distance) values(:covered_on, :distance)",
+                Map.of("covered_on", trip.coveredOn(), "distance", trip.distance()));
+        this.eventPublisher.publishEvent(trip);
+
+        assertThat(cachedSummary().getTotal()).isCloseTo(totalBefore + 42.0, Offset.offset(0.001));
+    }
+
+    private Summary cachedSummary() {
+        var summary = this.cacheManager.getCache(CACHE_SUMMARY).get("computeSummary", Summary.class);
+        assertThat(summary).isNotNull();
+        return summary;
+    }
+
+    @TestConfiguration
+    @EnableCaching
+    static class StatisticsCacheWarmUpTestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CACHE_CURRENT_YEAR, CACHE_DASHBOARD, CACHE_HISTORY, CACHE_MONTHLY_AVERAGE, CACHE_SUMMARY);
+        }
+
+        @Bean
+        MilageRollupService milageRollupService(final DSLContext database) {
+            return new MilageRollupService(database);
+        }
+
+        @Bean
+        StatisticService statisticService(final DSLContext database) {
+            return new StatisticService(database);
+        }
+
+        @Bean
+        StatisticsCacheInvalidator statisticsCacheInvalidator(final CacheManager cacheManager) {
+            return new StatisticsCacheInvalidator(cacheManager, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        StatisticsCacheWarmer statisticsCacheWarmer(final StatisticService statisticService) {
+            // Warms up synchronously while the event is being published
+            return new StatisticsCacheWarmer(statisticService, Runnable::run, List.of(".."));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class StatisticsCacheWarmerTest {
+
+    private final StatisticService statisticService = mock(StatisticService.class);
+
+    private final List<Runnable> scheduledTasks = new ArrayList<>();
+
+    @Test
+    void shouldWarmUpAllStatistics() {
+        var warmer = new StatisticsCacheWarmer(statisticService, scheduledTasks::add, List.of("..", "2010..2015", "2010..2015", "-1..0"));
+
+        warmer.onApplicationReady();
+        assertThat(scheduledTasks).hasSize(1);
+        scheduledTasks.get(0).run();
+
+        verify(statisticService).computeSummary();
+        verify(statisticService).computeCurrentYear();
+        verify(statisticService).computeMonthlyAverage();
+        verify(statisticService).computeHistory(Optional.empty(), Optional.empty());
+        verify(statisticService).computeDashboard(Optional.empty(), Optional.empty());
+        verify(statisticService).computeHistory(Optional.of(2010), Optional.of(2015));
+        verify(statisticService).computeDashboard(Optional.of(2010), Optional.of(2015));
+        var currentYear = LocalDate.now().getYear();
+        verify(statisticService).computeHistory(Optional.of(currentYear - 1), Optional.of(currentYear));
+        verify(statisticService).computeDashboard(Optional.of(currentYear - 1), Optional.of(currentYear));
+        verifyNoMoreInteractions(statisticService);
+    }
+
+    @Test
+    void defaultRangeShouldBeTheOneRequestedByTheMilagesPage() throws IOException {
+        var configuredRange = PropertiesLoaderUtils.loadAllProperties("application.properties").getProperty("biking2.statistics.warm-up.history-ranges");
+        var warmer = new StatisticsCacheWarmer(statisticService, Runnable::run, List.of(configuredRange));
+
+        warmer.onApplicationReady();
+
+        // MilagesCtrl requests the dashboard from three years ago up to and including the last year
+        var currentYear = LocalDate.now().getYear();
+        var requestedRange = HistoryRange.of(Optional.of(currentYear - 3), Optional.of(currentYear - 1 + 1));
+        var yearStart = Optional.ofNullable(requestedRange.yearStart());
+        var yearEnd = Optional.ofNullable(requestedRange.yearEnd());
+        verify(statisticService).computeHistory(yearStart, yearEnd);
+        verify(statisticService).computeDashboard(yearStart, yearEnd);
+    }
+
+    @Test
+    void pendingWarmUpsShouldBeCoalesced() {
+        var warmer = new StatisticsCacheWarmer(statisticService, scheduledTasks::add, List.of(".."));
+
+        warmer.onStatisticsChanged();
+        warmer.onStatisticsChanged();
+        assertThat(scheduledTasks).hasSize(1);
+
+        scheduledTasks.get(0).run();
+        warmer.onStatisticsChanged();
+        assertThat(scheduledTasks).hasSize(2);
+    }
+
+    @Test
+    void failuresShouldNotPreventFurtherWarmUps() {
+        when(statisticService.computeSummary()).thenThrow(new DataRetrievalFailureException("Oops"));
+        var warmer = new StatisticsCacheWarmer(statisticService, Runnable::run, List.of(".."));
+
+        warmer.onStatisticsChanged();
+        warmer.onStatisticsChanged();
+
+        verify(statisticService, times(2)).computeSummary();
+    }
+
+    @Test
+    void historyRangesShouldBeParsed() {
+        assertThat(HistoryRange.parse("..", 2026)).isEqualTo(new HistoryRange(null, null));
+        assertThat(HistoryRange.parse(" 2010.. ", 2026)).isEqualTo(new HistoryRange(2010, null));
+        assertThat(HistoryRange.parse("..2020", 2026)).isEqualTo(new HistoryRange(null, 2020));
+        assertThat(HistoryRange.parse("2010..2020", 2026)).isEqualTo(new HistoryRange(2010, 2020));
+        assertThat(HistoryRange.parse("-3..0", 2026)).isEqualTo(new HistoryRange(2023, 2026));
+        assertThat(HistoryRange.parse("2020..+1", 2026)).isEqualTo(new HistoryRange(2020, 2027));
+        assertThatIllegalArgumentException().isThrownBy(() -> HistoryRange.parse("2010", 2026));
+        assertThatIllegalArgumentException().isThrownBy(() -> HistoryRange.parse("a..b", 2026));
+    }
+
+    @Test
+    void invalidRangesShouldFailOnStartup() {
+        var ranges = List.of("2010");
+        assertThatIllegalArgumentException().isThrownBy(() -> new StatisticsCacheWarmer(statisticService, Runnable::run, ranges));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class AtomicFilesTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void shouldWriteAndReplaceFiles() throws IOException {
+        final File target = new File(tempDir, "1.tcx");
+
+        AtomicFiles.write(target, "old".getBytes(StandardCharsets.UTF_8));
+        assertThat(target).hasContent("old");
+
+        final long written = AtomicFiles.write(target, new ByteArrayInputStream("new content".getBytes(StandardCharsets.UTF_8)));
+        assertThat(written).isEqualTo(11L);
+        assertThat(target).hasContent("new content");
+
+        final String result = AtomicFiles.write(target, out -> {
+            try (out) {
+                out.write('x');
+            }
+            // Closing the stream must not close the file
+            out.write('y');
+            return "done";
+        });
+        assertThat(result).isEqualTo("done");
+        assertThat(target).hasContent("xy");
+        assertThat(tempDir.list()).containsExactly("1.tcx");
+    }
+
+    @Test
+    void shouldLeaveTargetUntouchedOnFailure() throws IOException {
+        final File target = new File(tempDir, "1.gpx");
+        Files.writeString(target.toPath(), "complete");
+
+        assertThatIOException().isThrownBy(() -> AtomicFiles.write(target, out -> {
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Conversion failed");
+        })).withMessage("Conversion failed");
+
+        assertThat(target).hasContent("complete");
+        assertThat(tempDir.list()).containsExactly("1.gpx");
+    }
+
+    @Test
+    void shouldMoveFilesIntoPlace() throws IOException {
+        final File source = Files.createTempFile(tempDir.toPath(), "import-", AtomicFiles.TEMPORARY_SUFFIX).toFile();
+        AtomicFiles.write(source, "staged".getBytes(StandardCharsets.UTF_8));
+        final File target = new File(tempDir, "1.gpx");
+        Files.writeString(target.toPath(), "old");
+
+        AtomicFiles.move(source, target);
+        assertThat(target).hasContent("staged");
+        assertThat(tempDir.list()).containsExactly("1.gpx");
+    }
+
+    @Test
+    void shouldRecognizeTemporaryFiles() {
+        assertThat(AtomicFiles.isTemporary(new File(tempDir, "1.gpx123.tmp"))).isTrue();
+        assertThat(AtomicFiles.isTemporary(new File(tempDir, "1.gpx"))).isFalse();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class DouglasPeuckerTest {
+
+    @Test
+    void shouldKeepShortLines() {
+        assertThat(DouglasPeucker.simplify(new double[0], new double[0], 1.0)).isEmpty();
+        assertThat(DouglasPeucker.simplify(new double[] {1, 2}, new double[] {1, 2}, 1.0)).containsExactly(0, 1);
+    }
+
+    @Test
+    void shouldRemovePointsWithinTolerance() {
+        final double[] xs = {0, 1, 2, 3, 4, 5, 6};
+        final double[] ys = {0, 0.1, -0.1, 5, 6, 7.05, 8};
+
+        assertThat(DouglasPeucker.simplify(xs, ys, 0.5)).containsExactly(0, 2, 3, 6);
+        assertThat(DouglasPeucker.simplify(xs, ys, 0.01)).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(DouglasPeucker.simplify(xs, ys, 100)).containsExactly(0, 6);
+    }
+
+    @Test
+    void shouldHandleLongLines() {
+        // A zig zag line where every point has to be kept
+        final int n = 10_000;
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        for (int i = 0; i < n; ++i) {
+            xs[i] = i;
+            ys[i] = i % 2;
+        }
+
+        assertThat(DouglasPeucker.simplify(xs, ys, 0.1)).hasSize(n);
+    }
+
+    @Test
+    void distanceShouldBeMeasuredToTheSegment() {
+        assertThat(DouglasPeucker.distanceToSegment(1, 1, 0, 0, 2, 0)).isCloseTo(1.0, within(1e-9));
+        assertThat(DouglasPeucker.distanceToSegment(5, 0, 0, 0, 2, 0)).isCloseTo(3.0, within(1e-9));
+        assertThat(DouglasPeucker.distanceToSegment(3, 4, 0, 0, 0, 0)).isCloseTo(5.0, within(1e-9));
+    }
+}
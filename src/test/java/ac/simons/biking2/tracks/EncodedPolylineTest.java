@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class EncodedPolylineTest {
+
+    @Test
+    void shouldEncodeSelectedPoints() {
+        // The example from the documentation of the format with an additional point that is not selected
+        final double[] latitudes = {38.5, 39.0, 40.7, 43.252};
+        final double[] longitudes = {-120.2, -121.0, -120.95, -126.453};
+
+        assertThat(EncodedPolyline.encode(latitudes, longitudes, new int[] {0, 2, 3})).isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    @Test
+    void shouldDecode() {
+        final List<double[]> points = EncodedPolyline.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        assertThat(points).hasSize(3);
+        assertThat(points.get(0)).containsExactly(new double[] {38.5, -120.2}, within(1e-9));
+        assertThat(points.get(1)).containsExactly(new double[] {40.7, -120.95}, within(1e-9));
+        assertThat(points.get(2)).containsExactly(new double[] {43.252, -126.453}, within(1e-9));
+    }
+
+    @Test
+    void shouldRejectTruncatedPolylines() {
+        assertThatIllegalArgumentException().isThrownBy(() -> EncodedPolyline.decode("_p~iF~ps|U_"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class HilbertRTreeTest {
+
+    @Test
+    void hilbertShouldFollowTheCurve() {
+        // The first cells of the curve start in the lower left corner, go up, right and down again
+        assertThat(HilbertRTree.hilbert(0, 0)).isZero();
+        assertThat(HilbertRTree.hilbert(0, 1)).isEqualTo(1);
+        assertThat(HilbertRTree.hilbert(1, 1)).isEqualTo(2);
+        assertThat(HilbertRTree.hilbert(1, 0)).isEqualTo(3);
+        assertThat(HilbertRTree.hilbert((1 << 15) - 1, 0)).isEqualTo((1 << 30) - 1);
+    }
+
+    @Test
+    void shouldFindNothingInEmptyTrees() {
+        final HilbertRTree tree = new HilbertRTree(new int[0], new double[0], new double[0], new double[0], new double[0]);
+        assertThat(tree.size()).isZero();
+        assertThat(search(tree, -180, -90, 180, 90)).isEmpty();
+    }
+
+    @Test
+    void shouldFindSingleBoxes() {
+        final HilbertRTree tree = new HilbertRTree(new int[] {42}, new double[] {8}, new double[] {50}, new double[] {9}, new double[] {51});
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(search(tree, 8.5, 50.5, 8.6, 50.6)).containsExactly(42);
+        assertThat(search(tree, 9, 51, 10, 52)).containsExactly(42);
+        assertThat(search(tree, 9.1, 50, 10, 52)).isEmpty();
+    }
+
+    @Test
+    void shouldFindTheSameBoxesAsAFullScan() {
+        final Random random = new Random(4711);
+        final int size = 5_000;
+        final int[] ids = new int[size];
+        final double[] minLons = new double[size];
+        final double[] minLats = new double[size];
+        final double[] maxLons = new double[size];
+        final double[] maxLats = new double[size];
+        for (int i = 0; i < size; ++i) {
+            ids[i] = i * 3;
+            minLons[i] = random.nextDouble() * 350.0 - 180.0;
+            minLats[i] = random.nextDouble() * 170.0 - 90.0;
+            maxLons[i] = minLons[i] + random.nextDouble() * 10.0;
+            maxLats[i] = minLats[i] + random.nextDouble() * 10.0;
+        }
+        final HilbertRTree tree = new HilbertRTree(ids, minLons, minLats, maxLons, maxLats);
+        assertThat(tree.size()).isEqualTo(size);
+
+        for (int query = 0; query < 100; ++query) {
+            final double minLon = random.nextDouble() * 360.0 - 180.0;
+            final double minLat = random.nextDouble() * 180.0 - 90.0;
+            final double maxLon = minLon + random.nextDouble() * 40.0;
+            final double maxLat = minLat + random.nextDouble() * 40.0;
+
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                if (minLons[i] <= maxLon && minLats[i] <= maxLat && maxLons[i] >= minLon && maxLats[i] >= minLat) {
+                    expected.add(ids[i]);
+                }
+            }
+            assertThat(search(tree, minLon, minLat, maxLon, maxLat)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+        assertThat(search(tree, -180, -90, 180, 90)).hasSize(size);
+    }
+
+    private static List<Integer> search(final HilbertRTree tree, final double minLon, final double minLat, final double maxLon, final double maxLat) {
+        final List<Integer> rv = new ArrayList<>();
+        tree.search(minLon, minLat, maxLon, maxLat, rv::add);
+        return rv;
+    }
+}
@@ -20,9 +20,13 @@ import ac.simons.biking2.support.TestConfig;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -30,11 +34,15 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -63,6 +71,12 @@ class OEmbedControllerTest {
     @Autowired
     private Coordinate home;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmbeddableTracks embeddableTracks;
+
     @Test
     void getEmbeddableTrack_shouldBeValidJson() throws Exception {
         final MockMvc mockMvc = MockMvcBuilders
@@ -83,6 +97,31 @@ class OEmbedControllerTest {
                 .andExpect(content().string(expectedXmlResult));
     }
 
+    @Test
+    void getEmbeddableTrack_shouldBeCached() throws Exception {
+        final MockMvc mockMvc = MockMvcBuilders
+                .webAppContextSetup(applicationContext)
+                .build();
+        this.embeddableTracks.evict(23);
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/oembed?url=http://biking.michael-simons.eu/tracks/n&format=json&maxwidth=640&maxheight=480"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"));
+        assertThat(cacheManager.getCache(EmbeddableTracks.CACHE_OEMBED_RESPONSES).get(List.of("http://biking.michael-simons.eu", 23, 640, 480))).isNotNull();
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/tracks/n/embed"))
+                .andExpect(status().isOk());
+        assertThat(cacheManager.getCache(EmbeddableTracks.CACHE_TRACKS).get(23)).isNotNull();
+
+        this.embeddableTracks.evict(23);
+        assertThat(cacheManager.getCache(EmbeddableTracks.CACHE_OEMBED_RESPONSES).get(List.of("http://biking.michael-simons.eu", 23, 640, 480))).isNull();
+        assertThat(cacheManager.getCache(EmbeddableTracks.CACHE_TRACKS).get(23)).isNull();
+        mockMvc
+                .perform(get("http://biking.michael-simons.eu/oembed?url=http://biking.michael-simons.eu/tracks/1&format=json"))
+                .andExpect(status().isNotFound());
+        assertThat(cacheManager.getCache(EmbeddableTracks.CACHE_OEMBED_RESPONSES).get(List.of("http://biking.michael-simons.eu", 1, 1024, 576))).isNull();
+    }
+
     @Test
     void getEmbeddableTrack_shouldHandleUnacceptableRequests() throws Exception {
         final MockMvc mockMvc = MockMvcBuilders
@@ -137,11 +176,12 @@ class OEmbedControllerTest {
         mockMvc
                 .perform(get("http://biking.michael-simons.eu/tracks/n/embed?width=23&height=42"))
                 .andExpect(status().isOk())
-                .andExpect(model().attribute("track", is(equalTo(this.trackRepository.findById(23).get()))))
+                .andExpect(model().attribute("track", is(equalTo(this.trackRepository.findEmbeddableTrackById(23).get()))))
                 .andExpect(model().attribute("home", is(equalTo(home))))
                 .andExpect(model().attribute("width", is(equalTo(23))))
                 .andExpect(model().attribute("height", is(equalTo(42))))
-                .andExpect(view().name("oEmbed/embeddedTrack"));
+                .andExpect(view().name("oEmbed/embeddedTrack"))
+                .andExpect(content().string(containsString("data-polyline=\"/tracks/n/polyline?width=21&amp;height=40\"")));
 
         mockMvc
                 .perform(get("http://biking.michael-simons.eu/tracks/n/embed"))
@@ -152,6 +192,8 @@ class OEmbedControllerTest {
 
     @Configuration(proxyBeanMethods = false)
     @Profile("test")
+    @EnableCaching
+    @Import({EmbeddableTracks.class, EmbeddableTracksCacheCustomizer.class})
     static class OEmbedControllerTestConfig {
 
         @Bean
@@ -160,8 +202,8 @@ class OEmbedControllerTest {
         }
 
         @Bean
-        public OEmbedController oEmbedController(TrackRepository trackRepository, Coordinate home) {
-            return new OEmbedController(new TrackIdParser(), trackRepository, home);
+        public OEmbedController oEmbedController(EmbeddableTracks embeddableTracks, Coordinate home) {
+            return new OEmbedController(new TrackIdParser(), embeddableTracks, home);
         }
     }
 }
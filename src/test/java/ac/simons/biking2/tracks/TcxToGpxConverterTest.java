@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.tracks.gpx.Bounds;
+import ac.simons.biking2.tracks.gpx.BoundsReader;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static ac.simons.biking2.tracks.TcxToGpxConverter.GPX_NAMESPACE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TcxToGpxConverterTest {
+
+    private final TcxToGpxConverter converter = new TcxToGpxConverter();
+
+    @Test
+    void shouldConvertTcxFiles() throws Exception {
+        final ByteArrayOutputStream gpx = new ByteArrayOutputStream();
+        final TrackSummary summary;
+        try (InputStream tcx = this.getClass().getResourceAsStream("/test.tcx")) {
+            summary = converter.convert(tcx, gpx);
+        }
+        final Bounds bounds = summary.bounds();
+        assertThat(summary.startedAt()).hasValue(Instant.parse("2009-04-19T08:32:39Z"));
+
+        // Same bounds GPSBabel computed for test.gpx
+        assertThat(bounds.getMinlat()).isEqualByComparingTo("50.162284");
+        assertThat(bounds.getMinlon()).isEqualByComparingTo("8.452548");
+        assertThat(bounds.getMaxlat()).isEqualByComparingTo("50.272238");
+        assertThat(bounds.getMaxlon()).isEqualByComparingTo("8.698715");
+
+        // The GPX file doesn't contain the bounds, but they can be computed from it again
+        assertThat(new BoundsReader().read(new ByteArrayInputStream(gpx.toByteArray()))).hasValueSatisfying(value -> {
+            assertThat(value.getMinlat()).isEqualByComparingTo(bounds.getMinlat());
+            assertThat(value.getMinlon()).isEqualByComparingTo(bounds.getMinlon());
+            assertThat(value.getMaxlat()).isEqualByComparingTo(bounds.getMaxlat());
+            assertThat(value.getMaxlon()).isEqualByComparingTo(bounds.getMaxlon());
+        });
+
+        final Document document = parse(gpx.toByteArray());
+        assertThat(document.getDocumentElement().getNamespaceURI()).isEqualTo(GPX_NAMESPACE);
+        assertThat(document.getDocumentElement().getLocalName()).isEqualTo("gpx");
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "trk").getLength()).isEqualTo(1);
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "name").item(0).getTextContent()).isEqualTo("2009-04-19T08:32:39Z");
+        // Trackpoints without position are skipped, as GPSBabel does
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "trkpt").getLength()).isEqualTo(1668);
+
+        final Element first = (Element) document.getElementsByTagNameNS(GPX_NAMESPACE, "trkpt").item(0);
+        assertThat(first.getAttribute("lat")).isEqualTo("50.166204");
+        assertThat(first.getAttribute("lon")).isEqualTo("8.682889");
+        assertThat(first.getElementsByTagNameNS(GPX_NAMESPACE, "ele").item(0).getTextContent()).isEqualTo("131.691");
+        assertThat(first.getElementsByTagNameNS(GPX_NAMESPACE, "time").item(0).getTextContent()).isEqualTo("2009-04-19T08:32:39Z");
+    }
+
+    @Test
+    void shouldConvertCourses() throws Exception {
+        final String tcx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <TrainingCenterDatabase xmlns="http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2">
+                  <Courses>
+                    <Course>
+                      <Name>Test</Name>
+                      <Track>
+                        <Trackpoint><Position><LatitudeDegrees>1.5</LatitudeDegrees><LongitudeDegrees>-2</LongitudeDegrees></Position></Trackpoint>
+                        <Trackpoint><Position><LatitudeDegrees>-1</LatitudeDegrees><LongitudeDegrees>3.25</LongitudeDegrees></Position></Trackpoint>
+                      </Track>
+                      <CoursePoint><Name>Ignored</Name></CoursePoint>
+                    </Course>
+                  </Courses>
+                </TrainingCenterDatabase>
+                """;
+
+        final ByteArrayOutputStream gpx = new ByteArrayOutputStream();
+        final TrackSummary summary = converter.convert(new ByteArrayInputStream(tcx.getBytes(StandardCharsets.UTF_8)), gpx);
+        assertThat(summary.startedAt()).isEmpty();
+        final Bounds bounds = summary.bounds();
+
+        assertThat(bounds.getMinlat()).isEqualByComparingTo("-1");
+        assertThat(bounds.getMinlon()).isEqualByComparingTo("-2");
+        assertThat(bounds.getMaxlat()).isEqualByComparingTo("1.5");
+        assertThat(bounds.getMaxlon()).isEqualByComparingTo("3.25");
+
+        final Document document = parse(gpx.toByteArray());
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "name").getLength()).isEqualTo(1);
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "trkpt").getLength()).isEqualTo(2);
+        assertThat(document.getElementsByTagNameNS(GPX_NAMESPACE, "ele").getLength()).isZero();
+    }
+
+    @Test
+    void shouldFailOnMalformedFiles() throws Exception {
+        try (InputStream tcx = this.getClass().getResourceAsStream("/test-invalid.tcx")) {
+            assertThatExceptionOfType(XMLStreamException.class)
+                    .isThrownBy(() -> converter.convert(tcx, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    void shouldFailOnOtherXmlFiles() throws Exception {
+        try (InputStream rss = this.getClass().getResourceAsStream("/biking_pictures.rss")) {
+            assertThatExceptionOfType(TcxConversionException.class)
+                    .isThrownBy(() -> converter.convert(rss, new ByteArrayOutputStream()))
+                    .withMessageStartingWith("Not a TCX file");
+        }
+    }
+
+    @Test
+    void shouldFailOnFilesWithoutPositions() {
+        final String tcx = """
+                <TrainingCenterDatabase xmlns="http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2">
+                  <Activities><Activity><Id>x</Id><Lap><Track><Trackpoint><Time>2009-04-19T08:32:39Z</Time></Trackpoint></Track></Lap></Activity></Activities>
+                </TrainingCenterDatabase>
+                """;
+
+        assertThatExceptionOfType(TcxConversionException.class)
+                .isThrownBy(() -> converter.convert(new ByteArrayInputStream(tcx.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream()))
+                .withMessage("The TCX file doesn't contain any positions");
+    }
+
+    private static Document parse(final byte[] gpx) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(gpx));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.ExecutorConfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackFileReconciliationTest {
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    @Test
+    void shouldReconcileTrackFiles() throws IOException {
+        final Datastore datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        final File trackDirectory = datastore.getDirectory(Datastore.Area.TRACKS);
+        final long startedAt = System.currentTimeMillis();
+        final long before = startedAt - 60_000;
+        final long after = startedAt + 10_000;
+        // Track 1 is complete, track 2 has been imported from GPX and not yet moved into its shard, track 3 has no files at all
+        final File tcx1 = newFile(datastore.getFile(Datastore.Area.TRACKS, "1.tcx"), before);
+        final File gpx1 = newFile(datastore.getFile(Datastore.Area.TRACKS, "1.gpx"), before);
+        final File points1 = newFile(datastore.getFile(Datastore.Area.TRACKS, "1.points"), before);
+        final File gpx2 = newFile(new File(trackDirectory, "2.gpx"), before);
+        final File tmp2 = newFile(datastore.getFile(Datastore.Area.TRACKS, "2.gpx.gz4711.tmp"), before);
+        // Track 4 has been deleted from the database only
+        final File tcx4 = newFile(new File(trackDirectory, "4.tcx"), before);
+        final File gpx4 = newFile(datastore.getFile(Datastore.Area.TRACKS, "4.gpx"), before);
+        final File polylines4 = newFile(datastore.getFile(Datastore.Area.TRACKS, "4.polylines"), before);
+        // Track 5 is created while reconciling
+        final File tcx5 = newFile(datastore.getFile(Datastore.Area.TRACKS, "5.tcx"), after);
+        final File tmp5 = newFile(datastore.getFile(Datastore.Area.TRACKS, "5.gpx4712.tmp"), after);
+        final File unknown = newFile(new File(trackDirectory, "readme.txt"), before);
+        // An import that has been interrupted before the track has been created
+        final File staged = newFile(new File(trackDirectory, "import-4713.tmp"), before);
+        when(trackRepository.findAllIds()).thenReturn(List.of(1, 2, 3));
+
+        final TrackFileReconciliation reconciliation = new TrackFileReconciliation(trackRepository, datastore, Runnable::run, startedAt);
+        assertThat(reconciliation.reconcile().join()).isEqualTo(new TrackFileReconciliation.Result(2, 3, 1));
+
+        assertThat(List.of(tcx1, gpx1, points1, gpx2, tcx5, tmp5, unknown)).allMatch(File::isFile);
+        assertThat(List.of(tmp2, tcx4, gpx4, polylines4, staged)).noneMatch(File::exists);
+        final File orphanedDirectory = new File(trackDirectory, TrackFileReconciliation.ORPHANED_DIRECTORY);
+        assertThat(orphanedDirectory.list()).containsExactlyInAnyOrder("4.tcx", "4.gpx");
+    }
+
+    @Test
+    void shouldReconcileOnStartup() {
+        final Datastore datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        when(trackRepository.findAllIds()).thenReturn(List.of());
+
+        final ThreadPoolTaskExecutor executor = new ExecutorConfig().trackReconciliationExecutor();
+        executor.initialize();
+        final TrackFileReconciliation reconciliation = new TrackFileReconciliation(trackRepository, datastore, executor);
+        try {
+            reconciliation.onApplicationReady();
+            verify(trackRepository, timeout(5000)).findAllIds();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFailWithoutTrackDirectory() {
+        when(trackRepository.findAllIds()).thenReturn(List.of());
+
+        final TrackFileReconciliation reconciliation = new TrackFileReconciliation(trackRepository, new Datastore(datastoreBaseDirectory), Runnable::run, System.currentTimeMillis());
+        assertThat(reconciliation.reconcile()).isCompletedExceptionally();
+        reconciliation.onApplicationReady();
+    }
+
+    private static File newFile(final File file, final long lastModified) throws IOException {
+        Files.writeString(file.toPath(), file.getName());
+        file.setLastModified(lastModified);
+        return file;
+    }
+}
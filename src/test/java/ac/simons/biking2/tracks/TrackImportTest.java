@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.support.AtomicFiles;
+import ac.simons.biking2.tracks.ImportReport.Status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackImportTest {
+
+    private static final LocalDate COVERED_ON = LocalDate.of(2009, 4, 19);
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private Datastore datastore;
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    private final TrackIndex trackIndex = mock(TrackIndex.class);
+
+    private final AtomicInteger ids = new AtomicInteger(4711);
+
+    private final List<TrackEntity> savedTracks = new ArrayList<>();
+
+    @BeforeEach
+    void prepareRepository() {
+        datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        when(trackRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            final List<TrackEntity> tracks = invocation.getArgument(0);
+            tracks.forEach(this::assignId);
+            return tracks;
+        });
+        when(trackRepository.save(any(TrackEntity.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
+    }
+
+    private TrackEntity assignId(final TrackEntity track) {
+        ReflectionTestUtils.setField(track, "id", ids.getAndIncrement());
+        savedTracks.add(track);
+        return track;
+    }
+
+    @Test
+    void shouldImportTcxAndGpxFiles() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("tracks/", null);
+        entries.put("tracks/Ride one.tcx", resource("/test.tcx"));
+        entries.put("tracks/Ride two.GPX", resource("/test.gpx"));
+        entries.put("tracks/notes.txt", "foo".getBytes(StandardCharsets.UTF_8));
+        entries.put("tracks/.DS_Store", new byte[1]);
+        entries.put("__MACOSX/tracks/._Ride one.tcx", new byte[1]);
+        entries.put("tracks/broken.tcx", "<foo/>".getBytes(StandardCharsets.UTF_8));
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(zip(entries), TrackEntity.Type.running);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getSkipped()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getEntries())
+                .extracting(ImportReport.Entry::file, ImportReport.Entry::status)
+                .containsExactly(
+                        tuple("tracks/notes.txt", Status.skipped),
+                        tuple("tracks/broken.tcx", Status.failed),
+                        tuple("tracks/Ride one.tcx", Status.imported),
+                        tuple("tracks/Ride two.GPX", Status.imported)
+                );
+        assertThat(report.getEntries().get(1).message()).startsWith("Invalid track data: Not a TCX file");
+
+        assertThat(savedTracks)
+                .extracting(TrackEntity::getName, TrackEntity::getCoveredOn, TrackEntity::getType)
+                .containsExactly(
+                        tuple("Ride one", COVERED_ON, TrackEntity.Type.running),
+                        tuple("Ride two", COVERED_ON, TrackEntity.Type.running)
+                );
+        assertThat(savedTracks).allSatisfy(track -> {
+            assertThat(track.getMinlat()).isEqualByComparingTo("50.162284");
+            assertThat(track.getMaxlon()).isEqualByComparingTo("8.698715");
+        });
+        assertThat(report.getEntries().get(2).track()).isEqualTo(savedTracks.get(0).getPrettyId());
+
+        final TrackEntity fromTcx = savedTracks.get(0);
+        assertThat(fromTcx.getTrackFile(datastore, "tcx")).hasBinaryContent(resource("/test.tcx"));
+        assertThat(Files.readString(fromTcx.getTrackFile(datastore, "gpx").toPath())).contains("<trkpt");
+        final TrackEntity fromGpx = savedTracks.get(1);
+        assertThat(fromGpx.getTrackFile(datastore, "tcx")).doesNotExist();
+        assertThat(fromGpx.getTrackFile(datastore, "gpx")).hasBinaryContent(resource("/test.gpx"));
+        try (InputStream compressed = new GZIPInputStream(new FileInputStream(fromGpx.getTrackFile(datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT)))) {
+            assertThat(compressed.readAllBytes()).isEqualTo(resource("/test.gpx"));
+        }
+        verify(trackRepository).saveAll(anyList());
+        verify(trackIndex).add(fromTcx);
+        verify(trackIndex).add(fromGpx);
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TRACK_DIRECTORY).listFiles(AtomicFiles::isTemporary)).isEmpty();
+    }
+
+    @Test
+    void shouldSkipExistingTracks() throws IOException {
+        when(trackRepository.findAllByCoveredOnIn(anyCollection())).thenReturn(List.of(new TrackEntity("existing", COVERED_ON)));
+
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("existing.tcx", resource("/test.tcx"));
+        entries.put("new.tcx", resource("/test.tcx"));
+        entries.put("other/new.gpx", resource("/test.gpx"));
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(zip(entries), TrackEntity.Type.biking);
+
+        assertThat(report.getEntries())
+                .extracting(ImportReport.Entry::file, ImportReport.Entry::status)
+                .containsExactlyInAnyOrder(
+                        tuple("existing.tcx", Status.skipped),
+                        tuple("new.tcx", Status.imported),
+                        tuple("other/new.gpx", Status.skipped)
+                );
+        assertThat(savedTracks).extracting(TrackEntity::getName).containsExactly("new");
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TRACK_DIRECTORY).listFiles(AtomicFiles::isTemporary)).isEmpty();
+    }
+
+    @Test
+    void shouldInsertTracksInBatches() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 5; ++i) {
+            entries.put(i + ".gpx", resource("/test.gpx"));
+        }
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 2, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(zip(entries), TrackEntity.Type.biking);
+
+        assertThat(report.getImported()).isEqualTo(5);
+        verify(trackRepository, times(3)).saveAll(anyList());
+        verify(trackRepository, times(3)).findAllByCoveredOnIn(anyCollection());
+    }
+
+    @Test
+    void shouldInsertTracksOneByOneIfBatchFails() throws IOException {
+        when(trackRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(trackRepository.save(any(TrackEntity.class))).thenAnswer(invocation -> {
+            final TrackEntity track = invocation.getArgument(0);
+            if ("b".equals(track.getName())) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return assignId(track);
+        });
+
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.gpx", resource("/test.gpx"));
+        entries.put("b.gpx", resource("/test.gpx"));
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(zip(entries), TrackEntity.Type.biking);
+
+        assertThat(report.getEntries())
+                .extracting(ImportReport.Entry::file, ImportReport.Entry::status)
+                .containsExactly(tuple("a.gpx", Status.imported), tuple("b.gpx", Status.skipped));
+        assertThat(savedTracks).extracting(TrackEntity::getName).containsExactly("a");
+    }
+
+    @Test
+    void shouldUseDateOfEntryIfFileHasNoTimes() throws IOException {
+        final String gpx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <gpx version="1.1" creator="test" xmlns="http://www.topografix.com/GPX/1/1">
+                  <metadata><time>2020-01-01T00:00:00Z</time></metadata>
+                  <trk><trkseg><trkpt lat="50.1" lon="8.2"/></trkseg></trk>
+                </gpx>
+                """;
+        final LocalDate lastModified = LocalDate.of(2015, 6, 1);
+
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            final ZipEntry entry = new ZipEntry("without-times.gpx");
+            entry.setLastModifiedTime(FileTime.from(lastModified.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant()));
+            zip.putNextEntry(entry);
+            zip.write(gpx.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(new ByteArrayInputStream(archive.toByteArray()), TrackEntity.Type.biking);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(savedTracks).extracting(TrackEntity::getCoveredOn).containsExactly(lastModified);
+    }
+
+    @Test
+    void shouldRejectLargeEntries() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("large.tcx", resource("/test.tcx"));
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 1024);
+        final ImportReport report = trackImport.importArchive(zip(entries), TrackEntity.Type.biking);
+
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getEntries().get(0).message()).isEqualTo("File is larger than 1024 bytes");
+        assertThat(savedTracks).isEmpty();
+    }
+
+    @Test
+    void shouldReportInvalidArchives() throws IOException {
+        final byte[] archive = zip(Map.of("test.gpx", resource("/test.gpx"))).readAllBytes();
+        // Cut off the archive in the middle of the entry
+        final InputStream truncated = new ByteArrayInputStream(archive, 0, archive.length / 2);
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(truncated, TrackEntity.Type.biking);
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getEntries().get(0).message()).startsWith("Invalid archive");
+    }
+
+    @Test
+    void shouldDiscardStagedFilesIfArchiveCannotBeRead() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a.gpx", resource("/test.gpx"));
+        entries.put("b.gpx", resource("/test.gpx"));
+        final byte[] archive = zip(entries).readAllBytes();
+        // Fail while reading the second entry, after the first one has been converted
+        final InputStream failing = new FilterInputStream(new ByteArrayInputStream(archive, 0, archive.length * 3 / 4)) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int read = super.read(b, off, len);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        assertThatIOException().isThrownBy(() -> trackImport.importArchive(failing, TrackEntity.Type.biking)).withMessage("Connection reset");
+
+        assertThat(savedTracks).isEmpty();
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TRACK_DIRECTORY).listFiles(AtomicFiles::isTemporary)).isEmpty();
+    }
+
+    @Test
+    void shouldDiscardTracksWhoseFilesCannotBeStored() throws IOException {
+        // The converted files are staged in the directory of the area but cannot be moved into the shard of the track
+        FileSystemUtils.deleteRecursively(new Datastore(datastoreBaseDirectory).getFile(Datastore.Area.TRACKS, "4711.gpx").getParentFile());
+
+        final TrackImport trackImport = new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 100, 5 * 1024 * 1024);
+        final ImportReport report = trackImport.importArchive(zip(Map.of("test.gpx", resource("/test.gpx"))), TrackEntity.Type.biking);
+
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getEntries().get(0).message()).isEqualTo("Could not store track");
+        verify(trackRepository).delete(savedTracks.get(0));
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TRACK_DIRECTORY).listFiles(AtomicFiles::isTemporary)).isEmpty();
+    }
+
+    private byte[] resource(final String name) throws IOException {
+        try (InputStream in = this.getClass().getResourceAsStream(name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    static InputStream zip(final Map<String, byte[]> entries) throws IOException {
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            for (var entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                if (entry.getValue() != null) {
+                    zip.write(entry.getValue());
+                }
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(archive.toByteArray());
+    }
+}
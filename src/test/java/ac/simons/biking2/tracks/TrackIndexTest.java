@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackIndexTest {
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final TrackIndex trackIndex = new TrackIndex(trackRepository, eventPublisher);
+
+    @Test
+    void shouldLoadTracksOnFirstUse() {
+        when(trackRepository.findAllByMinlatIsNotNull()).thenReturn(List.of(newTrack(1, 8.2, 49.9), newTrack(2, 8.5, 50.0)));
+        // Changes before the application is ready load the index
+        trackIndex.add(newTrack(3, 8.3, 49.9));
+        trackIndex.remove(2);
+
+        trackIndex.onApplicationReady();
+        assertThat(trackIndex.size()).isEqualTo(2);
+        assertThat(trackIndex.query(8.0, 49.5, 9.0, 50.5)).containsExactlyInAnyOrder(1, 3);
+        verify(trackRepository, times(1)).findAllByMinlatIsNotNull();
+    }
+
+    @Test
+    void shouldAddUpdateAndRemoveTracks() {
+        when(trackRepository.findAllByMinlatIsNotNull()).thenReturn(List.of(newTrack(1, 8.2, 49.9), newTrack(2, 8.5, 50.0)));
+        trackIndex.onApplicationReady();
+
+        trackIndex.add(newTrack(3, 8.3, 49.9));
+        trackIndex.add(new TrackEntity("without bounds", LocalDate.now()));
+        final TrackEntity withoutId = newTrack(4, 8.3, 49.9);
+        ReflectionTestUtils.setField(withoutId, "id", null);
+        trackIndex.add(withoutId);
+        assertThat(trackIndex.query(8.0, 49.5, 9.0, 50.5)).containsExactlyInAnyOrder(1, 2, 3);
+
+        // Moving tracks away
+        trackIndex.add(newTrack(1, 13.4, 52.5));
+        trackIndex.add(newTrack(3, 13.4, 52.5));
+        assertThat(trackIndex.query(8.0, 49.5, 9.0, 50.5)).containsExactly(2);
+        assertThat(trackIndex.query(13.0, 52.0, 14.0, 53.0)).containsExactlyInAnyOrder(1, 3);
+
+        trackIndex.remove(3);
+        trackIndex.remove(2);
+        trackIndex.remove(2);
+        trackIndex.remove(null);
+        assertThat(trackIndex.query(-180, -90, 180, 90)).containsExactly(1);
+        assertThat(trackIndex.size()).isEqualTo(1);
+
+        // Each area a track left or entered has changed
+        final InOrder inOrder = inOrder(eventPublisher);
+        inOrder.verify(eventPublisher).publishEvent(bounds(8.3, 49.9));
+        inOrder.verify(eventPublisher).publishEvent(bounds(8.2, 49.9));
+        inOrder.verify(eventPublisher).publishEvent(bounds(13.4, 52.5));
+        inOrder.verify(eventPublisher).publishEvent(bounds(8.3, 49.9));
+        inOrder.verify(eventPublisher, times(2)).publishEvent(bounds(13.4, 52.5));
+        inOrder.verify(eventPublisher).publishEvent(bounds(8.5, 50.0));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRebuildAfterManyChanges() {
+        when(trackRepository.findAllByMinlatIsNotNull()).thenReturn(List.of());
+        trackIndex.onApplicationReady();
+
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < TrackIndex.MAX_PENDING_CHANGES * 2; ++i) {
+            trackIndex.add(newTrack(i, -170.0 + i * 0.5, 0.0));
+            expected.add(i);
+        }
+        for (int i = 0; i < TrackIndex.MAX_PENDING_CHANGES * 2; i += 2) {
+            trackIndex.remove(i);
+            expected.remove(Integer.valueOf(i));
+        }
+        assertThat(trackIndex.size()).isEqualTo(TrackIndex.MAX_PENDING_CHANGES);
+        assertThat(trackIndex.query(-180, -90, 180, 90)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(trackIndex.query(-170.0, -1.0, -169.0, 1.0)).containsExactlyInAnyOrder(1);
+    }
+
+    @Test
+    void shouldQueryAcrossTheAntimeridian() {
+        when(trackRepository.findAllByMinlatIsNotNull()).thenReturn(List.of(
+                newTrack(1, 179.5, -17.0), newTrack(2, -179.8, -17.0), newTrack(3, 0.0, -17.0), newTrack(4, -180.0, -17.0)
+        ));
+
+        assertThat(trackIndex.query(179.0, -20.0, -179.0, -10.0)).containsExactlyInAnyOrder(1, 2, 4);
+        assertThat(trackIndex.query(-1.0, -20.0, 1.0, -10.0)).containsExactly(3);
+    }
+
+    private static TrackIndex.BoundsChangedEvent bounds(final double lon, final double lat) {
+        return new TrackIndex.BoundsChangedEvent(lon, lat, lon + 0.2, lat + 0.2);
+    }
+
+    private static TrackEntity newTrack(final int id, final double lon, final double lat) {
+        final TrackEntity track = new TrackEntity("track " + id, LocalDate.of(2026, 10, 17));
+        ReflectionTestUtils.setField(track, "id", id);
+        track.setMinlon(BigDecimal.valueOf(lon));
+        track.setMinlat(BigDecimal.valueOf(lat));
+        track.setMaxlon(BigDecimal.valueOf(lon + 0.2));
+        track.setMaxlat(BigDecimal.valueOf(lat + 0.2));
+        return track;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.ExecutorConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackIngestionTest {
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    private final TrackIndex trackIndex = mock(TrackIndex.class);
+
+    private final List<Runnable> queuedIngestions = new ArrayList<>();
+
+    private TrackIngestion trackIngestion;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private Datastore datastore;
+
+    @BeforeEach
+    void prepareDatastore() {
+        datastore = new Datastore(datastoreBaseDirectory);
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldIngestTracksAsynchronously() throws Exception {
+        final TrackEntity track = newTrack("tcx", "gpx");
+        when(trackRepository.save(track)).thenReturn(track);
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, queuedIngestions::add);
+
+        try (InputStream tcx = this.getClass().getResourceAsStream("/test.tcx")) {
+            trackIngestion.storeUpload(track, tcx);
+        }
+        final IngestionJob job = trackIngestion.submit(track);
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.queued);
+        assertThat(trackIngestion.getJob(job.getId())).containsSame(job);
+        verify(trackRepository, never()).save(any(TrackEntity.class));
+
+        queuedIngestions.forEach(Runnable::run);
+
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.completed);
+        assertThat(job.getTrack()).isSameAs(track);
+        verify(track).setMinlat(argThat(value -> value.compareTo(new BigDecimal("50.162284")) == 0));
+        verify(track).setDistance(argThat(value -> value.signum() > 0));
+        assertThat(track.getTrackFile(datastore, "gpx")).isFile();
+        assertThat(track.getTrackFile(datastore, TrackPolylines.FORMAT)).isFile();
+        assertThat(track.getTrackFile(datastore, TrackPoints.FORMAT)).isFile();
+        assertThat(track.getTrackFile(datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT)).isFile();
+        verify(trackRepository).save(track);
+        verify(trackIndex).add(track);
+    }
+
+    @Test
+    void shouldDiscardInvalidTracks() throws Exception {
+        final TrackEntity track = newTrack("tcx", "gpx");
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, Runnable::run);
+
+        trackIngestion.storeUpload(track, new ByteArrayInputStream("<foo/>".getBytes()));
+        final IngestionJob job = trackIngestion.submit(track);
+
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.failed);
+        assertThat(job.getMessage()).startsWith("Invalid track data: Not a TCX file");
+        assertThat(job.getTrack()).isNull();
+        assertThat(track.getTrackFile(datastore, "tcx")).doesNotExist();
+        assertThat(track.getTrackFile(datastore, "gpx")).doesNotExist();
+        verify(trackRepository).delete(track);
+    }
+
+    @Test
+    void shouldLimitWaitingIngestions() throws Exception {
+        final TrackEntity blocking = newTrack("tcx", "gpx");
+        final TrackEntity waiting = newTrack("tcx2", "gpx2");
+        final TrackEntity rejected = newTrack("tcx3", "gpx3");
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(trackRepository.save(any(TrackEntity.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        executor = new ExecutorConfig().trackIngestionExecutor(1, 1);
+        executor.initialize();
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, executor);
+
+        for (var track : List.of(blocking, waiting, rejected)) {
+            try (InputStream tcx = this.getClass().getResourceAsStream("/test.tcx")) {
+                trackIngestion.storeUpload(track, tcx);
+            }
+        }
+        final IngestionJob first = trackIngestion.submit(blocking);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        final IngestionJob second = trackIngestion.submit(waiting);
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> trackIngestion.submit(rejected));
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(first.getStatus()).isIn(IngestionJob.Status.running, IngestionJob.Status.completed);
+        assertThat(second.getStatus()).isNotEqualTo(IngestionJob.Status.failed);
+    }
+
+    @Test
+    void shouldResumeInterruptedIngestions() throws Exception {
+        final TrackEntity interrupted = newTrack("tcx", "gpx");
+        final TrackEntity withoutFile = newTrack("tcx2", "gpx2");
+        try (InputStream tcx = this.getClass().getResourceAsStream("/test.tcx")) {
+            Files.copy(tcx, interrupted.getTrackFile(datastore, "tcx").toPath());
+        }
+        when(trackRepository.findAllByMinlatIsNull()).thenReturn(List.of(interrupted, withoutFile));
+        when(trackRepository.save(interrupted)).thenReturn(interrupted);
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, Runnable::run);
+
+        trackIngestion.resumeInterruptedIngestions();
+
+        verify(trackRepository).save(interrupted);
+        verify(trackRepository, never()).save(withoutFile);
+        verify(trackRepository, never()).delete(any(TrackEntity.class));
+        verify(interrupted).setMinlat(any());
+    }
+
+    @Test
+    void shouldHandleIOExceptionsGracefully() {
+        final TrackEntity track = Mockito.mock(TrackEntity.class);
+        // return a directory so that the upload cannot be stored
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(this.datastoreBaseDirectory);
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, Runnable::run);
+
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> trackIngestion.storeUpload(track, new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void shouldHandleXMLExceptionsGracefully() throws Exception {
+        final TrackEntity track = newTrack("tcx", "gpx");
+        trackIngestion = new TrackIngestion(trackRepository, trackIndex, datastore, Runnable::run);
+
+        trackIngestion.storeUpload(track, new ByteArrayInputStream(new byte[0]));
+        assertThatExceptionOfType(XMLStreamException.class)
+                .isThrownBy(() -> trackIngestion.convert(track));
+    }
+
+    private TrackEntity newTrack(final String tcx, final String gpx) {
+        final TrackEntity track = Mockito.mock(TrackEntity.class);
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(new File(this.datastoreBaseDirectory, tcx));
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(new File(this.datastoreBaseDirectory, gpx));
+        when(track.getTrackFile(this.datastore, TrackPolylines.FORMAT)).thenReturn(new File(this.datastoreBaseDirectory, gpx + ".polylines"));
+        when(track.getTrackFile(this.datastore, TrackPoints.FORMAT)).thenReturn(new File(this.datastoreBaseDirectory, gpx + ".points"));
+        when(track.getTrackFile(this.datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT)).thenReturn(new File(this.datastoreBaseDirectory, gpx + ".gz"));
+        return track;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.ExecutorConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackMetricsBackfillTest {
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    private Datastore datastore;
+
+    @BeforeEach
+    void prepareDatastore() {
+        datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+    }
+
+    @Test
+    void shouldMeasureTracksInBatches() throws Exception {
+        final TrackEntity track1 = newTrack(1);
+        final TrackEntity track2 = newTrack(2);
+        final TrackEntity withoutFile = newTrack(3);
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), track1.getTrackFile(datastore, "gpx").toPath());
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), track2.getTrackFile(datastore, "gpx").toPath());
+        when(trackRepository.findAllByMinlatIsNotNullAndDistanceIsNull()).thenReturn(List.of(track1, withoutFile, track2));
+        when(trackRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        final TrackMetricsBackfill backfill = new TrackMetricsBackfill(trackRepository, datastore, Runnable::run, 2);
+        assertThat(backfill.backfill().join()).isEqualTo(2);
+
+        verify(trackRepository).saveAll(List.of(track1));
+        verify(trackRepository).saveAll(List.of(track2));
+        assertThat(track1.getDistance()).isPositive();
+        assertThat(track2.getMovingTime()).isPositive();
+        assertThat(withoutFile.getDistance()).isNull();
+        assertThat(track1.getTrackFile(datastore, TrackPoints.FORMAT)).isFile();
+    }
+
+    @Test
+    void shouldSkipTracksThatCannotBeMeasured() throws Exception {
+        final TrackEntity invalid = newTrack(1);
+        Files.write(invalid.getTrackFile(datastore, TrackPoints.FORMAT).toPath(), new byte[] {1, 2, 3});
+        final TrackEntity valid = newTrack(2);
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), valid.getTrackFile(datastore, "gpx").toPath());
+        when(trackRepository.findAllByMinlatIsNotNullAndDistanceIsNull()).thenReturn(List.of(invalid, valid));
+        when(trackRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("gone"));
+
+        final ThreadPoolTaskExecutor executor = new ExecutorConfig().trackMetricsExecutor(1);
+        executor.initialize();
+        final TrackMetricsBackfill backfill = new TrackMetricsBackfill(trackRepository, datastore, executor, 10);
+        try {
+            backfill.onApplicationReady();
+            verify(trackRepository, timeout(5000)).saveAll(List.of(valid));
+            assertThat(invalid.getDistance()).isNull();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldDoNothingWithoutTracks() {
+        when(trackRepository.findAllByMinlatIsNotNullAndDistanceIsNull()).thenReturn(List.of());
+
+        final TrackMetricsBackfill backfill = new TrackMetricsBackfill(trackRepository, datastore, Runnable::run, 2);
+        assertThat(backfill.backfill().join()).isZero();
+        verify(trackRepository, never()).saveAll(anyList());
+    }
+
+    private static TrackEntity newTrack(final int id) {
+        final TrackEntity track = new TrackEntity("track " + id, LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(track, "id", id);
+        track.setMinlat(new BigDecimal("50.162284"));
+        return track;
+    }
+}
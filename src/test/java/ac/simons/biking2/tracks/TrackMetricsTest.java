@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackMetricsTest {
+
+    private static final double METERS_PER_MILLIDEGREE = 111.19508;
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void haversineShouldWork() {
+        assertThat(TrackMetrics.haversine(50, 8, 51, 8)).isCloseTo(1000 * METERS_PER_MILLIDEGREE, within(0.01));
+        assertThat(TrackMetrics.haversine(0, 0, 0, 180)).isCloseTo(Math.PI * TrackMetrics.EARTH_RADIUS, within(0.01));
+        assertThat(TrackMetrics.haversine(50, 8, 50, 8)).isZero();
+    }
+
+    @Test
+    void shouldMeasureAllSegments() {
+        final List<TrackSegment> segments = List.of(
+                // North with 0.001 degrees per 10 seconds, a pause of a minute, and north again
+                new TrackSegment(
+                        new double[] {0, 0.001, 0.002, 0.003, 0.003, 0.004},
+                        new double[] {0, 0, 0, 0, 0, 0},
+                        new double[] {100, 102, 108, 104, 96, 99},
+                        new long[] {0, 10_000, 20_000, 30_000, 90_000, 100_000}
+                ),
+                // Without time and elevation, not connected to the previous segment
+                new TrackSegment(new double[] {1, 1.001}, new double[] {1, 1}, new double[] {Double.NaN, Double.NaN}, new long[] {TrackSegment.NO_TIME, TrackSegment.NO_TIME})
+        );
+
+        final TrackMetrics metrics = TrackMetrics.of(segments);
+        assertThat(metrics.distance()).isCloseTo(5 * METERS_PER_MILLIDEGREE, within(0.01));
+        assertThat(metrics.ascent()).isEqualTo(8.0);
+        assertThat(metrics.descent()).isEqualTo(12.0);
+        assertThat(metrics.elapsedTime()).isEqualTo(100_000L);
+        assertThat(metrics.movingTime()).isEqualTo(40_000L);
+        assertThat(metrics.maxSpeed()).isCloseTo(METERS_PER_MILLIDEGREE / 10.0, within(0.001));
+
+        final TrackEntity track = new TrackEntity("test", LocalDate.now());
+        metrics.applyTo(track);
+        assertThat(track.getDistance()).isEqualByComparingTo(new BigDecimal("0.56"));
+        assertThat(track.getAscent()).isEqualByComparingTo(new BigDecimal("8.0"));
+        assertThat(track.getDescent()).isEqualByComparingTo(new BigDecimal("12.0"));
+        assertThat(track.getElapsedTime()).isEqualTo(100);
+        assertThat(track.getMovingTime()).isEqualTo(40);
+        assertThat(track.getMaxSpeed()).isEqualByComparingTo(new BigDecimal("40.03"));
+    }
+
+    @Test
+    void shouldAverageMaxSpeedOverDenseRecordings() {
+        // 10 points per second, steadily north with 0.001 degrees per 10 seconds but one jump of 0.001 degrees forth and back
+        final int n = 500;
+        final double[] latitudes = new double[n];
+        final long[] times = new long[n];
+        for (int i = 0; i < n; ++i) {
+            latitudes[i] = i * 0.00001;
+            times[i] = i * 100L;
+        }
+        latitudes[250] += 0.001;
+        final double[] elevations = new double[n];
+        Arrays.fill(elevations, Double.NaN);
+
+        final TrackMetrics metrics = TrackMetrics.of(List.of(new TrackSegment(latitudes, new double[n], elevations, times)));
+        assertThat(metrics.distance()).isCloseTo((n - 1 + 198) * METERS_PER_MILLIDEGREE / 100.0, within(0.01));
+        assertThat(metrics.maxSpeed()).isCloseTo(2.98 * METERS_PER_MILLIDEGREE / 10.0, within(0.01));
+        assertThat(metrics.movingTime()).isEqualTo(metrics.elapsedTime());
+    }
+
+    @Test
+    void shouldNotMeasureTimesWithoutTimes() {
+        final TrackMetrics metrics = TrackMetrics.of(List.of(
+                new TrackSegment(new double[] {0, 0.001}, new double[] {0, 0}, new double[] {1, 2}, new long[] {TrackSegment.NO_TIME, TrackSegment.NO_TIME})
+        ));
+        assertThat(metrics.distance()).isCloseTo(METERS_PER_MILLIDEGREE, within(0.01));
+        assertThat(metrics.ascent()).isZero();
+        assertThat(metrics.elapsedTime()).isNull();
+        assertThat(metrics.movingTime()).isNull();
+        assertThat(metrics.maxSpeed()).isNull();
+
+        final TrackEntity track = new TrackEntity("test", LocalDate.now());
+        metrics.applyTo(track);
+        assertThat(track.getElapsedTime()).isNull();
+        assertThat(track.getMaxSpeed()).isNull();
+        assertThat(TrackMetrics.of(List.of()).distance()).isZero();
+    }
+
+    @Test
+    void shouldMeasureSegmentsAndPointFilesAlike() throws Exception {
+        final List<TrackSegment> segments;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            segments = new TrackSegmentsReader().read(gpx);
+        }
+        final File file = new File(tempDir, "test.points");
+        TrackPoints.write(segments, file);
+
+        final TrackMetrics metrics = TrackMetrics.of(segments);
+        assertThat(metrics.distance()).isBetween(59_000.0, 60_000.0);
+        assertThat(metrics.ascent()).isBetween(900.0, 950.0);
+        assertThat(metrics.elapsedTime()).isEqualTo(19_627_000L);
+        assertThat(metrics.movingTime()).isBetween(3 * 3_600_000L, 4 * 3_600_000L);
+        assertThat(metrics.maxSpeed()).isBetween(10.0, 15.0);
+
+        final TrackMetrics fromFile = TrackMetrics.of(TrackPoints.open(file));
+        assertThat(fromFile.distance()).isCloseTo(metrics.distance(), within(1.0));
+        assertThat(fromFile.ascent()).isCloseTo(metrics.ascent(), within(1.0));
+        assertThat(fromFile.elapsedTime()).isEqualTo(metrics.elapsedTime());
+        assertThat(fromFile.movingTime()).isEqualTo(metrics.movingTime());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackPointsTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void shouldWriteAndReadAllPoints() throws Exception {
+        final List<TrackSegment> segments;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            segments = new TrackSegmentsReader().read(gpx);
+        }
+        final File file = new File(tempDir, "test.points");
+        TrackPoints.write(segments, file);
+
+        final TrackPoints points = TrackPoints.open(file);
+        assertThat(file.length()).isEqualTo(24 + 4 + 1668 * TrackPoints.POINT_SIZE);
+        assertThat(points.size()).isEqualTo(1668);
+        assertThat(points.segmentCount()).isEqualTo(1);
+        assertThat(points.segmentStart(0)).isZero();
+        assertThat(points.segmentEnd(0)).isEqualTo(1668);
+        assertThat(points.latitude(0)).isCloseTo(50.166204, within(1e-7));
+        assertThat(points.longitude(0)).isCloseTo(8.682889, within(1e-7));
+        assertThat(points.elevation(0)).isCloseTo(131.691, within(1e-4));
+        assertThat(points.hasTime(0)).isTrue();
+        assertThat(points.time(0)).isEqualTo(Instant.parse("2009-04-19T08:32:39Z").toEpochMilli());
+        assertThat(points.time(1) - points.time(0)).isEqualTo(4000);
+
+        final TrackSegment segment = segments.get(0);
+        for (int i = 0; i < points.size(); ++i) {
+            assertThat(points.latitude(i)).isCloseTo(segment.latitudes()[i], within(1e-7));
+            assertThat(points.longitude(i)).isCloseTo(segment.longitudes()[i], within(1e-7));
+            assertThat(points.time(i)).isEqualTo(segment.times()[i]);
+        }
+    }
+
+    @Test
+    void shouldHandleMissingValuesAndSegments() throws Exception {
+        final long[] noTimes = new long[2];
+        Arrays.fill(noTimes, TrackSegment.NO_TIME);
+        final List<TrackSegment> segments = List.of(
+                new TrackSegment(new double[] {1, 2}, new double[] {3, 4}, new double[] {Double.NaN, 5}, noTimes),
+                new TrackSegment(new double[] {-6}, new double[] {-7}, new double[] {8}, new long[] {1000L})
+        );
+        final File file = new File(tempDir, "test.points");
+        TrackPoints.write(segments, file);
+
+        final TrackPoints points = TrackPoints.open(file);
+        assertThat(points.size()).isEqualTo(3);
+        assertThat(points.segmentCount()).isEqualTo(2);
+        assertThat(points.segmentEnd(0)).isEqualTo(2);
+        assertThat(points.segmentStart(1)).isEqualTo(2);
+        assertThat(points.segmentEnd(1)).isEqualTo(3);
+        assertThat(points.elevation(0)).isNaN();
+        assertThat(points.elevation(1)).isEqualTo(5.0);
+        assertThat(points.hasTime(0)).isFalse();
+        assertThat(points.time(0)).isEqualTo(TrackSegment.NO_TIME);
+        assertThat(points.time(2)).isEqualTo(1000L);
+        assertThat(points.latitude(2)).isEqualTo(-6.0);
+        assertThat(points.longitude(2)).isEqualTo(-7.0);
+    }
+
+    @Test
+    void shouldRejectInvalidFiles() throws Exception {
+        final File file = new File(tempDir, "test.points");
+        Files.write(file.toPath(), new byte[30]);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> TrackPoints.open(file))
+                .withMessageStartingWith("Not a track points file");
+
+        TrackPoints.write(List.of(new TrackSegment(new double[] {1}, new double[] {2}, new double[] {3}, new long[] {4})), file);
+        final byte[] content = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length - 1));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> TrackPoints.open(file))
+                .withMessageStartingWith("Truncated track points file");
+    }
+
+    @Test
+    void shouldComputeMissingPoints() throws Exception {
+        final Datastore datastore = new Datastore(tempDir);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        final TrackEntity track = new TrackEntity("test", LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(track, "id", 4711);
+        final DerivedTrackFiles derivedTrackFiles = new DerivedTrackFiles(datastore);
+
+        assertThat(derivedTrackFiles.points(track)).isEmpty();
+
+        track.setMinlat(new BigDecimal("50.162284"));
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), track.getTrackFile(datastore, "gpx").toPath());
+        assertThat(derivedTrackFiles.points(track)).hasValueSatisfying(points -> assertThat(points.size()).isEqualTo(1668));
+        assertThat(track.getTrackFile(datastore, TrackPoints.FORMAT)).isFile();
+
+        derivedTrackFiles.delete(track);
+        assertThat(track.getTrackFile(datastore, TrackPoints.FORMAT)).doesNotExist();
+        assertThat(track.getTrackFile(datastore, "gpx")).isFile();
+    }
+}
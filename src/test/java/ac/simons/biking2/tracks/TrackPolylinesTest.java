@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.tracks.gpx.TrackSegment;
+import ac.simons.biking2.tracks.gpx.TrackSegmentsReader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackPolylinesTest {
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private Datastore datastore;
+
+    private TrackEntity track;
+
+    private List<TrackSegment> segments;
+
+    @BeforeEach
+    void prepareTrack() throws Exception {
+        datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        track = new TrackEntity("test", LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(track, "id", 4711);
+        track.setMinlat(new BigDecimal("50.162284"));
+        track.setMinlon(new BigDecimal("8.452548"));
+        track.setMaxlat(new BigDecimal("50.272238"));
+        track.setMaxlon(new BigDecimal("8.698715"));
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            segments = new TrackSegmentsReader().read(gpx);
+        }
+    }
+
+    @Test
+    void shouldSimplifyWithAllTolerances() {
+        final List<TrackPolylines.Polyline> levels = TrackPolylines.simplify(segments);
+
+        assertThat(levels).extracting(TrackPolylines.Polyline::tolerance)
+                .containsExactly(0.01024, 0.00256, 0.00064, 0.00016, 0.00004, 0.00001);
+        int previousSize = 0;
+        for (var level : levels) {
+            assertThat(level.segments()).hasSize(1);
+            final int size = EncodedPolyline.decode(level.segments().get(0)).size();
+            assertThat(size).isGreaterThanOrEqualTo(previousSize);
+            previousSize = size;
+        }
+        assertThat(previousSize).isLessThan(segments.get(0).size());
+    }
+
+    @Test
+    void simplifiedTracksShouldStayWithinTolerance() {
+        final TrackSegment segment = segments.get(0);
+        final double scale = Math.cos(Math.toRadians((50.162284 + 50.272238) / 2.0));
+        for (var level : TrackPolylines.simplify(segments)) {
+            final List<double[]> kept = EncodedPolyline.decode(level.segments().get(0));
+            // Start and end are always kept
+            assertThat(kept.get(0)[0]).isCloseTo(segment.latitudes()[0], within(0.00001));
+            assertThat(kept.get(kept.size() - 1)[1]).isCloseTo(segment.longitudes()[segment.size() - 1], within(0.00001));
+
+            for (int i = 0; i < segment.size(); ++i) {
+                double distance = Double.POSITIVE_INFINITY;
+                for (int j = 1; j < kept.size(); ++j) {
+                    distance = Math.min(distance, DouglasPeucker.distanceToSegment(
+                            segment.longitudes()[i] * scale, segment.latitudes()[i],
+                            kept.get(j - 1)[1] * scale, kept.get(j - 1)[0],
+                            kept.get(j)[1] * scale, kept.get(j)[0]));
+                }
+                // Allow for the rounding of the encoding
+                assertThat(distance).isLessThanOrEqualTo(level.tolerance() + 0.00001);
+            }
+        }
+    }
+
+    @Test
+    void shouldSelectLevelBySizeOfMap() throws Exception {
+        final TrackPolylines trackPolylines = new TrackPolylines(datastore);
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            trackPolylines.store(track, gpx);
+        }
+
+        // The track is about 0.16 degrees of latitude wide, so a pixel is a bit less than the tolerance of 0.00016
+        assertThat(TrackPolylines.selectTolerance(track, 1000, 1000)).isBetween(0.00015, 0.00016);
+        assertThat(trackPolylines.get(track, 1000, 1000)).map(TrackPolylines.Polyline::tolerance).hasValue(0.00004);
+        assertThat(trackPolylines.get(track, 100, 100)).map(TrackPolylines.Polyline::tolerance).hasValue(0.00064);
+        assertThat(trackPolylines.get(track, 100_000, 100_000)).map(TrackPolylines.Polyline::tolerance).hasValue(0.00001);
+        assertThat(trackPolylines.get(track, 1, 1)).map(TrackPolylines.Polyline::tolerance).hasValue(0.01024);
+    }
+
+    @Test
+    void shouldComputeMissingLevels() throws Exception {
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), track.getTrackFile(datastore, "gpx").toPath());
+        final TrackPolylines trackPolylines = new TrackPolylines(datastore);
+
+        final Optional<TrackPolylines.Polyline> polyline = trackPolylines.get(track, 640, 480);
+
+        assertThat(polyline).isPresent();
+        assertThat(track.getTrackFile(datastore, TrackPolylines.FORMAT)).isFile();
+        assertThat(track.getTrackFile(datastore, TrackPolylines.FORMAT).getParentFile().list()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotServeTracksWithoutData() throws Exception {
+        final TrackPolylines trackPolylines = new TrackPolylines(datastore);
+
+        assertThat(trackPolylines.get(track, 640, 480)).isEmpty();
+        assertThat(trackPolylines.get(new TrackEntity("not ingested", LocalDate.now()), 640, 480)).isEmpty();
+    }
+}
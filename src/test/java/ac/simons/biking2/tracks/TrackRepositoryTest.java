@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.skip-default-callbacks=true")
+@ActiveProfiles("test")
+class TrackRepositoryTest {
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Test
+    void keysetPaginationShouldVisitAllTracksInOrder() {
+        for (int i = 0; i < 23; ++i) {
+            this.trackRepository.save(new TrackEntity("track " + i, LocalDate.of(2020, 1, 1).minusDays(i % 5)));
+        }
+
+        final List<TrackEntity> visited = new ArrayList<>();
+        List<TrackEntity> page = this.trackRepository.findAllByOrderByCoveredOnAscIdAsc(Limit.of(5));
+        while (!page.isEmpty()) {
+            assertThat(page).hasSizeLessThanOrEqualTo(5);
+            visited.addAll(page);
+            final TrackEntity last = page.get(page.size() - 1);
+            page = this.trackRepository.findAllAfter(last.getCoveredOn(), last.getId(), Limit.of(5));
+        }
+
+        assertThat(visited).containsExactlyElementsOf(this.trackRepository.findAll(Sort.by("coveredOn", "id")));
+    }
+
+    @Test
+    void shouldFindAllIds() {
+        final TrackEntity track1 = this.trackRepository.save(new TrackEntity("track 1", LocalDate.of(2020, 1, 1)));
+        final TrackEntity track2 = this.trackRepository.save(new TrackEntity("track 2", LocalDate.of(2020, 1, 2)));
+
+        assertThat(this.trackRepository.findAllIds()).contains(track1.getId(), track2.getId());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jooq.AutoConfigureJooq;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+@DataJpaTest
+@AutoConfigureJooq
+@TestPropertySource(properties = "spring.flyway.skip-default-callbacks=true")
+@ActiveProfiles("test")
+class TrackStreamTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Autowired
+    private DSLContext database;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldWriteOneTrackPerLine() throws Exception {
+        final List<TrackEntity> tracks = new ArrayList<>();
+        IntStream.range(0, TrackStream.FETCH_SIZE + 5).forEach(i -> {
+            final TrackEntity track = new TrackEntity("track " + i, LocalDate.of(2020, 1, 1).plusDays(i % 7));
+            track.setType(TrackEntity.Type.running);
+            track.setMinlat(new BigDecimal("50.1"));
+            track.setDistance(new BigDecimal("12.34"));
+            track.setMovingTime(4711);
+            tracks.add(this.trackRepository.save(track));
+        });
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TrackStream(this.database, this.objectMapper).writeTo(out);
+
+        final List<String> expected = new ArrayList<>();
+        for (var track : this.trackRepository.findAllByOrderByCoveredOnAscIdAsc(Limit.unlimited())) {
+            expected.add(this.objectMapper.writeValueAsString(track));
+        }
+        assertThat(expected).hasSize(tracks.size());
+        final String content = out.toString(StandardCharsets.UTF_8);
+        assertThat(content).endsWith("\n");
+        assertThat(content.lines().toList()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldWriteNothingWithoutTracks() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TrackStream(this.database, this.objectMapper).writeTo(out);
+        assertThat(out.size()).isZero();
+    }
+}
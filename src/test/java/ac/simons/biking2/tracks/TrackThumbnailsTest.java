@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.tracks.gpx.Bounds;
+import ac.simons.biking2.tracks.gpx.BoundsReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackThumbnailsTest {
+
+    private static final int BACKGROUND = 0xF5F5F5;
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    @Test
+    void sizesShouldBeValidated() {
+        assertThat(TrackThumbnails.isValidSize(16, 1024)).isTrue();
+        assertThat(TrackThumbnails.isValidSize(15, 100)).isFalse();
+        assertThat(TrackThumbnails.isValidSize(100, 1025)).isFalse();
+    }
+
+    @Test
+    void sizesShouldBeRoundedUp() {
+        assertThat(TrackThumbnails.roundUp(16)).isEqualTo(64);
+        assertThat(TrackThumbnails.roundUp(64)).isEqualTo(64);
+        assertThat(TrackThumbnails.roundUp(65)).isEqualTo(128);
+        assertThat(TrackThumbnails.roundUp(1000)).isEqualTo(1024);
+        assertThatIllegalArgumentException().isThrownBy(() -> TrackThumbnails.roundUp(1025));
+    }
+
+    @Test
+    void tracksShouldBeCenteredAndKeepTheirAspectRatio() {
+        // A track from south to north along the equator, 0.1 degrees high and no width
+        final TrackEntity track = new TrackEntity("test", LocalDate.of(2026, 10, 17));
+        track.setMinlat(BigDecimal.ZERO);
+        track.setMinlon(BigDecimal.ZERO);
+        track.setMaxlat(new BigDecimal("0.1"));
+        track.setMaxlon(BigDecimal.ZERO);
+        final String line = EncodedPolyline.encode(new double[] {0, 0.1}, new double[] {0, 0}, new int[] {0, 1});
+
+        final BufferedImage image = TrackThumbnails.render(track, new TrackPolylines.Polyline(0.0, List.of(line)), 200, 100);
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(100);
+        assertThat(image.getRGB(100, 50) & 0xFFFFFF).isNotEqualTo(BACKGROUND);
+        assertThat(image.getRGB(100, 10) & 0xFFFFFF).isNotEqualTo(BACKGROUND);
+        assertThat(image.getRGB(100, 90) & 0xFFFFFF).isNotEqualTo(BACKGROUND);
+        assertThat(image.getRGB(100, 0) & 0xFFFFFF).isEqualTo(BACKGROUND);
+        assertThat(image.getRGB(50, 50) & 0xFFFFFF).isEqualTo(BACKGROUND);
+        assertThat(image.getRGB(150, 50) & 0xFFFFFF).isEqualTo(BACKGROUND);
+    }
+
+    @Test
+    void thumbnailsShouldBeCachedUntilTheTrackIsDeleted() throws Exception {
+        final Datastore datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        final TrackEntity track = new TrackEntity("test", LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(track, "id", 42);
+        final TrackThumbnails thumbnails = new TrackThumbnails(datastore);
+        assertThat(thumbnails.get(track, 64, 64)).isEmpty();
+
+        final Bounds bounds;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            bounds = new BoundsReader().read(gpx).orElseThrow();
+        }
+        track.setMinlat(bounds.getMinlat());
+        track.setMinlon(bounds.getMinlon());
+        track.setMaxlat(bounds.getMaxlat());
+        track.setMaxlon(bounds.getMaxlon());
+        assertThat(thumbnails.get(track, 64, 64)).isEmpty();
+
+        final DerivedTrackFiles derivedTrackFiles = new DerivedTrackFiles(datastore);
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            derivedTrackFiles.store(track, gpx);
+        }
+        final File thumbnail = derivedTrackFiles.thumbnail(track, 200, 256).orElseThrow().getFile();
+        assertThat(thumbnail).isFile();
+        assertThat(thumbnail).isEqualTo(new File(datastoreBaseDirectory, DatastoreConfig.THUMBNAIL_CACHE_DIRECTORY + "/42/256x256.png"));
+        final BufferedImage image = ImageIO.read(thumbnail);
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(image.getHeight()).isEqualTo(256);
+
+        final Resource other = derivedTrackFiles.thumbnail(track, 320, 180).orElseThrow();
+        assertThat(other.getFile()).isEqualTo(new File(thumbnail.getParentFile(), "512x256.png"));
+        final BufferedImage otherImage = ImageIO.read(other.getInputStream());
+        assertThat(otherImage.getWidth()).isEqualTo(512);
+        assertThat(otherImage.getHeight()).isEqualTo(256);
+        assertThat(thumbnail.getParentFile().list()).containsExactlyInAnyOrder("256x256.png", "512x256.png");
+
+        final long lastModified = thumbnail.lastModified();
+        track.getTrackFile(datastore, TrackPolylines.FORMAT).delete();
+        assertThat(thumbnails.get(track, 256, 256).orElseThrow().getFile()).isEqualTo(thumbnail);
+        assertThat(thumbnail.lastModified()).isEqualTo(lastModified);
+
+        derivedTrackFiles.delete(track);
+        assertThat(thumbnail.getParentFile()).doesNotExist();
+        thumbnails.delete(track);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import ac.simons.biking2.config.Datastore;
+import ac.simons.biking2.config.DatastoreConfig;
+import ac.simons.biking2.tracks.gpx.Bounds;
+import ac.simons.biking2.tracks.gpx.BoundsReader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackTilesTest {
+
+    @TempDir
+    File datastoreBaseDirectory;
+
+    private Datastore datastore;
+
+    private final TrackRepository trackRepository = mock(TrackRepository.class);
+
+    private final TrackIndex trackIndex = new TrackIndex(trackRepository, mock(ApplicationEventPublisher.class));
+
+    private TrackEntity track;
+
+    /**
+     * The tile on zoom level 12 containing the start of the test track.
+     */
+    private TrackTiles.Tile tile;
+
+    @BeforeEach
+    void storeTrack() throws Exception {
+        datastore = new Datastore(datastoreBaseDirectory);
+        datastore.createDirectories(Datastore.Area.TRACKS);
+        track = new TrackEntity("test", LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(track, "id", 42);
+        final Bounds bounds;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            bounds = new BoundsReader().read(gpx).orElseThrow();
+        }
+        track.setMinlat(bounds.getMinlat());
+        track.setMinlon(bounds.getMinlon());
+        track.setMaxlat(bounds.getMaxlat());
+        track.setMaxlon(bounds.getMaxlon());
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            new DerivedTrackFiles(datastore).store(track, gpx);
+        }
+        when(trackRepository.findAllByMinlatIsNotNull()).thenReturn(List.of(track));
+        when(trackRepository.findAllById(anyIterable())).thenReturn(List.of(track));
+
+        tile = new TrackTiles.Tile(12, (int) (TrackTiles.worldX(8.682889) * 4096), (int) (TrackTiles.worldY(50.166204) * 4096));
+    }
+
+    @Test
+    void projectionShouldWork() {
+        assertThat(TrackTiles.worldX(-180)).isZero();
+        assertThat(TrackTiles.worldX(0)).isEqualTo(0.5);
+        assertThat(TrackTiles.worldY(0)).isCloseTo(0.5, within(1e-12));
+        assertThat(TrackTiles.worldY(90)).isCloseTo(0.0, within(1e-9));
+        assertThat(TrackTiles.worldY(-90)).isCloseTo(1.0, within(1e-9));
+        assertThat(tile).isEqualTo(new TrackTiles.Tile(12, 2146, 1386));
+    }
+
+    @Test
+    void tilesShouldBeValidated() {
+        assertThat(new TrackTiles.Tile(0, 0, 0).isValid()).isTrue();
+        assertThat(new TrackTiles.Tile(2, 3, 3).isValid()).isTrue();
+        assertThat(new TrackTiles.Tile(2, 4, 0).isValid()).isFalse();
+        assertThat(new TrackTiles.Tile(2, 0, -1).isValid()).isFalse();
+        assertThat(new TrackTiles.Tile(-1, 0, 0).isValid()).isFalse();
+        assertThat(new TrackTiles.Tile(TrackTiles.MAX_ZOOM + 1, 0, 0).isValid()).isFalse();
+    }
+
+    @Test
+    void linesShouldBeClippedToTheBuffer() {
+        // Tile 1/1/0 covers the north east of the world, the points are given as latitude and longitude
+        final TrackTiles.Tile northEast = new TrackTiles.Tile(1, 1, 0);
+        final List<int[]> lines = new ArrayList<>();
+        TrackTiles.clip(List.of(
+                new double[] {45, -90}, new double[] {45, 90}, new double[] {45, 90}, new double[] {0, 90}, new double[] {0, -45},
+                new double[] {-45, -45}, new double[] {-45, 45}, new double[] {45, 45}
+        ), northEast, lines);
+
+        // In from the west, down to the equator and out to the west along the equator, in again from the south
+        final int equator = VectorTile.EXTENT;
+        final int fortyFive = (int) Math.round((TrackTiles.worldY(45) * 2) * VectorTile.EXTENT);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).containsExactly(
+                -TrackTiles.BUFFER, fortyFive, VectorTile.EXTENT / 2, fortyFive, VectorTile.EXTENT / 2, equator, -TrackTiles.BUFFER, equator
+        );
+        assertThat(lines.get(1)).containsExactly(VectorTile.EXTENT / 4, equator + TrackTiles.BUFFER, VectorTile.EXTENT / 4, fortyFive);
+    }
+
+    @Test
+    void shouldRenderAndCacheTiles() {
+        final TrackTiles trackTiles = new TrackTiles(trackRepository, trackIndex, datastore, Runnable::run);
+        final byte[] content = trackTiles.get(tile).join();
+        assertThat(content).isNotEmpty();
+        final File cached = new File(datastoreBaseDirectory, DatastoreConfig.TILE_CACHE_DIRECTORY + "/12/2146/1386.mvt");
+        assertThat(cached).hasBinaryContent(content);
+
+        assertThat(trackTiles.get(tile).join()).isEqualTo(content);
+        verify(trackRepository, times(1)).findAllById(anyIterable());
+
+        // Tiles without tracks are empty
+        assertThat(trackTiles.get(new TrackTiles.Tile(12, 0, 0)).join()).isEmpty();
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TILE_CACHE_DIRECTORY + "/12/0/0.mvt")).exists();
+    }
+
+    @Test
+    void changedTracksShouldInvalidateTiles() throws Exception {
+        final TrackTiles trackTiles = new TrackTiles(trackRepository, trackIndex, datastore, Runnable::run);
+        final File cachedTiles = new File(datastoreBaseDirectory, DatastoreConfig.TILE_CACHE_DIRECTORY);
+        for (var cachedTile : List.of(new TrackTiles.Tile(0, 0, 0), tile, new TrackTiles.Tile(12, 0, 0), new TrackTiles.Tile(12, tile.x(), 0))) {
+            trackTiles.get(cachedTile).join();
+        }
+        Files.writeString(new File(cachedTiles, "12/2146/foo").toPath(), "bar");
+        assertThat(new File(cachedTiles, "0/0/0.mvt")).isFile();
+
+        trackTiles.onBoundsChanged(new TrackIndex.BoundsChangedEvent(
+                track.getMinlon().doubleValue(), track.getMinlat().doubleValue(), track.getMaxlon().doubleValue(), track.getMaxlat().doubleValue()
+        ));
+
+        assertThat(new File(cachedTiles, "0/0/0.mvt")).doesNotExist();
+        assertThat(new File(cachedTiles, "12/2146/1386.mvt")).doesNotExist();
+        assertThat(new File(cachedTiles, "12/0/0.mvt")).isFile();
+        assertThat(new File(cachedTiles, "12/2146/0.mvt")).isFile();
+        assertThat(new File(cachedTiles, "12/2146/foo")).isFile();
+    }
+
+    @Test
+    void concurrentRequestsShouldShareOneRendering() {
+        final List<Runnable> queued = new ArrayList<>();
+        final TrackTiles trackTiles = new TrackTiles(trackRepository, trackIndex, datastore, queued::add);
+
+        final CompletableFuture<byte[]> first = trackTiles.get(tile);
+        final CompletableFuture<byte[]> second = trackTiles.get(tile);
+        assertThat(second).isSameAs(first);
+        assertThat(queued).hasSize(1);
+
+        // Tracks changing while rendering prevent caching
+        trackTiles.onBoundsChanged(new TrackIndex.BoundsChangedEvent(0, 0, 1, 1));
+        queued.forEach(Runnable::run);
+        assertThat(first.join()).isNotEmpty();
+        assertThat(new File(datastoreBaseDirectory, DatastoreConfig.TILE_CACHE_DIRECTORY + "/12/2146/1386.mvt")).doesNotExist();
+
+        assertThat(trackTiles.get(tile)).isNotSameAs(first);
+    }
+
+    @Test
+    void shouldRejectTilesWhenTooManyAreWaiting() {
+        final TrackTiles trackTiles = new TrackTiles(trackRepository, trackIndex, datastore, command -> {
+            throw new RejectedExecutionException();
+        });
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> trackTiles.get(tile));
+
+        final TrackTiles workingTrackTiles = new TrackTiles(trackRepository, trackIndex, datastore, Runnable::run);
+        assertThat(workingTrackTiles.get(tile).join()).isNotEmpty();
+    }
+
+    @Test
+    void shouldSkipTracksWithoutGeometry() throws Exception {
+        Files.delete(track.getTrackFile(datastore, TrackPolylines.FORMAT).toPath());
+
+        final TrackTiles trackTiles = new TrackTiles(trackRepository, trackIndex, datastore, Runnable::run);
+        assertThat(trackTiles.get(tile).join()).isEmpty();
+    }
+}
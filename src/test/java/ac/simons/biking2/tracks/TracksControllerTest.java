@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2020 michael-simons.eu.
+ * Copyright 2014-2026 michael-simons.eu.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package ac.simons.biking2.tracks;
 
+import ac.simons.biking2.config.Datastore;
 import ac.simons.biking2.config.DatastoreConfig;
 import ac.simons.biking2.config.SecurityConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -25,50 +26,72 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
-import org.springframework.test.context.support.TestPropertySourceUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-import jakarta.annotation.PostConstruct;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
-import static org.assertj.core.api.Assertions.assertThatIOException;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -91,18 +114,33 @@ class TracksControllerTest {
     @MockBean
     private TrackRepository trackRepository;
 
+    @MockBean
+    private TrackStream trackStream;
+
+    @MockBean
+    private TrackTiles trackTiles;
+
+    @MockBean
+    private EmbeddableTracks embeddableTracks;
+
     @MockBean
     private TrackIdParser trackIdParser;
 
     @Autowired
     private File datastoreBaseDirectory;
 
+    @Autowired
+    private Datastore datastore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Autowired
     private Coordinate home;
 
+    @Autowired
+    private TrackIndex trackIndex;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -125,8 +163,77 @@ class TracksControllerTest {
             .perform(get("http://biking.michael-simons.eu/api/tracks"))
             .andExpect(status().isOk())
             .andExpect(content().json(objectMapper.writeValueAsString(this.defaultTestData)));
+        mockMvc
+            .perform(get("http://biking.michael-simons.eu/api/tracks").header(HttpHeaders.ACCEPT, "application/json, text/plain, */*"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        verify(this.trackRepository, times(2)).findAll(sort);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldPageThroughTracks() throws Exception {
+        final List<TrackEntity> tracks = Stream.of(35, 36).map(i -> {
+            final TrackEntity track = new TrackEntity("track " + i, LocalDate.of(2024, 5, i - 30));
+            ReflectionTestUtils.setField(track, "id", i);
+            return track;
+        }).toList();
+        when(trackRepository.findAllByOrderByCoveredOnAscIdAsc(Limit.of(2))).thenReturn(tracks);
+        when(trackRepository.findAllAfter(LocalDate.of(2024, 5, 6), 36, Limit.of(2))).thenReturn(List.of());
+
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK, "<http://biking.michael-simons.eu/api/tracks?limit=2&after=2024-05-06,10>; rel=\"next\""))
+            .andExpect(jsonPath("$[*].id", contains("z", "10")));
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("limit", "2").param("after", "2024-05-06,10"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(content().json("[]"));
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectInvalidPages() throws Exception {
+        for (var limit : List.of("0", "501", "x")) {
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("limit", limit))
+                .andExpect(status().isBadRequest());
+        }
+        for (var after : List.of("2024-05-06", "2024-13-01,1", "2024-05-06,!")) {
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("limit", "10").param("after", after))
+                .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(trackRepository);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldStreamTracks() throws Exception {
+        // The body is written on another thread, which must not commit the mocked response while the filters are still writing headers
+        final CountDownLatch requestReturned = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            assertThat(requestReturned.await(5, TimeUnit.SECONDS)).isTrue();
+            invocation.<OutputStream>getArgument(0).write("{\"name\":\"a\"}\n{\"name\":\"b\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(trackStream).writeTo(any(OutputStream.class));
+
+        final MvcResult result = mockMvc
+            .perform(get("http://biking.michael-simons.eu/api/tracks").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        requestReturned.countDown();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string("{\"name\":\"a\"}\n{\"name\":\"b\"}\n"));
+        verifyNoInteractions(trackRepository);
+    }
 
-        verify(this.trackRepository).findAll(sort);
+    @Test
+    void shouldNotStreamTracksAnonymously() throws Exception {
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isUnauthorized());
+        verifyNoInteractions(trackStream);
     }
 
     @Test
@@ -148,12 +255,14 @@ class TracksControllerTest {
         final File trackGpx = new File(tracksDir, String.format("%d.gpx", validId));
         Files.write(trackGpx.toPath(), contentGpx);
         trackGpx.deleteOnExit();
-        when(t.getTrackFile(datastoreBaseDirectory, "gpx")).thenReturn(trackGpx);
+        when(t.getTrackFile(datastore, "gpx")).thenReturn(trackGpx);
+        when(t.findTrackFile(datastore, "gpx")).thenReturn(Optional.of(trackGpx));
 
         final File trackTcx = new File(tracksDir, String.format("%d.tcx", validId));
         Files.write(trackTcx.toPath(), contentTcx);
         trackTcx.deleteOnExit();
-        when(t.getTrackFile(datastoreBaseDirectory, "tcx")).thenReturn(trackTcx);
+        when(t.getTrackFile(datastore, "tcx")).thenReturn(trackTcx);
+        when(t.findTrackFile(datastore, "tcx")).thenReturn(Optional.of(trackTcx));
 
         // Invalid formats...
         mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.html", validPrettyId))
@@ -193,6 +302,111 @@ class TracksControllerTest {
             .andExpect(content().string(contentTcx.stream().collect(Collectors.joining("\n", "", "\n"))));
     }
 
+    @Test
+    void shouldDownloadTracksConditionallyPartiallyAndCompressed() throws Exception {
+        final int validId = 23;
+        final String validPrettyId = Integer.toString(validId, 36);
+        when(trackIdParser.fromPrettyId(validPrettyId)).thenReturn(validId);
+        final TrackEntity track = newTrack(validId, "test", LocalDate.of(2026, 10, 17), "50", "6", "51", "7");
+        when(trackRepository.findById(validId)).thenReturn(Optional.of(track));
+
+        final String content = "<gpx>" + "<trkpt/>".repeat(100) + "</gpx>";
+        final File trackGpx = track.getTrackFile(this.datastore, "gpx");
+        Files.writeString(trackGpx.toPath(), content);
+
+        final MvcResult full = mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, content.length()))
+            .andExpect(content().string(content))
+            .andReturn();
+        final String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+        final String lastModified = full.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(etag).isNotNull();
+        assertThat(lastModified).isNotNull();
+
+        // Not modified
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+            .andExpect(status().isNotModified());
+
+        // Ranges, copied and through sendfile
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=5-12"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-12/" + content.length()))
+            .andExpect(content().string("<trkpt/>"));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=-6")
+                .requestAttr("org.apache.tomcat.sendfile.support", true))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 6))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.start", content.length() - 6L))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) content.length()));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=5-12")
+                .header(HttpHeaders.IF_RANGE, etag))
+            .andExpect(status().isPartialContent());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=5-12")
+                .header(HttpHeaders.IF_RANGE, lastModified))
+            .andExpect(status().isPartialContent());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=5-12")
+                .header(HttpHeaders.IF_RANGE, "\"outdated\""))
+            .andExpect(status().isOk())
+            .andExpect(content().string(content));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=0-1,3-4"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(content));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=10000-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + content.length()));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "lines=1-2"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(content));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId).header(HttpHeaders.RANGE, "bytes=12-5"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+            .andExpect(content().string(content));
+
+        // Compressed on first request, as the track is older than compressed files
+        final MvcResult compressed = mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId)
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(content().contentType("application/gpx+xml"))
+            .andReturn();
+        final File trackGpxGz = track.getTrackFile(this.datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT);
+        assertThat(trackGpxGz).isFile();
+        assertThat(trackGpxGz.length()).isLessThan(content.length() / 5);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(content);
+        }
+        assertThat(compressed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .requestAttr("org.apache.tomcat.sendfile.support", true))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", trackGpxGz.getAbsolutePath()));
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}.gpx", validPrettyId)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.RANGE, "bytes=5-12"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(content().string("<trkpt/>"));
+    }
+
+    @Test
+    void shouldDetectAcceptedGzip() {
+        assertThat(TracksController.acceptsGzip(null)).isFalse();
+        assertThat(TracksController.acceptsGzip("deflate, br")).isFalse();
+        assertThat(TracksController.acceptsGzip("deflate, GZIP")).isTrue();
+        assertThat(TracksController.acceptsGzip("gzip;q=0.5")).isTrue();
+        assertThat(TracksController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(TracksController.acceptsGzip("gzip; q=0.000, identity")).isFalse();
+    }
+
     @Test
     void testGetTrack() throws Exception {
         final int validId = 23;
@@ -230,17 +444,24 @@ class TracksControllerTest {
         TrackEntity t;
         t = mock(TrackEntity.class);
         when(t.getId()).thenReturn(validId);
-        when(t.getTrackFile(any(File.class), same("gpx"))).thenReturn(new File("fump"));
-        when(t.getTrackFile(any(File.class), same("tcx"))).thenReturn(new File("zack"));
+        when(t.getTrackFile(any(Datastore.class), same("gpx"))).thenReturn(new File("fump"));
+        when(t.getTrackFile(any(Datastore.class), same("tcx"))).thenReturn(new File("zack"));
+        when(t.getTrackFile(any(Datastore.class), same(TrackPolylines.FORMAT))).thenReturn(new File("zack.polylines"));
+        final TrackEntity trackWithoutFiles = t;
 
         when(trackRepository.findById(validId)).thenReturn(Optional.of(t));
 
         t = mock(TrackEntity.class);
         when(t.getId()).thenReturn(validExistingId);
+        when(t.getMinlat()).thenReturn(BigDecimal.ONE);
         final File gpx = File.createTempFile("pppp-", ".gpx");
-        when(t.getTrackFile(any(File.class), same("gpx"))).thenReturn(gpx);
+        when(t.getTrackFile(any(Datastore.class), same("gpx"))).thenReturn(gpx);
         final File tcx = File.createTempFile("pppp-", ".tcx");
-        when(t.getTrackFile(any(File.class), same("tcx"))).thenReturn(tcx);
+        when(t.getTrackFile(any(Datastore.class), same("tcx"))).thenReturn(tcx);
+        final File polylines = File.createTempFile("pppp-", ".polylines");
+        when(t.getTrackFile(any(Datastore.class), same(TrackPolylines.FORMAT))).thenReturn(polylines);
+        final File points = File.createTempFile("pppp-", ".points");
+        when(t.getTrackFile(any(Datastore.class), same(TrackPoints.FORMAT))).thenReturn(points);
         when(trackRepository.findById(validExistingId)).thenReturn(Optional.of(t));
         
         // invalid ids
@@ -250,15 +471,41 @@ class TracksControllerTest {
             .andExpect(status().isNotFound());
         mockMvc.perform(delete("http://biking.michael-simons.eu/api/tracks/{id}.html", validPrettyId))
             .andExpect(status().isNotFound());
+        // Missing files don't prevent the deletion
         mockMvc.perform(delete("http://biking.michael-simons.eu/api/tracks/{id}", validPrettyId))
-            .andExpect(status().isInternalServerError());
-        
+            .andExpect(status().isNoContent());
+        verify(trackRepository).delete(trackWithoutFiles);
+        verify(embeddableTracks).evict(validId);
+
         assertThat(gpx.exists()).isTrue();
         assertThat(tcx.exists()).isTrue();
         mockMvc.perform(delete("http://biking.michael-simons.eu/api/tracks/{id}", validPrettyExistingId))
             .andExpect(status().isNoContent());
         assertThat(gpx.exists()).isFalse();
         assertThat(tcx.exists()).isFalse();
+        assertThat(polylines.exists()).isFalse();
+        assertThat(points.exists()).isFalse();
+        verify(embeddableTracks).evict(validExistingId);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldNotDeleteTracksBeingIngested() throws Exception {
+        final int pendingId = 25;
+        final String pendingPrettyId = Integer.toString(pendingId, 36);
+        when(trackIdParser.fromPrettyId(pendingPrettyId)).thenReturn(pendingId);
+
+        final TrackEntity pending = mock(TrackEntity.class);
+        when(pending.getId()).thenReturn(pendingId);
+        final File tcx = File.createTempFile("pppp-", ".tcx");
+        when(pending.getTrackFile(any(Datastore.class), same("tcx"))).thenReturn(tcx);
+        when(trackRepository.findById(pendingId)).thenReturn(Optional.of(pending));
+
+        mockMvc.perform(delete("http://biking.michael-simons.eu/api/tracks/{id}", pendingPrettyId))
+            .andExpect(status().isConflict());
+        assertThat(tcx).exists();
+        verify(trackRepository, never()).delete(pending);
+        assertThat(tcx.delete()).isTrue();
     }
 
     @Test
@@ -282,7 +529,7 @@ class TracksControllerTest {
 
         // Test valid track
         MockMultipartFile trackData = new MockMultipartFile("trackData", this.getClass().getResourceAsStream("/test.tcx"));
-        mockMvc
+        final MvcResult result = mockMvc
                 .perform(
                         multipart("http://biking.michael-simons.eu/api/tracks")
                             .file(trackData)
@@ -291,10 +538,24 @@ class TracksControllerTest {
                             .param("description", "description")
                             .param("type", "biking")
                 )
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/api/tracks/jobs/")))
+                .andExpect(jsonPath("$.status", is("completed")))
+                .andExpect(jsonPath("$.track.id", is(track.getPrettyId())))
+                .andReturn();
+        mockMvc
+                .perform(get(result.getResponse().getHeader("Location")))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(track)));
-        assertThat(new File(datastoreBaseDirectory, String.format("%s/%d.%s", DatastoreConfig.TRACK_DIRECTORY, track.getId(), "tcx")).isFile()).isTrue();
-        assertThat(new File(datastoreBaseDirectory, String.format("%s/%d.%s", DatastoreConfig.TRACK_DIRECTORY, track.getId(), "gpx")).isFile()).isTrue();
+                .andExpect(content().json(result.getResponse().getContentAsString()));
+        assertThat(track.getTrackFile(datastore, "tcx").isFile()).isTrue();
+        assertThat(track.getTrackFile(datastore, "gpx").isFile()).isTrue();
+        assertThat(Files.readAllBytes(track.getTrackFile(datastore, "tcx").toPath()))
+            .isEqualTo(this.getClass().getResourceAsStream("/test.tcx").readAllBytes());
+        verify(embeddableTracks).evict(track.getId());
+        assertThat(track.getMinlat()).isEqualByComparingTo("50.162284");
+        assertThat(track.getMinlon()).isEqualByComparingTo("8.452548");
+        assertThat(track.getMaxlat()).isEqualByComparingTo("50.272238");
+        assertThat(track.getMaxlon()).isEqualByComparingTo("8.698715");
 
         trackData = new MockMultipartFile("trackData", this.getClass().getResourceAsStream("/biking_pictures.rss"));
         mockMvc
@@ -306,11 +567,13 @@ class TracksControllerTest {
                             .param("description", "description")
                             .param("type", "biking")
                 )
-                .andExpect(status().isBadRequest());
-        assertThat(new File(datastoreBaseDirectory, String.format("%s/%d.%s", DatastoreConfig.TRACK_DIRECTORY, track.getId(), "tcx")).isFile())
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is("failed")))
+                .andExpect(jsonPath("$.message", startsWith("Invalid track data")));
+        assertThat(track.getTrackFile(datastore, "tcx").isFile())
             .withFailMessage("There must not be any files leftover")
             .isFalse();
-        assertThat(new File(datastoreBaseDirectory, String.format("%s/%d.%s", DatastoreConfig.TRACK_DIRECTORY, track.getId(), "gpx")).isFile())
+        assertThat(track.getTrackFile(datastore, "gpx").isFile())
             .withFailMessage("There must not be any files leftover")
             .isFalse();
         verify(trackRepository, times(1)).delete(track);
@@ -366,46 +629,55 @@ class TracksControllerTest {
     }
 
     @Test
-    void shouldHandleIOExceptionsGracefully1() {
-        TrackEntity track = Mockito.mock(TrackEntity.class);
-        // return a directory so that the controller cannot write to it
-        when(track.getTrackFile(this.datastoreBaseDirectory, "tcx")).thenReturn(this.datastoreBaseDirectory);
-
-        final TrackRepository trackRepository = mock(TrackRepository.class);
-        final TracksController controller = new TracksController(null, trackRepository, this.datastoreBaseDirectory, null, null);
+    @WithMockUser
+    void shouldHandleIOExceptionsGracefully() throws Exception {
+        final TrackEntity track = Mockito.mock(TrackEntity.class);
+        // return a directory so that the upload cannot be stored
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(this.datastoreBaseDirectory);
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
+        when(trackRepository.save(any(TrackEntity.class))).thenReturn(track);
 
-        assertThatExceptionOfType(FileNotFoundException.class)
-                .isThrownBy(() -> controller.storeFile(track, new ByteArrayInputStream(new byte[0])));
+        mockMvc
+            .perform(
+                multipart("http://biking.michael-simons.eu/api/tracks")
+                    .file(new MockMultipartFile("trackData", this.getClass().getResourceAsStream("/test.tcx")))
+                    .param("name", "name")
+                    .param("coveredOn", "2014-01-01T21:21:21.000Z")
+            )
+            .andExpect(status().isInternalServerError());
 
-        verify(track).getTrackFile(this.datastoreBaseDirectory, "tcx");
-        verify(track).getTrackFile(this.datastoreBaseDirectory, "gpx");
-        verifyNoMoreInteractions(track);
+        verify(trackRepository).delete(track);
+        assertThat(this.datastoreBaseDirectory).isDirectory();
     }
 
     @Test
-    void shouldHandleIOExceptionsGracefully2() throws Exception {
-        TrackEntity track = Mockito.mock(TrackEntity.class);
-        when(track.getTrackFile(this.datastoreBaseDirectory, "tcx")).thenReturn(File.createTempFile("4223", ".tcx"));
-        when(track.getTrackFile(this.datastoreBaseDirectory, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
+    void shouldRejectUploadsWhenTooManyTracksAreWaiting() throws Exception {
+        final TrackEntity track = Mockito.mock(TrackEntity.class);
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(File.createTempFile("4223", ".tcx"));
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
 
         final TrackRepository trackRepository = mock(TrackRepository.class);
-        final TracksController controller = new TracksController(null, trackRepository, this.datastoreBaseDirectory, new File("/iam/not/gpsBabel").getAbsolutePath(), null);
-
-        assertThatIOException()
-                .isThrownBy(() -> controller.storeFile(track, new ByteArrayInputStream(new byte[0])))
-                .withMessageMatching("Cannot run program \"/iam/not/gpsBabel\": error=2,.+");
-
-        verify(track).getTrackFile(this.datastoreBaseDirectory, "tcx");
-        verify(track).getTrackFile(this.datastoreBaseDirectory, "gpx");
-        verifyNoMoreInteractions(track);
+        when(trackRepository.save(any(TrackEntity.class))).thenReturn(track);
+        final TrackIngestion trackIngestion = new TrackIngestion(trackRepository, mock(TrackIndex.class), this.datastore, command -> {
+            throw new RejectedExecutionException();
+        });
+        final TracksController controller = new TracksController(null, trackRepository, null, null, null, mock(EmbeddableTracks.class), this.datastore, trackIngestion, null, null);
+
+        final ResponseEntity<IngestionJob> response = controller.createTrack("name", ZonedDateTime.now(), null, TrackEntity.Type.biking,
+                new MockMultipartFile("trackData", this.getClass().getResourceAsStream("/test.tcx")));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        verify(trackRepository).delete(track);
+        assertThat(track.getTrackFile(this.datastore, "tcx")).doesNotExist();
     }
 
     @Test
     @WithMockUser
     void shouldHandleInvalidTcxFiles() throws Exception {
         final TrackEntity track = Mockito.mock(TrackEntity.class);
-        when(track.getTrackFile(this.datastoreBaseDirectory, "tcx")).thenReturn(File.createTempFile("4223", ".tcx"));
-        when(track.getTrackFile(this.datastoreBaseDirectory, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(File.createTempFile("4223", ".tcx"));
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
         when(trackRepository.save(any(TrackEntity.class))).thenReturn(track);
 
         mockMvc
@@ -417,11 +689,246 @@ class TracksControllerTest {
                     .param("description", "description")
                     .param("type", "biking")
             )
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status", is("failed")))
+            .andExpect(jsonPath("$.track").doesNotExist());
+
+        // Stored, converted and discarded
+        verify(track, times(3)).getTrackFile(this.datastore, "tcx");
+        verify(track, times(2)).getTrackFile(this.datastore, "gpx");
+        verify(track).getTrackFile(this.datastore, TrackPolylines.FORMAT);
+        verify(track).getTrackFile(this.datastore, TrackPoints.FORMAT);
+        verify(track).getTrackFile(this.datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT);
+        verify(track).getPrettyId();
+        verify(track, times(2)).getId();
+        verifyNoMoreInteractions(track);
+        verify(trackRepository).delete(track);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldImportArchives() throws Exception {
+        final TrackEntity track = Mockito.mock(TrackEntity.class);
+        when(track.getPrettyId()).thenReturn("39j");
+        when(track.getTrackFile(this.datastore, "tcx")).thenReturn(File.createTempFile("4223", ".tcx"));
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(File.createTempFile("4223", ".gpx"));
+        when(track.getTrackFile(this.datastore, TrackPolylines.FORMAT)).thenReturn(File.createTempFile("4223", ".polylines"));
+        when(track.getTrackFile(this.datastore, TrackPoints.FORMAT)).thenReturn(File.createTempFile("4223", ".points"));
+        when(track.getTrackFile(this.datastore, DerivedTrackFiles.COMPRESSED_GPX_FORMAT)).thenReturn(File.createTempFile("4223", ".gpx.gz"));
+        when(trackRepository.saveAll(anyList())).thenReturn(List.of(track));
+
+        final byte[] archive = TrackImportTest.zip(Map.of("test.tcx", this.getClass().getResourceAsStream("/test.tcx").readAllBytes())).readAllBytes();
+        mockMvc
+            .perform(
+                post("http://biking.michael-simons.eu/api/tracks/import")
+                    .contentType("application/zip")
+                    .content(archive)
+                    .param("type", "running")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported", is(1)))
+            .andExpect(jsonPath("$.failed", is(0)))
+            .andExpect(jsonPath("$.entries[0].file", is("test.tcx")))
+            .andExpect(jsonPath("$.entries[0].status", is("imported")))
+            .andExpect(jsonPath("$.entries[0].track", is("39j")));
+
+        verify(trackRepository).saveAll(argThat(tracks -> tracks.iterator().next().getType() == TrackEntity.Type.running));
+        assertThat(track.getTrackFile(this.datastore, "tcx")).hasSize(this.getClass().getResourceAsStream("/test.tcx").readAllBytes().length);
+    }
+
+    @Test
+    void shouldNotImportArchivesAnonymously() throws Exception {
+        mockMvc
+            .perform(
+                post("http://biking.michael-simons.eu/api/tracks/import")
+                    .contentType("application/zip")
+                    .content(new byte[0])
+            )
+            .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(trackRepository);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldHandleUnknownIngestionJobs() throws Exception {
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks/jobs/{id}", "unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void shouldFindTracksWithinBoundingBoxes() throws Exception {
+        final List<TrackEntity> tracks = List.of(
+            newTrack(101, "mainz", LocalDate.of(2024, 5, 1), "49.9", "8.2", "50.1", "8.4"),
+            newTrack(102, "frankfurt", LocalDate.of(2023, 5, 1), "50.0", "8.5", "50.2", "8.8"),
+            newTrack(103, "fiji", LocalDate.of(2022, 5, 1), "-17.0", "179.5", "-16.5", "179.9")
+        );
+        // Loads the index, if it hasn't been loaded on startup
+        assertThat(trackIndex.size()).isNotNegative();
+        tracks.forEach(trackIndex::add);
+        when(trackRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            final List<Integer> ids = new ArrayList<>();
+            invocation.<Iterable<Integer>>getArgument(0).forEach(ids::add);
+            return tracks.stream().filter(track -> ids.contains(track.getId())).toList();
+        });
+        try {
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", "8.0,49.5,9.0,50.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("frankfurt", "mainz")));
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", "179.0,-20,-179.0,-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("fiji")));
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", "0,0,1,1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+        } finally {
+            tracks.forEach(track -> trackIndex.remove(track.getId()));
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectInvalidBoundingBoxes() throws Exception {
+        for (var bbox : List.of("1,2,3", "a,b,c,d", "0,0,181,1", "0,1,1,0", "0,-91,1,1")) {
+            mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", bbox))
+                .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(trackRepository);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectPagesWithinBoundingBoxes() throws Exception {
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", "8.0,49.5,9.0,50.5").param("limit", "2"))
             .andExpect(status().isBadRequest());
+        verify(trackRepository, never()).findAllById(anyIterable());
+        verify(trackRepository, never()).findAllByOrderByCoveredOnAscIdAsc(any(Limit.class));
+    }
 
-        verify(track, times(2)).getTrackFile(this.datastoreBaseDirectory, "tcx");
-        verify(track, times(2)).getTrackFile(this.datastoreBaseDirectory, "gpx");
-        verifyNoMoreInteractions(track);
+    @Test
+    void shouldNotFindTracksAnonymously() throws Exception {
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks").param("bbox", "8.0,49.5,9.0,50.5"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private static TrackEntity newTrack(final int id, final String name, final LocalDate coveredOn, final String minlat, final String minlon, final String maxlat, final String maxlon) {
+        final TrackEntity track = new TrackEntity(name, coveredOn);
+        ReflectionTestUtils.setField(track, "id", id);
+        track.setMinlat(new BigDecimal(minlat));
+        track.setMinlon(new BigDecimal(minlon));
+        track.setMaxlat(new BigDecimal(maxlat));
+        track.setMaxlon(new BigDecimal(maxlon));
+        return track;
+    }
+
+    @Test
+    void shouldServeSimplifiedTracks() throws Exception {
+        final int validId = 42;
+        final String validPrettyId = Integer.toString(validId, 36);
+        when(trackIdParser.fromPrettyId(validPrettyId)).thenReturn(validId);
+        when(trackIdParser.fromPrettyId("X")).thenReturn(null);
+
+        final TrackEntity track = mock(TrackEntity.class);
+        when(track.getMinlat()).thenReturn(new BigDecimal("50.162284"));
+        when(track.getMinlon()).thenReturn(new BigDecimal("8.452548"));
+        when(track.getMaxlat()).thenReturn(new BigDecimal("50.272238"));
+        when(track.getMaxlon()).thenReturn(new BigDecimal("8.698715"));
+        final File gpx = File.createTempFile("4242", ".gpx");
+        gpx.deleteOnExit();
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), gpx.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final File polylines = new File(gpx.getParentFile(), gpx.getName() + ".polylines");
+        polylines.deleteOnExit();
+        when(track.getTrackFile(this.datastore, "gpx")).thenReturn(gpx);
+        when(track.findTrackFile(this.datastore, "gpx")).thenReturn(Optional.of(gpx));
+        when(track.getTrackFile(this.datastore, TrackPolylines.FORMAT)).thenReturn(polylines);
+        when(track.findTrackFile(this.datastore, TrackPolylines.FORMAT)).thenAnswer(invocation -> Optional.of(polylines).filter(File::isFile));
+        when(trackRepository.findById(validId)).thenReturn(Optional.of(track));
+
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/polyline", validPrettyId).param("width", "100").param("height", "100"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"))
+            .andExpect(jsonPath("$.tolerance", is(0.00064)))
+            .andExpect(jsonPath("$.segments.length()", is(1)));
+        assertThat(polylines).isFile();
+
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/polyline", "X"))
+            .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/polyline", "1"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldServeThumbnails() throws Exception {
+        final int validId = 4242;
+        final String validPrettyId = Integer.toString(validId, 36);
+        when(trackIdParser.fromPrettyId(validPrettyId)).thenReturn(validId);
+        when(trackIdParser.fromPrettyId("X")).thenReturn(null);
+
+        final TrackEntity track = newTrack(validId, "test", LocalDate.of(2009, 4, 19), "50.162284", "8.452548", "50.272238", "8.698715");
+        Files.copy(this.getClass().getResourceAsStream("/test.gpx"), track.getTrackFile(this.datastore, "gpx").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        when(trackRepository.findById(validId)).thenReturn(Optional.of(track));
+        final TrackEntity pending = new TrackEntity("pending", LocalDate.of(2009, 4, 19));
+        ReflectionTestUtils.setField(pending, "id", 4243);
+        when(trackIdParser.fromPrettyId("3ar")).thenReturn(4243);
+        when(trackRepository.findById(4243)).thenReturn(Optional.of(pending));
+
+        final MvcResult result = mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", validPrettyId).param("width", "120").param("height", "80"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"))
+            .andReturn();
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertThat(image.getWidth()).isEqualTo(128);
+        assertThat(image.getHeight()).isEqualTo(128);
+        assertThat(new File(this.datastoreBaseDirectory, DatastoreConfig.THUMBNAIL_CACHE_DIRECTORY + "/4242/128x128.png")).isFile();
+
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", validPrettyId))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG));
+        assertThat(new File(this.datastoreBaseDirectory, DatastoreConfig.THUMBNAIL_CACHE_DIRECTORY + "/4242/256x256.png")).isFile();
+
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", validPrettyId).param("width", "1025"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", "X"))
+            .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", "1"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("http://biking.michael-simons.eu/tracks/{id}/thumbnail.png", "3ar"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void shouldServeTiles() throws Exception {
+        final byte[] content = {0x1a, 0x00};
+        when(trackTiles.get(new TrackTiles.Tile(12, 2146, 1386))).thenReturn(CompletableFuture.completedFuture(content));
+        when(trackTiles.get(new TrackTiles.Tile(12, 2146, 1387))).thenThrow(new RejectedExecutionException());
+
+        final MvcResult result = mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks/tiles/{z}/{x}/{y}.mvt", 12, 2146, 1386))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(TrackTiles.MEDIA_TYPE))
+            .andExpect(content().bytes(content));
+
+        final MvcResult rejected = mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks/tiles/{z}/{x}/{y}.mvt", 12, 2146, 1387)).andReturn();
+        mockMvc.perform(asyncDispatch(rejected))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+
+        final MvcResult invalid = mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks/tiles/{z}/{x}/{y}.mvt", 1, 2, 0)).andReturn();
+        mockMvc.perform(asyncDispatch(invalid))
+            .andExpect(status().isNotFound());
+        verify(trackTiles, times(2)).get(any(TrackTiles.Tile.class));
+    }
+
+    @Test
+    void shouldNotServeTilesAnonymously() throws Exception {
+        mockMvc.perform(get("http://biking.michael-simons.eu/api/tracks/tiles/{z}/{x}/{y}.mvt", 0, 0, 0))
+            .andExpect(status().isUnauthorized());
+        verifyNoInteractions(trackTiles);
     }
 
     @Test
@@ -433,43 +940,40 @@ class TracksControllerTest {
     }
 
     @TestConfiguration
-    static class TracksControllerTestConfig implements EnvironmentAware {
-
-        private ConfigurableEnvironment environment;
+    static class TracksControllerTestConfig {
 
         @Bean
         public File datastoreBaseDirectory() {
             final File datastoreBaseDirectory  = new File(System.getProperty("java.io.tmpdir"), Long.toString(System.currentTimeMillis()));
             datastoreBaseDirectory.deleteOnExit();
-            new File(datastoreBaseDirectory, DatastoreConfig.TRACK_DIRECTORY).mkdirs();
+            new Datastore(datastoreBaseDirectory).createDirectories(Datastore.Area.TRACKS);
             return datastoreBaseDirectory;
         }
 
         @Bean
-        public Coordinate home() {
-            return new Coordinate(new BigDecimal("-122.41942"), new BigDecimal("37.77493"));
+        public Datastore datastore(final File datastoreBaseDirectory) {
+            return new Datastore(datastoreBaseDirectory);
         }
 
+        @Bean
+        public TrackIndex trackIndex(final TrackRepository trackRepository, final ApplicationEventPublisher eventPublisher) {
+            return new TrackIndex(trackRepository, eventPublisher);
+        }
 
-        @Override
-        public void setEnvironment(Environment environment) {
-            this.environment = (ConfigurableEnvironment)environment;
+        @Bean
+        public TrackIngestion trackIngestion(final TrackRepository trackRepository, final TrackIndex trackIndex, final Datastore datastore) {
+            // Ingest synchronously
+            return new TrackIngestion(trackRepository, trackIndex, datastore, Runnable::run);
         }
 
-        @PostConstruct
-        void configureGPSBabel() {
-            File tmp = null;
-            for(String possibleExe : new String[]{"/usr/bin/gpsbabel", "/usr/local/bin/gpsbabel", "/opt/local/bin/gpsbabel"}) {
-                tmp = new File(possibleExe);
-                if(tmp.canExecute()) {
-                    break;
-                }
-                tmp = null;
-            }
-            if(tmp == null) {
-                throw new IllegalStateException("No gpsbabel found, cannot execute test!");
-            }
-            TestPropertySourceUtils.addInlinedPropertiesToEnvironment(environment, "biking2.gpsBabel = " + tmp.getAbsolutePath());
+        @Bean
+        public TrackImport trackImport(final TrackRepository trackRepository, final TrackIndex trackIndex, final Datastore datastore) {
+            return new TrackImport(trackRepository, trackIndex, datastore, Runnable::run, 10, 5 * 1024 * 1024);
+        }
+
+        @Bean
+        public Coordinate home() {
+            return new Coordinate(new BigDecimal("-122.41942"), new BigDecimal("37.77493"));
         }
     }
 }
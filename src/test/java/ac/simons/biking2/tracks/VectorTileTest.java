@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class VectorTileTest {
+
+    @Test
+    void emptyTilesShouldBeEmpty() {
+        final VectorTile tile = new VectorTile("tracks");
+        tile.addLines(1, Map.of(), List.of(new int[] {1, 2}, new int[0]));
+        assertThat(tile.isEmpty()).isTrue();
+        assertThat(tile.toByteArray()).isEmpty();
+    }
+
+    @Test
+    void shouldEncodeLayersAndFeatures() {
+        final VectorTile tile = new VectorTile("tracks");
+        tile.addLines(300, Map.of("type", "biking"), List.of(new int[] {2, 2, 2, 10, 10, 10}, new int[] {5, 5, 3, 3}));
+        tile.addLines(7, Map.of("type", "biking"), List.of(new int[] {-1, -1, 1, 1}));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(tile.toByteArray());
+        assertThat(readVarint(buffer)).isEqualTo(3 << 3 | 2);
+        final ByteBuffer layer = readBytes(buffer);
+        assertThat(buffer.hasRemaining()).isFalse();
+
+        final List<String> strings = new ArrayList<>();
+        final List<ByteBuffer> features = new ArrayList<>();
+        long version = 0;
+        long extent = 0;
+        while (layer.hasRemaining()) {
+            final long tag = readVarint(layer);
+            switch ((int) (tag >> 3)) {
+                case 15 -> version = readVarint(layer);
+                case 5 -> extent = readVarint(layer);
+                case 2 -> features.add(readBytes(layer));
+                case 4 -> {
+                    final ByteBuffer value = readBytes(layer);
+                    assertThat(readVarint(value)).isEqualTo(1 << 3 | 2);
+                    strings.add(string(readBytes(value)));
+                }
+                default -> strings.add(string(readBytes(layer)));
+            }
+        }
+        assertThat(version).isEqualTo(2);
+        assertThat(extent).isEqualTo(VectorTile.EXTENT);
+        // Layer name, key and the single value shared by both features
+        assertThat(strings).containsExactly("tracks", "type", "biking");
+        assertThat(features).hasSize(2);
+
+        final ByteBuffer feature = features.get(0);
+        assertThat(readVarint(feature)).isEqualTo(1 << 3);
+        assertThat(readVarint(feature)).isEqualTo(300);
+        assertThat(readVarint(feature)).isEqualTo(2 << 3 | 2);
+        assertThat(packed(readBytes(feature))).containsExactly(0L, 0L);
+        assertThat(readVarint(feature)).isEqualTo(3 << 3);
+        assertThat(readVarint(feature)).isEqualTo(2);
+        assertThat(readVarint(feature)).isEqualTo(4 << 3 | 2);
+        // MoveTo(2, 2) LineTo(+0, +8) (+8, +0), MoveTo relative to (10, 10): (-5, -5), LineTo (-2, -2)
+        assertThat(packed(readBytes(feature))).containsExactly(
+                9L, 4L, 4L, 18L, 0L, 16L, 16L, 0L,
+                9L, 9L, 9L, 10L, 3L, 3L
+        );
+    }
+
+    private static long readVarint(final ByteBuffer buffer) {
+        long rv = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            rv |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return rv;
+    }
+
+    private static ByteBuffer readBytes(final ByteBuffer buffer) {
+        final int length = (int) readVarint(buffer);
+        final ByteBuffer rv = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return rv;
+    }
+
+    private static List<Long> packed(final ByteBuffer buffer) {
+        final List<Long> rv = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            rv.add(readVarint(buffer));
+        }
+        return rv;
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks.gpx;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class BoundsReaderTest {
+
+    private final BoundsReader boundsReader = new BoundsReader();
+
+    @Test
+    void shouldReadBoundsElement() throws Exception {
+        final Optional<Bounds> bounds;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            bounds = boundsReader.read(gpx);
+        }
+
+        assertThat(bounds).hasValueSatisfying(value -> {
+            assertThat(value.getMinlat()).isEqualByComparingTo("50.162284");
+            assertThat(value.getMinlon()).isEqualByComparingTo("8.452548");
+            assertThat(value.getMaxlat()).isEqualByComparingTo("50.272238");
+            assertThat(value.getMaxlon()).isEqualByComparingTo("8.698715");
+        });
+    }
+
+    @Test
+    void shouldStopAtBoundsElement() throws Exception {
+        final byte[] head;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            head = gpx.readNBytes(2048);
+        }
+
+        // Would fail with an unexpected end of file if the reader didn't stop
+        assertThat(boundsReader.read(new ByteArrayInputStream(head))).isPresent();
+    }
+
+    @Test
+    void shouldReadMetadataBoundsOfGpx11() throws Exception {
+        final String gpx = """
+                <gpx xmlns="http://www.topografix.com/GPX/1/1" version="1.1" creator="test">
+                  <metadata><bounds minlat="1" minlon="2" maxlat="3" maxlon="4"/></metadata>
+                  <trk><trkseg><trkpt lat="10" lon="20"/></trkseg></trk>
+                </gpx>
+                """;
+
+        assertThat(read(gpx)).hasValueSatisfying(value -> {
+            assertThat(value.getMinlat()).isEqualByComparingTo("1");
+            assertThat(value.getMinlon()).isEqualByComparingTo("2");
+            assertThat(value.getMaxlat()).isEqualByComparingTo("3");
+            assertThat(value.getMaxlon()).isEqualByComparingTo("4");
+        });
+    }
+
+    @Test
+    void shouldComputeBoundsWithoutBoundsElement() throws Exception {
+        final String gpx = """
+                <gpx xmlns="http://www.topografix.com/GPX/1/0" version="1.0">
+                  <wpt lat="50.5" lon="8.1"/>
+                  <rte><rtept lat="49.9" lon="8.2"/></rte>
+                  <trk><trkseg><trkpt lat="50.1" lon="7.9"><ele>100</ele></trkpt><trkpt lat="50.2" lon="8.7"/></trkseg></trk>
+                </gpx>
+                """;
+
+        assertThat(read(gpx)).hasValueSatisfying(value -> {
+            assertThat(value.getMinlat()).isEqualByComparingTo("49.9");
+            assertThat(value.getMinlon()).isEqualByComparingTo("7.9");
+            assertThat(value.getMaxlat()).isEqualByComparingTo("50.5");
+            assertThat(value.getMaxlon()).isEqualByComparingTo("8.7");
+        });
+    }
+
+    @Test
+    void shouldHandleEmptyFiles() throws Exception {
+        assertThat(read("<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" version=\"1.1\"><trk/></gpx>")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectInvalidFiles() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> read("<rss version=\"2.0\"/>"))
+                .withMessageStartingWith("Not a GPX file");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> read("<gpx xmlns=\"http://www.topografix.com/GPX/1/0\"><wpt lat=\"x\" lon=\"1\"/></gpx>"))
+                .withMessage("Invalid coordinate: x");
+    }
+
+    private Optional<Bounds> read(final String gpx) throws XMLStreamException {
+        return boundsReader.read(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ac.simons.biking2.tracks.gpx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author Michael J. Simons
+ * @since 2026-10-17
+ */
+class TrackSegmentsReaderTest {
+
+    private final TrackSegmentsReader trackSegmentsReader = new TrackSegmentsReader();
+
+    @Test
+    void shouldReadAllTrackpoints() throws Exception {
+        final List<TrackSegment> segments;
+        try (InputStream gpx = this.getClass().getResourceAsStream("/test.gpx")) {
+            segments = trackSegmentsReader.read(gpx);
+        }
+
+        assertThat(segments).hasSize(1);
+        final TrackSegment segment = segments.get(0);
+        assertThat(segment.size()).isEqualTo(1668);
+        assertThat(segment.latitudes()[0]).isEqualTo(50.166204);
+        assertThat(segment.longitudes()[0]).isEqualTo(8.682889);
+        assertThat(segment.elevations()[0]).isEqualTo(131.691);
+        assertThat(segment.times()[0]).isEqualTo(Instant.parse("2009-04-19T08:32:39Z").toEpochMilli());
+        assertThat(segment.times()[1] - segment.times()[0]).isEqualTo(4000);
+    }
+
+    @Test
+    void shouldReadSegmentsAndRoutesButNoWaypoints() throws Exception {
+        final String gpx = """
+                <gpx xmlns="http://www.topografix.com/GPX/1/1" version="1.1" creator="test">
+                  <wpt lat="1" lon="1"/>
+                  <rte><rtept lat="2" lon="3"/><rtept lat="4" lon="5"/></rte>
+                  <trk>
+                    <trkseg><trkpt lat="6" lon="7"><ele>1</ele><extensions><time>x</time></extensions><time>2026-10-17T10:00:00</time></trkpt></trkseg>
+                    <trkseg/>
+                    <trkseg><trkpt lat="8" lon="9"/><trkpt lat="10" lon="11"/></trkseg>
+                  </trk>
+                </gpx>
+                """;
+
+        final List<TrackSegment> segments = trackSegmentsReader.read(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)));
+        assertThat(segments).hasSize(3);
+        assertThat(segments.get(0).latitudes()).containsExactly(2, 4);
+        assertThat(segments.get(0).longitudes()).containsExactly(3, 5);
+        assertThat(segments.get(1).latitudes()).containsExactly(6);
+        assertThat(segments.get(1).elevations()).containsExactly(1);
+        assertThat(segments.get(1).times()).containsExactly(Instant.parse("2026-10-17T10:00:00Z").toEpochMilli());
+        assertThat(segments.get(2).elevations()).containsOnly(Double.NaN);
+        assertThat(segments.get(2).times()).containsOnly(TrackSegment.NO_TIME);
+        assertThat(segments.get(2).longitudes()).containsExactly(9, 11);
+    }
+
+    @Test
+    void shouldRejectOtherFiles() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> trackSegmentsReader.read(new ByteArrayInputStream("<foo/>".getBytes(StandardCharsets.UTF_8))))
+                .withMessageStartingWith("Not a GPX file");
+        final String gpx = """
+                <gpx xmlns="http://www.topografix.com/GPX/1/0"><trk><trkseg><trkpt lat="x" lon="1"/></trkseg></trk></gpx>
+                """;
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> trackSegmentsReader.read(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8))))
+                .withMessage("Invalid coordinate: x");
+    }
+}